@@ -43,6 +43,39 @@ public class AudioProperties {
     /** Commande ALSA exécutée avant l'ouverture du micro (ex: "amixer -c 0 cset numid=185 45,45"). Vide = rien. */
     private String alsaInitCommand = "";
 
+    /** Ignore les trames de silence prolongé avant Porcupine (réduit la charge CPU au repos). */
+    private boolean wakeWordGateEnabled = true;
+
+    /** Écart au plancher de bruit (dB) à partir duquel une trame réveille le détecteur de mot de réveil. */
+    private double wakeWordGateMarginDb = 6.0;
+
+    /** Durée en ms pendant laquelle le détecteur reste actif après la dernière trame au-dessus du seuil. */
+    private int wakeWordGateHoldMs = 1500;
+
+    /** Audio en ms rejoué au détecteur à l'ouverture, pour ne pas perdre le début du mot de réveil. */
+    private int wakeWordGatePreRollMs = 400;
+
+    /** Annule l'écho de la voix TTS dans la capture : mot de réveil et VAD restent actifs pendant que l'assistant parle. */
+    private boolean echoCancellationEnabled = true;
+
+    /** Durée d'écho modélisée par le filtre adaptatif en ms (latence de sortie comprise). */
+    private int echoTailMs = 100;
+
+    /** Retard fixe en ms entre l'écriture de l'audio TTS et sa lecture, pour les sorties à fort tampon. */
+    private int echoDelayMs = 0;
+
+    /** Parole continue en ms requise pendant la lecture TTS pour interrompre l'assistant (barge-in). */
+    private int bargeInMinSpeechMs = 400;
+
+    /** Fichier WAV ou répertoire de WAV rejoués à la place du microphone (mesures de latence). Vide = microphone. */
+    private String replayPath = "";
+
+    /** Vitesse de rejeu par rapport au temps réel. 0 = sans attente. */
+    private double replaySpeed = 1.0;
+
+    /** Silence en ms avant chaque session rejouée et après la dernière, le temps que l'assistant réponde. */
+    private int replayGapMs = 8000;
+
     public int getInputDeviceIndex() {
         return inputDeviceIndex;
     }
@@ -122,4 +155,92 @@ public class AudioProperties {
     public void setAlsaInitCommand(String alsaInitCommand) {
         this.alsaInitCommand = alsaInitCommand;
     }
+
+    public boolean isWakeWordGateEnabled() {
+        return wakeWordGateEnabled;
+    }
+
+    public void setWakeWordGateEnabled(boolean wakeWordGateEnabled) {
+        this.wakeWordGateEnabled = wakeWordGateEnabled;
+    }
+
+    public double getWakeWordGateMarginDb() {
+        return wakeWordGateMarginDb;
+    }
+
+    public void setWakeWordGateMarginDb(double wakeWordGateMarginDb) {
+        this.wakeWordGateMarginDb = wakeWordGateMarginDb;
+    }
+
+    public int getWakeWordGateHoldMs() {
+        return wakeWordGateHoldMs;
+    }
+
+    public void setWakeWordGateHoldMs(int wakeWordGateHoldMs) {
+        this.wakeWordGateHoldMs = wakeWordGateHoldMs;
+    }
+
+    public int getWakeWordGatePreRollMs() {
+        return wakeWordGatePreRollMs;
+    }
+
+    public void setWakeWordGatePreRollMs(int wakeWordGatePreRollMs) {
+        this.wakeWordGatePreRollMs = wakeWordGatePreRollMs;
+    }
+
+    public boolean isEchoCancellationEnabled() {
+        return echoCancellationEnabled;
+    }
+
+    public void setEchoCancellationEnabled(boolean echoCancellationEnabled) {
+        this.echoCancellationEnabled = echoCancellationEnabled;
+    }
+
+    public int getEchoTailMs() {
+        return echoTailMs;
+    }
+
+    public void setEchoTailMs(int echoTailMs) {
+        this.echoTailMs = echoTailMs;
+    }
+
+    public int getEchoDelayMs() {
+        return echoDelayMs;
+    }
+
+    public void setEchoDelayMs(int echoDelayMs) {
+        this.echoDelayMs = echoDelayMs;
+    }
+
+    public int getBargeInMinSpeechMs() {
+        return bargeInMinSpeechMs;
+    }
+
+    public void setBargeInMinSpeechMs(int bargeInMinSpeechMs) {
+        this.bargeInMinSpeechMs = bargeInMinSpeechMs;
+    }
+
+    public String getReplayPath() {
+        return replayPath;
+    }
+
+    public void setReplayPath(String replayPath) {
+        this.replayPath = replayPath;
+    }
+
+    public double getReplaySpeed() {
+        return replaySpeed;
+    }
+
+    public void setReplaySpeed(double replaySpeed) {
+        this.replaySpeed = replaySpeed;
+    }
+
+    public int getReplayGapMs() {
+        return replayGapMs;
+    }
+
+    public void setReplayGapMs(int replayGapMs) {
+        this.replayGapMs = replayGapMs;
+    }
 }
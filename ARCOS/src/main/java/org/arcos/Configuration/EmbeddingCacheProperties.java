@@ -0,0 +1,44 @@
+package org.arcos.Configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Propriétés du cache d'embeddings placé devant le modèle d'embedding distant.
+ *
+ * Préfixe : arcos.embedding-cache
+ */
+@Component
+@ConfigurationProperties(prefix = "arcos.embedding-cache")
+public class EmbeddingCacheProperties {
+
+    /** Active le cache (mémoire + disque) devant chaque EmbeddingModel. */
+    private boolean enabled = true;
+
+    /** Identifiant du modèle, inclus dans la clé : changer de modèle invalide naturellement le cache. */
+    private String modelId = "mistral-embed";
+
+    /** Nombre maximal de vecteurs gardés en mémoire (LRU). */
+    private int memoryMaxEntries = 2_000;
+
+    /** Nombre maximal de vecteurs sur disque (fichier circulaire, les plus anciens sont écrasés). 0 = pas de disque. */
+    private int diskMaxEntries = 20_000;
+
+    /** Répertoire des fichiers de vecteurs (un fichier par bean EmbeddingModel). */
+    private String dir = "data/embedding-cache";
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getModelId() { return modelId; }
+    public void setModelId(String modelId) { this.modelId = modelId; }
+
+    public int getMemoryMaxEntries() { return memoryMaxEntries; }
+    public void setMemoryMaxEntries(int memoryMaxEntries) { this.memoryMaxEntries = memoryMaxEntries; }
+
+    public int getDiskMaxEntries() { return diskMaxEntries; }
+    public void setDiskMaxEntries(int diskMaxEntries) { this.diskMaxEntries = diskMaxEntries; }
+
+    public String getDir() { return dir; }
+    public void setDir(String dir) { this.dir = dir; }
+}
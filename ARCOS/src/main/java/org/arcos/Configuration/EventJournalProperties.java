@@ -0,0 +1,51 @@
+package org.arcos.Configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Propriétés du journal des événements durables (actions planifiées, initiatives, rappels d'agenda),
+ * rejoués au démarrage s'ils n'ont pas été traités.
+ *
+ * Préfixe : arcos.event-journal
+ */
+@Component
+@ConfigurationProperties(prefix = "arcos.event-journal")
+public class EventJournalProperties {
+
+    /** Active le journal. Désactivé, la file d'événements reste purement en mémoire. */
+    private boolean enabled = false;
+
+    /** Répertoire des segments du journal. */
+    private String dir = "data/event-journal";
+
+    /** Taille au-delà de laquelle le segment courant est clos et un nouveau ouvert. */
+    private long segmentMaxBytes = 4L * 1024 * 1024;
+
+    /** Intervalle entre deux fsync groupés. 0 = fsync à chaque écriture. */
+    private long fsyncIntervalMs = 200;
+
+    /** Nombre de segments clos au-delà duquel les événements encore en attente sont recopiés et les segments supprimés. */
+    private int compactAfterSegments = 4;
+
+    /** Âge au-delà duquel un rappel d'agenda ou une initiative n'est plus rejoué au démarrage. */
+    private long replayMaxAgeMinutes = 30;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getDir() { return dir; }
+    public void setDir(String dir) { this.dir = dir; }
+
+    public long getSegmentMaxBytes() { return segmentMaxBytes; }
+    public void setSegmentMaxBytes(long segmentMaxBytes) { this.segmentMaxBytes = segmentMaxBytes; }
+
+    public long getFsyncIntervalMs() { return fsyncIntervalMs; }
+    public void setFsyncIntervalMs(long fsyncIntervalMs) { this.fsyncIntervalMs = fsyncIntervalMs; }
+
+    public int getCompactAfterSegments() { return compactAfterSegments; }
+    public void setCompactAfterSegments(int compactAfterSegments) { this.compactAfterSegments = compactAfterSegments; }
+
+    public long getReplayMaxAgeMinutes() { return replayMaxAgeMinutes; }
+    public void setReplayMaxAgeMinutes(long replayMaxAgeMinutes) { this.replayMaxAgeMinutes = replayMaxAgeMinutes; }
+}
@@ -4,6 +4,9 @@ import org.arcos.IO.InputHandling.STT.SttBackendType;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Propriétés de configuration speech-to-text externalisées depuis application.properties.
  *
@@ -16,6 +19,15 @@ public class SpeechToTextProperties {
     /** Backend STT actif. */
     private SttBackendType backend = SttBackendType.FASTER_WHISPER;
 
+    /** Backends par ordre de préférence, avec requêtes doublées ; remplace {@code backend} s'il en compte plusieurs. */
+    private List<SttBackendType> backends = new ArrayList<>();
+
+    /** Délai minimal avant de doubler une requête lente sur le backend suivant (ms), quel que soit son p95. */
+    private long hedgeMinDelayMs = 300;
+
+    /** Taux d'erreur récent au-delà duquel un backend est relégué derrière les autres. */
+    private double hedgeMaxErrorRate = 0.5;
+
     /** URL de base du service faster-whisper (API compatible OpenAI). */
     private String fasterWhisperUrl = "http://localhost:8000";
 
@@ -25,12 +37,39 @@ public class SpeechToTextProperties {
     /** Nom du modèle pour faster-whisper. */
     private String fasterWhisperModel = "deepdml/faster-whisper-large-v3-turbo-ct2";
 
+    /** Répertoire des modèles Whisper exportés en ONNX (backend WHISPER_ONNX). */
+    private String whisperOnnxModelDir = "models/whisper-onnx";
+
+    /** Taille du modèle Whisper ONNX : sous-répertoire de whisperOnnxModelDir (tiny, base, small...). */
+    private String whisperOnnxModel = "base";
+
+    /** Threads d'inférence onnxruntime pour Whisper. */
+    private int whisperOnnxThreads = 4;
+
     /** Code langue ISO 639-1. */
     private String language = "fr";
 
+    /** Transcrit l'énoncé par fenêtres pendant la capture ; seule la queue reste à transcrire en fin de parole. */
+    private boolean streamingEnabled = true;
+
+    /** Durée d'audio nouveau qui déclenche l'envoi d'une fenêtre (ms). */
+    private int streamingWindowMs = 4000;
+
+    /** Audio déjà envoyé rejoué en tête de chaque fenêtre pour recoller les mots coupés (ms). */
+    private int streamingOverlapMs = 800;
+
     public SttBackendType getBackend() { return backend; }
     public void setBackend(SttBackendType backend) { this.backend = backend; }
 
+    public List<SttBackendType> getBackends() { return backends; }
+    public void setBackends(List<SttBackendType> backends) { this.backends = backends; }
+
+    public long getHedgeMinDelayMs() { return hedgeMinDelayMs; }
+    public void setHedgeMinDelayMs(long hedgeMinDelayMs) { this.hedgeMinDelayMs = hedgeMinDelayMs; }
+
+    public double getHedgeMaxErrorRate() { return hedgeMaxErrorRate; }
+    public void setHedgeMaxErrorRate(double hedgeMaxErrorRate) { this.hedgeMaxErrorRate = hedgeMaxErrorRate; }
+
     public String getFasterWhisperUrl() { return fasterWhisperUrl; }
     public void setFasterWhisperUrl(String fasterWhisperUrl) { this.fasterWhisperUrl = fasterWhisperUrl; }
 
@@ -40,6 +79,24 @@ public class SpeechToTextProperties {
     public String getFasterWhisperModel() { return fasterWhisperModel; }
     public void setFasterWhisperModel(String fasterWhisperModel) { this.fasterWhisperModel = fasterWhisperModel; }
 
+    public String getWhisperOnnxModelDir() { return whisperOnnxModelDir; }
+    public void setWhisperOnnxModelDir(String whisperOnnxModelDir) { this.whisperOnnxModelDir = whisperOnnxModelDir; }
+
+    public String getWhisperOnnxModel() { return whisperOnnxModel; }
+    public void setWhisperOnnxModel(String whisperOnnxModel) { this.whisperOnnxModel = whisperOnnxModel; }
+
+    public int getWhisperOnnxThreads() { return whisperOnnxThreads; }
+    public void setWhisperOnnxThreads(int whisperOnnxThreads) { this.whisperOnnxThreads = whisperOnnxThreads; }
+
     public String getLanguage() { return language; }
     public void setLanguage(String language) { this.language = language; }
+
+    public boolean isStreamingEnabled() { return streamingEnabled; }
+    public void setStreamingEnabled(boolean streamingEnabled) { this.streamingEnabled = streamingEnabled; }
+
+    public int getStreamingWindowMs() { return streamingWindowMs; }
+    public void setStreamingWindowMs(int streamingWindowMs) { this.streamingWindowMs = streamingWindowMs; }
+
+    public int getStreamingOverlapMs() { return streamingOverlapMs; }
+    public void setStreamingOverlapMs(int streamingOverlapMs) { this.streamingOverlapMs = streamingOverlapMs; }
 }
@@ -0,0 +1,77 @@
+package org.arcos.Configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Propriétés de la synthèse vocale (Piper) externalisées depuis application.properties.
+ *
+ * Préfixe : arcos.tts
+ */
+@Component
+@ConfigurationProperties(prefix = "arcos.tts")
+public class TtsProperties {
+
+    /** Nombre de processus Piper synthétisant en parallèle les phrases à venir. 0 = automatique selon les cœurs CPU. */
+    private int synthesisWorkers = 0;
+
+    /** Active le cache de l'audio synthétisé (mémoire + disque). */
+    private boolean cacheEnabled = true;
+
+    /** Taille maximale du cache mémoire (LRU) en octets de PCM. */
+    private long cacheMemoryMaxBytes = 32L * 1024 * 1024;
+
+    /** Taille maximale du cache disque en octets. 0 = cache disque désactivé. */
+    private long cacheDiskMaxBytes = 256L * 1024 * 1024;
+
+    /** Répertoire du cache disque. Vide = ~/.piper-tts/cache. */
+    private String cacheDir = "";
+
+    /** Longueur maximale (caractères) d'un texte mis en cache : les longues réponses LLM ne se répètent pas. */
+    private int cacheMaxTextLength = 200;
+
+    /** Longueur minimale de la première proposition d'une réponse envoyée en synthèse dès une virgule. 0 = désactivé. */
+    private int firstClauseMinChars = 20;
+
+    /** Longueur à partir de laquelle la première phrase est coupée au dernier espace faute de ponctuation. 0 = désactivé. */
+    private int firstClauseMaxChars = 90;
+
+    /** Fichier WAV recevant la voix au rythme de la lecture, à la place de la sortie audio. Vide = sortie audio. */
+    private String outputFile = "";
+
+    /** Phrases pré-synthétisées au démarrage (prosodie par défaut). */
+    private List<String> warmupPhrases = new ArrayList<>();
+
+    public int getSynthesisWorkers() { return synthesisWorkers; }
+    public void setSynthesisWorkers(int synthesisWorkers) { this.synthesisWorkers = synthesisWorkers; }
+
+    public boolean isCacheEnabled() { return cacheEnabled; }
+    public void setCacheEnabled(boolean cacheEnabled) { this.cacheEnabled = cacheEnabled; }
+
+    public long getCacheMemoryMaxBytes() { return cacheMemoryMaxBytes; }
+    public void setCacheMemoryMaxBytes(long cacheMemoryMaxBytes) { this.cacheMemoryMaxBytes = cacheMemoryMaxBytes; }
+
+    public long getCacheDiskMaxBytes() { return cacheDiskMaxBytes; }
+    public void setCacheDiskMaxBytes(long cacheDiskMaxBytes) { this.cacheDiskMaxBytes = cacheDiskMaxBytes; }
+
+    public String getCacheDir() { return cacheDir; }
+    public void setCacheDir(String cacheDir) { this.cacheDir = cacheDir; }
+
+    public int getCacheMaxTextLength() { return cacheMaxTextLength; }
+    public void setCacheMaxTextLength(int cacheMaxTextLength) { this.cacheMaxTextLength = cacheMaxTextLength; }
+
+    public int getFirstClauseMinChars() { return firstClauseMinChars; }
+    public void setFirstClauseMinChars(int firstClauseMinChars) { this.firstClauseMinChars = firstClauseMinChars; }
+
+    public int getFirstClauseMaxChars() { return firstClauseMaxChars; }
+    public void setFirstClauseMaxChars(int firstClauseMaxChars) { this.firstClauseMaxChars = firstClauseMaxChars; }
+
+    public String getOutputFile() { return outputFile; }
+    public void setOutputFile(String outputFile) { this.outputFile = outputFile; }
+
+    public List<String> getWarmupPhrases() { return warmupPhrases; }
+    public void setWarmupPhrases(List<String> warmupPhrases) { this.warmupPhrases = warmupPhrases; }
+}
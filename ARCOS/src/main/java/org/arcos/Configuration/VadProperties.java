@@ -0,0 +1,45 @@
+package org.arcos.Configuration;
+
+import org.arcos.IO.InputHandling.VAD.VadType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Propriétés de détection d'activité vocale (fin d'énoncé).
+ *
+ * Préfixe : arcos.vad
+ */
+@Component
+@ConfigurationProperties(prefix = "arcos.vad")
+public class VadProperties {
+
+    /** Détecteur utilisé. SILERO retombe sur RMS si le modèle est absent. */
+    private VadType type = VadType.SILERO;
+
+    /** Chemin du modèle Silero VAD (ONNX, v4 ou v5). */
+    private String sileroModelPath = "models/silero_vad.onnx";
+
+    /** Probabilité de parole à partir de laquelle une trame compte comme parole (relevée en milieu bruyant). */
+    private float speechThreshold = 0.5f;
+
+    /** Durée de parole continue requise pour ouvrir un énoncé (filtre les clics et bruits brefs), en ms. */
+    private int minSpeechMs = 90;
+
+    /** Silence minimal avant de clore un énoncé long et net, en ms. Le maximum reste arcos.audio.silence-duration-ms. */
+    private int minSilenceMs = 300;
+
+    public VadType getType() { return type; }
+    public void setType(VadType type) { this.type = type; }
+
+    public String getSileroModelPath() { return sileroModelPath; }
+    public void setSileroModelPath(String sileroModelPath) { this.sileroModelPath = sileroModelPath; }
+
+    public float getSpeechThreshold() { return speechThreshold; }
+    public void setSpeechThreshold(float speechThreshold) { this.speechThreshold = speechThreshold; }
+
+    public int getMinSpeechMs() { return minSpeechMs; }
+    public void setMinSpeechMs(int minSpeechMs) { this.minSpeechMs = minSpeechMs; }
+
+    public int getMinSilenceMs() { return minSilenceMs; }
+    public void setMinSilenceMs(int minSilenceMs) { this.minSilenceMs = minSilenceMs; }
+}
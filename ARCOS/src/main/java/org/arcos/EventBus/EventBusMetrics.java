@@ -0,0 +1,86 @@
+package org.arcos.EventBus;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.arcos.EventBus.Events.Event;
+import org.arcos.EventBus.Events.EventPriority;
+import org.arcos.EventBus.Events.EventType;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métriques Micrometer du bus d'événements, exposées par l'Actuator ({@code /actuator/metrics}) :
+ * <ul>
+ *   <li>{@code arcos.eventbus.queue.depth} : événements en file, par priorité ;</li>
+ *   <li>{@code arcos.eventbus.wait} : attente entre la publication et le début du traitement, par type ;</li>
+ *   <li>{@code arcos.eventbus.dispatch} : durée du traitement par l'orchestrateur, par type ;</li>
+ *   <li>{@code arcos.eventbus.rejected} : événements rejetés file pleine, par type ;</li>
+ *   <li>{@code arcos.eventbus.superseded} : événements remplacés avant livraison.</li>
+ * </ul>
+ * L'attente couvre la file et la voie de l'orchestrateur : si elle grimpe alors que le traitement reste
+ * court, c'est la file qui ralentit ARCOS, sinon c'est le traitement.
+ */
+@Component
+public class EventBusMetrics implements MeterBinder {
+
+    private final EventQueue eventQueue;
+    private volatile Map<EventType, Timer> waitTimers = Collections.emptyMap();
+    private volatile Map<EventType, Timer> dispatchTimers = Collections.emptyMap();
+
+    public EventBusMetrics(EventQueue eventQueue) {
+        this.eventQueue = eventQueue;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (EventPriority priority : EventPriority.values()) {
+            Gauge.builder("arcos.eventbus.queue.depth", eventQueue, queue -> queue.size(priority))
+                    .description("Événements en attente dans la file")
+                    .tag("priority", priority.name())
+                    .register(registry);
+        }
+        FunctionCounter.builder("arcos.eventbus.superseded", eventQueue, EventQueue::getSupersededCount)
+                .description("Événements remplacés ou rendus caducs avant livraison")
+                .register(registry);
+
+        Map<EventType, Timer> waits = new EnumMap<>(EventType.class);
+        Map<EventType, Timer> dispatches = new EnumMap<>(EventType.class);
+        for (EventType type : EventType.values()) {
+            FunctionCounter.builder("arcos.eventbus.rejected", eventQueue, queue -> queue.getRejectedCount(type))
+                    .description("Événements rejetés, file pleine")
+                    .tag("type", type.name())
+                    .register(registry);
+            waits.put(type, timer("arcos.eventbus.wait", "Attente entre publication et traitement", type, registry));
+            dispatches.put(type, timer("arcos.eventbus.dispatch", "Durée du traitement par l'orchestrateur", type, registry));
+        }
+        waitTimers = waits;
+        dispatchTimers = dispatches;
+    }
+
+    /**
+     * Enregistre l'attente et la durée de traitement d'un événement (horloge {@link System#nanoTime()}).
+     */
+    public void recordDispatch(Event<?> event, long dispatchStartNanos, long dispatchEndNanos) {
+        Timer wait = waitTimers.get(event.getType());
+        Timer dispatch = dispatchTimers.get(event.getType());
+        if (wait == null || dispatch == null) return;
+        wait.record(Math.max(0, dispatchStartNanos - event.getCreatedNanos()), TimeUnit.NANOSECONDS);
+        dispatch.record(Math.max(0, dispatchEndNanos - dispatchStartNanos), TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer timer(String name, String description, EventType type, MeterRegistry registry) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("type", type.name())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,537 @@
+package org.arcos.EventBus;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+import org.arcos.EventBus.Events.Event;
+import org.arcos.EventBus.Events.EventPriority;
+import org.arcos.EventBus.Events.EventType;
+import org.arcos.Memory.LongTermMemory.Models.DesireEntry;
+import org.arcos.PlannedAction.Models.PlannedActionEntry;
+import org.arcos.Tools.CalendarTool.model.CalendarEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Journal d'écriture anticipée des événements durables : un événement y est écrit à sa publication et
+ * acquitté une fois traité ; au redémarrage, ceux qui n'ont pas été acquittés sont rejoués.
+ * <p>
+ * Segments en ajout seul ({@code segment-NNN.journal}) : un en-tête de 8 octets puis des trames
+ * {@code [longueur][crc32][corps]}, le corps portant le type d'enregistrement (événement ou acquittement),
+ * l'identifiant de l'événement et, pour un événement, son enveloppe JSON. Une trame tronquée ou corrompue
+ * (arrêt brutal pendant l'écriture) termine la relecture du segment. Les fsync sont groupés par un thread
+ * dédié toutes les {@code fsyncIntervalMs} ; à 0, chaque écriture est synchronisée.
+ * <p>
+ * Un segment clos est supprimé dès que tous ses événements sont acquittés et que les segments plus anciens
+ * ont disparu : un événement ne doit jamais survivre à la suppression de son acquittement.
+ * Au-delà de {@code compactAfterSegments} segments clos, les événements encore en attente sont recopiés
+ * dans le segment courant et tous les segments clos sont supprimés.
+ * <p>
+ * Le contenu d'un événement est relu dans la seule classe attendue pour son type ({@code PAYLOAD_TYPES}) :
+ * le fichier ne désigne jamais la classe à instancier.
+ * <p>
+ * Les événements déversés ({@link #spill}) n'existent plus qu'ici : la file ne garde pas leur contenu
+ * en mémoire et les relit à la demande ({@link #unspill}).
+ */
+@Slf4j
+public final class EventJournal implements Closeable {
+
+    private static final int MAGIC = 0x4152434A; // "ARCJ"
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER_BYTES = 8;
+    private static final int FRAME_HEADER_BYTES = 8;
+    private static final byte EVENT = 1;
+    private static final byte ACK = 2;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    /** Classe du contenu de chaque type durable ; tout autre contenu est refusé à l'écriture comme à la relecture. */
+    private static final Map<EventType, Class<?>> PAYLOAD_TYPES = Map.of(
+            EventType.PLANNED_ACTION, PlannedActionEntry.class,
+            EventType.CALENDAR_EVENT_SCHEDULER, CalendarEvent.class,
+            EventType.INITIATIVE, DesireEntry.class);
+
+    private record Location(long segment, long offset, int length) {}
+
+    private final Path dir;
+    private final long segmentMaxBytes;
+    private final int compactAfterSegments;
+    private final ObjectMapper envelopeMapper;
+    private final ObjectMapper payloadMapper;
+    private final ScheduledExecutorService syncer;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Événements non acquittés, dans l'ordre de publication. */
+    private final Map<String, Location> pending = new LinkedHashMap<>();
+    /** Événements non acquittés par segment, segment courant compris. */
+    private final TreeMap<Long, Integer> liveBySegment = new TreeMap<>();
+    private final ArrayDeque<String> spilled = new ArrayDeque<>();
+    private volatile int spilledCount;
+
+    private long activeSegment;
+    private FileChannel active;
+    private long activeSize;
+    private boolean dirty;
+
+    private EventJournal(Path dir, long segmentMaxBytes, long fsyncIntervalMs, int compactAfterSegments) {
+        this.dir = dir;
+        this.segmentMaxBytes = segmentMaxBytes;
+        this.compactAfterSegments = Math.max(1, compactAfterSegments);
+        this.envelopeMapper = new ObjectMapper();
+        // Contenu complet des objets transportés, y compris l'état transitoire ignoré par leurs dépôts
+        // (ex. le drapeau de rappel d'une action planifiée)
+        this.payloadMapper = JsonMapper.builder()
+                .disable(MapperFeature.USE_ANNOTATIONS)
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+        if (fsyncIntervalMs > 0) {
+            this.syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "event-journal-sync");
+                t.setDaemon(true);
+                return t;
+            });
+            syncer.scheduleWithFixedDelay(this::sync, fsyncIntervalMs, fsyncIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.syncer = null;
+        }
+    }
+
+    /**
+     * Ouvre le journal : relit les segments existants puis ouvre un nouveau segment courant.
+     */
+    public static EventJournal open(Path dir, long segmentMaxBytes, long fsyncIntervalMs, int compactAfterSegments) throws IOException {
+        EventJournal journal = new EventJournal(dir, segmentMaxBytes, fsyncIntervalMs, compactAfterSegments);
+        try {
+            journal.recover();
+        } catch (IOException e) {
+            journal.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    /**
+     * Écrit un événement dans le journal.
+     * @return false si l'événement n'a pas pu être journalisé (contenu non sérialisable, erreur disque)
+     */
+    public boolean append(Event<?> event) {
+        byte[] body;
+        try {
+            body = encode(event);
+        } catch (IllegalArgumentException | IOException e) {
+            log.warn("Événement {} non journalisé, contenu non sérialisable : {}", event.getType(), e.getMessage());
+            return false;
+        }
+        lock.lock();
+        try {
+            if (active == null) return false;
+            Location location = write(body);
+            pending.put(event.getId(), location);
+            liveBySegment.merge(location.segment(), 1, Integer::sum);
+            rollIfFull();
+            return true;
+        } catch (IOException e) {
+            log.error("Écriture dans le journal d'événements impossible", e);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marque l'événement comme traité : il ne sera pas rejoué.
+     */
+    public void acknowledge(String eventId) {
+        lock.lock();
+        try {
+            Location location = pending.remove(eventId);
+            if (location == null) return;
+            if (spilled.remove(eventId)) spilledCount = spilled.size();
+            liveBySegment.merge(location.segment(), -1, Integer::sum);
+            if (active != null) {
+                write(frameBody(ACK, eventId, new byte[0]));
+                deleteDeadSegments();
+                rollIfFull();
+            }
+        } catch (IOException e) {
+            log.warn("Acquittement de l'événement {} non journalisé, il sera rejoué : {}", eventId, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Identifiants des événements non acquittés, dans l'ordre de publication.
+     */
+    public List<String> pendingIds() {
+        lock.lock();
+        try {
+            return new ArrayList<>(pending.keySet());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Relit un événement non acquitté. Un enregistrement illisible (classe disparue, contenu altéré)
+     * est acquitté pour ne pas être rejoué indéfiniment.
+     * @return l'événement, ou null s'il n'est plus en attente ou illisible
+     */
+    public Event<?> read(String eventId) {
+        lock.lock();
+        try {
+            Location location = pending.get(eventId);
+            if (location == null) return null;
+            try {
+                return decode(readBody(location));
+            } catch (IOException | RuntimeException e) {
+                log.warn("Événement {} illisible dans le journal, abandonné : {}", eventId, e.getMessage());
+                acknowledge(eventId);
+                return null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retire l'événement de la mémoire de la file : il n'est plus conservé que dans le journal.
+     */
+    public void spill(String eventId) {
+        lock.lock();
+        try {
+            if (pending.containsKey(eventId)) {
+                spilled.add(eventId);
+                spilledCount = spilled.size();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Relit le plus ancien événement déversé, ou null s'il n'y en a plus.
+     */
+    public Event<?> unspill() {
+        lock.lock();
+        try {
+            String eventId;
+            while ((eventId = spilled.poll()) != null) {
+                spilledCount = spilled.size();
+                Event<?> event = read(eventId);
+                if (event != null) return event;
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean hasSpilled() {
+        return spilledCount > 0;
+    }
+
+    public int getSpilledCount() {
+        return spilledCount;
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getSegmentCount() {
+        lock.lock();
+        try {
+            return liveBySegment.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Recopie les événements en attente des segments clos dans le segment courant, puis supprime ces segments.
+     */
+    public void compact() throws IOException {
+        lock.lock();
+        try {
+            if (active == null) return;
+            int moved = 0;
+            for (Map.Entry<String, Location> entry : pending.entrySet()) {
+                Location location = entry.getValue();
+                if (location.segment() == activeSegment) continue;
+                Location copy = write(readBody(location));
+                entry.setValue(copy);
+                liveBySegment.merge(location.segment(), -1, Integer::sum);
+                liveBySegment.merge(copy.segment(), 1, Integer::sum);
+                moved++;
+            }
+            // Copies durables avant de supprimer les originaux
+            active.force(false);
+            int deleted = 0;
+            while (liveBySegment.firstKey() < activeSegment) {
+                Files.deleteIfExists(segmentPath(liveBySegment.pollFirstEntry().getKey()));
+                deleted++;
+            }
+            log.info("Journal d'événements compacté : {} événements recopiés, {} segments supprimés", moved, deleted);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (syncer != null) syncer.shutdownNow();
+        lock.lock();
+        try {
+            if (active != null) {
+                active.force(false);
+                active.close();
+            }
+        } catch (IOException e) {
+            log.warn("Fermeture du journal d'événements : {}", e.getMessage());
+        } finally {
+            active = null;
+            lock.unlock();
+        }
+    }
+
+    // ── Relecture ────────────────────────────────────────────────────────────
+
+    private void recover() throws IOException {
+        Files.createDirectories(dir);
+        List<Long> segments;
+        try (Stream<Path> files = Files.list(dir)) {
+            segments = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+        for (long segment : segments) {
+            recoverSegment(segment);
+        }
+        openSegment(segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1);
+        deleteDeadSegments();
+        if (!pending.isEmpty()) {
+            log.info("Journal d'événements : {} événements non traités à rejouer ({})", pending.size(), dir);
+        }
+        if (liveBySegment.size() - 1 > compactAfterSegments) {
+            compact();
+        }
+    }
+
+    private void recoverSegment(long segment) throws IOException {
+        Path path = segmentPath(segment);
+        liveBySegment.putIfAbsent(segment, 0);
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        if (data.remaining() < SEGMENT_HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            log.warn("Segment de journal ignoré (en-tête invalide) : {}", path);
+            return;
+        }
+        int offset = SEGMENT_HEADER_BYTES;
+        while (offset + FRAME_HEADER_BYTES <= data.limit()) {
+            int length = data.getInt(offset);
+            int crc = data.getInt(offset + 4);
+            if (length < 2 || offset + FRAME_HEADER_BYTES + (long) length > data.limit()
+                    || crc != crc32(data.array(), offset + FRAME_HEADER_BYTES, length)) {
+                break;
+            }
+            int body = offset + FRAME_HEADER_BYTES;
+            byte kind = data.get(body);
+            String eventId = new String(data.array(), body + 2, data.get(body + 1) & 0xFF, StandardCharsets.UTF_8);
+            Location previous = pending.get(eventId);
+            if (previous != null) {
+                liveBySegment.merge(previous.segment(), -1, Integer::sum);
+            }
+            if (kind == EVENT) {
+                // Copie laissée par une compaction interrompue : on retient l'emplacement de la copie,
+                // l'événement garde son rang dans l'ordre de publication (clé déjà présente)
+                pending.put(eventId, new Location(segment, offset, length));
+                liveBySegment.merge(segment, 1, Integer::sum);
+            } else {
+                pending.remove(eventId);
+            }
+            offset = body + length;
+        }
+        if (offset < data.limit()) {
+            log.warn("Fin de segment de journal tronquée ou corrompue ignorée : {} ({} octets)", path, data.limit() - offset);
+        }
+    }
+
+    // ── Écriture ─────────────────────────────────────────────────────────────
+
+    private Location write(byte[] body) throws IOException {
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_BYTES + body.length).order(ByteOrder.LITTLE_ENDIAN);
+        frame.putInt(body.length).putInt(crc32(body, 0, body.length)).put(body).flip();
+        long offset = activeSize;
+        while (frame.hasRemaining()) {
+            activeSize += active.write(frame, activeSize);
+        }
+        if (syncer == null) {
+            active.force(false);
+        } else {
+            dirty = true;
+        }
+        return new Location(activeSegment, offset, body.length);
+    }
+
+    private void rollIfFull() throws IOException {
+        if (activeSize < segmentMaxBytes) return;
+        active.force(false);
+        active.close();
+        openSegment(activeSegment + 1);
+        deleteDeadSegments();
+        if (liveBySegment.size() - 1 > compactAfterSegments) {
+            compact();
+        }
+    }
+
+    private void openSegment(long segment) throws IOException {
+        active = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        activeSegment = segment;
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        activeSize = 0;
+        while (header.hasRemaining()) {
+            activeSize += active.write(header, activeSize);
+        }
+        liveBySegment.put(segment, 0);
+    }
+
+    /**
+     * Supprime les plus anciens segments clos sans événement en attente. Seul un préfixe est supprimé :
+     * un acquittement ne disparaît jamais avant l'événement qu'il acquitte.
+     */
+    private void deleteDeadSegments() throws IOException {
+        while (liveBySegment.firstKey() < activeSegment && liveBySegment.firstEntry().getValue() <= 0) {
+            Files.deleteIfExists(segmentPath(liveBySegment.pollFirstEntry().getKey()));
+        }
+    }
+
+    private void sync() {
+        FileChannel channel;
+        lock.lock();
+        try {
+            if (!dirty || active == null) return;
+            dirty = false;
+            channel = active;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            channel.force(false);
+        } catch (ClosedChannelException e) {
+            // Segment clos entre-temps : déjà synchronisé à la fermeture
+        } catch (IOException e) {
+            log.warn("fsync du journal d'événements impossible : {}", e.getMessage());
+        }
+    }
+
+    private byte[] readBody(Location location) throws IOException {
+        ByteBuffer body = ByteBuffer.allocate(location.length());
+        // Canal de lecture séparé : le segment courant est ouvert en écriture seule
+        try (FileChannel channel = FileChannel.open(segmentPath(location.segment()), StandardOpenOption.READ)) {
+            while (body.hasRemaining()) {
+                int read = channel.read(body, location.offset() + FRAME_HEADER_BYTES + body.position());
+                if (read < 0) throw new IOException("Enregistrement de journal tronqué");
+            }
+        }
+        return body.array();
+    }
+
+    private Path segmentPath(long segment) {
+        return dir.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    // ── Format ───────────────────────────────────────────────────────────────
+
+    private byte[] encode(Event<?> event) throws IOException {
+        ObjectNode envelope = envelopeMapper.createObjectNode();
+        envelope.put("type", event.getType().name());
+        envelope.put("priority", event.getPriority().name());
+        envelope.put("source", event.getSource());
+        envelope.put("timestamp", event.getTimestamp().toString());
+        Object payload = event.getPayload();
+        if (payload != null) {
+            if (payload.getClass() != PAYLOAD_TYPES.get(event.getType())) {
+                throw new IllegalArgumentException("contenu " + payload.getClass().getName() + " inattendu pour " + event.getType());
+            }
+            envelope.set("payload", payloadMapper.valueToTree(payload));
+        }
+        return frameBody(EVENT, event.getId(), envelopeMapper.writeValueAsBytes(envelope));
+    }
+
+    private Event<?> decode(byte[] body) throws IOException {
+        int idLength = body[1] & 0xFF;
+        String eventId = new String(body, 2, idLength, StandardCharsets.UTF_8);
+        JsonNode envelope = envelopeMapper.readTree(body, 2 + idLength, body.length - 2 - idLength);
+        EventType type = EventType.valueOf(envelope.get("type").asText());
+        Object payload = null;
+        if (envelope.hasNonNull("payload")) {
+            Class<?> payloadType = PAYLOAD_TYPES.get(type);
+            if (payloadType == null) {
+                throw new IOException("contenu inattendu pour " + type);
+            }
+            payload = payloadMapper.treeToValue(envelope.get("payload"), payloadType);
+        }
+        return new Event<>(eventId,
+                type,
+                EventPriority.valueOf(envelope.get("priority").asText()),
+                payload,
+                envelope.path("source").asText(null),
+                LocalDateTime.parse(envelope.get("timestamp").asText()));
+    }
+
+    private static byte[] frameBody(byte kind, String eventId, byte[] data) {
+        byte[] id = eventId.getBytes(StandardCharsets.UTF_8);
+        if (id.length > 255) throw new IllegalArgumentException("Identifiant d'événement trop long : " + eventId);
+        byte[] body = new byte[2 + id.length + data.length];
+        body[0] = kind;
+        body[1] = (byte) id.length;
+        System.arraycopy(id, 0, body, 2, id.length);
+        System.arraycopy(data, 0, body, 2 + id.length, data.length);
+        return body;
+    }
+
+    private static int crc32(byte[] data, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(data, offset, length);
+        return (int) crc.getValue();
+    }
+}
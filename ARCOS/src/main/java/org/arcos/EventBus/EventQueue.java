@@ -1,52 +1,199 @@
 package org.arcos.EventBus;
 
 
+import jakarta.annotation.PreDestroy;
+import org.arcos.Configuration.EventJournalProperties;
 import org.arcos.EventBus.Events.Event;
+import org.arcos.EventBus.Events.EventPriority;
+import org.arcos.EventBus.Events.EventType;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.PriorityBlockingQueue;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Queue thread safe pour les événements avec support des priorités
+ * <p>
+ * Une {@link EventRing} sans verrou par niveau de priorité : les producteurs publient sans jamais bloquer
+ * ni se disputer un verrou, et l'ordre FIFO est strict à l'intérieur d'une même priorité. Le consommateur
+ * sert toujours la file la plus prioritaire non vide ; à vide il tourne brièvement puis se gare, et le
+ * producteur suivant le réveille aussitôt.
+ * <p>
+ * Les types {@link EventType#isCoalescing() coalescents} ne sont livrés qu'une fois : un nouvel événement
+ * remplace celui du même type encore en file, et la publication d'un type peut rendre caducs ceux
+ * qu'il supplante ({@link EventType#getSupersededTypes()}). Un événement caduc reste dans sa file mais
+ * n'est plus compté, et le consommateur le saute.
+ * <p>
+ * Avec un {@link EventJournal}, les types {@link EventType#isDurable() durables} sont journalisés à la
+ * publication et rejoués au redémarrage tant qu'ils n'ont pas été acquittés ({@link #acknowledge}) : livraison
+ * au moins une fois. Queue pleine, un événement durable est déversé dans le journal au lieu d'être rejeté, et
+ * réintègre la file à mesure qu'elle se vide ; les événements durables suivants le rejoignent pour garder
+ * leur ordre. Les autres types ne touchent jamais au journal ni à son verrou.
  */
 @Component
 public class EventQueue {
     private static final Logger logger = Logger.getLogger(EventQueue.class.getName());
 
-    private final PriorityBlockingQueue<Event<?>> queue;
+    /** Tentatives actives avant de garer le consommateur : couvre les rafales sans changer de contexte. */
+    private static final int SPIN_TRIES = 200;
+    /** Borne d'un parking, au cas où un second consommateur aurait pris la place de réveil. */
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final int DEFAULT_CAPACITY = 10000;
+    private static final Duration DEFAULT_REPLAY_MAX_AGE = Duration.ofMinutes(30);
+
+    private final EventRing[] lanes;
+    /** Dernier événement en file par type coalescent : seul celui-ci sera livré. */
+    private final AtomicReferenceArray<Event<?>> pendingByType = new AtomicReferenceArray<>(EventType.values().length);
+    private final AtomicLong supersededCount = new AtomicLong();
+    private final AtomicLongArray rejectedByType = new AtomicLongArray(EventType.values().length);
     private final AtomicInteger eventCount;
     private final int maxCapacity;
+    private volatile Thread waiter;
+    /** Journal des événements durables, null si désactivé. */
+    private final EventJournal journal;
+    /** Ordonne les événements durables entre la file et le journal (publication, déversement, réintégration). */
+    private final ReentrantLock durableLock = new ReentrantLock();
+    /** Âge au-delà duquel un événement {@link EventType#isReplayTimeBound() borné} n'est pas rejoué. */
+    private final Duration replayMaxAge;
 
     public EventQueue() {
-        this(10000); // Capacité par défaut
+        this(DEFAULT_CAPACITY);
     }
 
     public EventQueue(int maxCapacity) {
-        this.queue = new PriorityBlockingQueue<>(100);
+        this(maxCapacity, null);
+    }
+
+    @Autowired
+    public EventQueue(EventJournalProperties journalProperties) {
+        this(DEFAULT_CAPACITY, openJournal(journalProperties), Duration.ofMinutes(journalProperties.getReplayMaxAgeMinutes()));
+    }
+
+    public EventQueue(int maxCapacity, EventJournal journal) {
+        this(maxCapacity, journal, DEFAULT_REPLAY_MAX_AGE);
+    }
+
+    /**
+     * @param journal      journal des événements durables, ou null pour une file purement en mémoire ;
+     *                     ses événements non acquittés sont remis en file dès la construction
+     * @param replayMaxAge âge au-delà duquel un rappel d'agenda ou une initiative du journal est abandonné
+     */
+    public EventQueue(int maxCapacity, EventJournal journal, Duration replayMaxAge) {
+        this.lanes = new EventRing[EventPriority.values().length];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new EventRing(maxCapacity);
+        }
         this.eventCount = new AtomicInteger(0);
         this.maxCapacity = maxCapacity;
+        this.journal = journal;
+        this.replayMaxAge = replayMaxAge;
+        if (journal != null) {
+            restore();
+        }
+    }
+
+    private static EventJournal openJournal(EventJournalProperties properties) {
+        if (!properties.isEnabled()) return null;
+        try {
+            return EventJournal.open(Path.of(properties.getDir()), properties.getSegmentMaxBytes(),
+                    properties.getFsyncIntervalMs(), properties.getCompactAfterSegments());
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Journal d'événements indisponible, file en mémoire seule", e);
+            return null;
+        }
     }
 
     /**
-     * Ajoute un événement à la queue
+     * Ajoute un événement à la queue, sans bloquer
      * @param event L'événement à ajouter
-     * @return true si l'événement a été ajouté, false sinon
+     * @return true si l'événement a été ajouté (ou déversé dans le journal), false sinon
      */
     public boolean offer(Event<?> event) {
-        if (eventCount.get() >= maxCapacity) {
+        if (journal != null && event.getType().isDurable()) {
+            return offerDurable(event);
+        }
+        if (!enqueue(event)) {
+            rejectedByType.incrementAndGet(event.getType().ordinal());
             logger.warning("Queue pleine, événement rejeté: " + event);
             return false;
         }
+        return true;
+    }
+
+    private boolean offerDurable(Event<?> event) {
+        durableLock.lock();
+        try {
+            if (!journal.append(event)) {
+                // Journal en échec : l'événement reste livrable, sans survivre à un redémarrage
+                if (enqueue(event)) return true;
+                rejectedByType.incrementAndGet(event.getType().ordinal());
+                logger.warning("Queue pleine, événement rejeté: " + event);
+                return false;
+            }
+            if (journal.hasSpilled() || !enqueue(event)) {
+                journal.spill(event.getId());
+                logger.fine(() -> "Queue pleine, événement déversé dans le journal: " + event);
+            }
+            return true;
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    /**
+     * Met l'événement en file.
+     * @return false si la file est pleine
+     */
+    private boolean enqueue(Event<?> event) {
+        if (eventCount.incrementAndGet() > maxCapacity) {
+            eventCount.decrementAndGet();
+            return false;
+        }
 
-        boolean added = queue.offer(event);
-        if (added) {
-            eventCount.incrementAndGet();
-            logger.info("Événement ajouté à la queue: " + event);
+        // Case réservée avant de remplacer quoi que ce soit : un événement refusé ne rend caduc aucun autre.
+        // Les événements caducs occupent encore leur case sans être comptés, la file peut donc être pleine ici
+        EventRing lane = lanes[event.getPriority().ordinal()];
+        long position = lane.claim();
+        if (position < 0) {
+            eventCount.decrementAndGet();
+            return false;
+        }
+
+        EventType type = event.getType();
+        List<Event<?>> replaced = null;
+        for (EventType superseded : type.getSupersededTypes()) {
+            replaced = discard(pendingByType.getAndSet(superseded.ordinal(), null), event, replaced);
+        }
+        // Inscrit avant la publication : le consommateur peut livrer l'événement dès qu'il est dans la file
+        if (type.isCoalescing()) {
+            replaced = discard(pendingByType.getAndSet(type.ordinal(), event), event, replaced);
+        }
+        lane.publish(position, event);
+
+        Thread consumer = waiter;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
         }
-        return added;
+        // Acquittements (écriture journal) après la publication : la case réservée n'attend pas le disque
+        if (replaced != null) {
+            replaced.forEach(this::acknowledge);
+        }
+        logger.fine(() -> "Événement ajouté à la queue: " + event);
+        return true;
     }
 
     /**
@@ -55,9 +202,8 @@ public class EventQueue {
      * @throws InterruptedException si le thread est interrompu
      */
     public Event<?> take() throws InterruptedException {
-        Event<?> event = queue.take();
-        eventCount.decrementAndGet();
-        logger.fine("Événement retiré de la queue: " + event);
+        Event<?> event = await(Long.MAX_VALUE);
+        logger.fine(() -> "Événement retiré de la queue: " + event);
         return event;
     }
 
@@ -67,10 +213,10 @@ public class EventQueue {
      * @return Le prochain événement ou null si timeout
      */
     public Event<?> poll(long timeout) throws InterruptedException {
-        Event<?> event = queue.poll(timeout, TimeUnit.MILLISECONDS);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeout));
+        Event<?> event = await(deadline);
         if (event != null) {
-            eventCount.decrementAndGet();
-            logger.fine("Événement retiré de la queue (avec timeout): " + event);
+            logger.fine(() -> "Événement retiré de la queue (avec timeout): " + event);
         }
         return event;
     }
@@ -79,26 +225,190 @@ public class EventQueue {
      * Récupère le prochain événement sans le retirer
      */
     public Event<?> peek() {
-        return queue.peek();
+        for (EventRing lane : lanes) {
+            Event<?> event;
+            while ((event = lane.peek()) != null) {
+                if (isLive(event)) return event;
+                lane.removeHead(event);
+            }
+        }
+        return null;
     }
 
     /**
-     * Vide la queue
+     * Vide la queue ; les événements durables retirés sont acquittés et ne seront pas rejoués
      */
     public void clear() {
-        int cleared = queue.size();
-        queue.clear();
-        eventCount.set(0);
+        int cleared = 0;
+        Event<?> event;
+        while ((event = pollNow()) != null) {
+            acknowledge(event);
+            cleared++;
+        }
         logger.info("Queue vidée, " + cleared + " événements supprimés");
     }
 
+    /**
+     * Signale la fin du traitement d'un événement livré : s'il est durable, il ne sera pas rejoué
+     * au prochain démarrage. Sans effet pour les autres événements.
+     */
+    public void acknowledge(Event<?> event) {
+        if (journal != null && event.getType().isDurable()) {
+            journal.acknowledge(event.getId());
+        }
+    }
+
+    /**
+     * Nombre d'événements durables qui attendent dans le journal qu'une place se libère dans la file.
+     */
+    public int getSpilledCount() {
+        return journal != null ? journal.getSpilledCount() : 0;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Attend un événement jusqu'à l'échéance ({@code Long.MAX_VALUE} : sans limite).
+     */
+    private Event<?> await(long deadline) throws InterruptedException {
+        for (int spin = 0; spin < SPIN_TRIES; spin++) {
+            Event<?> event = pollNow();
+            if (event != null) return event;
+            Thread.onSpinWait();
+        }
+        Thread current = Thread.currentThread();
+        try {
+            while (true) {
+                waiter = current;
+                // Revérifier après s'être annoncé : un producteur passé entre-temps ne nous a pas vu
+                Event<?> event = pollNow();
+                if (event != null) return event;
+                if (Thread.interrupted()) throw new InterruptedException();
+                long parkNanos = MAX_PARK_NANOS;
+                if (deadline != Long.MAX_VALUE) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) return null;
+                    parkNanos = Math.min(parkNanos, remaining);
+                }
+                LockSupport.parkNanos(this, parkNanos);
+            }
+        } finally {
+            if (waiter == current) waiter = null;
+        }
+    }
+
+    private Event<?> pollNow() {
+        Event<?> event = pollLanes();
+        if (journal != null && journal.hasSpilled() && refill() && event == null) {
+            event = pollLanes();
+        }
+        return event;
+    }
+
+    private Event<?> pollLanes() {
+        for (EventRing lane : lanes) {
+            Event<?> event;
+            while ((event = lane.poll()) != null) {
+                if (claim(event)) {
+                    eventCount.decrementAndGet();
+                    return event;
+                }
+                // Caduc : déjà décompté quand il a été remplacé
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Remet en file les événements déversés dans le journal, dans la limite des places libres.
+     * @return true si au moins un événement a réintégré la file
+     */
+    private boolean refill() {
+        boolean refilled = false;
+        durableLock.lock();
+        try {
+            while (journal.hasSpilled() && eventCount.get() < maxCapacity) {
+                Event<?> event = journal.unspill();
+                if (event == null) break;
+                if (!enqueue(event)) {
+                    journal.spill(event.getId());
+                    break;
+                }
+                refilled = true;
+            }
+        } finally {
+            durableLock.unlock();
+        }
+        return refilled;
+    }
+
+    /**
+     * Remet en file les événements du journal non acquittés lors du précédent arrêt.
+     */
+    private void restore() {
+        int restored = 0;
+        int spilled = 0;
+        int expired = 0;
+        LocalDateTime oldest = LocalDateTime.now().minus(replayMaxAge);
+        for (String eventId : journal.pendingIds()) {
+            Event<?> event = journal.read(eventId);
+            if (event == null) continue;
+            if (event.getType().isReplayTimeBound() && event.getTimestamp().isBefore(oldest)) {
+                // Rappel ou initiative devenu hors de propos pendant l'arrêt
+                journal.acknowledge(eventId);
+                expired++;
+            } else if (!journal.hasSpilled() && enqueue(event)) {
+                restored++;
+            } else {
+                journal.spill(eventId);
+                spilled++;
+            }
+        }
+        if (restored + spilled + expired > 0) {
+            logger.info("Événements durables rejoués depuis le journal: " + restored + " en file, " + spilled
+                    + " en attente de place, " + expired + " abandonnés car trop anciens");
+        }
+    }
+
+    /**
+     * Réserve l'événement pour la livraison. Échoue si un événement plus récent l'a remplacé entre-temps.
+     */
+    private boolean claim(Event<?> event) {
+        EventType type = event.getType();
+        return !type.isCoalescing() || pendingByType.compareAndSet(type.ordinal(), event, null);
+    }
+
+    private boolean isLive(Event<?> event) {
+        EventType type = event.getType();
+        return !type.isCoalescing() || pendingByType.get(type.ordinal()) == event;
+    }
+
+    /**
+     * Retire un événement remplacé du décompte et l'ajoute à {@code replaced} (créée au besoin) :
+     * il ne sera jamais livré, l'appelant l'acquitte pour qu'il ne soit pas rejoué au redémarrage.
+     */
+    private List<Event<?>> discard(Event<?> stale, Event<?> by, List<Event<?>> replaced) {
+        if (stale == null) return replaced;
+        eventCount.decrementAndGet();
+        supersededCount.incrementAndGet();
+        logger.fine(() -> "Événement remplacé avant livraison: " + stale + " par " + by);
+        List<Event<?>> result = replaced != null ? replaced : new ArrayList<>(2);
+        result.add(stale);
+        return result;
+    }
+
     // Getters pour monitoring
     public int size() {
         return eventCount.get();
     }
 
     public boolean isEmpty() {
-        return queue.isEmpty();
+        return peek() == null;
     }
 
     public int getMaxCapacity() {
@@ -108,4 +418,33 @@ public class EventQueue {
     public double getLoadPercentage() {
         return (double) eventCount.get() / maxCapacity * 100;
     }
+
+    /**
+     * Nombre d'événements en file pour une priorité, y compris ceux déjà remplacés que le consommateur
+     * n'a pas encore sautés.
+     */
+    public int size(EventPriority priority) {
+        return lanes[priority.ordinal()].size();
+    }
+
+    /**
+     * Nombre d'événements d'un type rejetés depuis le démarrage faute de place ({@link #getMaxCapacity()}).
+     */
+    public long getRejectedCount(EventType type) {
+        return rejectedByType.get(type.ordinal());
+    }
+
+    /**
+     * Nombre d'événements écartés avant livraison, remplacés ou rendus caducs par un plus récent.
+     */
+    public long getSupersededCount() {
+        return supersededCount.get();
+    }
+
+    /**
+     * Nombre d'événements publiés depuis le démarrage sur la file d'une priorité.
+     */
+    public long getPublishedCount(EventPriority priority) {
+        return lanes[priority.ordinal()].getPublishedCount();
+    }
 }
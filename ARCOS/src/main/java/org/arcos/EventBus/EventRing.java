@@ -0,0 +1,147 @@
+package org.arcos.EventBus;
+
+import org.arcos.EventBus.Events.Event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * File circulaire bornée d'événements, sans verrou, pour plusieurs producteurs et un consommateur.
+ * <p>
+ * Chaque case porte un numéro de séquence (schéma de Vyukov) : un producteur réserve la position de queue
+ * par CAS, écrit l'événement puis publie la case en avançant sa séquence ; le consommateur ne lit une case
+ * qu'une fois publiée. Les positions sont monotones, d'où un ordre FIFO strict dans la file. La tête est
+ * elle aussi avancée par CAS, ce qui tolère un second consommateur occasionnel (tests, {@code clear()}).
+ * <p>
+ * La réservation et la publication peuvent être séparées ({@link #claim()} puis {@link #publish}) pour
+ * n'agir qu'une fois la place acquise ; d'ici la publication, le consommateur voit la file s'arrêter
+ * à cette case.
+ */
+public final class EventRing {
+
+    private final AtomicReferenceArray<Event<?>> events;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param minCapacity capacité minimale, arrondie à la puissance de deux supérieure
+     */
+    public EventRing(int minCapacity) {
+        if (minCapacity <= 0) throw new IllegalArgumentException("capacity doit être positive");
+        int capacity = Math.max(2, Integer.highestOneBit(minCapacity - 1) << 1);
+        this.events = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Publie un événement sans jamais bloquer.
+     * @return false si la file est pleine
+     */
+    public boolean offer(Event<?> event) {
+        long position = claim();
+        if (position < 0) return false;
+        publish(position, event);
+        return true;
+    }
+
+    /**
+     * Réserve la prochaine case sans bloquer. Elle doit ensuite être publiée ({@link #publish}).
+     * @return la position réservée, ou -1 si la file est pleine
+     */
+    public long claim() {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long delta = sequences.get(index) - position;
+            if (delta == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+            } else if (delta < 0) {
+                return -1;
+            }
+            // Sinon un autre producteur vient de prendre la case : relire la queue
+        }
+    }
+
+    /**
+     * Publie un événement dans la case réservée par {@link #claim()}.
+     */
+    public void publish(long position, Event<?> event) {
+        int index = (int) (position & mask);
+        events.lazySet(index, event);
+        sequences.set(index, position + 1);
+    }
+
+    /**
+     * Retire le plus ancien événement publié, ou null si la file est vide.
+     */
+    public Event<?> poll() {
+        while (true) {
+            long position = head.get();
+            int index = (int) (position & mask);
+            long delta = sequences.get(index) - (position + 1);
+            if (delta == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    Event<?> event = events.get(index);
+                    events.lazySet(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return event;
+                }
+            } else if (delta < 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Retire la tête de file si c'est encore {@code expected} : un lecteur écarte ainsi un événement caduc
+     * sans risquer de retirer celui qu'un consommateur vient de faire avancer en tête.
+     */
+    public boolean removeHead(Event<?> expected) {
+        long position = head.get();
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1 || events.get(index) != expected) return false;
+        if (!head.compareAndSet(position, position + 1)) return false;
+        events.lazySet(index, null);
+        sequences.set(index, position + mask + 1);
+        return true;
+    }
+
+    /**
+     * Le plus ancien événement publié, sans le retirer.
+     */
+    public Event<?> peek() {
+        long position = head.get();
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) return null;
+        return events.get(index);
+    }
+
+    /**
+     * Nombre d'événements publiés depuis la création : séquence du prochain événement accepté.
+     */
+    public long getPublishedCount() {
+        return tail.get();
+    }
+
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return peek() == null;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
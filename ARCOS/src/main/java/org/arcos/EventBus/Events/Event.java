@@ -14,6 +14,7 @@ public class Event<T> implements Comparable<Event<?>> {
     private final T payload;
     private final LocalDateTime timestamp;
     private final String source;
+    private final long createdNanos;
 
     public Event(EventType type, EventPriority priority, T payload, String source) {
         this.id = UUID.randomUUID().toString();
@@ -22,6 +23,20 @@ public class Event<T> implements Comparable<Event<?>> {
         this.payload = payload;
         this.source = source;
         this.timestamp = LocalDateTime.now();
+        this.createdNanos = System.nanoTime();
+    }
+
+    /**
+     * Restaure un événement relu depuis le journal, avec son identifiant et son horodatage d'origine.
+     */
+    public Event(String id, EventType type, EventPriority priority, T payload, String source, LocalDateTime timestamp) {
+        this.id = id;
+        this.type = type;
+        this.priority = priority;
+        this.payload = payload;
+        this.source = source;
+        this.timestamp = timestamp;
+        this.createdNanos = System.nanoTime();
     }
 
     public Event(EventType type, T payload, String source) {
@@ -41,6 +56,8 @@ public class Event<T> implements Comparable<Event<?>> {
     public T getPayload() { return payload; }
     public LocalDateTime getTimestamp() { return timestamp; }
     public String getSource() { return source; }
+    /** Instant de création en {@link System#nanoTime()} : les producteurs publient l'événement aussitôt créé. */
+    public long getCreatedNanos() { return createdNanos; }
 
     @Override
     public String toString() {
@@ -1,5 +1,11 @@
 package org.arcos.EventBus.Events;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Énumération des différents types d'événements supportés par le système
  */
@@ -21,9 +27,18 @@ public enum EventType
     CALENDAR_EVENT_SCHEDULER("Événement de calendrier"),
     PLANNED_ACTION("Action planifiée à exécuter"),
     LISTENING_WINDOW_TIMEOUT("Fin de fenêtre d'écoute conversation"),
+    BARGE_IN("Interruption de la parole de l'assistant par l'utilisateur"),
     SESSION_END("Fin de session conversationnelle par inactivité"),
     IDLE_WINDOW_OPEN("Fenêtre d'inactivité ouverte pour traitement batch");
 
+    /** Événements en file rendus caducs par la publication d'un autre type (voir {@link #getSupersededTypes()}) */
+    private static final Map<EventType, Set<EventType>> SUPERSEDED = new EnumMap<>(EventType.class);
+
+    static {
+        // L'utilisateur parle : fin de fenêtre, fin de session et traitement batch en attente n'ont plus lieu d'être
+        SUPERSEDED.put(WAKEWORD, Collections.unmodifiableSet(EnumSet.of(LISTENING_WINDOW_TIMEOUT, SESSION_END, IDLE_WINDOW_OPEN)));
+    }
+
     private final String description;
 
     EventType(String description) {
@@ -34,6 +49,45 @@ public enum EventType
         return description;
     }
 
+    /**
+     * Un événement de ce type remplace celui du même type encore en file : seul le plus récent est livré.
+     */
+    public boolean isCoalescing() {
+        return switch (this) {
+            case LISTENING_WINDOW_TIMEOUT, SESSION_END, IDLE_WINDOW_OPEN -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Événement écrit dans le journal quand il est activé : s'il n'a pas été traité, il est rejoué au redémarrage.
+     */
+    public boolean isDurable() {
+        return switch (this) {
+            case PLANNED_ACTION, CALENDAR_EVENT_SCHEDULER, INITIATIVE -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Événement durable qui n'a de sens que peu après sa publication : rejoué trop tard, il est abandonné
+     * plutôt que livré avec des heures de retard. Une action planifiée garde sa propre échéance.
+     */
+    public boolean isReplayTimeBound() {
+        return switch (this) {
+            case CALENDAR_EVENT_SCHEDULER, INITIATIVE -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Types dont l'événement encore en file devient caduc quand un événement de ce type est publié.
+     * Seuls des types {@link #isCoalescing() coalescents} peuvent être rendus caducs.
+     */
+    public Set<EventType> getSupersededTypes() {
+        return SUPERSEDED.getOrDefault(this, Collections.emptySet());
+    }
+
     @Override
     public String toString() {
         return name() + " (" + description + ")";
@@ -0,0 +1,134 @@
+package org.arcos.IO.InputHandling.Capture;
+
+import org.arcos.IO.InputHandling.MicrophoneSource;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Thread unique de capture micro : lit la source, convertit en PCM 16 bits à 16 kHz et publie dans un
+ * {@link AudioRingBuffer} que le wake word, la VAD et le STT consomment chacun à leur rythme.
+ * <p>
+ * Tous les tampons sont alloués au démarrage ; la boucle de capture ne fait aucune allocation, ce qui
+ * évite de solliciter le GC sur Raspberry Pi pendant l'écoute continue.
+ * <p>
+ * Un {@link EchoCanceller} optionnel retire la voix TTS de chaque bloc avant publication : tous les
+ * lecteurs reçoivent le même signal nettoyé.
+ */
+@Slf4j
+public class AudioCapture implements AutoCloseable {
+
+    public static final int SAMPLE_RATE = 16000;
+    /** Blocs publiés de 20 ms : latence faible sans multiplier les réveils des lecteurs. */
+    static final int CHUNK_SAMPLES = SAMPLE_RATE / 50;
+    private static final int BYTES_PER_SAMPLE = 2;
+
+    private final MicrophoneSource source;
+    private final AudioRingBuffer ring;
+    private final PolyphaseResampler resampler;
+    private final int micChunkSamples;
+    private final byte[] micBytes;
+    private final short[] micSamples;
+    private final short[] outSamples;
+    private EchoCanceller echoCanceller;
+    private volatile Thread thread;
+
+    /**
+     * @param historyMs durée d'historique conservée (pré-roll, lecteurs en retard)
+     */
+    public AudioCapture(MicrophoneSource source, int historyMs) {
+        this.source = source;
+        this.ring = new AudioRingBuffer((int) ((long) SAMPLE_RATE * historyMs / 1000));
+        int micRate = source.getSampleRate();
+        this.resampler = micRate != SAMPLE_RATE ? new PolyphaseResampler(micRate, SAMPLE_RATE) : null;
+        this.micChunkSamples = resampler != null
+                ? (int) Math.round(CHUNK_SAMPLES * micRate / (double) SAMPLE_RATE)
+                : CHUNK_SAMPLES;
+        this.micBytes = new byte[micChunkSamples * BYTES_PER_SAMPLE];
+        this.micSamples = new short[micChunkSamples];
+        this.outSamples = new short[resampler != null ? resampler.maxOutputLength(micChunkSamples) : 0];
+    }
+
+    /**
+     * Active l'annulation d'écho ; à appeler avant {@link #start()}. La référence est attachée à l'horloge du
+     * tampon de capture.
+     */
+    public synchronized void setEchoCanceller(EchoCanceller echoCanceller) {
+        if (thread != null) throw new IllegalStateException("capture déjà démarrée");
+        this.echoCanceller = echoCanceller;
+        echoCanceller.getReference().attach(ring::getWritePosition);
+    }
+
+    public synchronized void start() {
+        if (thread != null) return;
+        thread = new Thread(this::captureLoop, "audio-capture");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Audio capture started ({}, {} samples per read, resampling={}, history={} samples, echo cancellation={})",
+                source.describe(), micChunkSamples,
+                resampler != null ? resampler.getUpFactor() + "/" + resampler.getDownFactor() : "none",
+                ring.getCapacity(), echoCanceller != null ? echoCanceller.describe() : "none");
+    }
+
+    public AudioRingBuffer.Reader newReader() {
+        return ring.newReader();
+    }
+
+    public AudioRingBuffer getRing() {
+        return ring;
+    }
+
+    /** Canceller d'écho actif, ou {@code null}. */
+    public EchoCanceller getEchoCanceller() {
+        return echoCanceller;
+    }
+
+    public String describe() {
+        return source.describe();
+    }
+
+    private void captureLoop() {
+        int filled = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            int read = source.read(micBytes, filled, micBytes.length - filled);
+            if (read < 0) {
+                log.error("Audio source returned -1 (stream ended). Stopping audio capture.");
+                break;
+            }
+            filled += read;
+            if (filled < micBytes.length) continue;
+            filled = 0;
+
+            for (int i = 0; i < micChunkSamples; i++) {
+                micSamples[i] = (short) ((micBytes[2 * i] & 0xFF) | (micBytes[2 * i + 1] << 8));
+            }
+            if (resampler != null) {
+                publish(outSamples, resampler.process(micSamples, 0, micChunkSamples, outSamples, 0));
+            } else {
+                publish(micSamples, CHUNK_SAMPLES);
+            }
+        }
+        ring.close();
+        log.info("Audio capture thread finished.");
+    }
+
+    private void publish(short[] samples, int count) {
+        if (echoCanceller != null) {
+            echoCanceller.process(samples, 0, count, ring.getWritePosition());
+        }
+        ring.write(samples, 0, count);
+    }
+
+    @Override
+    public void close() {
+        Thread t = thread;
+        if (t != null) t.interrupt();
+        source.close();
+        ring.close();
+        if (t != null && t != Thread.currentThread()) {
+            try {
+                t.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
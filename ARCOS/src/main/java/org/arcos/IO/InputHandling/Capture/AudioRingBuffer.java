@@ -0,0 +1,205 @@
+package org.arcos.IO.InputHandling.Capture;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tampon circulaire d'échantillons PCM 16 bits : un seul écrivain (le thread de capture), autant de
+ * lecteurs indépendants que nécessaire (wake word, VAD, STT), chacun avec son propre curseur.
+ * <p>
+ * Sans verrou : l'écrivain copie les échantillons puis publie sa position par une écriture volatile ; un
+ * lecteur ne lit jamais au-delà de la position publiée. L'écrivain n'attend jamais : un lecteur qui prend
+ * plus de {@code capacity} échantillons de retard perd les plus anciens (comptés dans
+ * {@link Reader#getLostSamples()}). Aucune allocation en régime établi, côté écriture comme côté lecture.
+ * <p>
+ * Les positions sont absolues (nombre d'échantillons écrits depuis le démarrage), ce qui permet de
+ * revenir en arrière dans l'historique encore présent ({@link Reader#seek}) ou de sauter au présent
+ * ({@link Reader#skipToLatest}).
+ */
+public final class AudioRingBuffer {
+
+    private final short[] data;
+    private final int mask;
+    private volatile long writePosition;
+    private volatile boolean closed;
+    private volatile Reader[] readers = new Reader[0];
+
+    /**
+     * @param minCapacitySamples capacité minimale, arrondie à la puissance de deux supérieure
+     */
+    public AudioRingBuffer(int minCapacitySamples) {
+        if (minCapacitySamples <= 0) throw new IllegalArgumentException("capacity doit être positive");
+        int capacity = Integer.highestOneBit(minCapacitySamples - 1) << 1;
+        this.data = new short[Math.max(2, capacity)];
+        this.mask = data.length - 1;
+    }
+
+    /**
+     * Ajoute des échantillons (thread de capture uniquement) et réveille les lecteurs en attente.
+     */
+    public void write(short[] samples, int offset, int length) {
+        long position = writePosition;
+        if (length > data.length) {
+            // Seuls les derniers échantillons tiennent dans le tampon
+            position += length - data.length;
+            offset += length - data.length;
+            length = data.length;
+        }
+        int start = (int) (position & mask);
+        int first = Math.min(length, data.length - start);
+        System.arraycopy(samples, offset, data, start, first);
+        if (first < length) {
+            System.arraycopy(samples, offset + first, data, 0, length - first);
+        }
+        writePosition = position + length;
+
+        for (Reader reader : readers) {
+            Thread waiter = reader.waiter;
+            if (waiter != null) LockSupport.unpark(waiter);
+        }
+    }
+
+    /** Marque la fin du flux : les lecteurs terminent ce qui reste puis reçoivent -1. */
+    public void close() {
+        closed = true;
+        for (Reader reader : readers) {
+            Thread waiter = reader.waiter;
+            if (waiter != null) LockSupport.unpark(waiter);
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public long getWritePosition() {
+        return writePosition;
+    }
+
+    public int getCapacity() {
+        return data.length;
+    }
+
+    /** Crée un lecteur positionné sur le présent. */
+    public Reader newReader() {
+        Reader reader = new Reader(writePosition);
+        synchronized (this) {
+            Reader[] current = readers;
+            Reader[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = reader;
+            readers = next;
+        }
+        return reader;
+    }
+
+    private synchronized void unregister(Reader reader) {
+        Reader[] current = readers;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == reader) {
+                Reader[] next = new Reader[current.length - 1];
+                System.arraycopy(current, 0, next, 0, i);
+                System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                readers = next;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Curseur de lecture. Chaque lecteur ne doit être utilisé que par un seul thread.
+     */
+    public final class Reader implements AutoCloseable {
+
+        private long position;
+        private long lostSamples;
+        private volatile Thread waiter;
+
+        private Reader(long position) {
+            this.position = position;
+        }
+
+        /** Échantillons disponibles sans attendre (bornés à la capacité du tampon). */
+        public int available() {
+            return (int) Math.min(data.length, writePosition - position);
+        }
+
+        /**
+         * Lecture non bloquante d'au plus {@code length} échantillons.
+         *
+         * @return nombre d'échantillons lus (0 si rien de neuf)
+         */
+        public int read(short[] destination, int offset, int length) {
+            while (true) {
+                long published = writePosition;
+                long oldest = published - data.length;
+                if (position < oldest) {
+                    lostSamples += oldest - position;
+                    position = oldest;
+                }
+                int count = (int) Math.min(length, published - position);
+                if (count <= 0) return 0;
+
+                int start = (int) (position & mask);
+                int first = Math.min(count, data.length - start);
+                System.arraycopy(data, start, destination, offset, first);
+                if (first < count) {
+                    System.arraycopy(data, 0, destination, offset + first, count - first);
+                }
+                // L'écrivain a pu recouvrir la zone pendant la copie : on la jette et on relit plus loin
+                if (writePosition - data.length <= position) {
+                    position += count;
+                    return count;
+                }
+            }
+        }
+
+        /**
+         * Attend que {@code length} échantillons soient disponibles puis les lit d'un bloc.
+         *
+         * @return {@code length}, 0 si le délai expire (rien n'est consommé), -1 si le flux est fermé
+         */
+        public int read(short[] destination, int offset, int length, long timeoutMs) throws InterruptedException {
+            if (length > data.length) throw new IllegalArgumentException("lecture plus grande que le tampon");
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (writePosition - position < length) {
+                if (closed) return -1;
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) return 0;
+                waiter = Thread.currentThread();
+                if (writePosition - position < length && !closed) {
+                    LockSupport.parkNanos(this, remaining);
+                }
+                waiter = null;
+                if (Thread.interrupted()) throw new InterruptedException();
+            }
+            return read(destination, offset, length);
+        }
+
+        /** Abandonne tout ce qui n'a pas été lu (vidage instantané, par exemple après une réponse TTS). */
+        public void skipToLatest() {
+            position = writePosition;
+        }
+
+        /**
+         * Replace le curseur sur une position absolue, bornée à l'historique encore présent et au présent.
+         */
+        public void seek(long newPosition) {
+            long published = writePosition;
+            position = Math.max(published - data.length, Math.min(newPosition, published));
+        }
+
+        public long getPosition() {
+            return position;
+        }
+
+        public long getLostSamples() {
+            return lostSamples;
+        }
+
+        @Override
+        public void close() {
+            unregister(this);
+        }
+    }
+}
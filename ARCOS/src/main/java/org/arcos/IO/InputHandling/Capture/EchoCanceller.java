@@ -0,0 +1,181 @@
+package org.arcos.IO.InputHandling.Capture;
+
+import org.arcos.Configuration.AudioProperties;
+
+/**
+ * Annulation d'écho acoustique par filtre adaptatif NLMS : estime le trajet haut-parleur → micro à partir
+ * de la {@link EchoReference} et soustrait l'écho estimé du signal capturé, sur place, avant sa
+ * publication dans le tampon de capture. Le mot de réveil et la VAD voient ainsi la voix de l'utilisateur
+ * et non celle de l'assistant, ce qui permet de les laisser tourner pendant la lecture TTS.
+ * <p>
+ * Structure à deux filtres : un filtre d'arrière-plan s'adapte en permanence, le filtre de premier plan
+ * produit la sortie et ne reprend ses coefficients que sur un bloc où ils retirent nettement plus d'écho.
+ * Quand l'utilisateur parle par-dessus l'assistant (double parole), le filtre d'arrière-plan apprend sa
+ * voix et se dégrade, mais le premier plan reste figé sur le dernier trajet fiable : la voix de
+ * l'utilisateur n'est pas entamée, sans détecteur de double parole à régler.
+ * <p>
+ * Sans référence (aucune lecture en cours ni écho résiduel dans la fenêtre du filtre), le bloc est laissé
+ * intact pour un coût nul. Les coefficients sont conservés d'une réponse à l'autre : le trajet acoustique
+ * change peu et le filtre repart convergé. Utilisé par le seul thread de capture ; n'alloue rien après
+ * construction.
+ */
+public final class EchoCanceller {
+
+    /** Pas NLMS : convergence en quelques centaines de ms sur de la parole, sans trop de bruit d'adaptation. */
+    private static final float DEFAULT_STEP_SIZE = 0.5f;
+    /** Amplitude de référence moyenne en dessous de laquelle on n'adapte pas (~ -50 dBFS). */
+    private static final float MIN_REFERENCE_RMS = 100f;
+    /** Le premier plan reprend l'arrière-plan si celui-ci laisse moins de résiduel sur le bloc... */
+    private static final double TRANSFER_RATIO = 0.9;
+    /** ...et y retire au moins 6 dB du signal micro : faux en double parole, où le micro porte la voix de l'utilisateur. */
+    private static final double TRANSFER_MIN_ERLE = 4;
+    /** Granularité des décisions de transfert (20 ms à 16 kHz), indépendante de la taille des blocs reçus. */
+    private static final int BLOCK_SAMPLES = 320;
+    /** Lissage par bloc de la réduction d'écho affichée dans les logs. */
+    private static final double ERLE_SMOOTHING = 0.05;
+
+    private final EchoReference reference;
+    private final int taps;
+    private final float stepSize;
+    private final float regularization;
+    private final float[] background;
+    private final float[] foreground;
+    /** Historique de référence doublé : la fenêtre {@code [head, head + taps)} est contiguë, du plus récent au plus ancien. */
+    private final float[] history;
+    private final float[] block;
+    private int head;
+
+    private double micEnergy;
+    private double errorEnergy;
+    private long cancelledSamples;
+    private long transfers;
+
+    /**
+     * @param tailMs   durée d'écho modélisée (longueur du filtre)
+     * @param stepSize pas d'adaptation NLMS, dans {@code (0, 1]}
+     */
+    public EchoCanceller(EchoReference reference, int tailMs, float stepSize) {
+        if (tailMs <= 0 || stepSize <= 0 || stepSize > 1) {
+            throw new IllegalArgumentException("paramètres invalides");
+        }
+        this.reference = reference;
+        this.taps = reference.getSampleRate() * tailMs / 1000;
+        this.stepSize = stepSize;
+        this.regularization = taps * MIN_REFERENCE_RMS * MIN_REFERENCE_RMS;
+        this.background = new float[taps];
+        this.foreground = new float[taps];
+        this.history = new float[2 * taps];
+        this.block = new float[BLOCK_SAMPLES];
+    }
+
+    public static EchoCanceller create(AudioProperties props, EchoReference reference) {
+        return new EchoCanceller(reference, props.getEchoTailMs(), DEFAULT_STEP_SIZE);
+    }
+
+    public EchoReference getReference() {
+        return reference;
+    }
+
+    /**
+     * Retire l'écho d'un bloc capturé, sur place.
+     *
+     * @param position position de capture du premier échantillon du bloc
+     */
+    public void process(short[] samples, int offset, int length, long position) {
+        for (int done = 0; done < length; done += BLOCK_SAMPLES) {
+            processBlock(samples, offset + done, Math.min(BLOCK_SAMPLES, length - done), position + done);
+        }
+    }
+
+    private void processBlock(short[] samples, int offset, int length, long position) {
+        int available = reference.read(position, block, 0, length);
+        double windowPower = windowPower();
+        if (available == 0 && windowPower == 0) return;
+
+        final float[] wb = background;
+        final float[] wf = foreground;
+        final float[] x = history;
+        final int n = taps;
+        float power = (float) windowPower;
+        double blockMic = 0;
+        double blockBackground = 0;
+        double blockForeground = 0;
+        for (int i = 0; i < length; i++) {
+            // Nouvel échantillon de référence en tête, le plus ancien sort de la fenêtre
+            head = head == 0 ? n - 1 : head - 1;
+            float r = block[i];
+            float leaving = x[head];
+            x[head] = r;
+            x[head + n] = r;
+            power = Math.max(0f, power + r * r - leaving * leaving);
+
+            float mic = samples[offset + i];
+            float backgroundError = mic - dot(wb, x, head, n);
+            float foregroundError = mic - dot(wf, x, head, n);
+            if (power > regularization) {
+                adapt(wb, x, head, n, stepSize * backgroundError / (power + regularization));
+            }
+            blockMic += mic * mic;
+            blockBackground += backgroundError * backgroundError;
+            blockForeground += foregroundError * foregroundError;
+
+            samples[offset + i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(foregroundError)));
+        }
+
+        if (blockBackground < TRANSFER_RATIO * blockForeground && blockBackground * TRANSFER_MIN_ERLE < blockMic) {
+            System.arraycopy(wb, 0, wf, 0, n);
+            transfers++;
+        }
+        micEnergy += ERLE_SMOOTHING * (blockMic - micEnergy);
+        errorEnergy += ERLE_SMOOTHING * (Math.min(blockBackground, blockForeground) - errorEnergy);
+        cancelledSamples += length;
+    }
+
+    /** Réduction d'écho estimée (dB), lissée sur une dizaine de blocs. */
+    public double getErleDb() {
+        if (errorEnergy <= 0) return 0;
+        return 10 * Math.log10(micEnergy / errorEnergy);
+    }
+
+    public long getCancelledSamples() {
+        return cancelledSamples;
+    }
+
+    /** Nombre de blocs où le filtre de premier plan a repris les coefficients d'arrière-plan. */
+    public long getTransfers() {
+        return transfers;
+    }
+
+    public String describe() {
+        return "NLMS " + (taps * 1000 / reference.getSampleRate()) + " ms (" + taps + " coefficients, pas " + stepSize + ")";
+    }
+
+    /** Puissance exacte de la fenêtre de référence, recalculée à chaque bloc pour ne pas accumuler d'erreur. */
+    private double windowPower() {
+        double sum = 0;
+        for (int k = head; k < head + taps; k++) {
+            sum += (double) history[k] * history[k];
+        }
+        return sum;
+    }
+
+    private static float dot(float[] w, float[] x, int start, int n) {
+        // Quatre accumulateurs : casse la dépendance entre additions successives
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int k = 0;
+        for (; k + 3 < n; k += 4) {
+            s0 += w[k] * x[start + k];
+            s1 += w[k + 1] * x[start + k + 1];
+            s2 += w[k + 2] * x[start + k + 2];
+            s3 += w[k + 3] * x[start + k + 3];
+        }
+        for (; k < n; k++) s0 += w[k] * x[start + k];
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static void adapt(float[] w, float[] x, int start, int n, float gain) {
+        for (int k = 0; k < n; k++) {
+            w[k] += gain * x[start + k];
+        }
+    }
+}
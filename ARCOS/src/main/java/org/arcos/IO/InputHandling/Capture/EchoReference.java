@@ -0,0 +1,150 @@
+package org.arcos.IO.InputHandling.Capture;
+
+import org.arcos.IO.OuputHandling.Playback.PcmTap;
+
+import javax.sound.sampled.AudioFormat;
+import java.util.function.LongSupplier;
+
+/**
+ * Référence d'écho : l'audio TTS envoyé au haut-parleur, rééchantillonné à la fréquence de capture et
+ * indexé sur l'horloge du tampon de capture (position d'écriture du {@link AudioRingBuffer}).
+ * <p>
+ * Écrite par le thread de lecture TTS ({@link PcmTap}), lue par le thread de capture
+ * ({@link EchoCanceller}). La première tranche d'une phrase est ancrée sur la position de capture
+ * courante (plus un retard fixe configurable) ; les suivantes sont placées à la suite, car
+ * {@code PcmOutput.write} bloque au rythme du périphérique. Si la lecture prend du retard (synthèse plus
+ * lente que le temps réel), la référence est réancrée. Un {@code flush} de la sortie efface la référence
+ * non encore jouée : un écho fantôme ne doit pas être soustrait de la parole qui a provoqué l'interruption.
+ * <p>
+ * Tant qu'aucune horloge n'est attachée ({@link #attach}), l'audio reçu est ignoré.
+ */
+public final class EchoReference implements PcmTap {
+
+    private final int sampleRate;
+    private final int delaySamples;
+    private final float[] samples;
+    private final int mask;
+
+    private volatile LongSupplier clock;
+    /** Fin (exclue) de la référence publiée, en position de capture. */
+    private volatile long writeLimit;
+
+    // État du thread de lecture, protégé par le verrou de l'instance
+    private PolyphaseResampler resampler;
+    private float resamplerInputRate;
+    private short[] input = new short[0];
+    private short[] output = new short[0];
+    private long nextPosition = Long.MIN_VALUE;
+
+    /**
+     * @param sampleRate fréquence de capture (celle de l'horloge attachée)
+     * @param delayMs    retard ajouté à la position d'ancrage (sortie à fort tampon, ex. lecteur externe)
+     * @param historyMs  avance maximale de la référence sur la capture (arrondie à une puissance de deux)
+     */
+    public EchoReference(int sampleRate, int delayMs, int historyMs) {
+        if (sampleRate <= 0 || delayMs < 0 || historyMs <= 0) throw new IllegalArgumentException("paramètres invalides");
+        this.sampleRate = sampleRate;
+        this.delaySamples = (int) ((long) sampleRate * delayMs / 1000);
+        int capacity = Integer.highestOneBit(Math.max(2, (int) ((long) sampleRate * historyMs / 1000)) - 1) << 1;
+        this.samples = new float[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Attache l'horloge de capture : position (en échantillons) du prochain bloc publié.
+     */
+    public void attach(LongSupplier captureClock) {
+        this.clock = captureClock;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getCapacity() {
+        return samples.length;
+    }
+
+    @Override
+    public synchronized void onPlayback(AudioFormat format, byte[] data, int offset, int length) {
+        LongSupplier c = clock;
+        if (c == null || format.getSampleSizeInBits() != 16 || format.getChannels() != 1 || format.isBigEndian()) {
+            return;
+        }
+        long anchor = c.getAsLong() + delaySamples;
+        boolean reanchor = nextPosition < anchor;
+        int count = length / 2;
+        short[] pcm = converted(format.getSampleRate(), data, offset, count);
+        int produced = count;
+        if (resampler != null) {
+            if (reanchor) resampler.reset();
+            produced = resampler.process(input, 0, count, output, 0);
+            pcm = output;
+        }
+
+        if (reanchor) {
+            // Lecture interrompue ou en retard : l'audio repart maintenant, le trou est du silence
+            long gapStart = Math.max(writeLimit, anchor - samples.length);
+            for (long p = gapStart; p < anchor; p++) samples[(int) (p & mask)] = 0f;
+            nextPosition = anchor;
+        }
+        for (int i = 0; i < produced; i++) {
+            samples[(int) ((nextPosition + i) & mask)] = pcm[i];
+        }
+        nextPosition += produced;
+        writeLimit = nextPosition;
+    }
+
+    @Override
+    public synchronized void onFlush() {
+        LongSupplier c = clock;
+        if (c == null) return;
+        long now = c.getAsLong() + delaySamples;
+        if (writeLimit > now) writeLimit = now;
+        nextPosition = Long.MIN_VALUE;
+        if (resampler != null) resampler.reset();
+    }
+
+    @Override
+    public String describe() {
+        return "référence d'écho";
+    }
+
+    /**
+     * Copie la référence alignée sur {@code [position, position + length)} ; zéro hors de la référence connue.
+     *
+     * @return nombre d'échantillons de référence effectivement disponibles sur l'intervalle
+     */
+    public int read(long position, float[] dst, int offset, int length) {
+        long limit = writeLimit;
+        long oldest = limit - samples.length;
+        int available = 0;
+        for (int i = 0; i < length; i++) {
+            long p = position + i;
+            if (p >= oldest && p < limit) {
+                dst[offset + i] = samples[(int) (p & mask)];
+                available++;
+            } else {
+                dst[offset + i] = 0f;
+            }
+        }
+        return available;
+    }
+
+    private short[] converted(float rate, byte[] data, int offset, int count) {
+        if (rate != resamplerInputRate) {
+            resamplerInputRate = rate;
+            resampler = Math.round(rate) != sampleRate ? new PolyphaseResampler(Math.round(rate), sampleRate) : null;
+        }
+        if (input.length < count) {
+            input = new short[count];
+        }
+        if (resampler != null && output.length < resampler.maxOutputLength(count)) {
+            output = new short[resampler.maxOutputLength(count)];
+        }
+        for (int i = 0; i < count; i++) {
+            input[i] = (short) ((data[offset + 2 * i] & 0xFF) | (data[offset + 2 * i + 1] << 8));
+        }
+        return input;
+    }
+}
@@ -0,0 +1,158 @@
+package org.arcos.IO.InputHandling.Capture;
+
+import java.util.Arrays;
+
+/**
+ * Rééchantillonneur rationnel polyphase (facteur {@code L/M}, par exemple 160/441 pour 44,1 kHz → 16 kHz).
+ * <p>
+ * Le filtre prototype (sinc fenêtré Kaiser, {@code L × TAPS_PER_PHASE} coefficients) est découpé en
+ * {@code L} phases à la construction ; chaque échantillon de sortie ne coûte donc qu'un produit scalaire
+ * de {@link #TAPS_PER_PHASE} flottants, sans branchement, sur une copie contiguë de l'entrée. L'historique
+ * est conservé d'un bloc à l'autre : la sortie ne dépend pas du découpage de l'entrée et la position
+ * d'échantillonnage est exacte (pas d'arrondi à l'échantillon d'entrée le plus proche).
+ * <p>
+ * Une instance n'est pas thread-safe ; elle n'alloue rien après le premier bloc de taille maximale.
+ */
+public final class PolyphaseResampler {
+
+    /** Coefficients par phase : ~60 dB d'atténuation en bande coupée pour 44,1 → 16 kHz. */
+    public static final int TAPS_PER_PHASE = 24;
+    /** Coupure à 0,45 × la plus basse des deux fréquences (7,2 kHz pour une sortie à 16 kHz, comme l'ancien filtre). */
+    private static final double CUTOFF_RATIO = 0.45;
+    private static final double KAISER_BETA = 6.0;
+
+    private final int up;
+    private final int down;
+    /** Phase {@code p} en {@code [p*TAPS, (p+1)*TAPS)}, coefficients dans l'ordre chronologique de l'entrée. */
+    private final float[] coefficients;
+
+    /** {@code TAPS_PER_PHASE - 1} échantillons d'historique suivis du bloc courant. */
+    private float[] buffer;
+    /** Index dans {@code buffer} de l'échantillon d'entrée le plus récent utilisé par la prochaine sortie. */
+    private int position = TAPS_PER_PHASE - 1;
+    private int phase;
+
+    public PolyphaseResampler(int inputRate, int outputRate) {
+        if (inputRate <= 0 || outputRate <= 0) throw new IllegalArgumentException("fréquences invalides");
+        int gcd = gcd(inputRate, outputRate);
+        this.up = outputRate / gcd;
+        this.down = inputRate / gcd;
+        this.coefficients = design(up, CUTOFF_RATIO * Math.min(inputRate, outputRate) / inputRate);
+        this.buffer = new float[TAPS_PER_PHASE - 1 + 1024];
+    }
+
+    public int getUpFactor() {
+        return up;
+    }
+
+    public int getDownFactor() {
+        return down;
+    }
+
+    /** Nombre maximal d'échantillons produits pour {@code inputLength} échantillons d'entrée. */
+    public int maxOutputLength(int inputLength) {
+        return (int) (((long) inputLength * up + down - 1) / down) + 1;
+    }
+
+    /**
+     * Rééchantillonne un bloc.
+     *
+     * @return nombre d'échantillons écrits dans {@code output} (au plus {@link #maxOutputLength(int)})
+     */
+    public int process(short[] input, int inputOffset, int inputLength, short[] output, int outputOffset) {
+        final int history = TAPS_PER_PHASE - 1;
+        if (buffer.length < history + inputLength) {
+            float[] grown = new float[history + inputLength];
+            System.arraycopy(buffer, 0, grown, 0, history);
+            buffer = grown;
+        }
+        final float[] x = buffer;
+        for (int i = 0; i < inputLength; i++) {
+            x[history + i] = input[inputOffset + i];
+        }
+
+        final float[] h = coefficients;
+        final int end = history + inputLength;
+        int pos = position;
+        int p = phase;
+        int written = 0;
+        while (pos < end) {
+            int base = pos - history;
+            int c = p * TAPS_PER_PHASE;
+            float acc = 0f;
+            for (int k = 0; k < TAPS_PER_PHASE; k++) {
+                acc += h[c + k] * x[base + k];
+            }
+            int sample = Math.round(acc);
+            output[outputOffset + written++] = (short) (sample > Short.MAX_VALUE ? Short.MAX_VALUE
+                    : sample < Short.MIN_VALUE ? Short.MIN_VALUE : sample);
+
+            p += down;
+            pos += p / up;
+            p %= up;
+        }
+
+        System.arraycopy(x, inputLength, x, 0, history);
+        position = pos - inputLength;
+        phase = p;
+        return written;
+    }
+
+    /** Oublie l'historique (nouveau flux). */
+    public void reset() {
+        Arrays.fill(buffer, 0f);
+        position = TAPS_PER_PHASE - 1;
+        phase = 0;
+    }
+
+    /**
+     * Sinc fenêtré (Kaiser) à la fréquence suréchantillonnée {@code up × entrée}, gain {@code up} pour
+     * compenser les zéros insérés, puis réordonné par phase.
+     *
+     * @param cutoff coupure rapportée à la fréquence d'entrée (0,5 = Nyquist d'entrée)
+     */
+    private static float[] design(int up, double cutoff) {
+        int length = up * TAPS_PER_PHASE;
+        double[] prototype = new double[length];
+        double center = (length - 1) / 2.0;
+        double fc = cutoff / up;
+        double norm = besselI0(KAISER_BETA);
+        double sum = 0;
+        for (int n = 0; n < length; n++) {
+            double t = n - center;
+            double sinc = t == 0 ? 2 * fc : Math.sin(2 * Math.PI * fc * t) / (Math.PI * t);
+            double r = t / (length / 2.0);
+            double window = besselI0(KAISER_BETA * Math.sqrt(Math.max(0, 1 - r * r))) / norm;
+            prototype[n] = sinc * window;
+            sum += prototype[n];
+        }
+
+        // Phase p, coefficient k appliqué à x[i - k] ; stocké à l'envers pour parcourir l'entrée vers l'avant
+        float[] polyphase = new float[length];
+        for (int p = 0; p < up; p++) {
+            for (int k = 0; k < TAPS_PER_PHASE; k++) {
+                polyphase[p * TAPS_PER_PHASE + (TAPS_PER_PHASE - 1 - k)] = (float) (prototype[p + k * up] * up / sum);
+            }
+        }
+        return polyphase;
+    }
+
+    private static double besselI0(double x) {
+        double sum = 1, term = 1, half = x / 2;
+        for (int k = 1; k < 50; k++) {
+            term *= (half / k) * (half / k);
+            sum += term;
+            if (term < sum * 1e-12) break;
+        }
+        return sum;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
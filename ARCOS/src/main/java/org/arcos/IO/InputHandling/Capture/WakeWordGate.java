@@ -0,0 +1,126 @@
+package org.arcos.IO.InputHandling.Capture;
+
+import org.arcos.Configuration.AudioProperties;
+
+/**
+ * Pré-filtre énergétique devant le détecteur de mot de réveil : pendant un silence prolongé, les trames
+ * sont lues puis écartées sans passer par Porcupine, de loin le plus gros consommateur CPU au repos.
+ * <p>
+ * Le plancher de bruit est suivi en dB : il descend vite vers les trames plus calmes et ne remonte que
+ * lentement ({@value #FLOOR_RISE_DB_PER_SECOND} dB/s), ce qui absorbe un bruit de fond qui s'installe
+ * (ventilateur, chauffage) sans suivre la parole. Une trame dépassant le plancher de {@code marginDb}
+ * ouvre la porte, qui reste ouverte {@code holdMs} après la dernière trame active.
+ * <p>
+ * À l'ouverture, le curseur est ramené {@code preRollMs} en arrière dans le tampon de capture : le début du
+ * mot (attaque douce, première syllabe sous le seuil) est rejoué au détecteur avant la trame déclenchante.
+ */
+public final class WakeWordGate {
+
+    private static final double FLOOR_RISE_DB_PER_SECOND = 1.0;
+    private static final double FLOOR_FALL_RATE = 0.3;
+
+    private final boolean enabled;
+    private final double marginDb;
+    private final long holdSamples;
+    private final int preRollSamples;
+    private final int sampleRate;
+
+    private boolean initialized;
+    private boolean open;
+    private double noiseFloorDb;
+    private double lastLevelDb;
+    private long clock;
+    private long lastActiveClock = Long.MIN_VALUE / 2;
+    /** Fin (position absolue) de l'historique en cours de relecture après une ouverture. */
+    private long replayEnd = Long.MIN_VALUE;
+    private long processedFrames;
+    private long skippedFrames;
+
+    public WakeWordGate(boolean enabled, double marginDb, int holdMs, int preRollMs, int sampleRate) {
+        this.enabled = enabled;
+        this.marginDb = marginDb;
+        this.holdSamples = (long) sampleRate * holdMs / 1000;
+        this.preRollSamples = sampleRate * preRollMs / 1000;
+        this.sampleRate = sampleRate;
+    }
+
+    public static WakeWordGate create(AudioProperties props, int sampleRate) {
+        return new WakeWordGate(props.isWakeWordGateEnabled(), props.getWakeWordGateMarginDb(),
+                props.getWakeWordGateHoldMs(), props.getWakeWordGatePreRollMs(), sampleRate);
+    }
+
+    /**
+     * Lit la trame suivante et indique si elle doit être soumise au détecteur.
+     *
+     * @return {@code length} si la trame est à traiter, 0 si elle a été écartée (silence, ouverture de la
+     * porte) ou si le délai a expiré, -1 si le flux est fermé
+     */
+    public int read(AudioRingBuffer.Reader reader, short[] frame, int length, long timeoutMs)
+            throws InterruptedException {
+        long framePosition = reader.getPosition();
+        int read = reader.read(frame, 0, length, timeoutMs);
+        if (read <= 0) return read;
+
+        if (framePosition < replayEnd) {
+            processedFrames++;
+            return read;
+        }
+
+        boolean wasOpen = open;
+        update(frame, read);
+        if (!enabled) {
+            processedFrames++;
+            return read;
+        }
+        if (!open) {
+            skippedFrames++;
+            return 0;
+        }
+        if (!wasOpen && preRollSamples > 0) {
+            replayEnd = reader.getPosition();
+            reader.seek(framePosition - preRollSamples);
+            return 0;
+        }
+        processedFrames++;
+        return read;
+    }
+
+    private void update(short[] frame, int length) {
+        long sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += (long) frame[i] * frame[i];
+        }
+        double levelDb = 10 * Math.log10((double) sum / length + 1);
+        lastLevelDb = levelDb;
+        clock += length;
+
+        if (!initialized) {
+            noiseFloorDb = levelDb;
+            initialized = true;
+        }
+        if (levelDb > noiseFloorDb + marginDb) {
+            lastActiveClock = clock;
+        }
+        if (levelDb < noiseFloorDb) {
+            noiseFloorDb += (levelDb - noiseFloorDb) * FLOOR_FALL_RATE;
+        } else {
+            noiseFloorDb += Math.min(levelDb - noiseFloorDb, FLOOR_RISE_DB_PER_SECOND * length / sampleRate);
+        }
+        open = clock - lastActiveClock <= holdSamples;
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public boolean isOpen() { return !enabled || open; }
+    public double getNoiseFloorDb() { return noiseFloorDb; }
+    /** RMS de la dernière trame évaluée (pour le journal de niveau audio). */
+    public int getLastRms() { return (int) Math.sqrt(Math.max(0, Math.pow(10, lastLevelDb / 10) - 1)); }
+    public long getProcessedFrames() { return processedFrames; }
+    public long getSkippedFrames() { return skippedFrames; }
+
+    public String describe() {
+        return enabled
+                ? String.format("energy gate (margin %.1f dB, hold %d ms, pre-roll %d ms)",
+                        marginDb, holdSamples * 1000 / sampleRate, preRollSamples * 1000 / sampleRate)
+                : "energy gate disabled";
+    }
+}
@@ -101,12 +101,4 @@ public class JavaSoundMicrophoneSource implements MicrophoneSource {
     public int recommendedSilenceThreshold() {
         return 1000;
     }
-
-    @Override
-    public void drain() {
-        if (line != null) {
-            line.flush();
-            log.debug("Flushed Java Sound capture buffer");
-        }
-    }
 }
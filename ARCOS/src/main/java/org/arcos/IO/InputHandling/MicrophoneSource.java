@@ -27,7 +27,4 @@ public interface MicrophoneSource {
 
     /** Recommended RMS silence threshold for this source. */
     int recommendedSilenceThreshold();
-
-    /** Discard any buffered audio data (e.g. after pausing capture during TTS playback). */
-    default void drain() {}
 }
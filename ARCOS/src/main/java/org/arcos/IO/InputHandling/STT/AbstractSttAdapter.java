@@ -7,12 +7,20 @@ import okhttp3.*;
 
 import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Base partagée pour les adapters STT. Gère le client HTTP, le parsing JSON,
  * et le cycle de vie. Les sous-classes fournissent uniquement le chemin
  * d'endpoint et la construction du body multipart.
+ * <p>
+ * En mode streaming ({@link #transcribeWindow}), le texte déjà reconnu est envoyé comme
+ * {@code prompt} pour que chaque fenêtre soit décodée dans la continuité de la précédente.
+ * <p>
+ * {@link #transcribeAsync} passe par le dispatcher OkHttp : annuler le futur annule l'appel HTTP, ce qui
+ * libère aussitôt la connexion d'une requête doublée perdante ({@link HedgedSttBackend}).
  */
 @Slf4j
 abstract class AbstractSttAdapter implements SttBackend {
@@ -41,32 +49,77 @@ abstract class AbstractSttAdapter implements SttBackend {
 
     @Override
     public String transcribe(byte[] wavData) {
+        try {
+            return post(wavData, null);
+        } catch (IOException e) {
+            log.error("Error during {} transcription", describe(), e);
+            return "";
+        }
+    }
+
+    @Override
+    public String transcribeWindow(byte[] wavData, String prompt) throws IOException {
+        return post(wavData, prompt);
+    }
+
+    @Override
+    public CompletableFuture<String> transcribeAsync(byte[] wavData, String prompt, Executor executor) {
+        Call call = httpClient.newCall(buildRequest(wavData, prompt));
+        CompletableFuture<String> result = new CompletableFuture<>();
+        result.whenComplete((text, error) -> {
+            if (result.isCancelled()) call.cancel();
+        });
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call failed, IOException e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call completed, Response response) {
+                try (response) {
+                    result.complete(parse(response));
+                } catch (IOException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        return result;
+    }
+
+    private String post(byte[] wavData, String prompt) throws IOException {
+        try (Response response = httpClient.newCall(buildRequest(wavData, prompt)).execute()) {
+            return parse(response);
+        }
+    }
+
+    private Request buildRequest(byte[] wavData, String prompt) {
         MultipartBody.Builder bodyBuilder = new MultipartBody.Builder()
                 .setType(MultipartBody.FORM)
                 .addFormDataPart("file", "audio.wav",
                         RequestBody.create(wavData, WAV_TYPE));
+        if (prompt != null && !prompt.isBlank()) {
+            // faster-whisper et whisper.cpp acceptent tous deux un champ "prompt" (contexte du décodeur)
+            bodyBuilder.addFormDataPart("prompt", prompt);
+        }
 
         RequestBody requestBody = addFormFields(bodyBuilder).build();
 
-        Request request = new Request.Builder()
+        return new Request.Builder()
                 .url(baseUrl + endpointPath())
                 .post(requestBody)
                 .build();
+    }
 
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                log.error("Transcription failed: code={}, body={}", response.code(),
-                        response.body() != null ? response.body().string() : "null");
-                return "";
-            }
-
-            String responseBody = Objects.requireNonNull(response.body()).string();
-            JsonNode json = objectMapper.readTree(responseBody);
-            return json.path("text").asText("");
-        } catch (IOException e) {
-            log.error("Error during {} transcription", describe(), e);
-            return "";
+    private String parse(Response response) throws IOException {
+        if (!response.isSuccessful()) {
+            throw new IOException("Transcription failed: code=" + response.code() + ", body="
+                    + (response.body() != null ? response.body().string() : "null"));
         }
+
+        String responseBody = Objects.requireNonNull(response.body()).string();
+        JsonNode json = objectMapper.readTree(responseBody);
+        return json.path("text").asText("");
     }
 
     @Override
@@ -0,0 +1,76 @@
+package org.arcos.IO.InputHandling.STT;
+
+import java.util.Arrays;
+
+/**
+ * Latence et taux d'erreur récents d'un backend STT, sur fenêtres glissantes.
+ * <p>
+ * Un backend dont le taux d'erreur dépasse le seuil est dégradé ; il redevient éligible au premier rang
+ * après un délai sans nouvel échec (demi-ouverture, comme un circuit breaker), avec des compteurs remis à zéro.
+ */
+final class BackendStats {
+
+    private static final int LATENCY_WINDOW = 50;
+    private static final int OUTCOME_WINDOW = 20;
+    /** Échantillons requis avant de se fier au p95 ou au taux d'erreur. */
+    private static final int MIN_SAMPLES = 5;
+
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private final long[] sorted = new long[LATENCY_WINDOW];
+    private int latencyCount;
+    private int latencyNext;
+
+    private final boolean[] failures = new boolean[OUTCOME_WINDOW];
+    private int outcomeCount;
+    private int outcomeNext;
+    private int failureCount;
+    private long lastFailureAt;
+
+    synchronized void recordSuccess(long latencyMs) {
+        latencies[latencyNext] = latencyMs;
+        latencyNext = (latencyNext + 1) % LATENCY_WINDOW;
+        latencyCount = Math.min(LATENCY_WINDOW, latencyCount + 1);
+        recordOutcome(false);
+    }
+
+    synchronized void recordFailure(long now) {
+        lastFailureAt = now;
+        recordOutcome(true);
+    }
+
+    private void recordOutcome(boolean failed) {
+        if (outcomeCount == OUTCOME_WINDOW && failures[outcomeNext]) failureCount--;
+        failures[outcomeNext] = failed;
+        if (failed) failureCount++;
+        outcomeNext = (outcomeNext + 1) % OUTCOME_WINDOW;
+        outcomeCount = Math.min(OUTCOME_WINDOW, outcomeCount + 1);
+    }
+
+    /**
+     * 95e centile des latences réussies récentes, ou {@code fallbackMs} tant qu'il y a trop peu d'échantillons.
+     */
+    synchronized long p95(long fallbackMs) {
+        if (latencyCount < MIN_SAMPLES) return fallbackMs;
+        System.arraycopy(latencies, 0, sorted, 0, latencyCount);
+        Arrays.sort(sorted, 0, latencyCount);
+        return sorted[Math.min(latencyCount - 1, (int) Math.ceil(0.95 * latencyCount) - 1)];
+    }
+
+    synchronized double errorRate() {
+        return outcomeCount == 0 ? 0 : (double) failureCount / outcomeCount;
+    }
+
+    /**
+     * @param maxErrorRate taux d'erreur au-delà duquel le backend est dégradé
+     * @param recoveryMs   délai sans échec après lequel un backend dégradé est de nouveau essayé en premier
+     */
+    synchronized boolean isHealthy(long now, double maxErrorRate, long recoveryMs) {
+        if (outcomeCount < MIN_SAMPLES || errorRate() <= maxErrorRate) return true;
+        if (now - lastFailureAt < recoveryMs) return false;
+        Arrays.fill(failures, false);
+        outcomeCount = 0;
+        outcomeNext = 0;
+        failureCount = 0;
+        return true;
+    }
+}
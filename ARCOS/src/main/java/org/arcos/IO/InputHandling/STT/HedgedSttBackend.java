@@ -0,0 +1,197 @@
+package org.arcos.IO.InputHandling.STT;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Plusieurs backends STT ordonnés par préférence, avec requêtes doublées (hedging).
+ * <p>
+ * La requête part sur le premier backend sain. S'il n'a pas répondu au bout de son p95 de latence
+ * récent, la même requête est envoyée au suivant et la première transcription valide l'emporte ; l'autre
+ * requête est annulée. Un échec bascule immédiatement sur le backend suivant. Un backend dont le taux
+ * d'erreur monte est relégué en fin de liste ({@link BackendStats}) : il ne sert plus que de secours,
+ * jusqu'à ce qu'un délai sans échec lui rende sa place. Seules les vraies erreurs et les requêtes restées
+ * sans réponse jusqu'au timeout global comptent comme des échecs : une requête annulée parce que l'autre
+ * a gagné la course ne pénalise pas son backend.
+ */
+@Slf4j
+class HedgedSttBackend implements SttBackend {
+
+    /** Délai avant requête doublée tant que le p95 d'un backend n'est pas connu. */
+    private static final long INITIAL_HEDGE_DELAY_MS = 2_000;
+    /** Délai après lequel un backend relégué est de nouveau essayé en premier. */
+    private static final long RECOVERY_MS = 30_000;
+    /** Borne globale d'une transcription, alignée sur le timeout des clients HTTP. */
+    private static final long REQUEST_TIMEOUT_MS = 60_000;
+
+    private record Member(SttBackend backend, BackendStats stats) {}
+
+    private record Attempt(Member member, CompletableFuture<String> result) {}
+
+    private final List<Member> members;
+    private final long minHedgeDelayMs;
+    private final double maxErrorRate;
+    private final ExecutorService executor;
+    private volatile Member lastPrimary;
+
+    /**
+     * @param backends        backends par ordre de préférence
+     * @param minHedgeDelayMs délai minimal avant requête doublée, quel que soit le p95
+     * @param maxErrorRate    taux d'erreur récent au-delà duquel un backend est relégué
+     */
+    HedgedSttBackend(List<SttBackend> backends, long minHedgeDelayMs, double maxErrorRate) {
+        if (backends.isEmpty()) throw new IllegalArgumentException("au moins un backend STT requis");
+        this.members = backends.stream().map(b -> new Member(b, new BackendStats())).toList();
+        this.minHedgeDelayMs = minHedgeDelayMs;
+        this.maxErrorRate = maxErrorRate;
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "stt-hedge");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public String transcribe(byte[] wavData) {
+        try {
+            return transcribeWindow(wavData, null);
+        } catch (IOException e) {
+            log.error("Error during {} transcription", describe(), e);
+            return "";
+        }
+    }
+
+    @Override
+    public String transcribeWindow(byte[] wavData, String prompt) throws IOException {
+        List<Member> order = ranked();
+        IOException lastError = null;
+        int next = 0;
+        while (next < order.size()) {
+            Member primary = order.get(next++);
+            Attempt first = start(primary, wavData, prompt);
+            long hedgeDelayMs = Math.max(minHedgeDelayMs, primary.stats().p95(INITIAL_HEDGE_DELAY_MS));
+            try {
+                return first.result().get(hedgeDelayMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException slow) {
+                List<Attempt> attempts = new ArrayList<>(List.of(first));
+                if (next < order.size()) {
+                    Member hedge = order.get(next++);
+                    log.info("{} slower than {} ms, hedging on {}", primary.backend().describe(), hedgeDelayMs,
+                            hedge.backend().describe());
+                    attempts.add(start(hedge, wavData, prompt));
+                }
+                try {
+                    return firstSuccess(attempts);
+                } catch (IOException e) {
+                    lastError = e;
+                }
+            } catch (ExecutionException e) {
+                lastError = asIOException(e.getCause());
+                log.warn("{} failed, failing over: {}", primary.backend().describe(), lastError.getMessage());
+            } catch (InterruptedException e) {
+                first.result().cancel(true);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("transcription interrompue");
+            }
+        }
+        throw lastError;
+    }
+
+    @Override
+    public String describe() {
+        return "hedged [" + members.stream().map(m -> m.backend().describe()).collect(Collectors.joining(", ")) + "]";
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        members.forEach(m -> m.backend().close());
+    }
+
+    /** Backends sains dans l'ordre configuré, puis les backends relégués. */
+    private List<Member> ranked() {
+        long now = System.currentTimeMillis();
+        List<Member> healthy = new ArrayList<>(members.size());
+        List<Member> degraded = new ArrayList<>();
+        for (Member member : members) {
+            (member.stats().isHealthy(now, maxErrorRate, RECOVERY_MS) ? healthy : degraded).add(member);
+        }
+        healthy.addAll(degraded);
+        Member primary = healthy.get(0);
+        Member previous = lastPrimary;
+        if (previous != null && previous != primary) {
+            log.warn("STT routed to {} ({} error rate on {})", primary.backend().describe(),
+                    String.format("%.0f %%", previous.stats().errorRate() * 100), previous.backend().describe());
+        }
+        lastPrimary = primary;
+        return healthy;
+    }
+
+    private Attempt start(Member member, byte[] wavData, String prompt) {
+        long startedAt = System.nanoTime();
+        CompletableFuture<String> result = member.backend().transcribeAsync(wavData, prompt, executor);
+        result.whenComplete((text, error) -> {
+            if (error == null) {
+                member.stats().recordSuccess((System.nanoTime() - startedAt) / 1_000_000);
+            } else if (!(error instanceof CancellationException)) { // annulée = course perdue, pas un échec
+                member.stats().recordFailure(System.currentTimeMillis());
+            }
+        });
+        return new Attempt(member, result);
+    }
+
+    /**
+     * Première transcription réussie parmi les requêtes en vol ; les autres sont annulées.
+     */
+    private static String firstSuccess(List<Attempt> attempts) throws IOException {
+        CompletableFuture<String> winner = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(attempts.size());
+        for (Attempt attempt : attempts) {
+            attempt.result().whenComplete((text, error) -> {
+                if (error == null) {
+                    if (winner.complete(text) && attempts.size() > 1) {
+                        log.debug("Hedged transcription won by {}", attempt.member().backend().describe());
+                    }
+                } else if (remaining.decrementAndGet() == 0) {
+                    winner.completeExceptionally(error);
+                }
+            });
+        }
+        try {
+            return winner.get(REQUEST_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw asIOException(e.getCause());
+        } catch (TimeoutException e) {
+            long now = System.currentTimeMillis();
+            attempts.stream().filter(attempt -> !attempt.result().isDone())
+                    .forEach(attempt -> attempt.member().stats().recordFailure(now));
+            throw new IOException("Aucune transcription en " + REQUEST_TIMEOUT_MS + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("transcription interrompue");
+        } finally {
+            attempts.forEach(attempt -> attempt.result().cancel(true));
+        }
+    }
+
+    private static IOException asIOException(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof IOException io) return io;
+        if (cause instanceof CancellationException) return new IOException("requête annulée", cause);
+        return new IOException(cause);
+    }
+}
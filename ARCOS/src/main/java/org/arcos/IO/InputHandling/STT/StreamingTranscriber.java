@@ -0,0 +1,128 @@
+package org.arcos.IO.InputHandling.STT;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transcription incrémentale d'un énoncé pendant sa capture.
+ * <p>
+ * {@link SttGate} soumet des fenêtres WAV qui se chevauchent au fil de l'enregistrement ; elles sont
+ * transcrites une par une sur un thread dédié et fusionnées par {@link TranscriptMerger}. À la fin de
+ * la parole, seule la queue non encore couverte est envoyée au backend : la latence perçue ne dépend
+ * plus de la durée de l'énoncé.
+ * <p>
+ * Si une fenêtre échoue, le flux est marqué en échec et {@link #finish} retourne {@code null} : l'appelant
+ * retombe sur une transcription complète de l'énoncé.
+ */
+@Slf4j
+class StreamingTranscriber {
+
+    private static final long FINISH_TIMEOUT_MS = 60_000;
+    /** Longueur maximale du contexte passé au backend (Whisper tronque de toute façon à ~224 tokens). */
+    private static final int MAX_PROMPT_CHARS = 200;
+
+    private final SttBackend backend;
+    private final ExecutorService executor;
+    private final AtomicInteger generation = new AtomicInteger();
+
+    private volatile String transcript = "";
+    private volatile boolean failed;
+    private Future<?> inFlight;
+    private int windowCount;
+
+    StreamingTranscriber(SttBackend backend) {
+        this.backend = backend;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "stt-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Vrai tant que la fenêtre précédente n'est pas transcrite : l'appelant attend alors pour envoyer
+     * une fenêtre plus longue plutôt que d'empiler les requêtes.
+     */
+    boolean isBusy() {
+        return inFlight != null && !inFlight.isDone();
+    }
+
+    void submitWindow(byte[] wavData) {
+        if (failed) return;
+        windowCount++;
+        int expected = generation.get();
+        inFlight = executor.submit(() -> transcribeAndMerge(wavData, expected));
+    }
+
+    /**
+     * Transcrit la queue de l'énoncé (si non nulle) après les fenêtres en cours et retourne le texte fusionné,
+     * ou {@code null} si le flux a échoué ou n'a pas abouti à temps.
+     */
+    String finish(byte[] tailWavData) {
+        if (failed) return null;
+        int expected = generation.get();
+        Future<?> last = tailWavData != null
+                ? executor.submit(() -> transcribeAndMerge(tailWavData, expected))
+                : executor.submit(() -> {});
+        try {
+            last.get(FINISH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Streaming transcription timed out after {} ms", FINISH_TIMEOUT_MS);
+            last.cancel(true);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            log.warn("Streaming transcription failed", e.getCause());
+            return null;
+        }
+        return failed ? null : transcript;
+    }
+
+    int getWindowCount() {
+        return windowCount;
+    }
+
+    void reset() {
+        generation.incrementAndGet();
+        transcript = "";
+        failed = false;
+        inFlight = null;
+        windowCount = 0;
+    }
+
+    void close() {
+        generation.incrementAndGet();
+        executor.shutdownNow();
+    }
+
+    private void transcribeAndMerge(byte[] wavData, int expected) {
+        if (failed || generation.get() != expected) return;
+        try {
+            String hypothesis = backend.transcribeWindow(wavData, promptFrom(transcript));
+            if (generation.get() != expected) return;
+            transcript = TranscriptMerger.merge(transcript, hypothesis.replaceAll("\\[.*?\\]", ""));
+            log.debug("Partial transcript: '{}'", transcript);
+        } catch (IOException e) {
+            if (generation.get() != expected) return;
+            log.warn("Streaming window failed on {}, falling back to full transcription: {}",
+                    backend.describe(), e.getMessage());
+            failed = true;
+        }
+    }
+
+    private static String promptFrom(String text) {
+        if (text.length() <= MAX_PROMPT_CHARS) return text;
+        int cut = text.indexOf(' ', text.length() - MAX_PROMPT_CHARS);
+        return cut < 0 ? text.substring(text.length() - MAX_PROMPT_CHARS) : text.substring(cut + 1);
+    }
+}
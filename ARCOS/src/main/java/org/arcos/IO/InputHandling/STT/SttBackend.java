@@ -1,9 +1,14 @@
 package org.arcos.IO.InputHandling.STT;
 
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
 /**
  * Adapter interne pour les backends de transcription speech-to-text.
- * Chaque implémentation gère l'appel HTTP et le parsing de la réponse
- * pour un service STT spécifique.
+ * Chaque implémentation gère l'appel au service STT (HTTP ou inférence locale)
+ * et le parsing de sa réponse.
  */
 interface SttBackend {
 
@@ -15,6 +20,43 @@ interface SttBackend {
      */
     String transcribe(byte[] wavData);
 
+    /**
+     * Transcrit du PCM 16 bits little-endian mono à 16 kHz. Par défaut encapsulé en WAV pour
+     * {@link #transcribe} ; un backend local le lit directement, sans conteneur ni copie.
+     *
+     * @param length longueur en octets
+     * @return texte transcrit, ou chaîne vide en cas d'erreur
+     */
+    default String transcribePcm(byte[] pcm, int offset, int length) {
+        return transcribe(WavEncoder.encode(pcm, offset, length, 16000, 1));
+    }
+
+    /**
+     * Transcrit une fenêtre d'un énoncé en cours (mode streaming). Contrairement à {@link #transcribe},
+     * une erreur est remontée : le flux peut alors se rabattre sur une transcription complète.
+     *
+     * @param wavData fenêtre WAV complète (header + PCM)
+     * @param prompt  texte déjà reconnu, passé au modèle comme contexte (peut être vide)
+     * @return texte transcrit de la fenêtre
+     */
+    default String transcribeWindow(byte[] wavData, String prompt) throws IOException {
+        return transcribe(wavData);
+    }
+
+    /**
+     * Variante asynchrone de {@link #transcribeWindow} ; annuler le futur abandonne la requête si le backend
+     * le permet. Par défaut, l'appel bloquant s'exécute sur {@code executor}.
+     */
+    default CompletableFuture<String> transcribeAsync(byte[] wavData, String prompt, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return transcribeWindow(wavData, prompt);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
     /**
      * Description lisible pour les logs (ex: "faster-whisper @ localhost:8000").
      */
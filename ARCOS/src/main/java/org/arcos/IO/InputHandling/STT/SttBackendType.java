@@ -2,5 +2,7 @@ package org.arcos.IO.InputHandling.STT;
 
 public enum SttBackendType {
     FASTER_WHISPER,
-    WHISPER_CPP
+    WHISPER_CPP,
+    /** Inférence Whisper en processus via onnxruntime, sans serveur. */
+    WHISPER_ONNX
 }
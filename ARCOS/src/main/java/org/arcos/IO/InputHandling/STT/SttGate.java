@@ -3,14 +3,19 @@ package org.arcos.IO.InputHandling.STT;
 import org.arcos.Configuration.SpeechToTextProperties;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Facade publique pour la transcription speech-to-text.
  * Gère le buffering audio, la création WAV, le filtrage des hallucinations,
- * et délègue la transcription HTTP à un {@link SttBackend} (adapter pattern).
+ * et délègue la transcription (HTTP ou locale) à un {@link SttBackend} (adapter pattern).
+ * <p>
+ * En mode streaming, une fenêtre de {@code windowMs} (précédée de {@code overlapMs} déjà envoyés) part
+ * au backend dès qu'elle est capturée ; {@link #getTranscription()} ne transcrit plus que la queue de
+ * l'énoncé. Les énoncés plus courts qu'une fenêtre restent transcrits en une seule requête.
  */
 @Slf4j
 public class SttGate {
@@ -23,16 +28,57 @@ public class SttGate {
     private static final int MAX_AUDIO_BYTES = SAMPLE_RATE * BYTES_PER_SAMPLE * CHANNELS * 120;
 
     private final SttBackend backend;
-    private final ByteArrayOutputStream audioBuffer;
+    private final StreamingTranscriber streaming;
+    private final int windowBytes;
+    private final int overlapBytes;
+
+    private byte[] audioBuffer = new byte[SAMPLE_RATE * BYTES_PER_SAMPLE * CHANNELS * 10];
+    private int audioSize;
+    /** Fin (en octets) de la dernière fenêtre envoyée en streaming. */
+    private int streamedBytes;
 
     public SttGate(SttBackend backend) {
+        this(backend, 0, 0);
+    }
+
+    /**
+     * @param windowMs  durée de la fenêtre envoyée pendant la capture (0 = pas de streaming)
+     * @param overlapMs audio déjà envoyé rejoué en tête de chaque fenêtre, pour recoller les mots coupés
+     */
+    SttGate(SttBackend backend, int windowMs, int overlapMs) {
         this.backend = backend;
-        this.audioBuffer = new ByteArrayOutputStream();
-        log.info("SttGate initialized with backend: {}", backend.describe());
+        this.windowBytes = bytesFor(windowMs);
+        this.overlapBytes = bytesFor(Math.min(overlapMs, windowMs));
+        this.streaming = windowMs > 0 ? new StreamingTranscriber(backend) : null;
+        log.info("SttGate initialized with backend: {}{}", backend.describe(),
+                streaming != null ? " (streaming, window " + windowMs + " ms, overlap " + overlapMs + " ms)" : "");
+    }
+
+    /**
+     * Gate du backend configuré. Si {@code arcos.stt.backends} en liste plusieurs, ils sont interrogés
+     * par ordre de préférence avec requêtes doublées ({@link HedgedSttBackend}).
+     */
+    public static SttGate create(SpeechToTextProperties props) {
+        List<SttBackendType> types = props.getBackends();
+        if (types == null || types.size() < 2) {
+            return create(types == null || types.isEmpty() ? props.getBackend() : types.get(0), props);
+        }
+        List<SttBackend> backends = types.stream().map(type -> createBackend(type, props)).toList();
+        return withBackend(new HedgedSttBackend(backends, props.getHedgeMinDelayMs(), props.getHedgeMaxErrorRate()), props);
     }
 
     public static SttGate create(SttBackendType type, SpeechToTextProperties props) {
-        SttBackend backend = switch (type) {
+        return withBackend(createBackend(type, props), props);
+    }
+
+    private static SttGate withBackend(SttBackend backend, SpeechToTextProperties props) {
+        return props.isStreamingEnabled()
+                ? new SttGate(backend, props.getStreamingWindowMs(), props.getStreamingOverlapMs())
+                : new SttGate(backend);
+    }
+
+    private static SttBackend createBackend(SttBackendType type, SpeechToTextProperties props) {
+        return switch (type) {
             case FASTER_WHISPER -> new FasterWhisperAdapter(
                     props.getFasterWhisperUrl(),
                     props.getFasterWhisperModel(),
@@ -40,32 +86,95 @@ public class SttGate {
             case WHISPER_CPP -> new WhisperCppAdapter(
                     props.getWhisperCppUrl(),
                     props.getLanguage());
+            case WHISPER_ONNX -> createOnnxBackend(props);
         };
-        return new SttGate(backend);
+    }
+
+    /**
+     * Backend Whisper local ; retombe sur faster-whisper si le modèle est absent ou ne se charge pas.
+     */
+    private static SttBackend createOnnxBackend(SpeechToTextProperties props) {
+        Path modelDir = Path.of(props.getWhisperOnnxModelDir(), props.getWhisperOnnxModel());
+        if (!Files.isDirectory(modelDir)) {
+            log.warn("Whisper ONNX model not found at {}, falling back to faster-whisper", modelDir);
+        } else {
+            try {
+                return new WhisperOnnxAdapter(WhisperOnnxModel.acquire(modelDir, props.getLanguage(),
+                        props.getWhisperOnnxThreads()));
+            } catch (Exception | UnsatisfiedLinkError e) {
+                log.warn("Failed to load Whisper ONNX model, falling back to faster-whisper", e);
+            }
+        }
+        return new FasterWhisperAdapter(props.getFasterWhisperUrl(), props.getFasterWhisperModel(), props.getLanguage());
     }
 
     public void processAudio(byte[] audioData) {
-        if (audioBuffer.size() + audioData.length > MAX_AUDIO_BYTES) {
+        if (audioSize + audioData.length > MAX_AUDIO_BYTES) {
             log.warn("Audio buffer capacity reached ({} bytes), dropping frame", MAX_AUDIO_BYTES);
             return;
         }
-        audioBuffer.write(audioData, 0, audioData.length);
+        if (audioSize + audioData.length > audioBuffer.length) {
+            audioBuffer = Arrays.copyOf(audioBuffer, Math.min(MAX_AUDIO_BYTES,
+                    Math.max(audioBuffer.length * 2, audioSize + audioData.length)));
+        }
+        System.arraycopy(audioData, 0, audioBuffer, audioSize, audioData.length);
+        audioSize += audioData.length;
+        submitWindowIfReady();
+    }
+
+    private void submitWindowIfReady() {
+        if (streaming != null && audioSize - streamedBytes >= windowBytes && !streaming.isBusy()) {
+            streaming.submitWindow(windowFrom(streamedBytes));
+            streamedBytes = audioSize;
+        }
+    }
+
+    /**
+     * Variante sans allocation : les échantillons sont encodés en little-endian directement dans le tampon.
+     */
+    public void processAudio(short[] samples, int offset, int length) {
+        int bytes = length * BYTES_PER_SAMPLE;
+        if (audioSize + bytes > MAX_AUDIO_BYTES) {
+            log.warn("Audio buffer capacity reached ({} bytes), dropping frame", MAX_AUDIO_BYTES);
+            return;
+        }
+        if (audioSize + bytes > audioBuffer.length) {
+            audioBuffer = Arrays.copyOf(audioBuffer, Math.min(MAX_AUDIO_BYTES,
+                    Math.max(audioBuffer.length * 2, audioSize + bytes)));
+        }
+        for (int i = 0; i < length; i++) {
+            short sample = samples[offset + i];
+            audioBuffer[audioSize++] = (byte) sample;
+            audioBuffer[audioSize++] = (byte) (sample >> 8);
+        }
+        submitWindowIfReady();
     }
 
     public String getTranscription() {
-        byte[] audioBytes = audioBuffer.toByteArray();
-        if (audioBytes.length == 0) {
+        if (audioSize == 0) {
             return "";
         }
 
-        byte[] wavData = buildWav(audioBytes);
-        log.info("Sending {} bytes of audio data for transcription...", audioBytes.length);
-        String rawTranscript = backend.transcribe(wavData);
+        if (streaming != null && streaming.getWindowCount() > 0) {
+            byte[] tail = audioSize > streamedBytes ? windowFrom(streamedBytes) : null;
+            log.info("Finalizing streamed transcription: {} windows sent, {} ms tail",
+                    streaming.getWindowCount(), durationMs(audioSize - streamedBytes));
+            String streamed = streaming.finish(tail);
+            if (streamed != null) {
+                return cleanTranscript(streamed);
+            }
+            log.warn("Streaming transcription unavailable, sending the whole utterance");
+        }
+
+        log.info("Sending {} bytes of audio data for transcription...", audioSize);
+        String rawTranscript = backend.transcribePcm(audioBuffer, 0, audioSize);
         return cleanTranscript(rawTranscript);
     }
 
     public void reset() {
-        audioBuffer.reset();
+        audioSize = 0;
+        streamedBytes = 0;
+        if (streaming != null) streaming.reset();
         log.info("SttGate reset for new session");
     }
 
@@ -74,9 +183,7 @@ public class SttGate {
     }
 
     public long getBufferedAudioDurationMs() {
-        int audioBytes = audioBuffer.size();
-        int numSamples = audioBytes / BYTES_PER_SAMPLE;
-        return (long) ((double) numSamples / SAMPLE_RATE * 1000);
+        return durationMs(audioSize);
     }
 
     public boolean hasMinimumAudio() {
@@ -84,53 +191,29 @@ public class SttGate {
     }
 
     public void close() {
-        try {
-            audioBuffer.close();
-        } catch (IOException e) {
-            log.error("Error closing audio buffer", e);
-        }
+        if (streaming != null) streaming.close();
         backend.close();
         log.info("SttGate resources cleaned up");
     }
 
     // ── Internal ─────────────────────────────────────────────────────────────
 
-    private byte[] buildWav(byte[] pcmData) {
-        byte[] wav = new byte[44 + pcmData.length];
-        writeWavHeader(wav, pcmData.length);
-        System.arraycopy(pcmData, 0, wav, 44, pcmData.length);
-        return wav;
-    }
-
-    private void writeWavHeader(byte[] header, int pcmDataLength) {
-        int totalDataLen = pcmDataLength + 36;
-        long byteRate = (long) BYTES_PER_SAMPLE * SAMPLE_RATE * CHANNELS;
-
-        header[0] = 'R'; header[1] = 'I'; header[2] = 'F'; header[3] = 'F';
-        header[4] = (byte) (totalDataLen & 0xff);
-        header[5] = (byte) ((totalDataLen >> 8) & 0xff);
-        header[6] = (byte) ((totalDataLen >> 16) & 0xff);
-        header[7] = (byte) ((totalDataLen >> 24) & 0xff);
-        header[8] = 'W'; header[9] = 'A'; header[10] = 'V'; header[11] = 'E';
-        header[12] = 'f'; header[13] = 'm'; header[14] = 't'; header[15] = ' ';
-        header[16] = 16; header[17] = 0; header[18] = 0; header[19] = 0;
-        header[20] = 1; header[21] = 0; // PCM
-        header[22] = (byte) CHANNELS; header[23] = 0;
-        header[24] = (byte) (SAMPLE_RATE & 0xff);
-        header[25] = (byte) ((SAMPLE_RATE >> 8) & 0xff);
-        header[26] = (byte) ((SAMPLE_RATE >> 16) & 0xff);
-        header[27] = (byte) ((SAMPLE_RATE >> 24) & 0xff);
-        header[28] = (byte) (byteRate & 0xff);
-        header[29] = (byte) ((byteRate >> 8) & 0xff);
-        header[30] = (byte) ((byteRate >> 16) & 0xff);
-        header[31] = (byte) ((byteRate >> 24) & 0xff);
-        header[32] = (byte) (CHANNELS * BYTES_PER_SAMPLE); header[33] = 0;
-        header[34] = 16; header[35] = 0; // bits per sample
-        header[36] = 'd'; header[37] = 'a'; header[38] = 't'; header[39] = 'a';
-        header[40] = (byte) (pcmDataLength & 0xff);
-        header[41] = (byte) ((pcmDataLength >> 8) & 0xff);
-        header[42] = (byte) ((pcmDataLength >> 16) & 0xff);
-        header[43] = (byte) ((pcmDataLength >> 24) & 0xff);
+    /**
+     * WAV couvrant l'audio depuis {@code fromBytes} jusqu'à la fin du tampon, précédé du recouvrement.
+     */
+    private byte[] windowFrom(int fromBytes) {
+        int start = Math.max(0, fromBytes - overlapBytes);
+        return WavEncoder.encode(audioBuffer, start, audioSize - start, SAMPLE_RATE, CHANNELS);
+    }
+
+    private static long durationMs(int audioBytes) {
+        int numSamples = audioBytes / BYTES_PER_SAMPLE;
+        return (long) ((double) numSamples / SAMPLE_RATE * 1000);
+    }
+
+    private static int bytesFor(int ms) {
+        // Aligné sur un échantillon pour ne jamais couper un short en deux
+        return (int) ((long) SAMPLE_RATE * ms / 1000) * BYTES_PER_SAMPLE * CHANNELS;
     }
 
     private static final List<String> HALLUCINATION_PATTERNS = List.of(
@@ -0,0 +1,80 @@
+package org.arcos.IO.InputHandling.STT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fusionne les hypothèses de fenêtres audio qui se chevauchent.
+ * <p>
+ * Deux fenêtres successives partagent quelques centaines de millisecondes d'audio : la fin du texte
+ * déjà retenu et le début de la nouvelle hypothèse décrivent donc les mêmes mots. On cherche la plus
+ * longue suite de mots identiques (casse et ponctuation ignorées) entre la queue de l'un et la tête de
+ * l'autre, puis on garde le texte retenu jusqu'à cette suite et la nouvelle hypothèse au-delà. Le
+ * dernier mot d'une fenêtre, souvent coupé en plein milieu, est ainsi remplacé par sa version complète.
+ */
+public final class TranscriptMerger {
+
+    /** Nombre de mots examinés de part et d'autre de la jonction. */
+    private static final int MAX_OVERLAP_WORDS = 12;
+    /** Un recouvrement d'un seul mot n'est retenu que pour un mot assez long ("de", "la" sont trop ambigus). */
+    private static final int MIN_SINGLE_WORD_LENGTH = 4;
+
+    private TranscriptMerger() {}
+
+    public static String merge(String committed, String hypothesis) {
+        String head = committed == null ? "" : committed.trim();
+        String tail = hypothesis == null ? "" : hypothesis.trim();
+        if (tail.isEmpty()) return head;
+        if (head.isEmpty()) return tail;
+
+        String[] left = head.split("\\s+");
+        String[] right = tail.split("\\s+");
+        String[] leftKeys = normalize(left);
+        String[] rightKeys = normalize(right);
+
+        int leftFrom = Math.max(0, left.length - MAX_OVERLAP_WORDS);
+        int rightTo = Math.min(right.length, MAX_OVERLAP_WORDS);
+        int bestI = -1, bestJ = -1, bestLength = 0;
+        for (int i = leftFrom; i < left.length; i++) {
+            for (int j = 0; j < rightTo; j++) {
+                int length = 0;
+                while (i + length < left.length && j + length < right.length
+                        && !leftKeys[i + length].isEmpty()
+                        && leftKeys[i + length].equals(rightKeys[j + length])) {
+                    length++;
+                }
+                if (length > bestLength || (length > 0 && length == bestLength && i > bestI)) {
+                    bestI = i;
+                    bestJ = j;
+                    bestLength = length;
+                }
+            }
+        }
+
+        boolean accepted = bestLength >= 2
+                || (bestLength == 1 && leftKeys[bestI].length() >= MIN_SINGLE_WORD_LENGTH);
+        List<String> words = new ArrayList<>(left.length + right.length);
+        if (accepted) {
+            words.addAll(Arrays.asList(left).subList(0, bestI + bestLength));
+            words.addAll(Arrays.asList(right).subList(bestJ + bestLength, right.length));
+        } else {
+            words.addAll(Arrays.asList(left));
+            words.addAll(Arrays.asList(right));
+        }
+        return String.join(" ", words);
+    }
+
+    private static String[] normalize(String[] words) {
+        String[] keys = new String[words.length];
+        for (int i = 0; i < words.length; i++) {
+            StringBuilder key = new StringBuilder(words[i].length());
+            for (int k = 0; k < words[i].length(); k++) {
+                char c = words[i].charAt(k);
+                if (Character.isLetterOrDigit(c)) key.append(Character.toLowerCase(c));
+            }
+            keys[i] = key.toString();
+        }
+        return keys;
+    }
+}
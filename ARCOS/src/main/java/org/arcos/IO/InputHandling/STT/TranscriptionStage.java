@@ -0,0 +1,129 @@
+package org.arcos.IO.InputHandling.STT;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Étage de transcription, découplé de la capture et de la détection de fin de parole.
+ * <p>
+ * Le thread d'écoute remplit une {@link SttGate} obtenue par {@link #acquire()}, puis la remet à
+ * {@link #submit} dès la fin de l'énoncé et retourne aussitôt écouter le micro. Un thread dédié
+ * ({@code stt-transcriber}) transcrit les énoncés dans l'ordre d'arrivée, publie le résultat, puis recycle
+ * la gate. Plusieurs gates circulent (une en capture, une en transcription) : l'énoncé suivant n'attend
+ * jamais la requête HTTP du précédent, sauf si toutes les gates sont occupées.
+ */
+@Slf4j
+public class TranscriptionStage implements AutoCloseable {
+
+    private record Job(SttGate gate, Consumer<String> onTranscript, long submittedAt) {}
+
+    private final Supplier<SttGate> gateFactory;
+    private final int maxGates;
+    private final List<SttGate> gates = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<SttGate> idleGates = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Job> jobs = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    private volatile boolean closed;
+    private volatile boolean busy;
+
+    /**
+     * @param gateFactory crée une gate (et son backend) à la demande
+     * @param maxGates    nombre maximal d'énoncés en vol (capture + transcriptions en attente)
+     */
+    public TranscriptionStage(Supplier<SttGate> gateFactory, int maxGates) {
+        if (maxGates < 1) throw new IllegalArgumentException("maxGates doit être au moins 1");
+        this.gateFactory = gateFactory;
+        this.maxGates = maxGates;
+        this.worker = new Thread(this::runWorker, "stt-transcriber");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Gate vide pour capturer un nouvel énoncé. En crée une tant que le maximum n'est pas atteint, sinon
+     * attend qu'une transcription se termine.
+     */
+    public SttGate acquire() throws InterruptedException {
+        SttGate gate = idleGates.poll();
+        if (gate != null) return gate;
+        synchronized (this) {
+            if (gates.size() < maxGates) {
+                gate = gateFactory.get();
+                gates.add(gate);
+                return gate;
+            }
+        }
+        log.warn("All {} STT gates busy, waiting for a transcription to finish", maxGates);
+        return idleGates.take();
+    }
+
+    /** Rend une gate sans la transcrire (aucune parole captée). */
+    public void release(SttGate gate) {
+        gate.reset();
+        idleGates.offer(gate);
+    }
+
+    /**
+     * Met l'énoncé capturé dans la file de transcription et rend la main immédiatement.
+     *
+     * @param onTranscript appelé sur le thread de transcription avec le texte nettoyé ("" si rien d'exploitable)
+     */
+    public void submit(SttGate gate, Consumer<String> onTranscript) {
+        if (closed) {
+            log.warn("Transcription stage closed, dropping {} ms of audio", gate.getBufferedAudioDurationMs());
+            return;
+        }
+        jobs.offer(new Job(gate, onTranscript, System.currentTimeMillis()));
+    }
+
+    /** Énoncés en attente ou en cours de transcription. */
+    public int getPendingCount() {
+        return jobs.size() + (busy ? 1 : 0);
+    }
+
+    private void runWorker() {
+        while (!closed) {
+            Job job;
+            try {
+                job = jobs.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+            busy = true;
+            String transcript = "";
+            try {
+                long queuedMs = System.currentTimeMillis() - job.submittedAt();
+                if (queuedMs > 100) {
+                    log.info("Utterance waited {} ms for the transcriber", queuedMs);
+                }
+                transcript = job.gate().getTranscription();
+            } catch (RuntimeException e) {
+                log.error("Transcription failed", e);
+            } finally {
+                release(job.gate());
+                busy = false;
+            }
+            try {
+                job.onTranscript().accept(transcript != null ? transcript : "");
+            } catch (RuntimeException e) {
+                log.error("Error while publishing transcription", e);
+            }
+        }
+        log.info("Transcription stage stopped.");
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        worker.interrupt();
+        for (SttGate gate : gates) {
+            gate.close();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.arcos.IO.InputHandling.STT;
+
+/**
+ * Encapsule du PCM 16 bits little-endian dans un conteneur WAV (en-tête RIFF de 44 octets).
+ */
+final class WavEncoder {
+
+    static final int HEADER_BYTES = 44;
+
+    private WavEncoder() {}
+
+    static byte[] encode(byte[] pcmData, int sampleRate, int channels) {
+        return encode(pcmData, 0, pcmData.length, sampleRate, channels);
+    }
+
+    static byte[] encode(byte[] pcmData, int offset, int length, int sampleRate, int channels) {
+        byte[] wav = new byte[HEADER_BYTES + length];
+        writeHeader(wav, length, sampleRate, channels);
+        System.arraycopy(pcmData, offset, wav, HEADER_BYTES, length);
+        return wav;
+    }
+
+    private static void writeHeader(byte[] header, int pcmDataLength, int sampleRate, int channels) {
+        final int bytesPerSample = 2; // 16-bit
+        int totalDataLen = pcmDataLength + 36;
+        long byteRate = (long) bytesPerSample * sampleRate * channels;
+
+        header[0] = 'R'; header[1] = 'I'; header[2] = 'F'; header[3] = 'F';
+        header[4] = (byte) (totalDataLen & 0xff);
+        header[5] = (byte) ((totalDataLen >> 8) & 0xff);
+        header[6] = (byte) ((totalDataLen >> 16) & 0xff);
+        header[7] = (byte) ((totalDataLen >> 24) & 0xff);
+        header[8] = 'W'; header[9] = 'A'; header[10] = 'V'; header[11] = 'E';
+        header[12] = 'f'; header[13] = 'm'; header[14] = 't'; header[15] = ' ';
+        header[16] = 16; header[17] = 0; header[18] = 0; header[19] = 0;
+        header[20] = 1; header[21] = 0; // PCM
+        header[22] = (byte) channels; header[23] = 0;
+        header[24] = (byte) (sampleRate & 0xff);
+        header[25] = (byte) ((sampleRate >> 8) & 0xff);
+        header[26] = (byte) ((sampleRate >> 16) & 0xff);
+        header[27] = (byte) ((sampleRate >> 24) & 0xff);
+        header[28] = (byte) (byteRate & 0xff);
+        header[29] = (byte) ((byteRate >> 8) & 0xff);
+        header[30] = (byte) ((byteRate >> 16) & 0xff);
+        header[31] = (byte) ((byteRate >> 24) & 0xff);
+        header[32] = (byte) (channels * bytesPerSample); header[33] = 0;
+        header[34] = 16; header[35] = 0; // bits per sample
+        header[36] = 'd'; header[37] = 'a'; header[38] = 't'; header[39] = 'a';
+        header[40] = (byte) (pcmDataLength & 0xff);
+        header[41] = (byte) ((pcmDataLength >> 8) & 0xff);
+        header[42] = (byte) ((pcmDataLength >> 16) & 0xff);
+        header[43] = (byte) ((pcmDataLength >> 24) & 0xff);
+    }
+}
@@ -0,0 +1,236 @@
+package org.arcos.IO.InputHandling.STT;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Log-mel spectrogramme attendu par l'encodeur Whisper, calculé directement depuis le PCM 16 bits
+ * little-endian du tampon de l'énoncé : fenêtre de Hann de 400 échantillons, pas de 160, banc de filtres
+ * mel de Slaney, fenêtre fixe de 30 s (3000 trames) complétée par du silence.
+ * <p>
+ * Le tampon de sortie est un {@link FloatBuffer} direct alloué une fois, passé tel quel à onnxruntime
+ * sans copie. Seules les trames qui recouvrent de l'audio sont calculées : le reste de la fenêtre est du
+ * silence, dont la valeur ne dépend que du maximum global. La DFT de 400 points (non puissance de deux)
+ * est décomposée en 16 DFT de 25 points recombinées (Cooley-Tukey, une étape), sur des tables
+ * précalculées : quatre à cinq fois plus rapide qu'une DFT directe. Non thread-safe : une instance
+ * par backend.
+ */
+public final class WhisperFeatureExtractor {
+
+    public static final int SAMPLE_RATE = 16000;
+    public static final int N_FFT = 400;
+    public static final int HOP_LENGTH = 160;
+    public static final int CHUNK_SAMPLES = 30 * SAMPLE_RATE;
+    public static final int CHUNK_FRAMES = CHUNK_SAMPLES / HOP_LENGTH;
+
+    private static final int BINS = N_FFT / 2 + 1;
+    /** N_FFT = RADIX * SUB_SIZE : la trame est répartie en RADIX sous-suites entrelacées de SUB_SIZE points. */
+    private static final int RADIX = 16;
+    private static final int SUB_SIZE = N_FFT / RADIX;
+    private static final float MIN_POWER = 1e-10f;
+    /** Dynamique conservée sous le maximum (log10, soit 80 dB). */
+    private static final float DYNAMIC_RANGE = 8f;
+
+    private final int melBins;
+    private final float[] window = new float[N_FFT];
+    private final float[] subCos = new float[SUB_SIZE * SUB_SIZE];
+    private final float[] subSin = new float[SUB_SIZE * SUB_SIZE];
+    private final float[] twiddleCos = new float[BINS * RADIX];
+    private final float[] twiddleSin = new float[BINS * RADIX];
+    /** Filtres mel creux : {@code [firstBin[m], firstBin[m] + weights[m].length)}. */
+    private final int[] firstBin;
+    private final float[][] weights;
+
+    private final float[] frame = new float[N_FFT];
+    private final float[] subRe = new float[RADIX * SUB_SIZE];
+    private final float[] subIm = new float[RADIX * SUB_SIZE];
+    private final float[] power = new float[BINS];
+    private final FloatBuffer features;
+
+    /**
+     * @param melBins 80 (tiny à large-v2) ou 128 (large-v3)
+     */
+    public WhisperFeatureExtractor(int melBins) {
+        if (melBins <= 0) throw new IllegalArgumentException("melBins doit être positif");
+        this.melBins = melBins;
+        for (int i = 0; i < N_FFT; i++) {
+            window[i] = (float) (0.5 - 0.5 * Math.cos(2 * Math.PI * i / N_FFT));
+        }
+        for (int k = 0; k < SUB_SIZE; k++) {
+            for (int j = 0; j < SUB_SIZE; j++) {
+                double angle = 2 * Math.PI * (k * j % SUB_SIZE) / SUB_SIZE;
+                subCos[k * SUB_SIZE + j] = (float) Math.cos(angle);
+                subSin[k * SUB_SIZE + j] = (float) Math.sin(angle);
+            }
+        }
+        for (int k = 0; k < BINS; k++) {
+            for (int r = 0; r < RADIX; r++) {
+                double angle = 2 * Math.PI * (k * r % N_FFT) / N_FFT;
+                twiddleCos[k * RADIX + r] = (float) Math.cos(angle);
+                twiddleSin[k * RADIX + r] = (float) Math.sin(angle);
+            }
+        }
+        this.firstBin = new int[melBins];
+        this.weights = new float[melBins][];
+        buildMelFilters();
+        this.features = ByteBuffer.allocateDirect(melBins * CHUNK_FRAMES * Float.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+    }
+
+    public int getMelBins() {
+        return melBins;
+    }
+
+    /**
+     * Caractéristiques {@code [melBins][CHUNK_FRAMES]} (ligne par bande mel) du dernier {@link #compute}.
+     */
+    public FloatBuffer getFeatures() {
+        return features.rewind();
+    }
+
+    /**
+     * Calcule les caractéristiques d'au plus 30 s d'audio.
+     *
+     * @param pcm         PCM 16 bits little-endian mono à 16 kHz
+     * @param offset      position du premier échantillon, en octets
+     * @param sampleCount nombre d'échantillons (tronqué à {@link #CHUNK_SAMPLES})
+     * @return nombre de trames qui recouvrent de l'audio
+     */
+    public int compute(byte[] pcm, int offset, int sampleCount) {
+        int n = Math.min(sampleCount, CHUNK_SAMPLES);
+        // La trame t est centrée sur t * HOP_LENGTH : elle voit de l'audio tant que son début précède la fin
+        int audioFrames = Math.min(CHUNK_FRAMES, (n + N_FFT / 2 + HOP_LENGTH - 1) / HOP_LENGTH);
+        float max = (float) Math.log10(MIN_POWER);
+
+        for (int t = 0; t < audioFrames; t++) {
+            int start = t * HOP_LENGTH - N_FFT / 2;
+            for (int i = 0; i < N_FFT; i++) {
+                frame[i] = window[i] * sample(pcm, offset, n, start + i);
+            }
+            powerSpectrum();
+            for (int m = 0; m < melBins; m++) {
+                float[] w = weights[m];
+                int bin = firstBin[m];
+                float energy = 0f;
+                for (int k = 0; k < w.length; k++) energy += w[k] * power[bin + k];
+                float value = (float) Math.log10(Math.max(energy, MIN_POWER));
+                features.put(m * CHUNK_FRAMES + t, value);
+                if (value > max) max = value;
+            }
+        }
+
+        float floor = max - DYNAMIC_RANGE;
+        float silence = (Math.max((float) Math.log10(MIN_POWER), floor) + 4f) / 4f;
+        for (int m = 0; m < melBins; m++) {
+            int row = m * CHUNK_FRAMES;
+            for (int t = 0; t < audioFrames; t++) {
+                features.put(row + t, (Math.max(features.get(row + t), floor) + 4f) / 4f);
+            }
+            for (int t = audioFrames; t < CHUNK_FRAMES; t++) {
+                features.put(row + t, silence);
+            }
+        }
+        return audioFrames;
+    }
+
+    /**
+     * Échantillon normalisé du signal complété à 30 s, avec réflexion aux bords (STFT centrée).
+     */
+    private static float sample(byte[] pcm, int offset, int n, int index) {
+        if (index < 0) index = -index;
+        if (index >= CHUNK_SAMPLES) index = 2 * CHUNK_SAMPLES - 2 - index;
+        if (index >= n) return 0f;
+        int p = offset + 2 * index;
+        return (short) ((pcm[p] & 0xFF) | (pcm[p + 1] << 8)) / 32768f;
+    }
+
+    /**
+     * |X[k]|² pour k = 0..200, avec X[k] = Σ_r e^(-2iπrk/400) · Y_r[k mod 25], où Y_r est la DFT de
+     * 25 points de la sous-suite {@code frame[r + 16j]}.
+     */
+    private void powerSpectrum() {
+        for (int r = 0; r < RADIX; r++) {
+            int out = r * SUB_SIZE;
+            for (int k = 0; k < SUB_SIZE; k++) {
+                int base = k * SUB_SIZE;
+                float re = 0f, im = 0f;
+                for (int j = 0; j < SUB_SIZE; j++) {
+                    float x = frame[r + RADIX * j];
+                    re += x * subCos[base + j];
+                    im -= x * subSin[base + j];
+                }
+                subRe[out + k] = re;
+                subIm[out + k] = im;
+            }
+        }
+        for (int k = 0; k < BINS; k++) {
+            int sub = k % SUB_SIZE;
+            int base = k * RADIX;
+            float re = 0f, im = 0f;
+            for (int r = 0; r < RADIX; r++) {
+                float c = twiddleCos[base + r];
+                float s = twiddleSin[base + r];
+                float yr = subRe[r * SUB_SIZE + sub];
+                float yi = subIm[r * SUB_SIZE + sub];
+                re += yr * c + yi * s;
+                im += yi * c - yr * s;
+            }
+            power[k] = re * re + im * im;
+        }
+    }
+
+    /**
+     * Banc de filtres triangulaires sur l'échelle mel de Slaney (linéaire sous 1 kHz, logarithmique au-delà),
+     * normalisés en aire, de 0 à 8 kHz : ceux avec lesquels les modèles Whisper ont été entraînés.
+     */
+    private void buildMelFilters() {
+        double minMel = hzToMel(0);
+        double maxMel = hzToMel(SAMPLE_RATE / 2.0);
+        double[] edges = new double[melBins + 2];
+        for (int i = 0; i < edges.length; i++) {
+            edges[i] = melToHz(minMel + (maxMel - minMel) * i / (melBins + 1));
+        }
+        float[] dense = new float[BINS];
+        for (int m = 0; m < melBins; m++) {
+            double lower = edges[m], center = edges[m + 1], upper = edges[m + 2];
+            double norm = 2.0 / (upper - lower);
+            int first = -1, last = -1;
+            for (int k = 0; k < BINS; k++) {
+                double hz = (double) k * SAMPLE_RATE / N_FFT;
+                double weight = Math.max(0, Math.min((hz - lower) / (center - lower), (upper - hz) / (upper - center)));
+                dense[k] = (float) (weight * norm);
+                if (weight > 0) {
+                    if (first < 0) first = k;
+                    last = k;
+                }
+            }
+            if (first < 0) {
+                firstBin[m] = 0;
+                weights[m] = new float[0];
+            } else {
+                firstBin[m] = first;
+                weights[m] = Arrays.copyOfRange(dense, first, last + 1);
+            }
+        }
+    }
+
+    private static final double LINEAR_HZ_PER_MEL = 200.0 / 3;
+    private static final double LOG_START_HZ = 1000.0;
+    private static final double LOG_START_MEL = LOG_START_HZ / LINEAR_HZ_PER_MEL;
+    private static final double LOG_STEP = Math.log(6.4) / 27.0;
+
+    private static double hzToMel(double hz) {
+        return hz < LOG_START_HZ
+                ? hz / LINEAR_HZ_PER_MEL
+                : LOG_START_MEL + Math.log(hz / LOG_START_HZ) / LOG_STEP;
+    }
+
+    private static double melToHz(double mel) {
+        return mel < LOG_START_MEL
+                ? mel * LINEAR_HZ_PER_MEL
+                : LOG_START_HZ * Math.exp(LOG_STEP * (mel - LOG_START_MEL));
+    }
+}
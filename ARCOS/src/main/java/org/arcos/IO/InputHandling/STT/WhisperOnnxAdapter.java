@@ -0,0 +1,81 @@
+package org.arcos.IO.InputHandling.STT;
+
+import ai.onnxruntime.OrtException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+
+/**
+ * Backend Whisper en processus via onnxruntime : ni encodage WAV, ni requête HTTP, ni serveur à faire
+ * tourner à côté. Les caractéristiques sont calculées directement depuis le PCM de la gate dans un tampon
+ * préalloué ; le modèle est partagé entre les gates ({@link WhisperOnnxModel#acquire}).
+ * <p>
+ * Les énoncés de plus de 30 s sont transcrits par fenêtres successives. Le contexte passé en streaming
+ * ({@code prompt}) est ignoré : les fenêtres se recouvrent et sont recollées par {@link TranscriptMerger}.
+ */
+@Slf4j
+class WhisperOnnxAdapter implements SttBackend {
+
+    private static final int BYTES_PER_SAMPLE = 2;
+
+    private final WhisperOnnxModel model;
+    private final WhisperFeatureExtractor features;
+
+    WhisperOnnxAdapter(WhisperOnnxModel model) {
+        this.model = model;
+        this.features = new WhisperFeatureExtractor(model.getMelBins());
+    }
+
+    @Override
+    public String transcribe(byte[] wavData) {
+        return transcribePcm(wavData, WavEncoder.HEADER_BYTES, wavData.length - WavEncoder.HEADER_BYTES);
+    }
+
+    @Override
+    public synchronized String transcribePcm(byte[] pcm, int offset, int length) {
+        try {
+            return run(pcm, offset, length);
+        } catch (OrtException e) {
+            log.error("Error during {} transcription", describe(), e);
+            return "";
+        }
+    }
+
+    @Override
+    public synchronized String transcribeWindow(byte[] wavData, String prompt) throws IOException {
+        try {
+            return run(wavData, WavEncoder.HEADER_BYTES, wavData.length - WavEncoder.HEADER_BYTES);
+        } catch (OrtException e) {
+            throw new IOException("Whisper ONNX inference failed", e);
+        }
+    }
+
+    private String run(byte[] pcm, int offset, int length) throws OrtException {
+        int samples = length / BYTES_PER_SAMPLE;
+        StringBuilder text = new StringBuilder();
+        for (int done = 0; done < samples; done += WhisperFeatureExtractor.CHUNK_SAMPLES) {
+            int count = Math.min(WhisperFeatureExtractor.CHUNK_SAMPLES, samples - done);
+            long start = System.nanoTime();
+            int frames = features.compute(pcm, offset + done * BYTES_PER_SAMPLE, count);
+            long featuresNanos = System.nanoTime() - start;
+            String chunk = model.transcribe(features.getFeatures());
+            log.debug("Whisper ONNX: {} frames, features {} ms, inference {} ms", frames,
+                    featuresNanos / 1_000_000, (System.nanoTime() - start - featuresNanos) / 1_000_000);
+            if (!chunk.isEmpty()) {
+                if (!text.isEmpty()) text.append(' ');
+                text.append(chunk);
+            }
+        }
+        return text.toString();
+    }
+
+    @Override
+    public String describe() {
+        return "whisper-onnx " + model.describe();
+    }
+
+    @Override
+    public void close() {
+        model.release();
+    }
+}
@@ -0,0 +1,249 @@
+package org.arcos.IO.InputHandling.STT;
+
+import ai.djl.huggingface.tokenizers.HuggingFaceTokenizer;
+import ai.onnxruntime.NodeInfo;
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OnnxValue;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import ai.onnxruntime.TensorInfo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Modèle Whisper exporté en ONNX (format {@code optimum-cli export onnx}) : encodeur, décodeur et, s'il est
+ * présent, décodeur à cache clé/valeur. Décodage glouton, sans horodatage, dans la langue configurée.
+ * <p>
+ * Les sessions sont partagées par toutes les gates d'un même répertoire de modèle ({@link #acquire}) :
+ * le modèle n'est chargé qu'une fois en mémoire, et onnxruntime autorise les inférences concurrentes.
+ * Répertoire attendu : {@code encoder_model.onnx}, {@code decoder_model.onnx},
+ * {@code decoder_with_past_model.onnx} (optionnel) et {@code tokenizer.json}.
+ */
+@Slf4j
+final class WhisperOnnxModel {
+
+    /** Moitié du contexte texte du décodeur (448) : la limite utilisée par Whisper lui-même. */
+    private static final int MAX_NEW_TOKENS = 224;
+    private static final String PRESENT_PREFIX = "present";
+    private static final String PAST_PREFIX = "past_key_values";
+
+    private static final Map<Path, WhisperOnnxModel> SHARED = new HashMap<>();
+
+    private final Path modelDir;
+    private final int threads;
+    private final OrtEnvironment env;
+    private final OrtSession encoder;
+    private final OrtSession decoder;
+    private final OrtSession decoderWithPast;
+    private final Set<String> pastInputs;
+    private final HuggingFaceTokenizer tokenizer;
+    private final String encoderInput;
+    private final int melBins;
+    private final long[] prompt;
+    private final long endOfText;
+    /** Premier jeton d'horodatage : tous les suivants sont exclus du décodage. */
+    private final long timestampBegin;
+    private int references;
+
+    private WhisperOnnxModel(Path modelDir, String language, int threads) throws OrtException, IOException {
+        this.modelDir = modelDir;
+        this.threads = threads;
+        this.env = OrtEnvironment.getEnvironment();
+        OrtSession.SessionOptions opts = new OrtSession.SessionOptions();
+        opts.setIntraOpNumThreads(threads);
+        opts.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+
+        Map<String, Long> specialTokens = readSpecialTokens(modelDir.resolve("tokenizer.json"));
+        long startOfTranscript = specialToken(specialTokens, "<|startoftranscript|>");
+        long languageToken = specialToken(specialTokens, "<|" + language + "|>");
+        long transcribe = specialToken(specialTokens, "<|transcribe|>");
+        long noTimestamps = specialToken(specialTokens, "<|notimestamps|>");
+        this.prompt = new long[]{startOfTranscript, languageToken, transcribe, noTimestamps};
+        this.endOfText = specialToken(specialTokens, "<|endoftext|>");
+        this.timestampBegin = noTimestamps + 1;
+
+        this.encoder = env.createSession(modelDir.resolve("encoder_model.onnx").toString(), opts);
+        this.decoder = env.createSession(modelDir.resolve("decoder_model.onnx").toString(), opts);
+        Path withPast = modelDir.resolve("decoder_with_past_model.onnx");
+        this.decoderWithPast = Files.exists(withPast) ? env.createSession(withPast.toString(), opts) : null;
+        this.pastInputs = decoderWithPast != null ? decoderWithPast.getInputNames() : Set.of();
+        this.tokenizer = HuggingFaceTokenizer.newInstance(modelDir.resolve("tokenizer.json"));
+
+        this.encoderInput = encoder.getInputNames().iterator().next();
+        NodeInfo input = encoder.getInputInfo().get(encoderInput);
+        long[] shape = input.getInfo() instanceof TensorInfo info ? info.getShape() : new long[0];
+        this.melBins = shape.length == 3 && shape[1] > 0 ? (int) shape[1] : 80;
+        log.info("Whisper ONNX chargé : {}", describe());
+    }
+
+    /**
+     * Modèle partagé du répertoire, chargé au premier appel. Chaque appel doit être suivi d'un {@link #release()}.
+     */
+    static synchronized WhisperOnnxModel acquire(Path modelDir, String language, int threads)
+            throws OrtException, IOException {
+        Path key = modelDir.toAbsolutePath().normalize();
+        WhisperOnnxModel model = SHARED.get(key);
+        if (model == null) {
+            model = new WhisperOnnxModel(key, language, threads);
+            SHARED.put(key, model);
+        }
+        model.references++;
+        return model;
+    }
+
+    /** Rend le modèle ; les sessions sont fermées quand plus aucune gate ne l'utilise. */
+    void release() {
+        synchronized (WhisperOnnxModel.class) {
+            if (--references > 0) return;
+            SHARED.remove(modelDir);
+        }
+        try {
+            encoder.close();
+            decoder.close();
+            if (decoderWithPast != null) decoderWithPast.close();
+        } catch (OrtException e) {
+            log.warn("Error closing ONNX session", e);
+        }
+        tokenizer.close();
+    }
+
+    int getMelBins() {
+        return melBins;
+    }
+
+    String describe() {
+        return modelDir.getFileName() + " (" + melBins + " mels, " + threads + " threads"
+                + (decoderWithPast != null ? ", cache clé/valeur" : ", sans cache") + ")";
+    }
+
+    /**
+     * Transcrit des caractéristiques calculées par {@link WhisperFeatureExtractor} (une fenêtre de 30 s).
+     */
+    String transcribe(FloatBuffer features) throws OrtException {
+        long[] tokens = Arrays.copyOf(prompt, prompt.length + MAX_NEW_TOKENS);
+        long[] shape = {1, melBins, WhisperFeatureExtractor.CHUNK_FRAMES};
+        try (OnnxTensor input = OnnxTensor.createTensor(env, features, shape);
+             OrtSession.Result encoded = encoder.run(Map.of(encoderInput, input))) {
+            OnnxTensor hidden = (OnnxTensor) encoded.get(0);
+            int length = decoderWithPast != null
+                    ? decodeWithCache(hidden, tokens)
+                    : decodeWithoutCache(hidden, tokens);
+            return tokenizer.decode(Arrays.copyOfRange(tokens, prompt.length, length), true).trim();
+        }
+    }
+
+    /**
+     * Premier passage sur tout le préfixe, puis un jeton par passage en réinjectant le cache
+     * ({@code present.*} en sortie devient {@code past_key_values.*} en entrée).
+     *
+     * @return longueur de la séquence décodée dans {@code tokens}
+     */
+    private int decodeWithCache(OnnxTensor hidden, long[] tokens) throws OrtException {
+        int length = prompt.length;
+        Map<String, OnnxTensor> past = new HashMap<>();
+        OrtSession.Result first = null;
+        OrtSession.Result previous = null;
+        try {
+            try (OnnxTensor ids = idsTensor(tokens, 0, length)) {
+                first = decoder.run(Map.of("input_ids", ids, "encoder_hidden_states", hidden));
+            }
+            long next = argmax((OnnxTensor) first.get(0), length - 1);
+            collectPast(first, past);
+            while (next != endOfText && length < tokens.length) {
+                tokens[length++] = next;
+                Map<String, OnnxTensor> feeds = new HashMap<>(past);
+                if (pastInputs.contains("encoder_hidden_states")) feeds.put("encoder_hidden_states", hidden);
+                OrtSession.Result step;
+                try (OnnxTensor ids = idsTensor(tokens, length - 1, 1)) {
+                    feeds.put("input_ids", ids);
+                    step = decoderWithPast.run(feeds);
+                }
+                next = argmax((OnnxTensor) step.get(0), 0);
+                collectPast(step, past);
+                // Le cache décodeur du pas précédent est remplacé ; celui de l'encodeur reste dans le premier résultat
+                if (previous != null) previous.close();
+                previous = step;
+            }
+            return length;
+        } finally {
+            if (previous != null) previous.close();
+            if (first != null) first.close();
+        }
+    }
+
+    /** Sans cache : le décodeur relit tout le préfixe à chaque jeton. */
+    private int decodeWithoutCache(OnnxTensor hidden, long[] tokens) throws OrtException {
+        int length = prompt.length;
+        while (length < tokens.length) {
+            long next;
+            try (OnnxTensor ids = idsTensor(tokens, 0, length);
+                 OrtSession.Result result = decoder.run(Map.of("input_ids", ids, "encoder_hidden_states", hidden))) {
+                next = argmax((OnnxTensor) result.get(0), length - 1);
+            }
+            if (next == endOfText) break;
+            tokens[length++] = next;
+        }
+        return length;
+    }
+
+    private void collectPast(OrtSession.Result result, Map<String, OnnxTensor> past) {
+        for (Map.Entry<String, OnnxValue> output : result) {
+            String name = output.getKey();
+            if (!name.startsWith(PRESENT_PREFIX)) continue;
+            String input = PAST_PREFIX + name.substring(PRESENT_PREFIX.length());
+            if (pastInputs.contains(input)) past.put(input, (OnnxTensor) output.getValue());
+        }
+    }
+
+    private OnnxTensor idsTensor(long[] tokens, int from, int count) throws OrtException {
+        return OnnxTensor.createTensor(env, LongBuffer.wrap(tokens, from, count), new long[]{1, count});
+    }
+
+    /** Jeton le plus probable à la position {@code row} des logits {@code [1, séquence, vocabulaire]}, hors horodatages. */
+    private long argmax(OnnxTensor logits, int row) {
+        long[] shape = logits.getInfo().getShape();
+        int vocabulary = (int) shape[2];
+        FloatBuffer values = logits.getFloatBuffer();
+        int base = row * vocabulary;
+        int limit = (int) Math.min(vocabulary, timestampBegin);
+        int best = 0;
+        float bestValue = Float.NEGATIVE_INFINITY;
+        for (int k = 0; k < limit; k++) {
+            float value = values.get(base + k);
+            if (value > bestValue) {
+                bestValue = value;
+                best = k;
+            }
+        }
+        return best;
+    }
+
+    private static Map<String, Long> readSpecialTokens(Path tokenizerJson) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(tokenizerJson.toFile());
+        Map<String, Long> tokens = new HashMap<>();
+        for (JsonNode token : root.path("added_tokens")) {
+            tokens.put(token.path("content").asText(), token.path("id").asLong());
+        }
+        return tokens;
+    }
+
+    private static long specialToken(Map<String, Long> tokens, String content) {
+        Long id = tokens.get(content);
+        if (id == null) {
+            throw new IllegalArgumentException("Jeton spécial absent du tokenizer Whisper : " + content);
+        }
+        return id;
+    }
+}
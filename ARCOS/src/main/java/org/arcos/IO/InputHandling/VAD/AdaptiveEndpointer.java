@@ -0,0 +1,233 @@
+package org.arcos.IO.InputHandling.VAD;
+
+import lombok.extern.slf4j.Slf4j;
+import org.arcos.Configuration.VadProperties;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Détection de début et de fin d'énoncé à partir des probabilités de parole d'un {@link VoiceActivityDetector}.
+ * <p>
+ * Le PCM reçu par blocs de taille quelconque est redécoupé à la taille de trame du détecteur. Un énoncé
+ * s'ouvre après {@code minSpeechMs} de trames au-dessus du seuil de parole, et se ferme sur un seuil plus
+ * bas (hystérésis) après une durée de silence adaptative :
+ * <ul>
+ *   <li>{@code minSilenceMs} pour un énoncé long suivi d'un silence franc ;</li>
+ *   <li>jusqu'à {@code maxSilenceMs} si l'énoncé est encore très court (pause après « Arcos… ») ou si
+ *       le « silence » reste proche du seuil (souffle, bruit de fond) : dans le doute, on attend.</li>
+ * </ul>
+ * Le seuil de parole suit un plancher de bruit estimé sur les trames non vocales : dans une pièce
+ * bruyante, le bruit ne suffit plus à ouvrir un énoncé ni à le prolonger indéfiniment.
+ * <p>
+ * Une instance par boucle de capture, non thread-safe.
+ */
+@Slf4j
+public class AdaptiveEndpointer {
+
+    public enum State { WAITING, SPEECH, END_OF_SPEECH }
+
+    private static final int SAMPLE_RATE = 16000;
+    /** Écart entre seuil d'ouverture et seuil de fermeture (hystérésis). */
+    private static final float OFFSET_GAP = 0.15f;
+    /** Marge exigée au-dessus du plancher de bruit pour compter une trame comme parole. */
+    private static final float NOISE_MARGIN = 0.3f;
+    private static final float MAX_SPEECH_THRESHOLD = 0.9f;
+    private static final float NOISE_ADAPTATION_RATE = 0.05f;
+    /** En dessous de cette durée de parole, l'énoncé est jugé court et la fin attend plus longtemps. */
+    private static final long SHORT_UTTERANCE_MS = 1000;
+
+    private final VoiceActivityDetector detector;
+    private final float baseSpeechThreshold;
+    private final long minSpeechMs;
+    private final long minSilenceMs;
+    private final short[] frame;
+    private final double frameMs;
+
+    private int frameFill;
+    private int pendingLowByte = -1;
+    private long maxSilenceMs;
+    private State state = State.WAITING;
+    private double speechRunMs;
+    private double speechMs;
+    private double silenceRunMs;
+    private double silenceProbabilitySum;
+    private int silenceFrames;
+    private float noiseFloor;
+    private long noiseFrames;
+    private float lastProbability;
+
+    public AdaptiveEndpointer(VoiceActivityDetector detector, float speechThreshold, long minSpeechMs,
+                              long minSilenceMs, long maxSilenceMs) {
+        this.detector = detector;
+        this.baseSpeechThreshold = speechThreshold;
+        this.minSpeechMs = minSpeechMs;
+        this.minSilenceMs = minSilenceMs;
+        this.maxSilenceMs = Math.max(minSilenceMs, maxSilenceMs);
+        this.frame = new short[detector.getFrameSamples()];
+        this.frameMs = detector.getFrameSamples() * 1000.0 / SAMPLE_RATE;
+    }
+
+    /**
+     * Construit l'endpointer configuré : Silero si demandé et disponible, sinon détecteur RMS sur le seuil de la source.
+     */
+    public static AdaptiveEndpointer create(VadProperties props, int silenceThreshold, long maxSilenceMs) {
+        return new AdaptiveEndpointer(createDetector(props, silenceThreshold), props.getSpeechThreshold(),
+                props.getMinSpeechMs(), props.getMinSilenceMs(), maxSilenceMs);
+    }
+
+    private static VoiceActivityDetector createDetector(VadProperties props, int silenceThreshold) {
+        if (props.getType() == VadType.SILERO) {
+            Path modelPath = Path.of(props.getSileroModelPath());
+            if (!Files.exists(modelPath)) {
+                log.warn("Silero VAD model not found at {}, falling back to RMS detection", modelPath);
+            } else {
+                try {
+                    return new SileroVoiceActivityDetector(modelPath);
+                } catch (Exception | UnsatisfiedLinkError e) {
+                    log.warn("Failed to load Silero VAD, falling back to RMS detection", e);
+                }
+            }
+        }
+        return new RmsVoiceActivityDetector(silenceThreshold);
+    }
+
+    /**
+     * Prépare un nouvel énoncé. Le plancher de bruit est conservé d'un énoncé à l'autre.
+     *
+     * @param maxSilenceMs silence maximal avant fin d'énoncé pour ce mode d'écoute
+     */
+    public void start(long maxSilenceMs) {
+        this.maxSilenceMs = Math.max(minSilenceMs, maxSilenceMs);
+        detector.reset();
+        frameFill = 0;
+        pendingLowByte = -1;
+        state = State.WAITING;
+        speechRunMs = 0;
+        speechMs = 0;
+        silenceRunMs = 0;
+        silenceProbabilitySum = 0;
+        silenceFrames = 0;
+    }
+
+    /**
+     * Analyse un bloc de PCM 16 bits little-endian et retourne l'état courant.
+     */
+    public State accept(byte[] pcm, int length) {
+        for (int i = 0; i < length; i++) {
+            int b = pcm[i] & 0xFF;
+            if (pendingLowByte < 0) {
+                pendingLowByte = b;
+                continue;
+            }
+            frame[frameFill++] = (short) ((b << 8) | pendingLowByte);
+            pendingLowByte = -1;
+            if (frameFill == frame.length) {
+                frameFill = 0;
+                onProbability(detector.speechProbability(frame));
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Analyse des échantillons déjà décodés (lecture directe du tampon de capture, sans conversion).
+     */
+    public State accept(short[] samples, int offset, int length) {
+        int end = offset + length;
+        while (offset < end) {
+            int count = Math.min(end - offset, frame.length - frameFill);
+            System.arraycopy(samples, offset, frame, frameFill, count);
+            frameFill += count;
+            offset += count;
+            if (frameFill == frame.length) {
+                frameFill = 0;
+                onProbability(detector.speechProbability(frame));
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Fait avancer la machine d'état d'une trame de probabilité donnée (utilisé directement par les tests).
+     */
+    public State onProbability(float probability) {
+        lastProbability = probability;
+        float speechThreshold = getSpeechThreshold();
+        switch (state) {
+            case WAITING -> {
+                if (probability >= speechThreshold) {
+                    speechRunMs += frameMs;
+                    if (speechRunMs >= minSpeechMs) {
+                        state = State.SPEECH;
+                        speechMs = speechRunMs;
+                    }
+                } else {
+                    speechRunMs = 0;
+                    adaptNoiseFloor(probability);
+                }
+            }
+            case SPEECH -> {
+                // Les trames ambiguës (entre les deux seuils) prolongent l'énoncé mais nourrissent le plancher
+                // de bruit : un bruit de fond stable finit par passer sous le seuil de fermeture
+                if (probability < speechThreshold) adaptNoiseFloor(probability);
+                if (probability >= speechThreshold - OFFSET_GAP) {
+                    speechMs += frameMs;
+                    silenceRunMs = 0;
+                    silenceProbabilitySum = 0;
+                    silenceFrames = 0;
+                } else {
+                    silenceRunMs += frameMs;
+                    silenceProbabilitySum += probability;
+                    silenceFrames++;
+                    if (silenceRunMs >= getRequiredSilenceMs()) {
+                        state = State.END_OF_SPEECH;
+                    }
+                }
+            }
+            case END_OF_SPEECH -> { }
+        }
+        return state;
+    }
+
+    /**
+     * Silence requis pour clore l'énoncé courant : minimal après un énoncé long suivi d'un silence net,
+     * allongé vers le maximum pour un énoncé court ou un silence ambigu.
+     */
+    public long getRequiredSilenceMs() {
+        double shortness = Math.max(0, 1 - speechMs / SHORT_UTTERANCE_MS);
+        double meanSilenceProbability = silenceFrames == 0 ? 0 : silenceProbabilitySum / silenceFrames;
+        double ambiguity = Math.min(1, meanSilenceProbability / (getSpeechThreshold() - OFFSET_GAP));
+        double stretch = Math.max(shortness, ambiguity);
+        return Math.round(minSilenceMs + (maxSilenceMs - minSilenceMs) * stretch);
+    }
+
+    /** Seuil de parole courant : seuil configuré, relevé si le bruit de fond s'en approche. */
+    public float getSpeechThreshold() {
+        return Math.min(MAX_SPEECH_THRESHOLD, Math.max(baseSpeechThreshold, noiseFloor + NOISE_MARGIN));
+    }
+
+    public State getState() { return state; }
+    public boolean isSpeechDetected() { return state != State.WAITING; }
+    public boolean isEndOfSpeech() { return state == State.END_OF_SPEECH; }
+    public long getSilenceMs() { return Math.round(silenceRunMs); }
+    /** Parole cumulée dans l'énoncé courant (ms), pauses exclues. */
+    public long getSpeechMs() { return Math.round(speechMs); }
+    public float getNoiseFloor() { return noiseFloor; }
+    public float getLastProbability() { return lastProbability; }
+
+    public String describe() {
+        return detector.describe();
+    }
+
+    public void close() {
+        detector.close();
+    }
+
+    private void adaptNoiseFloor(float probability) {
+        // Moyenne simple sur les premières trames (démarrage rapide), puis moyenne exponentielle
+        noiseFrames++;
+        float rate = Math.max(NOISE_ADAPTATION_RATE, 1f / noiseFrames);
+        noiseFloor += rate * (probability - noiseFloor);
+    }
+}
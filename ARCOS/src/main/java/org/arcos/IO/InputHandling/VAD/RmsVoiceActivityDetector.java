@@ -0,0 +1,46 @@
+package org.arcos.IO.InputHandling.VAD;
+
+/**
+ * Détecteur historique fondé sur l'énergie : le RMS de la trame est converti en probabilité par une
+ * sigmoïde centrée sur le seuil de silence de la source (p = 0,5 au seuil), ce qui permet de le
+ * brancher sur le même endpointer adaptatif que le modèle neuronal.
+ */
+public class RmsVoiceActivityDetector implements VoiceActivityDetector {
+
+    /** 20 ms à 16 kHz. */
+    private static final int FRAME_SAMPLES = 320;
+    /** Raideur de la sigmoïde : à 2x le seuil p ≈ 0,94, à la moitié p ≈ 0,06. */
+    private static final double STEEPNESS = 4.0;
+
+    private final int silenceThreshold;
+
+    public RmsVoiceActivityDetector(int silenceThreshold) {
+        this.silenceThreshold = Math.max(1, silenceThreshold);
+    }
+
+    @Override
+    public int getFrameSamples() {
+        return FRAME_SAMPLES;
+    }
+
+    @Override
+    public float speechProbability(short[] frame) {
+        long sum = 0;
+        for (short sample : frame) {
+            sum += (long) sample * sample;
+        }
+        double rms = Math.sqrt((double) sum / frame.length);
+        if (rms == 0) return 0f;
+        return (float) (1.0 / (1.0 + Math.pow(silenceThreshold / rms, STEEPNESS)));
+    }
+
+    @Override
+    public void reset() {
+        // Sans état
+    }
+
+    @Override
+    public String describe() {
+        return "RMS (seuil " + silenceThreshold + ")";
+    }
+}
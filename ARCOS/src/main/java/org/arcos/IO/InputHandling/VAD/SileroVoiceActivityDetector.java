@@ -0,0 +1,134 @@
+package org.arcos.IO.InputHandling.VAD;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.FloatBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Silero VAD exécuté via onnxruntime, trames de 512 échantillons (32 ms à 16 kHz).
+ * <p>
+ * Les deux générations du modèle sont reconnues d'après les noms d'entrées :
+ * v5 ({@code input}, {@code state}, {@code sr}) attend en plus les 64 derniers échantillons de la trame
+ * précédente en tête d'entrée ; v4 ({@code input}, {@code sr}, {@code h}, {@code c}) porte deux états LSTM.
+ * L'état récurrent est conservé entre trames et remis à zéro par {@link #reset()}.
+ */
+@Slf4j
+public class SileroVoiceActivityDetector implements VoiceActivityDetector {
+
+    private static final int SAMPLE_RATE = 16000;
+    private static final int FRAME_SAMPLES = 512;
+    private static final int V5_CONTEXT_SAMPLES = 64;
+    private static final long[] V5_STATE_SHAPE = {2, 1, 128};
+    private static final long[] V4_STATE_SHAPE = {2, 1, 64};
+
+    private final OrtEnvironment env;
+    private final OrtSession session;
+    private final boolean v5;
+    private final Path modelPath;
+
+    private float[] state;
+    private float[] lstmC;
+    private final float[] context = new float[V5_CONTEXT_SAMPLES];
+
+    public SileroVoiceActivityDetector(Path modelPath) throws OrtException {
+        this.modelPath = modelPath;
+        this.env = OrtEnvironment.getEnvironment();
+        OrtSession.SessionOptions opts = new OrtSession.SessionOptions();
+        // Une trame de 32 ms ne gagne rien au parallélisme intra-op ; un thread évite de concurrencer la capture
+        opts.setIntraOpNumThreads(1);
+        opts.setInterOpNumThreads(1);
+        this.session = env.createSession(modelPath.toString(), opts);
+        Set<String> inputs = session.getInputNames();
+        this.v5 = inputs.contains("state");
+        if (!v5 && !(inputs.contains("h") && inputs.contains("c"))) {
+            session.close();
+            throw new IllegalArgumentException("Entrées ONNX inattendues pour Silero VAD : " + inputs);
+        }
+        reset();
+        log.info("Silero VAD chargé ({}, v{})", modelPath, v5 ? 5 : 4);
+    }
+
+    @Override
+    public int getFrameSamples() {
+        return FRAME_SAMPLES;
+    }
+
+    @Override
+    public synchronized float speechProbability(short[] frame) {
+        int contextSize = v5 ? V5_CONTEXT_SAMPLES : 0;
+        float[] input = new float[contextSize + FRAME_SAMPLES];
+        System.arraycopy(context, 0, input, 0, contextSize);
+        for (int i = 0; i < FRAME_SAMPLES; i++) {
+            input[contextSize + i] = frame[i] / 32768f;
+        }
+
+        Map<String, OnnxTensor> feeds = new HashMap<>();
+        try {
+            feeds.put("input", OnnxTensor.createTensor(env, FloatBuffer.wrap(input), new long[]{1, input.length}));
+            feeds.put("sr", OnnxTensor.createTensor(env, (long) SAMPLE_RATE));
+            if (v5) {
+                feeds.put("state", OnnxTensor.createTensor(env, FloatBuffer.wrap(state), V5_STATE_SHAPE));
+            } else {
+                feeds.put("h", OnnxTensor.createTensor(env, FloatBuffer.wrap(state), V4_STATE_SHAPE));
+                feeds.put("c", OnnxTensor.createTensor(env, FloatBuffer.wrap(lstmC), V4_STATE_SHAPE));
+            }
+
+            try (OrtSession.Result result = session.run(feeds)) {
+                float probability = ((float[][]) result.get(0).getValue())[0][0];
+                state = flatten((float[][][]) result.get(1).getValue());
+                if (!v5) lstmC = flatten((float[][][]) result.get(2).getValue());
+                if (v5) System.arraycopy(input, input.length - V5_CONTEXT_SAMPLES, context, 0, V5_CONTEXT_SAMPLES);
+                return probability;
+            }
+        } catch (OrtException e) {
+            log.warn("Erreur d'inférence Silero VAD, trame considérée comme silence : {}", e.getMessage());
+            return 0f;
+        } finally {
+            feeds.values().forEach(OnnxTensor::close);
+        }
+    }
+
+    @Override
+    public synchronized void reset() {
+        long[] shape = v5 ? V5_STATE_SHAPE : V4_STATE_SHAPE;
+        state = new float[(int) (shape[0] * shape[1] * shape[2])];
+        lstmC = v5 ? null : new float[state.length];
+        Arrays.fill(context, 0f);
+    }
+
+    @Override
+    public String describe() {
+        return "Silero VAD v" + (v5 ? 5 : 4) + " (" + modelPath.getFileName() + ")";
+    }
+
+    @Override
+    public void close() {
+        try {
+            session.close();
+        } catch (OrtException e) {
+            log.warn("Error closing ONNX session", e);
+        }
+    }
+
+    private static float[] flatten(float[][][] tensor) {
+        int a = tensor.length, b = tensor[0].length, c = tensor[0][0].length;
+        float[] flat = new float[a * b * c];
+        int k = 0;
+        for (float[][] plane : tensor) {
+            for (float[] row : plane) {
+                System.arraycopy(row, 0, flat, k, c);
+                k += c;
+            }
+        }
+        return flat;
+    }
+}
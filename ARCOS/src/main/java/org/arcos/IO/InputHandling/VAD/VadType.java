@@ -0,0 +1,6 @@
+package org.arcos.IO.InputHandling.VAD;
+
+public enum VadType {
+    RMS,
+    SILERO
+}
@@ -0,0 +1,28 @@
+package org.arcos.IO.InputHandling.VAD;
+
+/**
+ * Détecteur d'activité vocale trame par trame (PCM 16 kHz mono).
+ * Chaque implémentation impose sa taille de trame et retourne une probabilité de parole.
+ */
+public interface VoiceActivityDetector {
+
+    /** Nombre d'échantillons attendus par appel à {@link #speechProbability}. */
+    int getFrameSamples();
+
+    /**
+     * Probabilité que la trame contienne de la parole.
+     *
+     * @param frame exactement {@link #getFrameSamples()} échantillons 16 bits
+     * @return probabilité dans [0, 1]
+     */
+    float speechProbability(short[] frame);
+
+    /** Réinitialise l'état interne (modèles récurrents) entre deux énoncés. */
+    void reset();
+
+    /** Description lisible pour les logs. */
+    String describe();
+
+    /** Libère les ressources natives éventuelles. */
+    default void close() {}
+}
@@ -0,0 +1,185 @@
+package org.arcos.IO.InputHandling;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Rejoue des sessions enregistrées (fichiers WAV) à la place du microphone, pour mesurer la chaîne
+ * complète sans parler : mot de réveil, requête, silence de fin.
+ * <p>
+ * Chaque session est convertie en PCM 16 bits mono 16 kHz puis débitée au rythme de l'horloge, accéléré
+ * d'un facteur {@code speed} ({@code 0} = sans attente, au rythme du lecteur). Un silence de {@code gapMs}
+ * précède chaque session et suit la dernière, le temps que l'assistant réponde ; la source renvoie ensuite
+ * -1 comme un flux terminé.
+ */
+@Slf4j
+public class WavFileMicrophoneSource implements MicrophoneSource {
+
+    public static final int SAMPLE_RATE = 16000;
+    private static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, 1, true, false);
+    private static final int BYTES_PER_SECOND = SAMPLE_RATE * 2;
+
+    /**
+     * Notifié depuis le thread de capture quand le premier échantillon d'une session est lu.
+     */
+    public interface SessionListener {
+        void onSessionStart(int index, Path file);
+    }
+
+    private final List<Path> sessions;
+    private final double speed;
+    private final long gapBytes;
+    private volatile SessionListener listener;
+    private volatile boolean closed = false;
+
+    private int sessionIndex = -1;
+    private byte[] session;
+    private int sessionOffset;
+    private long gapRemaining;
+    private long deliveredBytes;
+    private long startNanos = -1;
+
+    /**
+     * @param sessions fichiers WAV joués dans l'ordre
+     * @param speed    facteur d'accélération sur le temps réel, {@code 0} pour ne pas attendre
+     * @param gapMs    silence avant chaque session et après la dernière
+     */
+    public WavFileMicrophoneSource(List<Path> sessions, double speed, int gapMs) {
+        this.sessions = List.copyOf(sessions);
+        this.speed = speed;
+        this.gapBytes = (long) BYTES_PER_SECOND * gapMs / 1000 & ~1L;
+        this.gapRemaining = gapBytes;
+    }
+
+    /**
+     * Un fichier WAV, ou tous les WAV d'un répertoire par ordre de nom.
+     */
+    public static WavFileMicrophoneSource open(Path fileOrDirectory, double speed, int gapMs) throws IOException {
+        if (!Files.isDirectory(fileOrDirectory)) {
+            return new WavFileMicrophoneSource(List.of(fileOrDirectory), speed, gapMs);
+        }
+        try (Stream<Path> files = Files.list(fileOrDirectory)) {
+            return new WavFileMicrophoneSource(
+                    files.filter(p -> p.getFileName().toString().toLowerCase().endsWith(".wav")).sorted().toList(),
+                    speed, gapMs);
+        }
+    }
+
+    public void setSessionListener(SessionListener listener) {
+        this.listener = listener;
+    }
+
+    public List<Path> getSessions() {
+        return sessions;
+    }
+
+    /**
+     * Remplit le tampon de la suite des sessions et des silences, puis attend l'instant où un micro aurait
+     * fini de capturer cet audio.
+     */
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        if (closed) return -1;
+        if (startNanos < 0) startNanos = System.nanoTime();
+        length &= ~1;
+        int filled = 0;
+        while (filled < length) {
+            if (session != null) {
+                int count = Math.min(length - filled, session.length - sessionOffset);
+                System.arraycopy(session, sessionOffset, buffer, offset + filled, count);
+                sessionOffset += count;
+                filled += count;
+                if (sessionOffset == session.length) {
+                    session = null;
+                    gapRemaining = gapBytes;
+                }
+            } else if (gapRemaining > 0) {
+                int count = (int) Math.min(length - filled, gapRemaining);
+                Arrays.fill(buffer, offset + filled, offset + filled + count, (byte) 0);
+                gapRemaining -= count;
+                filled += count;
+            } else if (!nextSession()) {
+                break;
+            }
+        }
+        if (filled == 0) return -1;
+        deliveredBytes += filled;
+        pace();
+        return filled;
+    }
+
+    private boolean nextSession() {
+        while (++sessionIndex < sessions.size()) {
+            Path file = sessions.get(sessionIndex);
+            try {
+                session = load(file);
+                sessionOffset = 0;
+                log.info("Replaying session {}/{}: {} ({} ms)", sessionIndex + 1, sessions.size(),
+                        file.getFileName(), session.length * 1000L / BYTES_PER_SECOND);
+                SessionListener current = listener;
+                if (current != null) current.onSessionStart(sessionIndex, file);
+                if (session.length > 0) return true;
+                session = null;
+            } catch (IOException | UnsupportedAudioFileException | IllegalArgumentException e) {
+                log.warn("Skipping replay session {}: {}", file, e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    private static byte[] load(Path file) throws IOException, UnsupportedAudioFileException {
+        try (AudioInputStream in = AudioSystem.getAudioInputStream(file.toFile());
+             AudioInputStream pcm = AudioSystem.getAudioInputStream(FORMAT, in)) {
+            byte[] data = pcm.readAllBytes();
+            return data.length % 2 == 0 ? data : Arrays.copyOf(data, data.length - 1);
+        }
+    }
+
+    private void pace() {
+        if (speed <= 0) return;
+        long dueNanos = startNanos + (long) (deliveredBytes * 1e9 / BYTES_PER_SECOND / speed);
+        long waitNanos = dueNanos - System.nanoTime();
+        if (waitNanos <= 0) return;
+        try {
+            Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return !closed && !sessions.isEmpty();
+    }
+
+    @Override
+    public String describe() {
+        return "WAV replay (" + sessions.size() + " sessions, " + (speed > 0 ? "x" + speed : "unpaced") + ")";
+    }
+
+    @Override
+    public int getSampleRate() {
+        return SAMPLE_RATE;
+    }
+
+    @Override
+    public int recommendedSilenceThreshold() {
+        // Enregistrements 16 kHz comparables à une capture PipeWire
+        return 75;
+    }
+}
@@ -1,9 +1,28 @@
 package org.arcos.IO.OuputHandling;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.arcos.Configuration.TtsProperties;
+import org.arcos.IO.OuputHandling.Playback.JavaSoundPcmOutput;
+import org.arcos.IO.OuputHandling.Playback.PcmOutput;
+import org.arcos.IO.OuputHandling.Playback.PcmPlaybackQueue;
+import org.arcos.IO.OuputHandling.Playback.PcmStream;
+import org.arcos.IO.OuputHandling.Playback.PcmTap;
+import org.arcos.IO.OuputHandling.Playback.ProcessPcmOutput;
+import org.arcos.IO.OuputHandling.Playback.TappedPcmOutput;
+import org.arcos.IO.OuputHandling.Playback.WavFilePcmOutput;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.LineUnavailableException;
 import java.io.*;
 import java.net.URL;
 import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -19,16 +38,49 @@ public class PiperEmbeddedTTSModule {
     private static final String UPMC_CONFIG_PATH = "upmc-model/fr_FR-upmc-medium.onnx.json";
 
     private final ExecutorService generationExecutor;
-    private final ExecutorService playbackExecutor;
+    private final TtsProperties properties;
+    private final int workerCount;
+    private final List<PcmTap> playbackTaps;
+    private PcmPlaybackQueue playbackQueue;
+    private TtsAudioCache audioCache;
+    private String voiceId;
+    private final AtomicLong turnIds = new AtomicLong();
+    private volatile SpeechTurn currentTurn;
     private String piperExecutable;
     private File modelFile;
     private File configFile;
+    private PiperWorkerPool synthesisPool;
     private boolean enabled = false;
-    private String audioPlayerCommand;
 
     public PiperEmbeddedTTSModule() {
-        this.generationExecutor = Executors.newSingleThreadExecutor();
-        this.playbackExecutor = Executors.newSingleThreadExecutor();
+        this(new TtsProperties());
+    }
+
+    public PiperEmbeddedTTSModule(TtsProperties properties) {
+        this(properties, new PcmTap[0]);
+    }
+
+    /**
+     * @param playbackTaps reçoivent l'audio joué (référence de l'annulation d'écho du micro, chronométrage
+     *                     des tours) ; les {@code null} sont ignorés
+     */
+    public PiperEmbeddedTTSModule(TtsProperties properties, PcmTap... playbackTaps) {
+        this.properties = properties;
+        this.playbackTaps = Arrays.stream(playbackTaps).filter(Objects::nonNull).toList();
+        this.workerCount = properties.getSynthesisWorkers() > 0
+                ? properties.getSynthesisWorkers()
+                : PiperWorkerPool.autoSize(Runtime.getRuntime().availableProcessors());
+        // Un thread de génération par processus Piper : jusqu'à workerCount phrases synthétisées en avance
+        this.generationExecutor = Executors.newFixedThreadPool(workerCount, new ThreadFactory() {
+            private final AtomicInteger index = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "tts-synthesis-" + index.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
         try {
             initialize();
             this.enabled = true;
@@ -37,6 +89,9 @@ public class PiperEmbeddedTTSModule {
             log.warn("Piper TTS désactivé : {}", e.getMessage());
             this.enabled = false;
         }
+        if (enabled) {
+            warmUpCache();
+        }
     }
 
     public boolean isEnabled() {
@@ -62,30 +117,98 @@ public class PiperEmbeddedTTSModule {
         // Verify installation
         verifyInstallation();
 
-        // Resolve audio player once (avoids spawning `which` on every playAudio call)
-        resolveAudioPlayer();
+        // Start the warm synthesis processes (model loaded once per process, reused for every sentence)
+        startSynthesisPool();
+
+        // Open the audio output once: synthesized PCM is streamed into it, no temp files or player per sentence
+        openAudioOutput();
+        currentTurn = new SpeechTurn(turnIds.incrementAndGet(), playbackQueue);
+
+        // Synthesized audio cache (repeated phrases are played without calling Piper)
+        initAudioCache();
     }
 
-    private void resolveAudioPlayer() {
-        String os = getOperatingSystem();
-        switch (os) {
-            case "linux":
-                for (String cmd : new String[]{"paplay", "pw-play", "aplay"}) {
-                    if (isCommandAvailable(cmd)) {
-                        this.audioPlayerCommand = cmd;
-                        log.info("Audio player résolu : {}", cmd);
-                        return;
-                    }
+    private void startSynthesisPool() throws IOException {
+        int sampleRate = readSampleRate(configFile);
+        List<PiperSynthesisWorker> workers = new ArrayList<>();
+        for (int i = 1; i <= workerCount; i++) {
+            workers.add(new PiperSynthesisWorker(piperExecutable, modelFile, configFile, sampleRate, "piper-worker-" + i));
+        }
+        synthesisPool = new PiperWorkerPool(workers);
+        synthesisPool.start(PiperSynthesisWorker.Prosody.DEFAULT);
+    }
+
+    private int readSampleRate(File voiceConfig) throws IOException {
+        return new ObjectMapper().readTree(voiceConfig).path("audio").path("sample_rate").asInt(22050);
+    }
+
+    private void openAudioOutput() throws IOException {
+        AudioFormat format = new AudioFormat(synthesisPool.getSampleRate(), 16, 1, true, false);
+        PcmOutput output;
+        String outputFile = properties.getOutputFile();
+        if (outputFile != null && !outputFile.isBlank()) {
+            output = WavFilePcmOutput.open(format, Paths.get(outputFile));
+        } else {
+            try {
+                output = JavaSoundPcmOutput.open(format);
+            } catch (LineUnavailableException | IllegalArgumentException e) {
+                log.warn("Java Sound indisponible ({}), repli sur un lecteur externe.", e.getMessage());
+                output = ProcessPcmOutput.start(format);
+            }
+        }
+        for (PcmTap tap : playbackTaps) {
+            output = new TappedPcmOutput(output, tap);
+        }
+        log.info("Sortie audio TTS : {}", output.describe());
+        playbackQueue = new PcmPlaybackQueue(output);
+    }
+
+    private void initAudioCache() {
+        if (!properties.isCacheEnabled()) {
+            log.info("Cache TTS désactivé.");
+            return;
+        }
+        String dir = properties.getCacheDir();
+        Path cacheDir = (dir == null || dir.isBlank()) ? Paths.get(PIPER_DIR, "cache") : Paths.get(dir);
+        audioCache = new TtsAudioCache(properties.getCacheMemoryMaxBytes(), cacheDir, properties.getCacheDiskMaxBytes());
+        // Le nom et la taille du modèle identifient la voix : remplacer le modèle invalide le cache
+        voiceId = modelFile.getName() + ":" + modelFile.length();
+    }
+
+    /**
+     * Pré-synthétise les phrases configurées avec la prosodie par défaut, sur les threads de génération
+     * pour ne pas retarder le démarrage.
+     */
+    private void warmUpCache() {
+        List<String> phrases = properties.getWarmupPhrases();
+        if (audioCache == null || phrases == null || phrases.isEmpty()) return;
+        for (String phrase : phrases) {
+            String key = cacheKey(phrase, PiperSynthesisWorker.Prosody.DEFAULT);
+            if (key == null || audioCache.contains(key)) continue;
+            generationExecutor.submit(() -> {
+                try {
+                    audioCache.put(key, synthesisPool.synthesize(phrase, PiperSynthesisWorker.Prosody.DEFAULT));
+                    log.debug("Préchauffage TTS : '{}'", phrase);
+                } catch (Exception e) {
+                    log.warn("Préchauffage TTS échoué pour '{}' : {}", phrase, e.getMessage());
                 }
-                log.warn("No audio player found. Install pulseaudio-utils, pipewire or alsa-utils");
-                break;
-            case "macos":
-                this.audioPlayerCommand = "afplay";
-                break;
-            case "windows":
-                this.audioPlayerCommand = "powershell";
-                break;
+            });
+        }
+    }
+
+    /**
+     * Clé de cache, ou {@code null} si le texte ne doit pas être mis en cache.
+     */
+    private String cacheKey(String text, PiperSynthesisWorker.Prosody prosody) {
+        if (audioCache == null || text == null || text.isBlank()
+                || text.length() > properties.getCacheMaxTextLength()) {
+            return null;
         }
+        return TtsAudioCache.key(voiceId, prosody, text);
+    }
+
+    public TtsAudioCache getAudioCache() {
+        return audioCache;
     }
 
     private boolean isPiperInstalled() {
@@ -412,204 +535,166 @@ public class PiperEmbeddedTTSModule {
 
     public Future<Void> speakAsync(String text, float lengthScale, float noiseScale, float noiseW) {
         if (!enabled) return java.util.concurrent.CompletableFuture.completedFuture(null);
-        return generationExecutor.submit(() -> {
-            try {
-                File audioFile = generateAudio(text, lengthScale, noiseScale, noiseW);
-                playbackExecutor.submit(() -> {
-                    try {
-                        playAudio(audioFile);
-                    } catch (Exception e) {
-                        log.error("Erreur lecture audio : {}", e.getMessage(), e);
-                    } finally {
-                        audioFile.delete();
-                    }
-                });
-            } catch (Exception e) {
-                log.error("Erreur génération audio : {}", e.getMessage(), e);
-            }
-            return null;
-        });
+        PcmStream stream = enqueueInCurrentTurn(null);
+        synthesizeInto(text, lengthScale, noiseScale, noiseW, stream);
+        return stream.played();
     }
 
     /**
      * Synthèse vocale async avec callback de complétion — déclenché après la fin de la lecture audio.
-     * Garantit l'ordre FIFO avec les chunks précédents via le playbackExecutor.
+     * Garantit l'ordre FIFO avec les chunks précédents via la file de lecture.
      */
     public void speakAsync(String text, float lengthScale, float noiseScale, float noiseW, Runnable onComplete) {
+        speakAsync(text, lengthScale, noiseScale, noiseW, onComplete, onComplete);
+    }
+
+    /**
+     * Comme {@link #speakAsync(String, float, float, float, Runnable)}, mais {@code onCancel} remplace
+     * {@code onComplete} si la phrase est annulée avant la fin de sa lecture (peut être null).
+     */
+    public void speakAsync(String text, float lengthScale, float noiseScale, float noiseW, Runnable onComplete, Runnable onCancel) {
         if (!enabled) {
             if (onComplete != null) onComplete.run();
             return;
         }
-        generationExecutor.submit(() -> {
-            try {
-                File audioFile = generateAudio(text, lengthScale, noiseScale, noiseW);
-                playbackExecutor.submit(() -> {
-                    try {
-                        playAudio(audioFile);
-                    } catch (Exception e) {
-                        log.error("Erreur lecture audio : {}", e.getMessage(), e);
-                    } finally {
-                        audioFile.delete();
-                        if (onComplete != null) onComplete.run();
-                    }
-                });
-            } catch (Exception e) {
-                log.error("Erreur génération audio avec callback : {}", e.getMessage(), e);
-                if (onComplete != null) onComplete.run();
-            }
-        });
+        PcmStream stream = enqueueInCurrentTurn(onComplete, onCancel);
+        synthesizeInto(text, lengthScale, noiseScale, noiseW, stream);
     }
 
     /**
      * Enfile un callback qui se déclenchera après tous les audios en attente.
-     * Route through generationExecutor first to ensure all pending audio generations
-     * (and their subsequent playback submissions) complete before the callback runs.
+     * La place de chaque phrase est réservée dans la file de lecture dès l'appel à speakAsync,
+     * le callback passe donc après elles même si leur synthèse n'est pas terminée.
      */
     public void afterPlayback(Runnable callback) {
+        afterPlayback(callback, callback);
+    }
+
+    /**
+     * Comme {@link #afterPlayback(Runnable)}, mais {@code onCancel} remplace le callback si la parole
+     * en file est annulée avant (peut être null).
+     */
+    public void afterPlayback(Runnable callback, Runnable onCancel) {
         if (!enabled) {
             if (callback != null) callback.run();
             return;
         }
-        generationExecutor.submit(() -> {
-            playbackExecutor.submit(() -> {
-                if (callback != null) callback.run();
-            });
-        });
+        currentTurn.track(playbackQueue.afterPending(callback, onCancel));
     }
 
-    public void speak(String text) {
-        if (!enabled) return;
-        speak(text, 1.0f, 0.667f, 0.8f);
+    /**
+     * Ouvre un nouveau tour de parole : les phrases demandées ensuite lui sont rattachées
+     * et peuvent être annulées ensemble via le handle retourné.
+     */
+    public SpeechTurn beginTurn() {
+        SpeechTurn turn = new SpeechTurn(turnIds.incrementAndGet(), enabled ? playbackQueue : null);
+        if (enabled) {
+            currentTurn = turn;
+        }
+        return turn;
     }
 
-    public void speak(String text, float lengthScale, float noiseScale, float noiseW) {
+    /**
+     * Annule toute la parole en file ou en cours (tous tours confondus) et libère la sortie audio
+     * en moins d'une tranche d'écriture. Les callbacks de fin en attente sont exécutés avant le retour.
+     */
+    public void cancelAll() {
         if (!enabled) return;
-        try {
-            File audioFile = generateAudio(text, lengthScale, noiseScale, noiseW);
-            playAudio(audioFile);
-            audioFile.delete();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to synthesize speech", e);
-        }
+        currentTurn.cancel();
+        currentTurn = new SpeechTurn(turnIds.incrementAndGet(), playbackQueue);
+        playbackQueue.cancelAll();
+        log.info("Parole en cours annulée.");
     }
 
-    private File generateAudio(String text, float lengthScale, float noiseScale, float noiseW) throws Exception {
-        // Create temp file for audio output
-        File audioFile = File.createTempFile("piper_output_", ".wav");
-
-        log.debug("Fichier audio : {}", audioFile.getAbsolutePath());
-
-        // Build command
-        ProcessBuilder pb = new ProcessBuilder(
-                piperExecutable,
-                "--speaker","1",
-                "--model", modelFile.getAbsolutePath(),
-                "--config", configFile.getAbsolutePath(),
-                "--output_file", audioFile.getAbsolutePath(),
-                "--length_scale", String.valueOf(lengthScale),
-                "--noise_scale", String.valueOf(noiseScale),
-                "--noise_w", String.valueOf(noiseW)
-        );
-
-        pb.redirectErrorStream(true);
-        Process process = pb.start();
-
-        // Write text to stdin
-        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()))) {
-            writer.write(text);
-            writer.flush();
-        }
-
-        // Read output/error streams to prevent blocking
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                log.debug("piper: {}", line);
-            }
-        }
-
-        // Wait for completion
-        boolean finished = process.waitFor(30, TimeUnit.SECONDS);
-        if (!finished) {
-            process.destroyForcibly();
-            throw new RuntimeException("Piper TTS generation timed out after 30 seconds");
-        }
-        int exitCode = process.exitValue();
-        log.debug("Piper exit code: {}", exitCode);
-
-        if (exitCode != 0) {
-            throw new RuntimeException("Piper process failed with exit code: " + exitCode);
-        }
-
-        // Verify the audio file was created and has content
-        if (!audioFile.exists()) {
-            throw new RuntimeException("Audio file was not created: " + audioFile.getAbsolutePath());
-        }
-
-        long fileSize = audioFile.length();
-        log.debug("Taille fichier audio : {} bytes", fileSize);
-
-        if (fileSize == 0) {
-            throw new RuntimeException("Audio file is empty");
-        }
-
-        return audioFile;
+    /**
+     * Coupe immédiatement la parole en cours pour dire un message prioritaire.
+     */
+    public void preempt(String text) {
+        if (!enabled) return;
+        cancelAll();
+        speakAsync(text);
     }
 
-    private void playAudio(File audioFile) throws Exception {
-        if (audioPlayerCommand == null) {
-            throw new RuntimeException("No audio player found. Install pulseaudio-utils, pipewire or alsa-utils");
-        }
-
-        log.debug("Lecture audio avec {} : {}", audioPlayerCommand, audioFile.getAbsolutePath());
-
-        ProcessBuilder pb;
-        if ("powershell".equals(audioPlayerCommand)) {
-            pb = new ProcessBuilder("powershell", "-c",
-                    "(New-Object Media.SoundPlayer '" + audioFile.getAbsolutePath() + "').PlaySync()");
-        } else {
-            pb = new ProcessBuilder(audioPlayerCommand, audioFile.getAbsolutePath());
+    /**
+     * Coupe immédiatement la parole en cours pour dire un message prioritaire. {@code onComplete} s'exécute
+     * une fois le message entièrement joué, pas s'il est lui-même annulé.
+     */
+    public void preempt(String text, Runnable onComplete) {
+        if (!enabled) {
+            if (onComplete != null) onComplete.run();
+            return;
         }
+        cancelAll();
+        speakAsync(text, 1.0f, 0.667f, 0.8f, onComplete, null);
+    }
 
-        pb.redirectErrorStream(true);
-        Process process = pb.start();
-
-        // Read output/error for debugging
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                log.debug("piper: {}", line);
-            }
-        }
+    private PcmStream enqueueInCurrentTurn(Runnable onComplete) {
+        return enqueueInCurrentTurn(onComplete, onComplete);
+    }
 
-        boolean finished = process.waitFor(60, TimeUnit.SECONDS);
-        if (!finished) {
-            process.destroyForcibly();
-            throw new RuntimeException("Audio playback timed out after 60 seconds");
-        }
-        int exitCode = process.exitValue();
-        log.debug("Audio player exit code: {}", exitCode);
+    private PcmStream enqueueInCurrentTurn(Runnable onComplete, Runnable onCancel) {
+        PcmStream stream = playbackQueue.enqueue(onComplete, onCancel);
+        currentTurn.track(stream);
+        return stream;
+    }
 
-        if (exitCode != 0) {
-            throw new RuntimeException("Audio playback failed with exit code: " + exitCode);
-        }
+    public void speak(String text) {
+        if (!enabled) return;
+        speak(text, 1.0f, 0.667f, 0.8f);
     }
 
-    private boolean isCommandAvailable(String command) {
+    public void speak(String text, float lengthScale, float noiseScale, float noiseW) {
+        if (!enabled) return;
         try {
-            ProcessBuilder pb = new ProcessBuilder("which", command);
-            Process process = pb.start();
-            boolean finished = process.waitFor(5, TimeUnit.SECONDS);
-            if (!finished) {
-                process.destroyForcibly();
-                return false;
-            }
-            return process.exitValue() == 0;
+            PcmStream stream = enqueueInCurrentTurn(() -> { });
+            synthesizeInto(text, lengthScale, noiseScale, noiseW, stream);
+            stream.played().get();
+        } catch (CancellationException e) {
+            log.debug("Phrase annulée avant la fin de sa lecture");
         } catch (Exception e) {
-            return false;
+            throw new RuntimeException("Failed to synthesize speech", e);
         }
     }
 
+    /**
+     * Synthétise sur un thread de génération en poussant le PCM dans le flux de lecture
+     * au fur et à mesure qu'il sort de Piper. Une phrase déjà en cache est jouée sans appeler Piper.
+     * Plusieurs phrases peuvent être synthétisées en même temps : leur ordre de lecture est celui
+     * de la réservation dans la file de lecture, pas celui de fin de synthèse.
+     * Si le tour est annulé pendant la synthèse, Piper est interrompu et rien n'est mis en cache.
+     */
+    private void synthesizeInto(String text, float lengthScale, float noiseScale, float noiseW, PcmStream stream) {
+        PiperSynthesisWorker.Prosody prosody = PiperSynthesisWorker.Prosody.of(lengthScale, noiseScale, noiseW);
+        generationExecutor.submit(() -> {
+            if (stream.isCancelled()) {
+                return; // tour annulé avant le début de la synthèse
+            }
+            try {
+                String key = cacheKey(text, prosody);
+                byte[] cached = key != null ? audioCache.get(key) : null;
+                if (cached != null) {
+                    log.debug("Cache TTS hit : {}", text.substring(0, Math.min(30, text.length())));
+                    stream.write(cached, 0, cached.length);
+                } else if (key != null) {
+                    ByteArrayOutputStream pcm = new ByteArrayOutputStream();
+                    synthesisPool.synthesize(text, prosody, (data, offset, length) -> {
+                        pcm.write(data, offset, length);
+                        stream.write(data, offset, length);
+                    }, stream::isCancelled);
+                    audioCache.put(key, pcm.toByteArray());
+                } else {
+                    synthesisPool.synthesize(text, prosody, stream::write, stream::isCancelled);
+                }
+                stream.complete();
+            } catch (CancellationException e) {
+                log.debug("Synthèse abandonnée, tour annulé : {}", text.substring(0, Math.min(30, text.length())));
+            } catch (Exception e) {
+                log.error("Erreur génération audio : {}", e.getMessage(), e);
+                stream.fail(e);
+            }
+        });
+    }
+
     private String getOperatingSystem() {
         String os = System.getProperty("os.name").toLowerCase();
         if (os.contains("win")) return "windows";
@@ -625,18 +710,23 @@ public class PiperEmbeddedTTSModule {
     }
 
     public void shutdown() {
+        if (audioCache != null) {
+            log.info("Cache TTS : {} hit(s) mémoire, {} hit(s) disque, {} miss(es).",
+                    audioCache.getMemoryHits(), audioCache.getDiskHits(), audioCache.getMisses());
+        }
+        if (synthesisPool != null) {
+            synthesisPool.close();
+        }
         generationExecutor.shutdown();
-        playbackExecutor.shutdown();
         try {
             if (!generationExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
                 generationExecutor.shutdownNow();
             }
-            if (!playbackExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
-                playbackExecutor.shutdownNow();
-            }
         } catch (InterruptedException e) {
             generationExecutor.shutdownNow();
-            playbackExecutor.shutdownNow();
+        }
+        if (playbackQueue != null) {
+            playbackQueue.close();
         }
     }
 }
@@ -0,0 +1,420 @@
+package org.arcos.IO.OuputHandling;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Processus Piper persistant ("warm") piloté via stdin/stdout.
+ * <p>
+ * Le modèle ONNX n'est chargé qu'une fois au démarrage du processus : chaque phrase est envoyée
+ * sous forme d'une ligne JSON ({@code --json-input}) et l'audio revient en PCM brut 16 bits mono
+ * ({@code --output_raw}). Piper n'écrit aucun délimiteur dans le flux audio ; la fin d'une phrase
+ * est détectée grâce à la ligne "Real-time factor: ... audio=X sec" que Piper logue sur stderr
+ * une fois tout l'audio de la ligne écrit et flushé.
+ * <p>
+ * La prosodie (length/noise/noise_w) est un argument de ligne de commande de Piper : un changement
+ * de prosodie relance le processus. Les paramètres sont donc quantifiés au pas de 0.05 pour que
+ * les petites dérives de l'humeur ne provoquent pas un rechargement du modèle à chaque tour.
+ * <p>
+ * Le processus est supervisé : s'il meurt, la phrase en cours échoue immédiatement et un
+ * nouveau processus est relancé en arrière-plan.
+ */
+@Slf4j
+public class PiperSynthesisWorker implements AutoCloseable {
+
+    private static final long SYNTHESIS_TIMEOUT_MS = 30_000;
+    private static final long END_OF_UTTERANCE_QUIET_MS = 20;
+    private static final int MAX_CONSECUTIVE_RESTARTS = 3;
+    private static final Pattern END_OF_UTTERANCE =
+            Pattern.compile("Real-time factor:.*audio=([0-9.eE+-]+) sec");
+
+    /**
+     * Paramètres de prosodie Piper, quantifiés pour limiter les relances du processus.
+     */
+    public record Prosody(float lengthScale, float noiseScale, float noiseW) {
+
+        public static final Prosody DEFAULT = of(1.0f, 0.667f, 0.8f);
+
+        public static Prosody of(float lengthScale, float noiseScale, float noiseW) {
+            return new Prosody(quantize(lengthScale), quantize(noiseScale), quantize(noiseW));
+        }
+
+        private static float quantize(float value) {
+            return Math.round(value * 20f) / 20f;
+        }
+    }
+
+    /**
+     * Reçoit les trames PCM au fil de la synthèse. Les blocs livrés contiennent toujours
+     * un nombre entier d'échantillons 16 bits.
+     */
+    @FunctionalInterface
+    public interface PcmConsumer {
+        void accept(byte[] data, int offset, int length);
+    }
+
+    private final String piperExecutable;
+    private final File modelFile;
+    private final File configFile;
+    private final int sampleRate;
+    private final String name;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Object synthesisLock = new Object();
+    private final ScheduledExecutorService supervisor;
+
+    private volatile Process process;
+    private volatile Prosody activeProsody = Prosody.DEFAULT;
+    private volatile Utterance current;
+    private volatile boolean closed = false;
+    private Writer stdin;
+    private int consecutiveRestarts = 0;
+    private long restartCount = 0;
+
+    public PiperSynthesisWorker(String piperExecutable, File modelFile, File configFile, int sampleRate, String name) {
+        this.piperExecutable = piperExecutable;
+        this.modelFile = modelFile;
+        this.configFile = configFile;
+        this.sampleRate = sampleRate;
+        this.name = name;
+        this.supervisor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name + "-supervisor");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Démarre le processus avec la prosodie donnée pour que le modèle soit chargé
+     * avant la première phrase.
+     */
+    public void start(Prosody prosody) throws IOException {
+        synchronized (synthesisLock) {
+            ensureProcess(prosody);
+        }
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public Prosody getActiveProsody() {
+        return activeProsody;
+    }
+
+    public long getRestartCount() {
+        return restartCount;
+    }
+
+    public boolean isAlive() {
+        Process p = process;
+        return p != null && p.isAlive();
+    }
+
+    /**
+     * Synthétise une phrase et retourne l'intégralité du PCM produit.
+     */
+    public byte[] synthesize(String text, Prosody prosody) throws IOException, TimeoutException {
+        ByteArrayOutputStream pcm = new ByteArrayOutputStream();
+        synthesize(text, prosody, pcm::write);
+        return pcm.toByteArray();
+    }
+
+    /**
+     * Synthétise une phrase en livrant le PCM au consumer au fur et à mesure qu'il arrive.
+     * Bloque jusqu'à la fin de la phrase. Les appels concurrents sont sérialisés.
+     */
+    public void synthesize(String text, Prosody prosody, PcmConsumer consumer) throws IOException, TimeoutException {
+        synthesize(text, prosody, consumer, () -> false);
+    }
+
+    /**
+     * Variante annulable : dès que {@code cancelled} devient vrai, le PCM n'est plus livré et la
+     * phrase est abandonnée avec une {@link CancellationException}. Piper ne sait pas interrompre
+     * une phrase et sa sortie ne peut pas être resynchronisée en cours de route : le processus est
+     * donc arrêté puis relancé en arrière-plan, pour que le modèle soit rechargé avant la phrase suivante.
+     */
+    public void synthesize(String text, Prosody prosody, PcmConsumer consumer, BooleanSupplier cancelled)
+            throws IOException, TimeoutException {
+        if (closed) {
+            throw new IllegalStateException("Worker Piper " + name + " fermé");
+        }
+        String line = objectMapper.writeValueAsString(Map.of("text", text));
+
+        synchronized (synthesisLock) {
+            ensureProcess(prosody);
+            Utterance utterance = new Utterance(consumer, cancelled);
+            current = utterance;
+            try {
+                stdin.write(line);
+                stdin.write('\n');
+                stdin.flush();
+                utterance.awaitCompletion(SYNTHESIS_TIMEOUT_MS);
+                consecutiveRestarts = 0;
+            } catch (TimeoutException e) {
+                log.warn("[{}] Synthèse expirée après {} ms, relance du processus", name, SYNTHESIS_TIMEOUT_MS);
+                destroyProcess();
+                throw e;
+            } catch (CancellationException e) {
+                log.debug("[{}] Phrase annulée en cours de synthèse, relance du processus", name);
+                destroyProcess();
+                respawnInBackground();
+                throw e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Synthèse interrompue");
+            } finally {
+                current = null;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        supervisor.shutdownNow();
+        destroyProcess();
+    }
+
+    // ── Process lifecycle ────────────────────────────────────────────────────
+
+    private void ensureProcess(Prosody prosody) throws IOException {
+        Process p = process;
+        if (p != null && p.isAlive() && prosody.equals(activeProsody)) {
+            return;
+        }
+        if (p != null && p.isAlive()) {
+            log.debug("[{}] Changement de prosodie {} -> {}, relance de Piper", name, activeProsody, prosody);
+            destroyProcess();
+        }
+        spawn(prosody);
+    }
+
+    private void spawn(Prosody prosody) throws IOException {
+        List<String> command = new ArrayList<>(List.of(
+                piperExecutable,
+                "--speaker", "1",
+                "--model", modelFile.getAbsolutePath(),
+                "--config", configFile.getAbsolutePath(),
+                "--json-input",
+                "--output_raw",
+                "--length_scale", String.valueOf(prosody.lengthScale()),
+                "--noise_scale", String.valueOf(prosody.noiseScale()),
+                "--noise_w", String.valueOf(prosody.noiseW())
+        ));
+
+        Process p = new ProcessBuilder(command).start();
+        this.process = p;
+        this.activeProsody = prosody;
+        this.stdin = new BufferedWriter(new OutputStreamWriter(p.getOutputStream(), StandardCharsets.UTF_8));
+
+        startDaemon(() -> pumpAudio(p), name + "-stdout");
+        startDaemon(() -> pumpLog(p), name + "-stderr");
+        p.onExit().thenRun(() -> onProcessExit(p));
+
+        log.info("[{}] Processus Piper démarré (pid={}, prosodie={})", name, p.pid(), prosody);
+    }
+
+    private void destroyProcess() {
+        Process p = process;
+        process = null;
+        if (p != null) {
+            p.destroy();
+            try {
+                if (!p.waitFor(2, TimeUnit.SECONDS)) {
+                    p.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                p.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void onProcessExit(Process p) {
+        Utterance utterance = current;
+        if (utterance != null) {
+            utterance.fail(new IOException("Le processus Piper s'est arrêté (code " + p.exitValue() + ")"));
+        }
+        if (closed || process != p) {
+            return; // arrêt volontaire ou processus déjà remplacé
+        }
+        process = null;
+        if (consecutiveRestarts >= MAX_CONSECUTIVE_RESTARTS) {
+            log.error("[{}] Piper s'est arrêté {} fois de suite, relance différée à la prochaine phrase",
+                    name, consecutiveRestarts);
+            return;
+        }
+        log.warn("[{}] Processus Piper arrêté (code {}), relance", name, p.exitValue());
+        supervisor.execute(() -> {
+            synchronized (synthesisLock) {
+                if (closed || isAlive()) return;
+                consecutiveRestarts++;
+                restartCount++;
+                try {
+                    spawn(activeProsody);
+                } catch (IOException e) {
+                    log.error("[{}] Échec de la relance de Piper : {}", name, e.getMessage());
+                }
+            }
+        });
+    }
+
+    /** Relance volontaire : ne compte pas comme un plantage. */
+    private void respawnInBackground() {
+        supervisor.execute(() -> {
+            synchronized (synthesisLock) {
+                if (closed || isAlive()) return;
+                try {
+                    spawn(activeProsody);
+                } catch (IOException e) {
+                    log.error("[{}] Échec de la relance de Piper : {}", name, e.getMessage());
+                }
+            }
+        });
+    }
+
+    private void startDaemon(Runnable task, String threadName) {
+        Thread t = new Thread(task, threadName);
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void pumpAudio(Process p) {
+        byte[] buffer = new byte[4096];
+        try (InputStream audio = p.getInputStream()) {
+            int read;
+            while ((read = audio.read(buffer)) != -1) {
+                Utterance utterance = current;
+                if (utterance != null) {
+                    utterance.onAudio(buffer, read);
+                } else {
+                    log.debug("[{}] {} octets audio hors phrase ignorés", name, read);
+                }
+            }
+        } catch (IOException e) {
+            log.debug("[{}] Flux audio Piper fermé : {}", name, e.getMessage());
+        }
+    }
+
+    private void pumpLog(Process p) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(p.getErrorStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                log.debug("piper: {}", line);
+                Matcher m = END_OF_UTTERANCE.matcher(line);
+                if (m.find()) {
+                    Utterance utterance = current;
+                    if (utterance != null) {
+                        utterance.onEndMarker(parseExpectedBytes(m.group(1)));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.debug("[{}] Flux stderr Piper fermé : {}", name, e.getMessage());
+        }
+    }
+
+    private long parseExpectedBytes(String audioSeconds) {
+        try {
+            return Math.round(Double.parseDouble(audioSeconds) * sampleRate) * 2L;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // ── Utterance state ──────────────────────────────────────────────────────
+
+    /**
+     * État d'une phrase en cours. Alimenté par les threads stdout/stderr, attendu par l'appelant.
+     * La fin est validée quand le marqueur stderr est vu, que les octets annoncés sont arrivés,
+     * et que stdout est resté silencieux quelques millisecondes (les deux pipes ne sont pas ordonnés
+     * entre eux).
+     */
+    private static final class Utterance {
+        private final PcmConsumer consumer;
+        private final BooleanSupplier cancelled;
+        private long bytesReceived = 0;
+        private long expectedBytes = -1;
+        private boolean endMarkerSeen = false;
+        private long lastAudioNanos = System.nanoTime();
+        private int carry = -1;
+        private IOException failure;
+
+        Utterance(PcmConsumer consumer, BooleanSupplier cancelled) {
+            this.consumer = consumer;
+            this.cancelled = cancelled;
+        }
+
+        synchronized void onAudio(byte[] data, int length) {
+            if (cancelled.getAsBoolean()) {
+                notifyAll();
+                return;
+            }
+            int offset = 0;
+            int remaining = length;
+            if (carry >= 0 && remaining > 0) {
+                consumer.accept(new byte[]{(byte) carry, data[0]}, 0, 2);
+                carry = -1;
+                offset = 1;
+                remaining--;
+            }
+            int aligned = remaining & ~1;
+            if (aligned > 0) {
+                consumer.accept(data, offset, aligned);
+            }
+            if (remaining > aligned) {
+                carry = data[offset + aligned] & 0xFF;
+            }
+            bytesReceived += length;
+            lastAudioNanos = System.nanoTime();
+            notifyAll();
+        }
+
+        synchronized void onEndMarker(long expected) {
+            endMarkerSeen = true;
+            expectedBytes = expected;
+            notifyAll();
+        }
+
+        synchronized void fail(IOException e) {
+            failure = e;
+            notifyAll();
+        }
+
+        synchronized void awaitCompletion(long timeoutMs) throws IOException, TimeoutException, InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (true) {
+                if (failure != null) throw failure;
+                if (cancelled.getAsBoolean()) throw new CancellationException("Synthèse Piper annulée");
+                long now = System.nanoTime();
+                long quietMs = TimeUnit.NANOSECONDS.toMillis(now - lastAudioNanos);
+                boolean allBytes = expectedBytes < 0 || bytesReceived >= expectedBytes;
+                if (endMarkerSeen && allBytes && quietMs >= END_OF_UTTERANCE_QUIET_MS) {
+                    return;
+                }
+                if (now >= deadline) {
+                    throw new TimeoutException("Synthèse Piper expirée");
+                }
+                long waitMs = endMarkerSeen && allBytes
+                        ? Math.max(1, END_OF_UTTERANCE_QUIET_MS - quietMs)
+                        : Math.min(100, TimeUnit.NANOSECONDS.toMillis(deadline - now) + 1);
+                wait(waitMs);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.arcos.IO.OuputHandling;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Pool de processus Piper persistants permettant de synthétiser plusieurs phrases en parallèle.
+ * <p>
+ * Chaque phrase emprunte un worker libre le temps de sa synthèse. Un worker dont la prosodie
+ * correspond déjà à celle demandée est préféré, pour éviter une relance de processus quand
+ * l'humeur change entre deux réponses. L'ordre de lecture n'est pas géré ici : il est garanti
+ * par la file de lecture, où chaque phrase réserve sa place avant d'être synthétisée.
+ */
+@Slf4j
+public class PiperWorkerPool implements AutoCloseable {
+
+    private static final int MAX_AUTO_WORKERS = 3;
+
+    private final List<PiperSynthesisWorker> workers;
+    private final Deque<PiperSynthesisWorker> idle;
+
+    public PiperWorkerPool(List<PiperSynthesisWorker> workers) {
+        if (workers.isEmpty()) {
+            throw new IllegalArgumentException("Le pool Piper doit contenir au moins un worker");
+        }
+        this.workers = List.copyOf(workers);
+        this.idle = new ArrayDeque<>(workers);
+    }
+
+    /**
+     * Taille automatique : Piper utilise déjà plusieurs cœurs par processus, on garde donc
+     * environ un processus pour deux cœurs (2 sur un Raspberry Pi 4), borné à {@value #MAX_AUTO_WORKERS}.
+     */
+    public static int autoSize(int availableProcessors) {
+        return Math.max(1, Math.min(MAX_AUTO_WORKERS, availableProcessors / 2));
+    }
+
+    public void start(PiperSynthesisWorker.Prosody prosody) throws IOException {
+        for (PiperSynthesisWorker worker : workers) {
+            worker.start(prosody);
+        }
+        log.info("Pool Piper démarré : {} processus", workers.size());
+    }
+
+    public int size() {
+        return workers.size();
+    }
+
+    public int getSampleRate() {
+        return workers.get(0).getSampleRate();
+    }
+
+    public byte[] synthesize(String text, PiperSynthesisWorker.Prosody prosody)
+            throws IOException, TimeoutException, InterruptedException {
+        PiperSynthesisWorker worker = acquire(prosody);
+        try {
+            return worker.synthesize(text, prosody);
+        } finally {
+            release(worker);
+        }
+    }
+
+    public void synthesize(String text, PiperSynthesisWorker.Prosody prosody, PiperSynthesisWorker.PcmConsumer consumer)
+            throws IOException, TimeoutException, InterruptedException {
+        PiperSynthesisWorker worker = acquire(prosody);
+        try {
+            worker.synthesize(text, prosody, consumer);
+        } finally {
+            release(worker);
+        }
+    }
+
+    public void synthesize(String text, PiperSynthesisWorker.Prosody prosody, PiperSynthesisWorker.PcmConsumer consumer,
+                           BooleanSupplier cancelled)
+            throws IOException, TimeoutException, InterruptedException {
+        PiperSynthesisWorker worker = acquire(prosody);
+        try {
+            worker.synthesize(text, prosody, consumer, cancelled);
+        } finally {
+            release(worker);
+        }
+    }
+
+    /**
+     * Emprunte un worker libre, en priorité un worker déjà lancé avec cette prosodie.
+     * Bloque si tous les workers sont occupés.
+     */
+    PiperSynthesisWorker acquire(PiperSynthesisWorker.Prosody prosody) throws InterruptedException {
+        synchronized (idle) {
+            while (idle.isEmpty()) {
+                idle.wait();
+            }
+            Iterator<PiperSynthesisWorker> it = idle.iterator();
+            while (it.hasNext()) {
+                PiperSynthesisWorker candidate = it.next();
+                if (prosody.equals(candidate.getActiveProsody())) {
+                    it.remove();
+                    return candidate;
+                }
+            }
+            return idle.pollFirst();
+        }
+    }
+
+    void release(PiperSynthesisWorker worker) {
+        synchronized (idle) {
+            idle.addLast(worker);
+            idle.notifyAll();
+        }
+    }
+
+    @Override
+    public void close() {
+        workers.forEach(PiperSynthesisWorker::close);
+    }
+}
@@ -0,0 +1,78 @@
+package org.arcos.IO.OuputHandling.Playback;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sound.sampled.*;
+
+/**
+ * Recherche d'une ligne de sortie Java Sound utilisable, partagée entre les cues audio et le TTS.
+ */
+@Slf4j
+public final class AudioLineResolver {
+
+    private AudioLineResolver() {
+    }
+
+    /**
+     * Tente de trouver une ligne audio valide selon une stratégie de repli.
+     */
+    public static SourceDataLine resolve(DataLine.Info info) {
+        SourceDataLine line = null;
+
+        // ÉTAPE 1 : Essayer "PulseAudio" (souvent le mieux pour Docker/Linux)
+        line = findLineByKeyword("PulseAudio", info);
+        if (line != null) {
+            log.info("Utilisation du pont PulseAudio.");
+            return line;
+        }
+
+        // ÉTAPE 2 : Essayer le Default System
+        if (AudioSystem.isLineSupported(info)) {
+            try {
+                line = (SourceDataLine) AudioSystem.getLine(info);
+                log.info("Utilisation du périphérique par défaut du système.");
+                return line;
+            } catch (LineUnavailableException e) {
+                log.warn("Le périphérique par défaut est indisponible.");
+            }
+        }
+
+        // ÉTAPE 3 : Mode "Brute Force" - Prendre le premier qui marche qui n'est pas le HDMI (souvent problématique)
+        Mixer.Info[] mixers = AudioSystem.getMixerInfo();
+        for (Mixer.Info mixerInfo : mixers) {
+            String name = mixerInfo.getName().toLowerCase();
+            // On évite le HDMI "Port" qui ne sont souvent que des contrôleurs et pas des sorties streamables
+            if (name.contains("hdmi")) continue;
+
+            Mixer mixer = AudioSystem.getMixer(mixerInfo);
+            if (mixer.isLineSupported(info)) {
+                try {
+                    line = (SourceDataLine) mixer.getLine(info);
+                    log.info("Fallback : Utilisation du mixer trouvée '{}'", mixerInfo.getName());
+                    return line;
+                } catch (LineUnavailableException e) {
+                    // Occupé, suivant
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static SourceDataLine findLineByKeyword(String keyword, DataLine.Info info) {
+        for (Mixer.Info mixerInfo : AudioSystem.getMixerInfo()) {
+            if (mixerInfo.getName().toLowerCase().contains(keyword.toLowerCase()) ||
+                    mixerInfo.getDescription().toLowerCase().contains(keyword.toLowerCase())) {
+                Mixer mixer = AudioSystem.getMixer(mixerInfo);
+                if (mixer.isLineSupported(info)) {
+                    try {
+                        return (SourceDataLine) mixer.getLine(info);
+                    } catch (LineUnavailableException e) {
+                        log.warn("Mixer trouvé pour '{}' mais indisponible.", keyword);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,77 @@
+package org.arcos.IO.OuputHandling.Playback;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * Sortie PCM sur une {@link SourceDataLine} ouverte une fois et laissée démarrée.
+ */
+@Slf4j
+public class JavaSoundPcmOutput implements PcmOutput {
+
+    // Tampon court : la lecture démarre dès les premières trames, write() bloque au-delà
+    private static final int BUFFER_MILLIS = 250;
+
+    private final AudioFormat format;
+    private final SourceDataLine line;
+    private volatile long flushCount = 0;
+
+    private JavaSoundPcmOutput(AudioFormat format, SourceDataLine line) {
+        this.format = format;
+        this.line = line;
+    }
+
+    public static JavaSoundPcmOutput open(AudioFormat format) throws LineUnavailableException {
+        DataLine.Info info = new DataLine.Info(SourceDataLine.class, format);
+        SourceDataLine line = AudioLineResolver.resolve(info);
+        if (line == null) {
+            throw new LineUnavailableException("Aucune ligne audio disponible pour " + format);
+        }
+        int bufferBytes = (int) (format.getFrameRate() * BUFFER_MILLIS / 1000) * format.getFrameSize();
+        line.open(format, bufferBytes);
+        line.start();
+        log.info("Sortie audio Java Sound ouverte : {} (tampon {} octets)", format, line.getBufferSize());
+        return new JavaSoundPcmOutput(format, line);
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) {
+        // Un flush concurrent débloque line.write() : on abandonne alors le reste du bloc
+        long flushAtStart = flushCount;
+        int written = 0;
+        while (written < length && line.isOpen() && flushAtStart == flushCount) {
+            written += line.write(data, offset + written, length - written);
+        }
+    }
+
+    @Override
+    public void drain() {
+        line.drain();
+    }
+
+    @Override
+    public void flush() {
+        flushCount++;
+        line.flush();
+    }
+
+    @Override
+    public String describe() {
+        return "JavaSound[" + line.getLineInfo() + "]";
+    }
+
+    @Override
+    public void close() {
+        line.stop();
+        line.close();
+    }
+}
@@ -0,0 +1,35 @@
+package org.arcos.IO.OuputHandling.Playback;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+
+/**
+ * Sortie audio persistante recevant du PCM brut.
+ * <p>
+ * Une seule instance reste ouverte pendant toute la vie de l'application : les phrases
+ * successives sont écrites à la suite sans rouvrir de périphérique ni lancer de processus.
+ */
+public interface PcmOutput extends AutoCloseable {
+
+    AudioFormat getFormat();
+
+    /**
+     * Écrit des trames PCM. Bloque tant que le tampon du périphérique est plein.
+     */
+    void write(byte[] data, int offset, int length) throws IOException;
+
+    /**
+     * Bloque jusqu'à ce que tout l'audio écrit ait été joué.
+     */
+    void drain();
+
+    /**
+     * Abandonne l'audio écrit mais pas encore joué.
+     */
+    void flush();
+
+    String describe();
+
+    @Override
+    void close();
+}
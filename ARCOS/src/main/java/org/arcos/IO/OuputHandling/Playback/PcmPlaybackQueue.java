@@ -0,0 +1,179 @@
+package org.arcos.IO.OuputHandling.Playback;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File de lecture FIFO des phrases synthétisées vers une {@link PcmOutput} persistante.
+ * <p>
+ * Chaque phrase est réservée dans la file au moment où elle est demandée ({@link #enqueue}),
+ * puis remplie par la synthèse : l'ordre de lecture est celui des demandes, et une phrase
+ * commence à jouer dès ses premières trames. Les phrases s'enchaînent sans drain entre elles ;
+ * la sortie n'est vidée que lorsqu'un callback doit s'exécuter après la fin réelle du son
+ * (reprise du micro par exemple).
+ * <p>
+ * Les phrases en attente ou en cours peuvent être annulées ({@link #cancel}) : l'audio est écrit
+ * par tranches de {@value #WRITE_SLICE_MILLIS} ms et la sortie est vidée, la lecture s'arrête
+ * donc en moins d'une tranche.
+ */
+@Slf4j
+public class PcmPlaybackQueue implements AutoCloseable {
+
+    // Au-delà du timeout de synthèse Piper (30 s) : une phrase qui n'arrive jamais ne bloque pas la file
+    private static final long CHUNK_TIMEOUT_MS = 45_000;
+    private static final int WRITE_SLICE_MILLIS = 40;
+
+    private final PcmOutput output;
+    private final int sliceBytes;
+    private final ExecutorService playbackExecutor;
+    private final Set<PcmStream> pending = ConcurrentHashMap.newKeySet();
+    private volatile PcmStream playing;
+
+    public PcmPlaybackQueue(PcmOutput output) {
+        this.output = output;
+        int frameSize = Math.max(1, output.getFormat().getFrameSize());
+        int frames = Math.max(1, (int) (output.getFormat().getFrameRate() * WRITE_SLICE_MILLIS / 1000));
+        this.sliceBytes = frames * frameSize;
+        this.playbackExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "tts-playback");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public PcmOutput getOutput() {
+        return output;
+    }
+
+    /**
+     * Réserve la prochaine place dans la file de lecture.
+     *
+     * @param onComplete exécuté une fois l'audio de la phrase réellement joué (ou en échec, ou annulé), peut être null
+     * @return le flux à remplir par la synthèse
+     */
+    public PcmStream enqueue(Runnable onComplete) {
+        return enqueue(onComplete, onComplete);
+    }
+
+    /**
+     * Réserve la prochaine place dans la file de lecture, avec un callback distinct en cas d'annulation.
+     *
+     * @param onComplete exécuté une fois l'audio de la phrase réellement joué (ou en échec), peut être null
+     * @param onCancel   exécuté à la place si la phrase est annulée, peut être null
+     */
+    public PcmStream enqueue(Runnable onComplete, Runnable onCancel) {
+        PcmStream stream = new PcmStream(onComplete, onCancel);
+        submit(stream);
+        return stream;
+    }
+
+    /**
+     * Exécute le callback après tout l'audio déjà mis en file, une fois la sortie vidée.
+     */
+    public PcmStream afterPending(Runnable callback) {
+        return afterPending(callback, callback);
+    }
+
+    /**
+     * Exécute le callback après tout l'audio déjà mis en file, ou {@code onCancel} si ce marqueur est annulé.
+     */
+    public PcmStream afterPending(Runnable callback, Runnable onCancel) {
+        PcmStream marker = new PcmStream(callback, onCancel);
+        marker.complete();
+        submit(marker);
+        return marker;
+    }
+
+    /**
+     * Annule les phrases données, coupe la lecture si l'une d'elles est en train de jouer, puis
+     * exécute leurs callbacks d'annulation dans le thread appelant avant de rendre la main.
+     */
+    public void cancel(Collection<PcmStream> streams) {
+        boolean interruptPlayback = false;
+        for (PcmStream stream : streams) {
+            if (stream.cancel() && stream == playing) {
+                interruptPlayback = true;
+            }
+        }
+        if (interruptPlayback) {
+            output.flush();
+        }
+        for (PcmStream stream : streams) {
+            pending.remove(stream);
+            runQuietly(stream.claimCallback());
+        }
+    }
+
+    /**
+     * Annule tout ce qui est en file ou en cours de lecture.
+     */
+    public void cancelAll() {
+        cancel(new ArrayList<>(pending));
+    }
+
+    private void submit(PcmStream stream) {
+        pending.add(stream);
+        playbackExecutor.submit(() -> playEntry(stream));
+    }
+
+    private void playEntry(PcmStream stream) {
+        playing = stream;
+        try {
+            if (!stream.isCancelled()) {
+                play(stream);
+                if (stream.hasCallback() && !stream.isCancelled()) output.drain();
+            }
+            stream.played().complete(null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stream.played().completeExceptionally(e);
+        } catch (Exception e) {
+            log.error("Erreur lecture audio : {}", e.getMessage(), e);
+            stream.played().completeExceptionally(e);
+        } finally {
+            playing = null;
+            pending.remove(stream);
+            runQuietly(stream.claimCallback());
+        }
+    }
+
+    private void play(PcmStream stream) throws Exception {
+        byte[] chunk;
+        while ((chunk = stream.next(CHUNK_TIMEOUT_MS)) != null) {
+            for (int offset = 0; offset < chunk.length; offset += sliceBytes) {
+                if (stream.isCancelled()) return;
+                output.write(chunk, offset, Math.min(sliceBytes, chunk.length - offset));
+            }
+        }
+    }
+
+    private void runQuietly(Runnable callback) {
+        if (callback == null) return;
+        try {
+            callback.run();
+        } catch (Exception e) {
+            log.error("Erreur dans le callback de fin de lecture : {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        playbackExecutor.shutdown();
+        try {
+            if (!playbackExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                playbackExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            playbackExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        output.close();
+    }
+}
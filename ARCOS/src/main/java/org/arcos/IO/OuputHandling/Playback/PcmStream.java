@@ -0,0 +1,125 @@
+package org.arcos.IO.OuputHandling.Playback;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * PCM d'une phrase, transmis du thread de synthèse au thread de lecture au fil de l'eau.
+ * La lecture peut commencer dès le premier bloc, avant la fin de la synthèse.
+ * <p>
+ * Un flux annulé ignore les blocs suivants : la synthèse en cours peut se terminer sans être jouée.
+ * <p>
+ * Le callback de fin ne s'exécute qu'une fois, soit à la fin réelle de la lecture, soit à l'annulation ;
+ * dans ce second cas c'est le callback d'annulation qui le remplace (par défaut le même).
+ */
+public class PcmStream {
+
+    private static final byte[] END = new byte[0];
+
+    private final BlockingQueue<byte[]> chunks = new LinkedBlockingQueue<>();
+    private final CompletableFuture<Void> played = new CompletableFuture<>();
+    private final AtomicReference<Runnable> onComplete;
+    private final Runnable onCancel;
+    private volatile Throwable failure;
+    private volatile boolean cancelled = false;
+
+    public PcmStream() {
+        this(null);
+    }
+
+    public PcmStream(Runnable onComplete) {
+        this(onComplete, onComplete);
+    }
+
+    /**
+     * @param onComplete exécuté quand la phrase a été jouée jusqu'au bout (ou en échec)
+     * @param onCancel   exécuté à la place si la phrase est annulée, peut être null
+     */
+    public PcmStream(Runnable onComplete, Runnable onCancel) {
+        this.onComplete = new AtomicReference<>(onComplete);
+        this.onCancel = onCancel;
+    }
+
+    /**
+     * Ajoute un bloc. Les données sont copiées : l'appelant peut réutiliser son tampon.
+     */
+    public void write(byte[] data, int offset, int length) {
+        if (length > 0 && !cancelled) {
+            chunks.offer(Arrays.copyOfRange(data, offset, offset + length));
+        }
+    }
+
+    public void complete() {
+        chunks.offer(END);
+    }
+
+    public void fail(Throwable cause) {
+        failure = cause;
+        chunks.offer(END);
+    }
+
+    /**
+     * Annule le flux : les blocs en attente sont abandonnés et le lecteur s'arrête au prochain bloc.
+     *
+     * @return false si le flux était déjà annulé
+     */
+    public boolean cancel() {
+        if (cancelled) return false;
+        cancelled = true;
+        chunks.clear();
+        chunks.offer(END);
+        played.cancel(false);
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Bloc suivant, ou {@code null} quand la phrase est terminée ou annulée.
+     *
+     * @throws IOException si la synthèse a échoué ou n'a rien produit dans le délai
+     */
+    public byte[] next(long timeoutMs) throws IOException, InterruptedException {
+        byte[] chunk = chunks.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        if (cancelled) {
+            return null;
+        }
+        if (chunk == null) {
+            throw new IOException("Aucun audio reçu depuis " + timeoutMs + " ms");
+        }
+        if (chunk == END) {
+            if (failure != null) {
+                throw new IOException("Synthèse échouée : " + failure.getMessage(), failure);
+            }
+            return null;
+        }
+        return chunk;
+    }
+
+    /**
+     * Complété quand la phrase a été entièrement envoyée à la sortie audio, annulé si le flux l'est.
+     */
+    public CompletableFuture<Void> played() {
+        return played;
+    }
+
+    boolean hasCallback() {
+        return onComplete.get() != null;
+    }
+
+    /**
+     * Récupère le callback de fin pour l'exécuter ; un seul appelant l'obtient (lecteur ou annulation).
+     * Pour un flux annulé, c'est le callback d'annulation qui est rendu.
+     */
+    Runnable claimCallback() {
+        Runnable callback = onComplete.getAndSet(null);
+        return callback != null && cancelled ? onCancel : callback;
+    }
+}
@@ -0,0 +1,25 @@
+package org.arcos.IO.OuputHandling.Playback;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * Observateur du PCM envoyé à une {@link PcmOutput} : sert de signal de référence à l'annulation d'écho
+ * côté capture. Appelé depuis le thread de lecture, ne doit pas bloquer.
+ */
+public interface PcmTap {
+
+    /**
+     * Audio sur le point d'être écrit dans la sortie.
+     */
+    void onPlayback(AudioFormat format, byte[] data, int offset, int length);
+
+    /**
+     * L'audio écrit mais pas encore joué vient d'être abandonné ({@link PcmOutput#flush}).
+     */
+    void onFlush();
+
+    /** Nom affiché dans la description de la sortie observée. */
+    default String describe() {
+        return getClass().getSimpleName();
+    }
+}
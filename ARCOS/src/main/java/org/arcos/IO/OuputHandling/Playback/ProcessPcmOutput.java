@@ -0,0 +1,146 @@
+package org.arcos.IO.OuputHandling.Playback;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sortie PCM de repli quand Java Sound n'expose aucune ligne : un seul lecteur externe
+ * (pacat, pw-cat ou aplay) lancé une fois en mode brut, alimenté par son stdin.
+ * <p>
+ * Le lecteur ne signale pas la fin de lecture ; {@link #drain()} s'appuie sur une horloge
+ * estimée à partir du nombre d'octets écrits et du débit du format.
+ */
+@Slf4j
+public class ProcessPcmOutput implements PcmOutput {
+
+    // Latence supposée du serveur audio entre stdin et le haut-parleur
+    private static final long OUTPUT_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(120);
+
+    private final AudioFormat format;
+    private final List<String> command;
+    private final double bytesPerNano;
+
+    private Process process;
+    private OutputStream stdin;
+    private long playheadNanos;
+    private long flushCount;
+
+    private ProcessPcmOutput(AudioFormat format, List<String> command) {
+        this.format = format;
+        this.command = command;
+        this.bytesPerNano = format.getFrameRate() * format.getFrameSize() / 1e9;
+    }
+
+    /**
+     * Lance le premier lecteur brut disponible sur la machine.
+     */
+    public static ProcessPcmOutput start(AudioFormat format) throws IOException {
+        int rate = (int) format.getSampleRate();
+        int channels = format.getChannels();
+        List<List<String>> candidates = List.of(
+                List.of("pacat", "--playback", "--raw", "--format=s16le",
+                        "--rate=" + rate, "--channels=" + channels),
+                List.of("pw-cat", "--playback", "--raw", "--format=s16",
+                        "--rate=" + rate, "--channels=" + channels, "-"),
+                List.of("aplay", "-q", "-t", "raw", "-f", "S16_LE",
+                        "-r", String.valueOf(rate), "-c", String.valueOf(channels), "-"));
+
+        for (List<String> candidate : candidates) {
+            if (isCommandAvailable(candidate.get(0))) {
+                ProcessPcmOutput output = new ProcessPcmOutput(format, candidate);
+                output.spawn();
+                log.info("Sortie audio par processus : {}", candidate.get(0));
+                return output;
+            }
+        }
+        throw new IOException("No audio player found. Install pulseaudio-utils, pipewire or alsa-utils");
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public synchronized void write(byte[] data, int offset, int length) throws IOException {
+        if (process == null || !process.isAlive()) {
+            log.warn("Lecteur {} arrêté, relance.", command.get(0));
+            spawn();
+        }
+        stdin.write(data, offset, length);
+        stdin.flush();
+        long now = System.nanoTime();
+        playheadNanos = Math.max(playheadNanos, now) + (long) (length / bytesPerNano);
+    }
+
+    @Override
+    public synchronized void drain() {
+        long flushAtStart = flushCount;
+        long remaining;
+        try {
+            while ((remaining = playheadNanos + OUTPUT_LATENCY_NANOS - System.nanoTime()) > 0
+                    && flushAtStart == flushCount) {
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Le tampon du lecteur externe n'est pas accessible : on relance le processus.
+     */
+    @Override
+    public synchronized void flush() {
+        destroy();
+        playheadNanos = 0;
+        flushCount++;
+        notifyAll();
+    }
+
+    @Override
+    public String describe() {
+        return "Process[" + command.get(0) + "]";
+    }
+
+    @Override
+    public synchronized void close() {
+        destroy();
+    }
+
+    private void spawn() throws IOException {
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+        process = pb.start();
+        stdin = process.getOutputStream();
+        playheadNanos = 0;
+    }
+
+    private void destroy() {
+        if (process != null) {
+            process.destroy();
+            process = null;
+            stdin = null;
+        }
+    }
+
+    private static boolean isCommandAvailable(String command) {
+        try {
+            Process process = new ProcessBuilder("which", command).start();
+            boolean finished = process.waitFor(5, TimeUnit.SECONDS);
+            if (!finished) {
+                process.destroyForcibly();
+                return false;
+            }
+            return process.exitValue() == 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.arcos.IO.OuputHandling.Playback;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+
+/**
+ * Décorateur de {@link PcmOutput} qui recopie chaque écriture vers un {@link PcmTap}.
+ */
+public class TappedPcmOutput implements PcmOutput {
+
+    private final PcmOutput delegate;
+    private final PcmTap tap;
+
+    public TappedPcmOutput(PcmOutput delegate, PcmTap tap) {
+        this.delegate = delegate;
+        this.tap = tap;
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return delegate.getFormat();
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        // Avant l'écriture : write() bloque tant que le tampon du périphérique est plein, la référence
+        // est donc publiée au moment où l'audio entre dans la sortie
+        tap.onPlayback(delegate.getFormat(), data, offset, length);
+        delegate.write(data, offset, length);
+    }
+
+    @Override
+    public void drain() {
+        delegate.drain();
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+        tap.onFlush();
+    }
+
+    @Override
+    public String describe() {
+        return delegate.describe() + " + " + tap.describe();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,164 @@
+package org.arcos.IO.OuputHandling.Playback;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sortie sans périphérique : le PCM est écrit dans un fichier WAV au rythme où une carte son le jouerait.
+ * <p>
+ * Les durées de lecture, l'ouverture de la fenêtre de conversation et la référence d'écho se comportent comme
+ * en lecture réelle, ce qui permet de mesurer une session rejouée sur une machine sans audio. Le fichier suit
+ * l'horloge depuis l'ouverture : les pauses entre deux réponses y sont des silences, et l'audio abandonné par
+ * {@link #flush()} avant d'avoir été « joué » en est retiré.
+ */
+@Slf4j
+public class WavFilePcmOutput implements PcmOutput {
+
+    private static final int HEADER_BYTES = 44;
+    /** Avance maximale de l'écriture sur la lecture simulée, comme le tampon d'une ligne Java Sound. */
+    private static final long BUFFER_NANOS = 250_000_000L;
+
+    private final AudioFormat format;
+    private final Path path;
+    private final FileChannel channel;
+    private final int frameSize;
+    private final double bytesPerNano;
+    private final long openedAt;
+    private final ByteBuffer silence = ByteBuffer.allocate(8192);
+    private long dataBytes;
+
+    private WavFilePcmOutput(AudioFormat format, Path path, FileChannel channel) {
+        this.format = format;
+        this.path = path;
+        this.channel = channel;
+        this.frameSize = format.getFrameSize();
+        this.bytesPerNano = format.getFrameRate() * frameSize / 1e9;
+        this.openedAt = System.nanoTime();
+    }
+
+    public static WavFilePcmOutput open(AudioFormat format, Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        WavFilePcmOutput output = new WavFilePcmOutput(format, path, channel);
+        output.writeHeader();
+        log.info("Sortie audio vers fichier : {} ({})", path, format);
+        return output;
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        long waitNanos;
+        synchronized (this) {
+            // Sortie au repos depuis la fin du dernier bloc : la carte son aurait joué du silence
+            long silent = playedBytes(System.nanoTime()) - dataBytes;
+            while (silent > 0) {
+                silence.clear().limit((int) Math.min(silence.capacity(), silent));
+                int written = channel.write(silence);
+                silent -= written;
+                dataBytes += written;
+            }
+            channel.write(ByteBuffer.wrap(data, offset, length));
+            dataBytes += length;
+            waitNanos = endOfPlaybackNanos() - BUFFER_NANOS - System.nanoTime();
+        }
+        sleepNanos(waitNanos);
+    }
+
+    @Override
+    public void drain() {
+        long waitNanos;
+        synchronized (this) {
+            waitNanos = endOfPlaybackNanos() - System.nanoTime();
+            updateHeader();
+        }
+        sleepNanos(waitNanos);
+    }
+
+    @Override
+    public synchronized void flush() {
+        long played = playedBytes(System.nanoTime());
+        if (played >= dataBytes) return;
+        dataBytes = played;
+        try {
+            channel.truncate(HEADER_BYTES + dataBytes);
+            channel.position(HEADER_BYTES + dataBytes);
+        } catch (IOException e) {
+            log.warn("Troncature de {} impossible : {}", path, e.getMessage());
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "WAV[" + path + "]";
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            updateHeader();
+            channel.close();
+            log.info("Sortie audio fermée : {} ({} ms)", path, Math.round(dataBytes / bytesPerNano / 1e6));
+        } catch (IOException e) {
+            log.warn("Fermeture de {} : {}", path, e.getMessage());
+        }
+    }
+
+    /** Octets qu'une carte son démarrée à l'ouverture aurait joués à l'instant {@code now}, alignés sur une trame. */
+    private long playedBytes(long now) {
+        long bytes = (long) ((now - openedAt) * bytesPerNano);
+        return bytes - bytes % frameSize;
+    }
+
+    private long endOfPlaybackNanos() {
+        return openedAt + (long) (dataBytes / bytesPerNano);
+    }
+
+    private static void sleepNanos(long nanos) {
+        if (nanos <= 0) return;
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        int channels = format.getChannels();
+        int sampleRate = Math.round(format.getSampleRate());
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.put("RIFF".getBytes()).putInt(36).put("WAVE".getBytes())
+                .put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) channels)
+                .putInt(sampleRate).putInt(sampleRate * frameSize).putShort((short) frameSize)
+                .putShort((short) format.getSampleSizeInBits())
+                .put("data".getBytes()).putInt(0);
+        channel.write(header.flip(), 0);
+        channel.position(HEADER_BYTES);
+    }
+
+    /** Tailles RIFF et data : le fichier reste lisible même si l'application est arrêtée brutalement. */
+    private void updateHeader() {
+        try {
+            ByteBuffer size = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            channel.write(size.putInt(0, (int) (36 + dataBytes)), 4);
+            channel.write(size.clear().putInt(0, (int) dataBytes), 40);
+        } catch (IOException e) {
+            log.warn("Mise à jour de l'en-tête de {} : {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.arcos.IO.OuputHandling;
+
+import org.arcos.IO.OuputHandling.Playback.PcmPlaybackQueue;
+import org.arcos.IO.OuputHandling.Playback.PcmStream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ensemble des phrases demandées pendant un tour de parole, annulables d'un bloc.
+ * <p>
+ * Annuler un tour abandonne ses synthèses pas encore commencées, ignore l'audio des synthèses
+ * en cours, coupe sa lecture et exécute ses callbacks d'annulation avant de rendre la main. Une phrase
+ * sans callback d'annulation dédié exécute son callback de fin ; sinon c'est à l'appelant qui annule
+ * de décider de la suite (reprise du micro notamment).
+ */
+public class SpeechTurn {
+
+    private final long id;
+    private final PcmPlaybackQueue playbackQueue;
+    private final List<PcmStream> streams = new ArrayList<>();
+    private boolean cancelled = false;
+
+    SpeechTurn(long id, PcmPlaybackQueue playbackQueue) {
+        this.id = id;
+        this.playbackQueue = playbackQueue;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Rattache une phrase au tour. Si le tour est déjà annulé, la phrase l'est immédiatement.
+     */
+    void track(PcmStream stream) {
+        boolean cancelNow;
+        synchronized (this) {
+            streams.removeIf(s -> s.played().isDone());
+            streams.add(stream);
+            cancelNow = cancelled;
+        }
+        if (cancelNow) {
+            playbackQueue.cancel(List.of(stream));
+        }
+    }
+
+    public void cancel() {
+        List<PcmStream> toCancel;
+        synchronized (this) {
+            if (cancelled) return;
+            cancelled = true;
+            toCancel = new ArrayList<>(streams);
+            streams.clear();
+        }
+        if (playbackQueue != null) {
+            playbackQueue.cancel(toCancel);
+        }
+    }
+}
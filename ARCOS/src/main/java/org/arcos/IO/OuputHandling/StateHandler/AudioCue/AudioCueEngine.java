@@ -1,20 +1,80 @@
 package org.arcos.IO.OuputHandling.StateHandler.AudioCue;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.arcos.IO.OuputHandling.Playback.JavaSoundPcmOutput;
+import org.arcos.IO.OuputHandling.Playback.PcmOutput;
+import org.arcos.IO.OuputHandling.Playback.ProcessPcmOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.stereotype.Component;
 
-import javax.sound.sampled.*;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
 import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.io.InputStream;
-
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Moteur des sons d'interface (cues).
+ * <p>
+ * Tous les fichiers {@code sounds/*.wav} sont décodés une fois au démarrage en PCM 44.1 kHz 16 bits
+ * stéréo, gain déjà appliqué. Un unique thread audio possède une sortie ouverte en permanence et
+ * joue les cues demandés dans l'ordre : {@link #play(String)} ne fait que déposer une demande.
+ */
 @Component
 public class AudioCueEngine {
 
     private static final Logger logger = LoggerFactory.getLogger(AudioCueEngine.class);
 
+    static final AudioFormat CUE_FORMAT = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED,
+            44100, 16, 2, 4, 44100, false);
+    // +6 dB au plus, appliqué une fois au décodage (remplace le MASTER_GAIN réglé à chaque ouverture de ligne)
+    private static final float CUE_GAIN = 2.0f;
+
+    private final Map<String, byte[]> cueBank = new ConcurrentHashMap<>();
+    private final BlockingQueue<CueRequest> requests = new LinkedBlockingQueue<>();
+    private PcmOutput output;
+    private Thread audioThread;
+
+    public AudioCueEngine() {
+    }
+
+    /**
+     * Constructeur avec une sortie fournie (tests, capture).
+     */
+    public AudioCueEngine(PcmOutput output) {
+        this.output = output;
+    }
+
+    @PostConstruct
+    public void init() {
+        loadCueBank();
+        if (output == null) {
+            output = openOutput();
+        }
+        if (output == null) {
+            logger.error("FATAL: Aucun périphérique audio capable de jouer le son n'a été trouvé.");
+            return;
+        }
+        audioThread = new Thread(this::audioLoop, "audio-cue");
+        audioThread.setDaemon(true);
+        audioThread.start();
+    }
+
+    /**
+     * Joue un cue sans bloquer l'appelant.
+     */
     public void play(String soundIdentifier) {
-        new Thread(() -> streamSound(soundIdentifier)).start();
+        submit(soundIdentifier, null);
     }
 
     /**
@@ -23,125 +83,147 @@ public class AudioCueEngine {
      * preventing the cue from bleeding into the microphone capture.
      */
     public void playSync(String soundIdentifier) {
-        streamSound(soundIdentifier);
-    }
-
-    private void streamSound(String soundIdentifier) {
+        CountDownLatch done = new CountDownLatch(1);
+        if (!submit(soundIdentifier, done)) return;
         try {
-            // 1. Chargement et Conversion Standard (44.1kHz, 16-bit)
-            InputStream audioSrc = getClass().getResourceAsStream("/sounds/" + soundIdentifier);
-            if (audioSrc == null) audioSrc = getClass().getResourceAsStream("/" + soundIdentifier);
-            if (audioSrc == null) {
-                logger.warn("Fichier son introuvable : {}", soundIdentifier);
-                return;
-            }
-
-            InputStream bufferedIn = new BufferedInputStream(audioSrc);
-            AudioInputStream sourceStream = AudioSystem.getAudioInputStream(bufferedIn);
-            AudioFormat baseFormat = sourceStream.getFormat();
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-            AudioFormat targetFormat = new AudioFormat(
-                    AudioFormat.Encoding.PCM_SIGNED,
-                    44100, 16, baseFormat.getChannels(), baseFormat.getChannels() * 2, 44100, false
-            );
+    public boolean isLoaded(String soundIdentifier) {
+        return cueBank.containsKey(soundIdentifier);
+    }
 
-            AudioInputStream audioStream = AudioSystem.getAudioInputStream(targetFormat, sourceStream);
-            DataLine.Info info = new DataLine.Info(SourceDataLine.class, targetFormat);
+    @PreDestroy
+    public void shutdown() {
+        if (audioThread != null) {
+            audioThread.interrupt();
+        }
+        if (output != null) {
+            output.close();
+        }
+    }
 
-            // 2. Recherche de la meilleure ligne de sortie (Cœur de la résilience)
-            SourceDataLine line = getBestLine(info);
+    private boolean submit(String soundIdentifier, CountDownLatch done) {
+        if (audioThread == null) {
+            return false;
+        }
+        if (!cueBank.containsKey(soundIdentifier)) {
+            logger.warn("Fichier son introuvable : {}", soundIdentifier);
+            return false;
+        }
+        requests.offer(new CueRequest(soundIdentifier, done));
+        return true;
+    }
 
-            if (line == null) {
-                logger.error("FATAL: Aucun périphérique audio capable de jouer le son n'a été trouvé.");
+    private void audioLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            CueRequest request;
+            try {
+                request = requests.take();
+            } catch (InterruptedException e) {
                 return;
             }
-
-            // 3. Lecture
-            line.open(targetFormat);
-
-            if (line.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
-                FloatControl gain = (FloatControl) line.getControl(FloatControl.Type.MASTER_GAIN);
-                gain.setValue(6.0f);
+            try {
+                byte[] pcm = cueBank.get(request.soundIdentifier());
+                output.write(pcm, 0, pcm.length);
+                if (request.done() != null) {
+                    output.drain();
+                }
+            } catch (Exception e) {
+                logger.error("Erreur lecture son: {}", request.soundIdentifier(), e);
+            } finally {
+                if (request.done() != null) request.done().countDown();
             }
+        }
+    }
 
-            line.start();
-
-            byte[] buffer = new byte[4096];
-            int bytesRead;
-            while ((bytesRead = audioStream.read(buffer)) != -1) {
-                line.write(buffer, 0, bytesRead);
-            }
+    private PcmOutput openOutput() {
+        try {
+            return JavaSoundPcmOutput.open(CUE_FORMAT);
+        } catch (Exception e) {
+            logger.warn("Java Sound indisponible pour les cues ({}), repli sur un lecteur externe.", e.getMessage());
+        }
+        try {
+            return ProcessPcmOutput.start(CUE_FORMAT);
+        } catch (IOException e) {
+            return null;
+        }
+    }
 
-            line.drain();
-            line.stop();
-            line.close();
-            audioStream.close();
+    // ── Décodage ─────────────────────────────────────────────────────────────
 
-        } catch (Exception e) {
-            logger.error("Erreur lecture son: {}", soundIdentifier, e);
+    private void loadCueBank() {
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver().getResources("classpath*:sounds/*.wav");
+            for (Resource resource : resources) {
+                String name = resource.getFilename();
+                try (InputStream in = resource.getInputStream()) {
+                    cueBank.put(name, decode(in));
+                } catch (Exception e) {
+                    logger.warn("Décodage du son {} impossible : {}", name, e.getMessage());
+                }
+            }
+            logger.info("{} sons d'interface préchargés : {}", cueBank.size(), cueBank.keySet());
+        } catch (IOException e) {
+            logger.error("Impossible de lister les sons d'interface", e);
         }
     }
 
     /**
-     * Tente de trouver une ligne audio valide selon une stratégie de repli.
+     * Décode un WAV vers {@link #CUE_FORMAT} (conversion de fréquence et de profondeur par Java Sound,
+     * mono dupliqué en stéréo) et applique le gain.
      */
-    private SourceDataLine getBestLine(DataLine.Info info) {
-        SourceDataLine line = null;
-
-        // ÉTAPE 1 : Essayer "PulseAudio" (souvent le mieux pour Docker/Linux)
-        line = findLineByKeyword("PulseAudio", info);
-        if (line != null) {
-            logger.info("Utilisation du pont PulseAudio.");
-            return line;
+    static byte[] decode(InputStream wav) throws Exception {
+        AudioInputStream sourceStream = AudioSystem.getAudioInputStream(new BufferedInputStream(wav));
+        AudioFormat baseFormat = sourceStream.getFormat();
+        int channels = baseFormat.getChannels();
+        AudioFormat decodedFormat = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED,
+                44100, 16, channels, channels * 2, 44100, false);
+        byte[] pcm;
+        try (AudioInputStream audioStream = AudioSystem.getAudioInputStream(decodedFormat, sourceStream)) {
+            pcm = audioStream.readAllBytes();
         }
-
-        // ÉTAPE 2 : Essayer le Default System
-        if (AudioSystem.isLineSupported(info)) {
-            try {
-                line = (SourceDataLine) AudioSystem.getLine(info);
-                logger.info("Utilisation du périphérique par défaut du système.");
-                return line;
-            } catch (LineUnavailableException e) {
-                logger.warn("Le périphérique par défaut est indisponible.");
-            }
+        if (channels == 1) {
+            pcm = monoToStereo(pcm);
+        } else if (channels != 2) {
+            throw new IllegalArgumentException("Nombre de canaux non supporté : " + channels);
         }
+        applyGain(pcm);
+        return pcm;
+    }
 
-        // ÉTAPE 3 : Mode "Brute Force" - Prendre le premier qui marche qui n'est pas le HDMI (souvent problématique)
-        Mixer.Info[] mixers = AudioSystem.getMixerInfo();
-        for (Mixer.Info mixerInfo : mixers) {
-            String name = mixerInfo.getName().toLowerCase();
-            // On évite le HDMI "Port" qui ne sont souvent que des contrôleurs et pas des sorties streamables
-            if (name.contains("hdmi")) continue;
-
-            Mixer mixer = AudioSystem.getMixer(mixerInfo);
-            if (mixer.isLineSupported(info)) {
-                try {
-                    line = (SourceDataLine) mixer.getLine(info);
-                    logger.info("Fallback : Utilisation du mixer trouvée '{}'", mixerInfo.getName());
-                    return line;
-                } catch (LineUnavailableException e) {
-                    // Occupé, suivant
-                }
-            }
+    private static byte[] monoToStereo(byte[] mono) {
+        byte[] stereo = new byte[mono.length * 2];
+        for (int i = 0, j = 0; i + 1 < mono.length; i += 2, j += 4) {
+            stereo[j] = mono[i];
+            stereo[j + 1] = mono[i + 1];
+            stereo[j + 2] = mono[i];
+            stereo[j + 3] = mono[i + 1];
         }
-
-        return null;
+        return stereo;
     }
 
-    private SourceDataLine findLineByKeyword(String keyword, DataLine.Info info) {
-        for (Mixer.Info mixerInfo : AudioSystem.getMixerInfo()) {
-            if (mixerInfo.getName().toLowerCase().contains(keyword.toLowerCase()) ||
-                    mixerInfo.getDescription().toLowerCase().contains(keyword.toLowerCase())) {
-                Mixer mixer = AudioSystem.getMixer(mixerInfo);
-                if (mixer.isLineSupported(info)) {
-                    try {
-                        return (SourceDataLine) mixer.getLine(info);
-                    } catch (LineUnavailableException e) {
-                        logger.warn("Mixer trouvé pour '{}' mais indisponible.", keyword);
-                    }
-                }
-            }
+    /**
+     * Applique {@link #CUE_GAIN}, borné par la crête du son pour ne pas saturer.
+     */
+    private static void applyGain(byte[] pcm) {
+        int peak = 1;
+        for (int i = 0; i + 1 < pcm.length; i += 2) {
+            peak = Math.max(peak, Math.abs((short) ((pcm[i] & 0xFF) | (pcm[i + 1] << 8))));
         }
-        return null;
+        float gain = Math.min(CUE_GAIN, (float) Short.MAX_VALUE / peak);
+        if (gain <= 1.0f) return;
+        for (int i = 0; i + 1 < pcm.length; i += 2) {
+            int sample = (short) ((pcm[i] & 0xFF) | (pcm[i + 1] << 8));
+            int amplified = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(sample * gain)));
+            pcm[i] = (byte) amplified;
+            pcm[i + 1] = (byte) (amplified >> 8);
+        }
+    }
+
+    private record CueRequest(String soundIdentifier, CountDownLatch done) {
     }
-}
\ No newline at end of file
+}
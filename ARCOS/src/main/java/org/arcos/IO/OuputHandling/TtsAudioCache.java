@@ -0,0 +1,241 @@
+package org.arcos.IO.OuputHandling;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Cache adressé par contenu du PCM synthétisé par Piper.
+ * <p>
+ * Deux niveaux : un LRU en mémoire borné en octets, puis un répertoire de fichiers
+ * {@code <sha256>.pcm} sur disque qui survit aux redémarrages. La clé couvre le texte normalisé,
+ * la voix et la prosodie quantifiée : une même phrase dite avec une autre humeur est une autre entrée.
+ */
+@Slf4j
+public class TtsAudioCache {
+
+    private static final String EXTENSION = ".pcm";
+
+    private final long memoryMaxBytes;
+    private final Path diskDir;
+    private final long diskMaxBytes;
+
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes = 0;
+    private final AtomicLong diskBytes = new AtomicLong();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param diskDir répertoire du cache disque, ou {@code null} pour un cache uniquement mémoire
+     */
+    public TtsAudioCache(long memoryMaxBytes, Path diskDir, long diskMaxBytes) {
+        this.memoryMaxBytes = memoryMaxBytes;
+        this.diskDir = diskMaxBytes > 0 ? diskDir : null;
+        this.diskMaxBytes = diskMaxBytes;
+        if (this.diskDir != null) {
+            try {
+                Files.createDirectories(this.diskDir);
+                diskBytes.set(listEntries().stream().mapToLong(this::sizeOf).sum());
+                log.info("Cache TTS disque : {} ({} octets)", this.diskDir, diskBytes.get());
+            } catch (IOException e) {
+                log.warn("Cache TTS disque indisponible ({}), cache mémoire uniquement.", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Normalise le texte pour que les variantes d'espacement ou d'encodage Unicode partagent la même entrée.
+     * La casse est conservée : elle peut changer la phonétisation (sigles).
+     */
+    public static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFC).strip().replaceAll("\\s+", " ");
+    }
+
+    public static String key(String voiceId, PiperSynthesisWorker.Prosody prosody, String text) {
+        String material = voiceId + '|' + prosody.lengthScale() + '|' + prosody.noiseScale() + '|'
+                + prosody.noiseW() + '|' + normalize(text);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(material.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * PCM en cache pour cette clé, ou {@code null}. Un hit disque est promu en mémoire.
+     */
+    public byte[] get(String key) {
+        synchronized (memory) {
+            byte[] pcm = memory.get(key);
+            if (pcm != null) {
+                memoryHits.incrementAndGet();
+                return pcm;
+            }
+        }
+        byte[] pcm = readFromDisk(key);
+        if (pcm != null) {
+            diskHits.incrementAndGet();
+            putInMemory(key, pcm);
+            return pcm;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public boolean contains(String key) {
+        synchronized (memory) {
+            if (memory.containsKey(key)) return true;
+        }
+        return diskDir != null && Files.exists(diskPath(key));
+    }
+
+    public void put(String key, byte[] pcm) {
+        if (pcm == null || pcm.length == 0) return;
+        putInMemory(key, pcm);
+        writeToDisk(key, pcm);
+    }
+
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getMemoryBytes() {
+        synchronized (memory) {
+            return memoryBytes;
+        }
+    }
+
+    public long getDiskBytes() {
+        return diskBytes.get();
+    }
+
+    // ── Mémoire ──────────────────────────────────────────────────────────────
+
+    private void putInMemory(String key, byte[] pcm) {
+        if (pcm.length > memoryMaxBytes) return;
+        synchronized (memory) {
+            byte[] previous = memory.put(key, pcm);
+            if (previous != null) memoryBytes -= previous.length;
+            memoryBytes += pcm.length;
+            Iterator<Map.Entry<String, byte[]>> eldest = memory.entrySet().iterator();
+            while (memoryBytes > memoryMaxBytes && eldest.hasNext()) {
+                memoryBytes -= eldest.next().getValue().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    // ── Disque ───────────────────────────────────────────────────────────────
+
+    private byte[] readFromDisk(String key) {
+        if (diskDir == null) return null;
+        Path path = diskPath(key);
+        try {
+            byte[] pcm = Files.readAllBytes(path);
+            // Date de modification = dernier accès, utilisée pour l'éviction
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+            return pcm;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Lecture du cache TTS impossible ({}) : {}", path.getFileName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, byte[] pcm) {
+        if (diskDir == null || pcm.length > diskMaxBytes) return;
+        Path target = diskPath(key);
+        if (Files.exists(target)) return;
+        try {
+            Path tmp = Files.createTempFile(diskDir, key, ".tmp");
+            Files.write(tmp, pcm);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (diskBytes.addAndGet(pcm.length) > diskMaxBytes) {
+                evictFromDisk(target);
+            }
+        } catch (IOException e) {
+            log.warn("Écriture du cache TTS impossible : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Supprime les entrées les moins récemment utilisées jusqu'à repasser sous le budget,
+     * sans jamais supprimer l'entrée qui vient d'être écrite.
+     */
+    private synchronized void evictFromDisk(Path justWritten) {
+        List<Path> entries = listEntries();
+        entries.remove(justWritten);
+        entries.sort(Comparator.comparing(this::lastModified));
+        long total = sizeOf(justWritten) + entries.stream().mapToLong(this::sizeOf).sum();
+        Iterator<Path> oldest = entries.iterator();
+        while (total > diskMaxBytes && oldest.hasNext()) {
+            Path path = oldest.next();
+            long size = sizeOf(path);
+            try {
+                Files.deleteIfExists(path);
+                total -= size;
+            } catch (IOException e) {
+                log.debug("Suppression impossible {} : {}", path, e.getMessage());
+            }
+        }
+        diskBytes.set(total);
+    }
+
+    private List<Path> listEntries() {
+        try (Stream<Path> files = Files.list(diskDir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(EXTENSION))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    private Path diskPath(String key) {
+        return diskDir.resolve(key + EXTENSION);
+    }
+
+    private long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -80,11 +80,14 @@ public class ChatOrchestrator {
                 .content();
     }
 
+    /**
+     * Réponse conversationnelle en streaming. Pas de QuestionAnswerAdvisor ici : les souvenirs pertinents
+     * sont déjà récupérés par PromptBuilder, en parallèle des autres sources de contexte.
+     */
     @CircuitBreaker(name = "mistral_free", fallbackMethod = "generateStreamingChatResponseFallback")
     @RateLimiter(name = "mistral_free")
     public Flux<String> generateStreamingChatResponse(Prompt prompt) {
         return chatClient.prompt(prompt)
-                .advisors(questionAnswerAdvisor)
                 .tools(tools)
                 .stream()
                 .content()
@@ -0,0 +1,166 @@
+package org.arcos.LLM.Embedding;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.embedding.EmbeddingResponseMetadata;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache d'embeddings à deux niveaux devant le modèle distant.
+ * <p>
+ * Clé : hash du texte et de l'identifiant du modèle. Niveau 1 : LRU en mémoire borné en nombre
+ * d'entrées. Niveau 2 (optionnel) : {@link EmbeddingDiskStore}, fichier de vecteurs mappé en mémoire,
+ * qui survit aux redémarrages. Seuls les textes absents des deux niveaux partent au modèle, en un
+ * seul appel par requête ; le rate limiter éventuel n'est consommé que pour ces appels.
+ */
+@Slf4j
+public class CachingEmbeddingModel implements EmbeddingModel, DisposableBean {
+
+    private final EmbeddingModel delegate;
+    private final String modelId;
+    private final int memoryMaxEntries;
+    private final EmbeddingDiskStore diskStore;
+    private final RateLimiter rateLimiter;
+    private final Map<EmbeddingKey, float[]> memory;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CachingEmbeddingModel(EmbeddingModel delegate, String modelId, int memoryMaxEntries,
+                                 @Nullable EmbeddingDiskStore diskStore, @Nullable RateLimiter rateLimiter) {
+        this.delegate = delegate;
+        this.modelId = modelId;
+        this.memoryMaxEntries = memoryMaxEntries;
+        this.diskStore = diskStore;
+        this.rateLimiter = rateLimiter;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<EmbeddingKey, float[]> eldest) {
+                return size() > CachingEmbeddingModel.this.memoryMaxEntries;
+            }
+        };
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        List<String> inputs = request.getInstructions();
+        float[][] vectors = new float[inputs.size()][];
+        List<Integer> missingPositions = new ArrayList<>();
+        List<String> missingTexts = new ArrayList<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            vectors[i] = lookup(EmbeddingKey.of(modelId, inputs.get(i)));
+            if (vectors[i] == null) {
+                missingPositions.add(i);
+                missingTexts.add(inputs.get(i));
+            }
+        }
+
+        EmbeddingResponseMetadata metadata = new EmbeddingResponseMetadata();
+        if (!missingTexts.isEmpty()) {
+            misses.addAndGet(missingTexts.size());
+            EmbeddingRequest missingRequest = new EmbeddingRequest(missingTexts, request.getOptions());
+            EmbeddingResponse response = rateLimiter != null
+                    ? rateLimiter.executeSupplier(() -> delegate.call(missingRequest))
+                    : delegate.call(missingRequest);
+            List<Embedding> results = response.getResults();
+            for (int j = 0; j < results.size(); j++) {
+                Embedding result = results.get(j);
+                int position = result.getIndex() != null ? result.getIndex() : j;
+                vectors[missingPositions.get(position)] = result.getOutput();
+                store(EmbeddingKey.of(modelId, missingTexts.get(position)), result.getOutput());
+            }
+            metadata = response.getMetadata();
+        }
+
+        List<Embedding> embeddings = new ArrayList<>(vectors.length);
+        for (int i = 0; i < vectors.length; i++) {
+            embeddings.add(new Embedding(vectors[i], i));
+        }
+        return new EmbeddingResponse(embeddings, metadata);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getText());
+    }
+
+    @Override
+    public int dimensions() {
+        return delegate.dimensions();
+    }
+
+    public EmbeddingModel getDelegate() { return delegate; }
+    public long getMemoryHits() { return memoryHits.get(); }
+    public long getDiskHits() { return diskHits.get(); }
+    public long getMisses() { return misses.get(); }
+
+    public double getHitRate() {
+        long hits = memoryHits.get() + diskHits.get();
+        long total = hits + misses.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    public int getMemorySize() {
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+
+    public int getDiskSize() {
+        return diskStore != null ? diskStore.size() : 0;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        log.info("Cache d'embeddings : {} hits mémoire, {} hits disque, {} appels au modèle (taux de hit {})",
+                memoryHits.get(), diskHits.get(), misses.get(), String.format("%.0f%%", getHitRate() * 100));
+        if (diskStore != null) diskStore.close();
+    }
+
+    private float[] lookup(EmbeddingKey key) {
+        synchronized (memory) {
+            float[] cached = memory.get(key);
+            if (cached != null) {
+                memoryHits.incrementAndGet();
+                return cached.clone();
+            }
+        }
+        if (diskStore == null) return null;
+        float[] onDisk = diskStore.get(key);
+        if (onDisk == null) return null;
+        diskHits.incrementAndGet();
+        remember(key, onDisk);
+        return onDisk;
+    }
+
+    private void store(EmbeddingKey key, float[] vector) {
+        remember(key, vector);
+        if (diskStore == null) return;
+        try {
+            diskStore.put(key, vector);
+        } catch (IOException e) {
+            log.warn("Écriture du cache disque d'embeddings impossible : {}", e.getMessage());
+        }
+    }
+
+    private void remember(EmbeddingKey key, float[] vector) {
+        if (memoryMaxEntries <= 0) return;
+        synchronized (memory) {
+            memory.put(key, vector.clone());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.arcos.LLM.Embedding;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.arcos.Configuration.EmbeddingCacheProperties;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Enveloppe chaque bean EmbeddingModel (Mistral en production, modèle local en test) dans un
+ * {@link CachingEmbeddingModel} : repositories Qdrant, QuestionAnswerAdvisor et recherches par tour
+ * en profitent sans changement.
+ * <p>
+ * Le rate limiter {@code mistral_free} est appliqué ici, aux seuls appels réels au modèle : un vecteur
+ * déjà en cache ne fait plus attendre le limiteur.
+ */
+@Slf4j
+@Configuration
+public class EmbeddingCacheConfig {
+
+    @Bean
+    public static BeanPostProcessor embeddingCachePostProcessor(ObjectProvider<EmbeddingCacheProperties> properties,
+                                                                ObjectProvider<RateLimiterRegistry> rateLimiterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof EmbeddingModel model) || bean instanceof CachingEmbeddingModel) {
+                    return bean;
+                }
+                EmbeddingCacheProperties props = properties.getIfAvailable(EmbeddingCacheProperties::new);
+                RateLimiterRegistry registry = rateLimiterRegistry.getIfAvailable();
+                RateLimiter rateLimiter = registry != null ? registry.rateLimiter("mistral_free") : null;
+                if (!props.isEnabled()) {
+                    return new CachingEmbeddingModel(model, props.getModelId(), 0, null, rateLimiter);
+                }
+                String modelId = props.getModelId() + ":" + model.getClass().getSimpleName();
+                return new CachingEmbeddingModel(model, modelId, props.getMemoryMaxEntries(),
+                        openDiskStore(props, beanName), rateLimiter);
+            }
+        };
+    }
+
+    private static EmbeddingDiskStore openDiskStore(EmbeddingCacheProperties props, String beanName) {
+        if (props.getDiskMaxEntries() <= 0 || props.getDir() == null || props.getDir().isBlank()) {
+            return null;
+        }
+        try {
+            return new EmbeddingDiskStore(Path.of(props.getDir(), beanName + ".vec"), props.getDiskMaxEntries());
+        } catch (IOException e) {
+            log.warn("Cache disque d'embeddings indisponible ({}), cache mémoire seul : {}", beanName, e.getMessage());
+            return null;
+        }
+    }
+}
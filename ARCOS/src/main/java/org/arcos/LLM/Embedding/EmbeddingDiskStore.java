@@ -0,0 +1,185 @@
+package org.arcos.LLM.Embedding;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stockage disque compact des embeddings.
+ * <p>
+ * Un seul fichier mappé en mémoire : un en-tête de 32 octets puis {@code capacity} slots de taille fixe
+ * (clé de 16 octets suivie de {@code dimension} floats). Les slots sont écrits en anneau : une fois le
+ * fichier plein, le plus ancien vecteur est écrasé. L'index clé → slot est reconstruit en mémoire à
+ * l'ouverture. La dimension est fixée par le premier vecteur écrit ; une dimension différente
+ * (changement de modèle) réinitialise le fichier.
+ */
+@Slf4j
+public class EmbeddingDiskStore implements Closeable {
+
+    private static final int MAGIC = 0x41524345; // "ARCE"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int KEY_BYTES = 16;
+
+    private final Path file;
+    private final int capacity;
+    private final Map<EmbeddingKey, Integer> index = new HashMap<>();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int dimension;
+    private int nextSlot;
+
+    public EmbeddingDiskStore(Path file, int capacity) throws IOException {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity doit être positive : " + capacity);
+        this.file = file;
+        this.capacity = capacity;
+        if (Files.exists(file)) {
+            openExisting();
+        }
+    }
+
+    public synchronized float[] get(EmbeddingKey key) {
+        Integer slot = index.get(key);
+        if (slot == null) return null;
+        int offset = slotOffset(slot) + KEY_BYTES;
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = buffer.getFloat(offset + i * Float.BYTES);
+        }
+        return vector;
+    }
+
+    public synchronized void put(EmbeddingKey key, float[] vector) throws IOException {
+        if (index.containsKey(key)) return;
+        if (buffer == null || vector.length != dimension) {
+            if (buffer != null) {
+                log.info("Dimension d'embedding modifiée ({} → {}), cache disque réinitialisé", dimension, vector.length);
+            }
+            create(vector.length);
+        }
+        int slot = nextSlot;
+        int offset = slotOffset(slot);
+        EmbeddingKey evicted = readKey(offset);
+        if (evicted != null) index.remove(evicted, slot);
+
+        // Vecteur d'abord, clé ensuite : un slot à clé non nulle est toujours complet
+        buffer.putLong(offset, 0L);
+        buffer.putLong(offset + Long.BYTES, 0L);
+        for (int i = 0; i < dimension; i++) {
+            buffer.putFloat(offset + KEY_BYTES + i * Float.BYTES, vector[i]);
+        }
+        buffer.putLong(offset, key.hi());
+        buffer.putLong(offset + Long.BYTES, key.lo());
+
+        index.put(key, slot);
+        nextSlot = (slot + 1) % capacity;
+        buffer.putInt(16, nextSlot);
+    }
+
+    public synchronized boolean contains(EmbeddingKey key) {
+        return index.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (buffer != null) buffer.force();
+        if (channel != null) channel.close();
+        buffer = null;
+        channel = null;
+    }
+
+    // ── Fichier ──────────────────────────────────────────────────────────────
+
+    private void openExisting() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_BYTES) {
+            discard("fichier tronqué");
+            return;
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        int storedDimension = header.getInt(8);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(12) != capacity
+                || storedDimension <= 0 || channel.size() != fileSize(storedDimension)) {
+            discard("format ou capacité différents");
+            return;
+        }
+        dimension = storedDimension;
+        buffer = map(fileSize(dimension));
+        nextSlot = Math.floorMod(buffer.getInt(16), capacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            EmbeddingKey key = readKey(slotOffset(slot));
+            if (key != null) index.put(key, slot);
+        }
+        log.info("Cache disque d'embeddings ouvert : {} vecteurs ({}), dimension {}", index.size(), file, dimension);
+    }
+
+    private void discard(String reason) throws IOException {
+        log.info("Cache disque d'embeddings ignoré ({}) : {}", reason, file);
+        channel.close();
+        channel = null;
+        Files.deleteIfExists(file);
+    }
+
+    private void create(int newDimension) throws IOException {
+        close();
+        index.clear();
+        long size = fileSize(newDimension);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Cache disque trop grand pour être mappé : " + size + " octets");
+        }
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        dimension = newDimension;
+        buffer = map(size);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, dimension);
+        buffer.putInt(12, capacity);
+        buffer.putInt(16, 0);
+        nextSlot = 0;
+    }
+
+    private MappedByteBuffer map(long size) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        return mapped;
+    }
+
+    private EmbeddingKey readKey(int offset) {
+        long hi = buffer.getLong(offset);
+        long lo = buffer.getLong(offset + Long.BYTES);
+        return hi == 0 && lo == 0 ? null : new EmbeddingKey(hi, lo);
+    }
+
+    private int slotOffset(int slot) {
+        return HEADER_BYTES + slot * slotBytes(dimension);
+    }
+
+    private long fileSize(int forDimension) {
+        return HEADER_BYTES + (long) capacity * slotBytes(forDimension);
+    }
+
+    private static int slotBytes(int forDimension) {
+        return KEY_BYTES + forDimension * Float.BYTES;
+    }
+}
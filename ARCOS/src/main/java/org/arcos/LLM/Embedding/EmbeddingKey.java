@@ -0,0 +1,28 @@
+package org.arcos.LLM.Embedding;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Clé de cache d'un embedding : 128 premiers bits du SHA-256 de l'identifiant du modèle et du texte.
+ * La valeur (0, 0) est réservée aux slots vides du stockage disque.
+ */
+public record EmbeddingKey(long hi, long lo) {
+
+    public static EmbeddingKey of(String modelId, String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(modelId.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            byte[] hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+            ByteBuffer buffer = ByteBuffer.wrap(hash);
+            long hi = buffer.getLong();
+            long lo = buffer.getLong();
+            return new EmbeddingKey(hi, hi == 0 && lo == 0 ? 1 : lo);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
@@ -5,7 +5,10 @@ import org.arcos.Memory.ConversationMessage;
 import org.arcos.Memory.LongTermMemory.Models.DesireEntry;
 import org.arcos.Memory.LongTermMemory.Models.MemoryEntry;
 import org.arcos.Memory.LongTermMemory.Models.OpinionEntry;
+import org.arcos.Memory.LongTermMemory.Repositories.MemoryRepository;
 import org.arcos.Memory.LongTermMemory.Repositories.OpinionRepository;
+import org.arcos.Memory.LongTermMemory.service.TurnRetrieval;
+import org.arcos.Memory.LongTermMemory.service.TurnRetrievalService;
 import org.arcos.Personality.Mood.Mood;
 import org.arcos.Personality.Mood.MoodStateHolder;
 import org.arcos.Personality.Mood.PadState;
@@ -35,6 +38,13 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Component
@@ -48,6 +58,23 @@ public class PromptBuilder {
     private final DfsNavigatorService dfsNavigatorService;
     private final UserContextFormatter userContextFormatter;
     private final OpinionRepository opinionRepository;
+    private final MemoryRepository memoryRepository;
+    private final int memoryTopK;
+    private final long contextBudgetMs;
+    private final TurnRetrievalService turnRetrievalService;
+    // Les recherches de contexte sont surtout de l'attente réseau (Qdrant, embeddings) : un thread virtuel par source
+    private final ExecutorService contextExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PromptBuilder(ValueProfile valueProfile,
+                         MoodStateHolder moodStateHolder,
+                         int recentMessagesCount,
+                         boolean userModelEnabled,
+                         @Nullable DfsNavigatorService dfsNavigatorService,
+                         @Nullable UserContextFormatter userContextFormatter,
+                         @Nullable OpinionRepository opinionRepository) {
+        this(valueProfile, moodStateHolder, recentMessagesCount, userModelEnabled, dfsNavigatorService,
+                userContextFormatter, opinionRepository, null, 3, 1500, null);
+    }
 
     @Autowired
     public PromptBuilder(ValueProfile valueProfile,
@@ -56,7 +83,11 @@ public class PromptBuilder {
                          @Value("${arcos.user-model.enabled:true}") boolean userModelEnabled,
                          @Nullable DfsNavigatorService dfsNavigatorService,
                          @Nullable UserContextFormatter userContextFormatter,
-                         @Nullable OpinionRepository opinionRepository) {
+                         @Nullable OpinionRepository opinionRepository,
+                         @Nullable MemoryRepository memoryRepository,
+                         @Value("${arcos.memory.advisor.top-k:3}") int memoryTopK,
+                         @Value("${arcos.prompt.context-budget-ms:1500}") long contextBudgetMs,
+                         @Nullable TurnRetrievalService turnRetrievalService) {
         this.valueProfile = valueProfile;
         this.moodStateHolder = moodStateHolder;
         this.recentMessagesCount = recentMessagesCount;
@@ -64,6 +95,10 @@ public class PromptBuilder {
         this.dfsNavigatorService = dfsNavigatorService;
         this.userContextFormatter = userContextFormatter;
         this.opinionRepository = opinionRepository;
+        this.memoryRepository = memoryRepository;
+        this.memoryTopK = memoryTopK;
+        this.contextBudgetMs = contextBudgetMs;
+        this.turnRetrievalService = turnRetrievalService;
     }
 
     // ==================== PROMPTS PUBLIQUES ====================
@@ -177,18 +212,25 @@ public class PromptBuilder {
     public Prompt buildConversationnalPrompt(ConversationContext context, String originalQuery) {
         List<Message> messages = new ArrayList<>();
 
+        // Les trois recherches de contexte partent en parallèle ; la partie statique du prompt se construit pendant ce temps
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(contextBudgetMs);
+        TurnRetrieval turn = turnRetrievalService != null ? turnRetrievalService.begin(originalQuery) : null;
+        Future<String> userProfile = lookupAsync(() -> formatUserProfile(originalQuery));
+        Future<String> opinions = lookupAsync(() -> formatRelevantOpinions(turn, originalQuery));
+        Future<String> memories = lookupAsync(() -> formatRelevantMemories(turn, originalQuery));
+
         StringBuilder system = new StringBuilder();
         system.append(getCalciferPersonality());
         appendMoodInfo(system);
         system.append(getValueProfile());
-        appendUserProfileIfAvailable(system, originalQuery);
-        appendRelevantOpinions(system, originalQuery);
+        system.append(awaitLookup("user profile", userProfile, deadline));
+        system.append(awaitLookup("opinions", opinions, deadline));
         system.append(getGeneralInformation());
         system.append(getConversationContextIfPresent(context));
         system.append("Le message utilisateur est transcrit et est souvent sujet à imprécision.");
 
         messages.add(new SystemMessage(system.toString()));
-        messages.add(new UserMessage(originalQuery));
+        messages.add(new UserMessage(originalQuery + awaitLookup("memories", memories, deadline)));
 
         return new Prompt(messages);
     }
@@ -476,35 +518,63 @@ public class PromptBuilder {
         """);
     }
 
-    // ==================== PROFIL UTILISATEUR ====================
+    // ==================== CONTEXTE RÉCUPÉRÉ ====================
+
+    /**
+     * Lance une recherche de contexte sur son propre thread virtuel. Soumise directement à l'exécuteur
+     * (et non via CompletableFuture) pour que son annulation interrompe le thread : une recherche abandonnée
+     * ne poursuit pas ses appels d'embedding et de Qdrant en arrière-plan.
+     */
+    private Future<String> lookupAsync(Callable<String> lookup) {
+        return contextExecutor.submit(lookup);
+    }
 
-    private void appendUserProfileIfAvailable(StringBuilder prompt, String userQuery) {
+    /**
+     * Attend une source de contexte jusqu'à l'échéance commune du tour. Une source en retard est
+     * annulée (chaîne vide) plutôt que de retarder la réponse.
+     */
+    private String awaitLookup(String source, Future<String> lookup, long deadlineNanos) {
+        long remaining = deadlineNanos - System.nanoTime();
+        try {
+            return lookup.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            lookup.cancel(true);
+            log.warn("Context source '{}' dropped: exceeded the {} ms budget", source, contextBudgetMs);
+        } catch (ExecutionException e) {
+            log.warn("Context source '{}' failed: {}", source, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "";
+    }
+
+    private String formatUserProfile(String userQuery) {
         if (!userModelEnabled || dfsNavigatorService == null || userContextFormatter == null) {
-            return;
+            return "";
         }
         try {
             DfsResult dfsResult = dfsNavigatorService.navigate(userQuery);
             if (dfsResult.relevantLeaves().isEmpty()) {
-                return;
+                return "";
             }
             String formattedProfile = userContextFormatter.format(dfsResult.relevantLeaves());
             if (!formattedProfile.isEmpty()) {
-                prompt.append(formattedProfile);
-                prompt.append("Adapte occasionnellement tes réponses de manière naturelle.\n\n");
+                return formattedProfile + "Adapte occasionnellement tes réponses de manière naturelle.\n\n";
             }
         } catch (Exception e) {
             log.warn("Failed to retrieve user profile via DFS: {}", e.getMessage());
         }
+        return "";
     }
 
-    // ==================== OPINIONS CONTEXTUELLES ====================
-
-    private void appendRelevantOpinions(StringBuilder prompt, String query) {
-        if (opinionRepository == null) { return; }
+    private String formatRelevantOpinions(@Nullable TurnRetrieval turn, String query) {
+        if (opinionRepository == null) { return ""; }
+        StringBuilder prompt = new StringBuilder();
         try {
-            SearchRequest searchRequest = SearchRequest.builder().query(query).topK(2).build();
-            List<Document> docs = opinionRepository.search(searchRequest);
-            if (docs.isEmpty()) { return; }
+            List<Document> docs = turn != null
+                    ? turn.search(opinionRepository, 2)
+                    : opinionRepository.search(SearchRequest.builder().query(query).topK(2).build());
+            if (docs.isEmpty()) { return ""; }
             prompt.append("Tes opinions: ");
             for (int i = 0; i < docs.size(); i++) {
                 Map<String, Object> meta = docs.get(i).getMetadata();
@@ -519,6 +589,29 @@ public class PromptBuilder {
             prompt.append("\nIntègre naturellement si pertinent. N'invente pas d'opinions.\n");
         } catch (Exception e) {
             log.warn("Failed to retrieve opinions for prompt: {}", e.getMessage());
+            return "";
+        }
+        return prompt.toString();
+    }
+
+    /**
+     * Souvenirs pertinents ajoutés au message utilisateur, au même format que l'ancien QuestionAnswerAdvisor
+     * de ChatOrchestrator (même store, même top-k). Avec un contexte de tour, l'embedding de la requête
+     * est partagé avec la recherche d'opinions.
+     */
+    private String formatRelevantMemories(@Nullable TurnRetrieval turn, String query) {
+        if (memoryRepository == null) { return ""; }
+        try {
+            List<Document> docs = turn != null
+                    ? turn.search(memoryRepository, memoryTopK)
+                    : memoryRepository.getVectorStore().similaritySearch(SearchRequest.builder().query(query).topK(memoryTopK).build());
+            if (docs == null || docs.isEmpty()) { return ""; }
+            return "\n\n## Souvenirs pertinents\n" + docs.stream()
+                    .map(Document::getText)
+                    .collect(Collectors.joining(System.lineSeparator()));
+        } catch (Exception e) {
+            log.warn("Failed to retrieve memories for prompt: {}", e.getMessage());
+            return "";
         }
     }
 
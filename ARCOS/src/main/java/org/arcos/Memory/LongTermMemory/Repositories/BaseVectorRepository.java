@@ -1,8 +1,10 @@
 package org.arcos.Memory.LongTermMemory.Repositories;
 
-import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.qdrant.client.QdrantClient;
+import io.qdrant.client.WithPayloadSelectorFactory;
 import io.qdrant.client.grpc.Collections;
+import io.qdrant.client.grpc.JsonWithInt;
+import io.qdrant.client.grpc.Points;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.vectorstore.qdrant.QdrantVectorStore;
@@ -18,6 +20,9 @@ import java.util.concurrent.ExecutionException;
 public abstract class BaseVectorRepository<T>
 {
 
+    // Clé de charge utile sous laquelle QdrantVectorStore range le texte du document
+    private static final String CONTENT_KEY = "doc_content";
+
     protected final VectorStore vectorStore;
     protected final QdrantClient qdrantClient;
     protected final String collectionName;
@@ -57,7 +62,7 @@ public abstract class BaseVectorRepository<T>
         this.collectionName = collectionName;
     }
 
-    @RateLimiter(name = "mistral_free")
+    // Le rate limiter mistral_free s'applique dans CachingEmbeddingModel, aux seuls appels réels au modèle
     public void save(Document document) {
         vectorStore.add(List.of(document));
     }
@@ -67,17 +72,77 @@ public abstract class BaseVectorRepository<T>
     }
 
 
-    @RateLimiter(name = "mistral_free")
     public List<Document> search(SearchRequest searchRequest) {
         return vectorStore.similaritySearch(searchRequest);
     }
 
+    /**
+     * Recherche à partir d'un embedding déjà calculé : pas d'appel au modèle d'embedding, donc pas de
+     * passage par le rate limiter. Les documents ont la même forme que ceux de {@link #search(SearchRequest)}.
+     */
+    public List<Document> searchByVector(float[] vector, int topK) {
+        List<Float> values = new ArrayList<>(vector.length);
+        for (float v : vector) values.add(v);
+        Points.SearchPoints request = Points.SearchPoints.newBuilder()
+                .setCollectionName(collectionName)
+                .addAllVector(values)
+                .setLimit(topK)
+                .setWithPayload(WithPayloadSelectorFactory.enable(true))
+                .build();
+        try {
+            return qdrantClient.searchAsync(request).get().stream()
+                    .map(BaseVectorRepository::toDocument)
+                    .toList();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Recherche interrompue dans " + collectionName, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Recherche vectorielle impossible dans " + collectionName, e.getCause());
+        }
+    }
+
+    public String getCollectionName() {
+        return collectionName;
+    }
+
     public VectorStore getVectorStore() {
         return vectorStore;
     }
 
     public abstract Optional<Document> findById(String id);
 
+    private static Document toDocument(Points.ScoredPoint point) {
+        Map<String, JsonWithInt.Value> payload = point.getPayloadMap();
+        Map<String, Object> metadata = new HashMap<>();
+        payload.forEach((key, value) -> {
+            Object converted = toObject(value);
+            if (!key.equals(CONTENT_KEY) && converted != null) metadata.put(key, converted);
+        });
+        metadata.put("distance", 1 - point.getScore());
+        String content = payload.containsKey(CONTENT_KEY) ? payload.get(CONTENT_KEY).getStringValue() : "";
+        String id = point.getId().hasUuid() ? point.getId().getUuid() : String.valueOf(point.getId().getNum());
+        return Document.builder().id(id).text(content).metadata(metadata).score((double) point.getScore()).build();
+    }
+
+    private static Object toObject(JsonWithInt.Value value) {
+        return switch (value.getKindCase()) {
+            case STRING_VALUE -> value.getStringValue();
+            case DOUBLE_VALUE -> value.getDoubleValue();
+            case INTEGER_VALUE -> value.getIntegerValue();
+            case BOOL_VALUE -> value.getBoolValue();
+            case LIST_VALUE -> value.getListValue().getValuesList().stream().map(BaseVectorRepository::toObject).toList();
+            case STRUCT_VALUE -> {
+                Map<String, Object> struct = new HashMap<>();
+                value.getStructValue().getFieldsMap().forEach((k, v) -> {
+                    Object converted = toObject(v);
+                    if (converted != null) struct.put(k, converted);
+                });
+                yield struct;
+            }
+            default -> null;
+        };
+    }
+
     protected static Collections.Distance parseDistanceMetric(String metric) {
         if (metric == null) return Collections.Distance.Cosine;
         switch (metric.toUpperCase()) {
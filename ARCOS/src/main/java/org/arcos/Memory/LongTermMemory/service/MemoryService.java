@@ -52,6 +52,13 @@ public class MemoryService
         return memoryRepository.search(searchRequest).stream().map(this::fromDocument).collect(Collectors.toList());
     }
 
+    /**
+     * Même recherche, avec l'embedding déjà calculé pour le tour en cours.
+     */
+    public List<MemoryEntry> searchMemories(TurnRetrieval turn, int topK) {
+        return turn.search(memoryRepository, topK).stream().map(this::fromDocument).collect(Collectors.toList());
+    }
+
     public MemoryEntry getMemory(String memoryId) {
         return memoryRepository.findById(memoryId).map(this::fromDocument).orElse(null);
     }
@@ -0,0 +1,130 @@
+package org.arcos.Memory.LongTermMemory.service;
+
+import org.arcos.Memory.LongTermMemory.Repositories.BaseVectorRepository;
+import org.springframework.ai.document.Document;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Recherches vectorielles d'un tour de conversation.
+ * <p>
+ * La requête est embeddée une seule fois ; chaque collection est ensuite interrogée avec ce même
+ * vecteur. Les résultats sont mémorisés par collection : un consommateur demandant moins de
+ * résultats reçoit un préfixe du top-k déjà obtenu (l'ordre par score est le même).
+ * <p>
+ * L'embedding et les recherches tournent sur des tâches de l'exécuteur (et non des étapes
+ * CompletableFuture) : annuler un résultat interrompt le thread qui appelle le modèle ou Qdrant.
+ */
+public class TurnRetrieval
+{
+    private final String query;
+    private final ExecutorService executor;
+    private final CompletableFuture<float[]> embedding;
+    private final Map<String, Fetch> fetches = new ConcurrentHashMap<>();
+
+    TurnRetrieval(String query, Supplier<float[]> embed, ExecutorService executor) {
+        this.query = query;
+        this.executor = executor;
+        this.embedding = new CompletableFuture<>();
+        run(embedding, embed);
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Lance (ou réutilise) la recherche du top-k dans la collection du repository, sans attendre.
+     */
+    public CompletableFuture<List<Document>> prefetch(BaseVectorRepository<?> repository, int topK) {
+        return fetches.compute(repository.getCollectionName(), (collection, existing) -> {
+            if (existing != null && existing.topK() >= topK && !existing.results().isCompletedExceptionally()) {
+                return existing;
+            }
+            return new Fetch(topK, fetch(repository, topK));
+        }).results().thenApply(docs -> docs.size() > topK ? docs.subList(0, topK) : docs);
+    }
+
+    /**
+     * Top-k de la collection du repository pour la requête du tour (bloquant).
+     * <p>
+     * Si le thread appelant est interrompu pendant l'attente, la recherche de cette collection est
+     * annulée (ainsi que l'embedding si plus aucune recherche ne l'attend) et une
+     * {@link CancellationException} est levée, le drapeau d'interruption restant positionné.
+     */
+    public List<Document> search(BaseVectorRepository<?> repository, int topK) {
+        CompletableFuture<List<Document>> results = prefetch(repository, topK);
+        try {
+            return results.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(repository.getCollectionName());
+            throw new CancellationException("Recherche interrompue dans " + repository.getCollectionName());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException wrapped && wrapped.getCause() != null
+                    ? wrapped.getCause()
+                    : e.getCause();
+            throw cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+        }
+    }
+
+    /**
+     * Vrai si l'embedding du tour a été abandonné : le contexte ne peut plus servir de recherche.
+     */
+    boolean isCancelled() {
+        return embedding.isCancelled();
+    }
+
+    private CompletableFuture<List<Document>> fetch(BaseVectorRepository<?> repository, int topK) {
+        CompletableFuture<List<Document>> results = new CompletableFuture<>();
+        embedding.whenComplete((vector, error) -> {
+            if (error != null) {
+                results.completeExceptionally(error);
+            } else if (!results.isDone()) {
+                run(results, () -> repository.searchByVector(vector, topK));
+            }
+        });
+        return results;
+    }
+
+    private void cancel(String collection) {
+        Fetch fetch = fetches.get(collection);
+        if (fetch != null) {
+            fetch.results().cancel(true);
+        }
+        if (fetches.values().stream().allMatch(f -> f.results().isDone())) {
+            embedding.cancel(true);
+        }
+    }
+
+    /**
+     * Exécute la tâche sur l'exécuteur pour compléter {@code target} ; annuler {@code target}
+     * interrompt la tâche en cours.
+     */
+    private <T> void run(CompletableFuture<T> target, Supplier<T> task) {
+        Future<?> running = executor.submit(() -> {
+            try {
+                target.complete(task.get());
+            } catch (Throwable t) {
+                target.completeExceptionally(t);
+            }
+        });
+        target.whenComplete((value, error) -> {
+            if (target.isCancelled()) {
+                running.cancel(true);
+            }
+        });
+    }
+
+    private record Fetch(int topK, CompletableFuture<List<Document>> results) {
+    }
+}
@@ -0,0 +1,55 @@
+package org.arcos.Memory.LongTermMemory.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Point d'entrée des recherches d'un tour : {@link #begin(String)} démarre l'embedding unique de
+ * l'énoncé utilisateur, et les outils appelés pendant le tour retrouvent ce contexte via
+ * {@link #find(String)} lorsqu'ils cherchent le même texte.
+ */
+@Slf4j
+@Service
+public class TurnRetrievalService
+{
+    private final EmbeddingModel embeddingModel;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile TurnRetrieval current;
+
+    public TurnRetrievalService(EmbeddingModel embeddingModel) {
+        this.embeddingModel = embeddingModel;
+    }
+
+    /**
+     * Ouvre le contexte de recherche d'un nouveau tour ; l'embedding part immédiatement en tâche de fond.
+     */
+    public TurnRetrieval begin(String query) {
+        TurnRetrieval turn = new TurnRetrieval(query, () -> embeddingModel.embed(query), executor);
+        current = turn;
+        return turn;
+    }
+
+    /**
+     * Contexte du tour en cours si la requête est la même (à la casse et aux espaces près) et que son
+     * embedding n'a pas été abandonné.
+     */
+    public Optional<TurnRetrieval> find(String query) {
+        TurnRetrieval turn = current;
+        if (turn == null || turn.isCancelled() || query == null || !normalize(query).equals(normalize(turn.getQuery()))) {
+            return Optional.empty();
+        }
+        log.debug("Réutilisation de l'embedding du tour pour : {}", query);
+        return Optional.of(turn);
+    }
+
+    private static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFC).strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,22 @@
+package org.arcos.Orchestrator;
+
+import org.arcos.EventBus.Events.EventType;
+
+/**
+ * Voies de traitement des événements de l'orchestrateur. Chaque voie traite ses événements dans l'ordre,
+ * indépendamment de l'autre : une action planifiée ou une initiative longue ne retarde jamais la réponse
+ * à l'utilisateur.
+ */
+public enum DispatchLane {
+    /** Tout ce que l'utilisateur attend : requêtes, interruptions, alertes, fin de conversation. */
+    INTERACTIVE,
+    /** Travail de fond : actions planifiées, initiatives, rappels d'agenda, traitement batch. */
+    BACKGROUND;
+
+    public static DispatchLane of(EventType type) {
+        return switch (type) {
+            case PLANNED_ACTION, INITIATIVE, CALENDAR_EVENT_SCHEDULER, IDLE_WINDOW_OPEN -> BACKGROUND;
+            default -> INTERACTIVE;
+        };
+    }
+}
@@ -0,0 +1,125 @@
+package org.arcos.Orchestrator;
+
+import lombok.extern.slf4j.Slf4j;
+import org.arcos.IO.OuputHandling.Playback.PcmTap;
+
+import javax.sound.sampled.AudioFormat;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Horodatage des étapes d'un tour de parole, du mot de réveil au premier son de la réponse.
+ * <p>
+ * Chaque étape est marquée par le thread qui la franchit : écoute, transcription, flux LLM, lecture (via
+ * {@link PcmTap}). Seule sa première occurrence compte, et seulement si l'étape précédente est passée : le
+ * reliquat d'une réponse antérieure ne peut pas clore le tour suivant. Le tour est clos au premier son joué ;
+ * il est alors journalisé et transmis aux observateurs (banc de latence).
+ */
+@Slf4j
+public class LatencyTimeline implements PcmTap {
+
+    public enum Stage {
+        /** Mot de réveil détecté ; absent d'un tour ouvert en mode conversation. */
+        WAKE,
+        /** Fin d'énoncé décidée par la VAD, silence de fin compris. */
+        END_OF_SPEECH,
+        /** Transcription publiée sur le bus d'événements. */
+        TRANSCRIPT,
+        /** Premier fragment du flux LLM. */
+        FIRST_TOKEN,
+        /** Premier bloc de la réponse écrit dans la sortie audio. */
+        FIRST_AUDIO
+    }
+
+    /**
+     * Tour clos : instants {@link System#nanoTime()} de chaque étape, 0 si elle n'a pas eu lieu.
+     */
+    public static final class Turn {
+        private final long id;
+        private final long[] nanos;
+
+        private Turn(long id, long[] nanos) {
+            this.id = id;
+            this.nanos = nanos.clone();
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public boolean has(Stage stage) {
+            return nanos[stage.ordinal()] != 0;
+        }
+
+        public long nanosAt(Stage stage) {
+            return nanos[stage.ordinal()];
+        }
+
+        /** Durée en ms entre deux étapes, -1 si l'une manque. */
+        public long millisBetween(Stage from, Stage to) {
+            if (!has(from) || !has(to)) return -1;
+            return (nanosAt(to) - nanosAt(from)) / 1_000_000;
+        }
+    }
+
+    private final List<Consumer<Turn>> listeners = new CopyOnWriteArrayList<>();
+    private long[] current;
+    private long turnId;
+
+    /**
+     * Ouvre un nouveau tour ; un tour précédent non clos (transcription vide, erreur LLM) est abandonné.
+     */
+    public synchronized void startTurn() {
+        current = new long[Stage.values().length];
+        turnId++;
+    }
+
+    public void mark(Stage stage) {
+        Turn completed;
+        synchronized (this) {
+            if (current == null || current[stage.ordinal()] != 0) return;
+            if (stage.ordinal() > Stage.END_OF_SPEECH.ordinal() && current[stage.ordinal() - 1] == 0) return;
+            current[stage.ordinal()] = System.nanoTime();
+            if (stage != Stage.FIRST_AUDIO) return;
+            completed = new Turn(turnId, current);
+            current = null;
+        }
+        report(completed);
+    }
+
+    public void addListener(Consumer<Turn> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void onPlayback(AudioFormat format, byte[] data, int offset, int length) {
+        mark(Stage.FIRST_AUDIO);
+    }
+
+    @Override
+    public void onFlush() {
+        // Une réponse coupée n'efface pas son premier son
+    }
+
+    @Override
+    public String describe() {
+        return "chronométrage des tours";
+    }
+
+    private void report(Turn turn) {
+        log.info("Latence du tour {} : fin de parole -> transcription {} ms -> premier token {} ms -> premier son {} ms (total {} ms)",
+                turn.getId(),
+                turn.millisBetween(Stage.END_OF_SPEECH, Stage.TRANSCRIPT),
+                turn.millisBetween(Stage.TRANSCRIPT, Stage.FIRST_TOKEN),
+                turn.millisBetween(Stage.FIRST_TOKEN, Stage.FIRST_AUDIO),
+                turn.millisBetween(Stage.END_OF_SPEECH, Stage.FIRST_AUDIO));
+        for (Consumer<Turn> listener : listeners) {
+            try {
+                listener.accept(turn);
+            } catch (RuntimeException e) {
+                log.warn("Observateur de latence en échec", e);
+            }
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package org.arcos.Orchestrator;
 
 import org.arcos.Configuration.AudioProperties;
+import org.arcos.Configuration.TtsProperties;
+import org.arcos.EventBus.EventBusMetrics;
 import org.arcos.EventBus.EventQueue;
 import org.arcos.EventBus.Events.Event;
 import org.arcos.EventBus.Events.EventType;
@@ -40,6 +42,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 import org.arcos.Personality.PersonalityOrchestrator;
+import reactor.core.Disposable;
 
 
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
@@ -51,6 +54,9 @@ import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Component
 @Slf4j
@@ -75,15 +81,21 @@ public class Orchestrator
     private final ConversationSummaryService conversationSummaryService;
     private final WakeWordProducer wakeWordProducer;
     private final AudioProperties audioProperties;
+    private final TtsProperties ttsProperties;
     private final ConversationQueueService conversationQueueService;
     private final InactivityProducer inactivityProducer;
+    private final LatencyTimeline latencyTimeline;
     private final BatchPipelineOrchestrator batchPipelineOrchestrator;
+    private final EventBusMetrics eventBusMetrics;
     private volatile boolean isExecutingAction = false;
     private volatile boolean inConversationMode = false;
 
     private volatile boolean running = true;
+    private volatile Disposable activeResponse;
     private DesireService desireService;
     static final int MIN_MESSAGES_FOR_SUMMARY = 6;
+    /** Au-delà, une tâche de fond parle même si l'échange en cours n'a pas rendu le haut-parleur. */
+    static final long BACKGROUND_SPEECH_MAX_WAIT_MS = 120_000;
     static final String LLM_UNAVAILABLE_MESSAGE =
             "Désolé, le service de langage est temporairement indisponible. Réessaie dans quelques instants.";
     private final ExecutorService moodExecutor = Executors.newSingleThreadExecutor(r -> {
@@ -96,10 +108,23 @@ public class Orchestrator
         t.setDaemon(true);
         return t;
     });
+    // Une voie par nature d'événement, chacune sur un thread virtuel et dans l'ordre d'arrivée
+    private final ExecutorService interactiveLane =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("orchestrator-interactive").factory());
+    private final ExecutorService backgroundLane =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("orchestrator-background").factory());
+    // Ressources partagées entre les voies, à la place de la sérialisation globale
+    private final ResourceLock speakerLock = new ResourceLock("haut-parleur");
+    private final ResourceLock micLock = new ResourceLock("micro");
+    private final ReentrantLock contextLock = new ReentrantLock();
 
     @Autowired
-    public Orchestrator(CentralFeedBackHandler centralFeedBackHandler, PersonalityOrchestrator personalityOrchestrator, EventQueue evenQueue, LLMClient llmClient, ChatOrchestrator chatOrchestrator, PromptBuilder promptBuilder, ConversationContext context, MemoryService memoryService, InitiativeService initiativeService, DesireService desireService, MoodService moodService, MoodStateHolder moodStateHolder, MoodVoiceMapper moodVoiceMapper, PlannedActionExecutor plannedActionExecutor, PlannedActionService plannedActionService, ExecutionHistoryService executionHistoryService, WakeWordProducer wakeWordProducer, AudioProperties audioProperties, ConversationSummaryService conversationSummaryService, @Nullable ConversationQueueService conversationQueueService, @Nullable InactivityProducer inactivityProducer, @Nullable BatchPipelineOrchestrator batchPipelineOrchestrator) {
-        this.ttsHandler = new PiperEmbeddedTTSModule();
+    public Orchestrator(CentralFeedBackHandler centralFeedBackHandler, PersonalityOrchestrator personalityOrchestrator, EventQueue evenQueue, LLMClient llmClient, ChatOrchestrator chatOrchestrator, PromptBuilder promptBuilder, ConversationContext context, MemoryService memoryService, InitiativeService initiativeService, DesireService desireService, MoodService moodService, MoodStateHolder moodStateHolder, MoodVoiceMapper moodVoiceMapper, PlannedActionExecutor plannedActionExecutor, PlannedActionService plannedActionService, ExecutionHistoryService executionHistoryService, WakeWordProducer wakeWordProducer, AudioProperties audioProperties, TtsProperties ttsProperties, ConversationSummaryService conversationSummaryService, @Nullable ConversationQueueService conversationQueueService, @Nullable InactivityProducer inactivityProducer, @Nullable BatchPipelineOrchestrator batchPipelineOrchestrator, @Nullable EventBusMetrics eventBusMetrics) {
+        this.ttsProperties = ttsProperties;
+        // L'audio joué sert de référence à l'annulation d'écho du micro : l'écoute continue pendant la réponse.
+        // Il clôt aussi le chronométrage du tour (premier son)
+        this.latencyTimeline = wakeWordProducer.getLatencyTimeline();
+        this.ttsHandler = new PiperEmbeddedTTSModule(ttsProperties, wakeWordProducer.getEchoReference(), latencyTimeline);
         this.desireService = desireService;
         this.centralFeedBackHandler = centralFeedBackHandler;
         this.eventQueue = evenQueue;
@@ -121,19 +146,58 @@ public class Orchestrator
         this.conversationQueueService = conversationQueueService;
         this.inactivityProducer = inactivityProducer;
         this.batchPipelineOrchestrator = batchPipelineOrchestrator;
+        this.eventBusMetrics = eventBusMetrics;
     }
 
 
     public void dispatch(Event<?> event) {
+        long start = System.nanoTime();
+        try {
+            handle(event);
+        } finally {
+            // Traité, même en échec. Interrompu par l'arrêt, le traitement n'est pas allé au bout :
+            // l'événement durable reste dans le journal pour être rejoué au redémarrage
+            if (!Thread.currentThread().isInterrupted()) {
+                eventQueue.acknowledge(event);
+            }
+            if (eventBusMetrics != null) {
+                eventBusMetrics.recordDispatch(event, start, System.nanoTime());
+            }
+        }
+    }
+
+    private void handle(Event<?> event) {
         if (event.getType() == EventType.WAKEWORD) {
             log.info("starting processing");
+            // Nouvelle requête : la réponse précédente, si elle parle encore, n'a plus d'auditeur
+            interruptSpeech("nouvelle requête");
             boolean isMultiTurn = (event instanceof WakeWordEvent) && ((WakeWordEvent) event).isMultiTurn();
             processAndSpeak((String) event.getPayload(), isMultiTurn);
+        } else if (event.getType() == EventType.BARGE_IN) {
+            // L'utilisateur parle par-dessus la réponse : on se tait, sa requête arrivera en WAKEWORD.
+            // Le micro est déjà en écoute de l'énoncé : seule la voix est rendue
+            interruptSpeech("barge-in");
+            releaseVoice();
         } else if (event.getType() == EventType.LISTENING_WINDOW_TIMEOUT) {
             inConversationMode = false;
+            releaseVoice();
             log.info("Mode conversation terminé — retour veille standard");
         } else if (event.getType() == EventType.SESSION_END) {
+            interruptSpeech("fin de session");
+            releaseVoice();
+            wakeWordProducer.resumeDetection();
             endSession();
+        } else if (event.getType() == EventType.ALERT) {
+            // Alerte urgente : coupe la parole en cours plutôt que d'attendre la fin de la file.
+            // Le micro reste coupé pendant l'alerte et ne reprend qu'une fois celle-ci entièrement jouée
+            disposeActiveResponse();
+            speakerLock.seize(DispatchLane.INTERACTIVE);
+            micLock.seize(DispatchLane.INTERACTIVE);
+            wakeWordProducer.suspend();
+            ttsHandler.preempt(String.valueOf(event.getPayload()), () -> {
+                releaseVoice();
+                wakeWordProducer.resumeDetection();
+            });
         } else if (event.getType() == EventType.IDLE_WINDOW_OPEN) {
             triggerBatchPipeline();
         } else if (event.getType() == EventType.INITIATIVE) {
@@ -145,7 +209,7 @@ public class Orchestrator
                 centralFeedBackHandler.handleFeedBack(new FeedBackEvent(
                         success ? UXEventType.INITIATIVE_END : UXEventType.FAILURE));
             } catch (CallNotPermittedException e) {
-                handleLlmUnavailable();
+                handleLlmUnavailable(DispatchLane.BACKGROUND);
             } catch (Exception e) {
                 log.error("Unexpected error during initiative processing", e);
                 centralFeedBackHandler.handleFeedBack(new FeedBackEvent(UXEventType.FAILURE));
@@ -154,28 +218,41 @@ public class Orchestrator
             }
         } else if (event.getType() == EventType.CALENDAR_EVENT_SCHEDULER) {
             try {
-                ttsHandler.speakAsync(llmClient.generateToollessResponse(promptBuilder.buildSchedulerAlertPrompt((event.getPayload()))));
+                speakInBackground(llmClient.generateToollessResponse(promptBuilder.buildSchedulerAlertPrompt((event.getPayload()))));
             } catch (CallNotPermittedException e) {
                 log.warn("Circuit breaker OPEN — fallback calendrier sans LLM");
-                ttsHandler.speakAsync("Rappel d'événement : " + event.getPayload());
+                speakInBackground("Rappel d'événement : " + event.getPayload());
             }
         } else if (event.getType() == EventType.PLANNED_ACTION) {
-            isExecutingAction = true;
             PlannedActionEntry action = (PlannedActionEntry) event.getPayload();
+            if (plannedActionService.isInactive(action.getId())) {
+                // Rejouée depuis le journal alors qu'elle a été terminée ou annulée entre-temps
+                log.info("Planned action {} ignored, no longer active", action.getId());
+                return;
+            }
+            isExecutingAction = true;
             try {
                 if (action.isReminderTrigger()) {
                     String reminderMessage = buildReminderMessage(action);
-                    ttsHandler.speakAsync(reminderMessage);
+                    if (!speakInBackground(reminderMessage)) {
+                        return; // rappel non prononcé : rejoué au redémarrage
+                    }
                     action.setReminderTrigger(false);
                 } else {
                     String result = plannedActionExecutor.execute(action);
-                    ttsHandler.speakAsync(result);
+                    if (!speakInBackground(result)) {
+                        return; // résultat non prononcé : l'action reste active et sera rejouée
+                    }
                     executionHistoryService.recordExecution(action, result, true);
                     if (!action.isHabit()) {
                         plannedActionService.markCompleted(action);
                     }
                 }
             } catch (Exception e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    log.info("Planned action {} interrupted by shutdown, will be replayed", action.getId());
+                    return;
+                }
                 log.error("Error executing planned action {}", action.getId(), e);
                 centralFeedBackHandler.handleFeedBack(new FeedBackEvent(UXEventType.FAILURE));
                 executionHistoryService.recordExecution(action, e.getMessage(), false);
@@ -191,7 +268,7 @@ public class Orchestrator
             try {
                 Event<?> event = eventQueue.poll(500);
                 if (event != null) {
-                    dispatch(event);
+                    submit(event);
                 }
             } catch (InterruptedException e) {
                 log.info("Orchestrator interrupted, stopping");
@@ -206,11 +283,81 @@ public class Orchestrator
     public void stop() {
         log.info("Orchestrator shutdown requested");
         running = false;
+        interactiveLane.shutdownNow();
+        backgroundLane.shutdownNow();
         moodExecutor.shutdownNow();
         personalityExecutor.shutdownNow();
         ttsHandler.shutdown();
     }
 
+    /**
+     * Confie l'événement à sa voie : une requête de l'utilisateur n'attend jamais derrière une action
+     * planifiée ou une initiative en cours.
+     */
+    private void submit(Event<?> event) {
+        ExecutorService lane = DispatchLane.of(event.getType()) == DispatchLane.BACKGROUND ? backgroundLane : interactiveLane;
+        try {
+            lane.execute(() -> {
+                try {
+                    dispatch(event);
+                } catch (Exception e) {
+                    log.error("Error dispatching {} event", event.getType(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Orchestrator stopped, {} event dropped", event.getType());
+        }
+    }
+
+    /**
+     * Parole d'une tâche de fond : attend que l'échange en cours rende le haut-parleur, puis le garde
+     * jusqu'à la fin de la lecture. Une requête de l'utilisateur la coupe comme toute autre parole.
+     *
+     * @return false si le message a été abandonné par l'arrêt (le drapeau d'interruption reste positionné)
+     */
+    private boolean speakInBackground(String text) {
+        try {
+            if (!speakerLock.acquire(DispatchLane.BACKGROUND, BACKGROUND_SPEECH_MAX_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                log.warn("Haut-parleur toujours occupé après {} ms, message de fond prononcé quand même", BACKGROUND_SPEECH_MAX_WAIT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Message de fond abandonné (arrêt en cours)");
+            return false;
+        }
+        ttsHandler.speakAsync(text);
+        ttsHandler.afterPlayback(() -> speakerLock.release(DispatchLane.BACKGROUND));
+        return true;
+    }
+
+    /**
+     * Rend le haut-parleur et le micro pris par l'échange avec l'utilisateur.
+     */
+    private void releaseVoice() {
+        speakerLock.release(DispatchLane.INTERACTIVE);
+        micLock.release(DispatchLane.INTERACTIVE);
+    }
+
+    /**
+     * Abandonne la réponse LLM en cours de streaming et coupe toute la parole en file.
+     */
+    private void interruptSpeech(String reason) {
+        if (disposeActiveResponse()) {
+            log.info("Réponse en cours abandonnée ({})", reason);
+        }
+        ttsHandler.cancelAll();
+    }
+
+    private boolean disposeActiveResponse() {
+        Disposable response = activeResponse;
+        activeResponse = null;
+        if (response != null && !response.isDisposed()) {
+            response.dispose();
+            return true;
+        }
+        return false;
+    }
+
     private String buildReminderMessage(PlannedActionEntry action) {
         StringBuilder message = new StringBuilder("Rappel : ").append(action.getLabel());
         if (action.getDeadlineDatetime() != null) {
@@ -239,19 +386,30 @@ public class Orchestrator
             batchPipelineOrchestrator.interrupt();
         }
         centralFeedBackHandler.handleFeedBack(new FeedBackEvent(UXEventType.THINKING_START));
+        // L'utilisateur prend la main sans attendre : une tâche de fond qui parlait vient d'être coupée
+        speakerLock.seize(DispatchLane.INTERACTIVE);
 
         // Create the prompt for streaming response
-        Prompt streamingPrompt = promptBuilder.buildConversationnalPrompt(context, userQuery);
+        Prompt streamingPrompt;
+        contextLock.lock();
+        try {
+            streamingPrompt = promptBuilder.buildConversationnalPrompt(context, userQuery);
+        } finally {
+            contextLock.unlock();
+        }
         log.info("Streaming Prompt: {}", streamingPrompt);
 
         // Get Voice Parameters based on current Mood
         PadState currentPad = moodStateHolder.getPadState();
         MoodVoiceMapper.VoiceParams voiceParams = moodVoiceMapper.mapToVoice(currentPad);
         // Suspend mic processing before TTS starts to prevent audio feedback
+        micLock.seize(DispatchLane.INTERACTIVE);
         wakeWordProducer.suspend();
 
-        // Callback post-TTS : resume mic (conversation window or wake word detection)
+        // Callback post-TTS : resume mic (conversation window or wake word detection).
+        // Réponse jouée jusqu'au bout uniquement : celui qui l'annule décide de la suite
         Runnable onTtsDone = () -> {
+            releaseVoice();
             if (audioProperties.isMultiTurnEnabled() && !isExecutingAction) {
                 inConversationMode = true;
                 wakeWordProducer.openConversationWindow(audioProperties.getPostResponseListeningWindowMs());
@@ -264,37 +422,46 @@ public class Orchestrator
         try {
             generateFluxAndSpeak(streamingPrompt, userQuery, voiceParams, onTtsDone);
         } catch (CallNotPermittedException e) {
-            handleLlmUnavailable();
+            handleLlmUnavailable(DispatchLane.INTERACTIVE);
         } catch (Exception e) {
             log.error("Unexpected error during processAndSpeak", e);
+            releaseVoice();
             wakeWordProducer.resumeDetection();
             centralFeedBackHandler.handleFeedBack(new FeedBackEvent(UXEventType.FAILURE));
         }
 
     }
 
-    private void handleLlmUnavailable() {
+    private void handleLlmUnavailable(DispatchLane lane) {
         log.warn("Circuit breaker Mistral OPEN — dégradation gracieuse, feedback vocal");
-        ttsHandler.speakAsync(LLM_UNAVAILABLE_MESSAGE);
-        wakeWordProducer.resumeDetection();
+        if (lane == DispatchLane.INTERACTIVE) {
+            ttsHandler.speakAsync(LLM_UNAVAILABLE_MESSAGE);
+            micLock.release(DispatchLane.INTERACTIVE);
+            ttsHandler.afterPlayback(() -> speakerLock.release(DispatchLane.INTERACTIVE), null);
+            wakeWordProducer.resumeDetection();
+        } else {
+            speakInBackground(LLM_UNAVAILABLE_MESSAGE);
+            // Le micro appartient à l'échange en cours avec l'utilisateur, s'il y en a un
+            if (!micLock.isHeldBy(DispatchLane.INTERACTIVE)) {
+                wakeWordProducer.resumeDetection();
+            }
+        }
         centralFeedBackHandler.handleFeedBack(new FeedBackEvent(UXEventType.FAILURE));
     }
 
     private void generateFluxAndSpeak(Prompt streamingPrompt, String userQuery, MoodVoiceMapper.VoiceParams voiceParams, Runnable onTtsDone) {
-        StringBuilder sentenceBuffer = new StringBuilder();
+        SentenceSegmenter segmenter = new SentenceSegmenter(ttsProperties.getFirstClauseMinChars(), ttsProperties.getFirstClauseMaxChars());
         StringBuilder fullResponse = new StringBuilder();
-        chatOrchestrator.generateStreamingChatResponse(streamingPrompt)
+        ttsHandler.beginTurn();
+        activeResponse = chatOrchestrator.generateStreamingChatResponse(streamingPrompt)
                 .doOnNext(chunk -> {
-                    // 1. On garde le texte brut (avec *) pour l'historique et le buffer
-                    sentenceBuffer.append(chunk);
+                    if (fullResponse.isEmpty() && latencyTimeline != null) {
+                        latencyTimeline.mark(LatencyTimeline.Stage.FIRST_TOKEN);
+                    }
+                    // 1. On garde le texte brut (avec *) pour l'historique et le segmenteur
                     fullResponse.append(chunk);
 
-                    int punctuationIndex;
-                    while ((punctuationIndex = findSentenceEnd(sentenceBuffer)) != -1) {
-
-                        // Extraction de la phrase brute
-                        String rawSentence = sentenceBuffer.substring(0, punctuationIndex + 1);
-
+                    for (String rawSentence : segmenter.append(chunk)) {
                         // 2. NETTOYAGE : On enlève les * et autres bruits pour l'audio uniquement
                         String cleanSentence = cleanForTTS(rawSentence);
 
@@ -302,28 +469,27 @@ public class Orchestrator
                         if (!cleanSentence.isEmpty()) {
                             ttsHandler.speakAsync(cleanSentence, voiceParams.lengthScale, voiceParams.noiseScale, voiceParams.noiseW);
                         }
-
-                        sentenceBuffer.delete(0, punctuationIndex + 1);
                     }
                 })
                 .doOnComplete(() -> {
                     // Gestion du reliquat (fin de phrase sans point)
-                    if (sentenceBuffer.length() > 0) {
-                        String cleanRelic = cleanForTTS(sentenceBuffer.toString());
-                        if (!cleanRelic.isEmpty()) {
-                            ttsHandler.speakAsync(cleanRelic, voiceParams.lengthScale, voiceParams.noiseScale, voiceParams.noiseW, onTtsDone);
-                        } else {
-                            ttsHandler.afterPlayback(onTtsDone);
-                        }
+                    String cleanRelic = cleanForTTS(segmenter.flush());
+                    if (!cleanRelic.isEmpty()) {
+                        ttsHandler.speakAsync(cleanRelic, voiceParams.lengthScale, voiceParams.noiseScale, voiceParams.noiseW, onTtsDone, null);
                     } else {
-                        ttsHandler.afterPlayback(onTtsDone);
+                        ttsHandler.afterPlayback(onTtsDone, null);
                     }
 
                     // Pour la mémoire, on garde le texte original 'fullResponse' (avec le formatage)
                     String finalResponse = fullResponse.toString();
 
-                    context.addUserMessage(userQuery);
-                    context.addAssistantMessage(finalResponse);
+                    contextLock.lock();
+                    try {
+                        context.addUserMessage(userQuery);
+                        context.addAssistantMessage(finalResponse);
+                    } finally {
+                        contextLock.unlock();
+                    }
                     updateMoodAsync(userQuery, finalResponse);
                     log.info("Complete response : " + fullResponse);
                 })
@@ -332,28 +498,12 @@ public class Orchestrator
                         error -> {
                             log.error("Error in streaming response", error);
                             centralFeedBackHandler.handleFeedBack(new FeedBackEvent(UXEventType.FAILURE));
+                            releaseVoice();
                             wakeWordProducer.resumeDetection();
                         }
                 );
     }
 
-    private int findSentenceEnd(StringBuilder sb) {
-        String text = sb.toString();
-        // On cherche les index des ponctuations
-        int dot = text.indexOf(".");
-        int query = text.indexOf("?");
-        int exclam = text.indexOf("!");
-
-        // On trouve le plus petit index non négatif (le premier qui apparaît)
-        int minIndex = -1;
-
-        if (dot != -1) minIndex = dot;
-        if (query != -1 && (minIndex == -1 || query < minIndex)) minIndex = query;
-        if (exclam != -1 && (minIndex == -1 || exclam < minIndex)) minIndex = exclam;
-
-        return minIndex;
-    }
-
     private String cleanForTTS(String text) {
         if (text == null) return "";
 
@@ -381,16 +531,23 @@ public class Orchestrator
     }
 
     private void endSession() {
-        int messageCount = context.getMessageCount();
-        if (messageCount == 0) {
-            return;
+        int messageCount;
+        String fullConversation;
+        List<ConversationMessage> messages;
+        // Capture snapshots THEN clear state under the context lock to prevent race with a completing response
+        contextLock.lock();
+        try {
+            messageCount = context.getMessageCount();
+            if (messageCount == 0) {
+                return;
+            }
+            fullConversation = context.getFullConversation();
+            messages = context.getMessageHistory();
+            context.startNewSession();
+        } finally {
+            contextLock.unlock();
         }
 
-        // Capture snapshots THEN clear state synchronously to prevent race with new events
-        String fullConversation = context.getFullConversation();
-        List<ConversationMessage> messages = context.getMessageHistory();
-        context.startNewSession();
-
         processPersonalityAndEnqueue(fullConversation, messages);
 
         if (messageCount >= MIN_MESSAGES_FOR_SUMMARY) {
@@ -0,0 +1,90 @@
+package org.arcos.Orchestrator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Verrou d'une ressource partagée entre les voies de l'orchestrateur (haut-parleur, micro).
+ * <p>
+ * La voie interactive ne l'attend jamais : {@link #seize} lui donne la ressource sur-le-champ, quitte à la
+ * retirer à une tâche de fond. La voie de fond attend au contraire qu'elle soit libre ({@link #acquire}).
+ * La ressource peut être rendue depuis un autre thread que celui qui l'a prise (fin de lecture audio), et
+ * {@link #release} n'a d'effet que si la voie en est encore propriétaire : une tâche de fond dépossédée
+ * ne libère pas la ressource à la place de l'utilisateur.
+ */
+public final class ResourceLock {
+
+    private final String name;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private DispatchLane owner;
+
+    public ResourceLock(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Prend la ressource sans attendre.
+     * @return la voie dépossédée, ou null si la ressource était libre ou déjà détenue par {@code lane}
+     */
+    public DispatchLane seize(DispatchLane lane) {
+        lock.lock();
+        try {
+            DispatchLane previous = owner;
+            owner = lane;
+            return previous == lane ? null : previous;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Attend que la ressource soit libre puis la prend.
+     * @return false si le délai a expiré
+     */
+    public boolean acquire(DispatchLane lane, long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (owner != null && owner != lane) {
+                if (remaining <= 0) return false;
+                remaining = released.awaitNanos(remaining);
+            }
+            owner = lane;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rend la ressource si {@code lane} en est encore propriétaire.
+     * @return true si la ressource a été libérée
+     */
+    public boolean release(DispatchLane lane) {
+        lock.lock();
+        try {
+            if (owner != lane) return false;
+            owner = null;
+            released.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isHeldBy(DispatchLane lane) {
+        lock.lock();
+        try {
+            return owner == lane;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceLock{" + name + ", owner=" + owner + "}";
+    }
+}
@@ -0,0 +1,197 @@
+package org.arcos.Orchestrator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Découpe incrémentale du flux LLM en segments à synthétiser.
+ * <p>
+ * Le texte reçu est accumulé dans un tampon parcouru une seule fois grâce à un curseur : chaque
+ * chunk ne coûte que sa propre longueur. Une fin de phrase est une suite de {@code . ? ! …} (avec
+ * guillemets ou parenthèses fermants) suivie d'un blanc, sauf pour les nombres décimaux ("3.5"),
+ * les titres ("M.", "Mme", "Dr"), les initiales ("J. Dupont"), les numéros de liste en début de
+ * ligne ("1. Premier point") et les abréviations ("etc.", "cf.") qui ne ferment la phrase que si la
+ * suite commence par une majuscule.
+ * <p>
+ * Pour que la première phrase soit audible plus tôt, le tout premier segment d'une réponse peut être
+ * émis dès une virgule (ou {@code ; :}) placée après {@code firstClauseMinChars} caractères, ou coupé
+ * au dernier espace si aucune ponctuation n'est arrivée après {@code firstClauseMaxChars} caractères.
+ * <p>
+ * Une instance par réponse, non thread-safe (le flux Reactor délivre les chunks séquentiellement).
+ */
+public class SentenceSegmenter {
+
+    public static final int DEFAULT_FIRST_CLAUSE_MIN_CHARS = 20;
+    public static final int DEFAULT_FIRST_CLAUSE_MAX_CHARS = 90;
+
+    private static final Set<String> TITLES = Set.of(
+            "M", "MM", "Mme", "Mmes", "Mlle", "Mlles", "Dr", "Pr", "Me", "Mgr", "St", "Ste");
+
+    private static final Set<String> ABBREVIATIONS = Set.of(
+            "etc", "ex", "cf", "env", "av", "apr", "vol", "chap", "fig", "p", "pp", "n", "no",
+            "réf", "tél", "min", "max", "hab", "éd", "resp", "art", "al");
+
+    private final int firstClauseMinChars;
+    private final int firstClauseMaxChars;
+
+    private final StringBuilder buffer = new StringBuilder();
+    private int cursor;
+    private int emitted;
+
+    public SentenceSegmenter() {
+        this(DEFAULT_FIRST_CLAUSE_MIN_CHARS, DEFAULT_FIRST_CLAUSE_MAX_CHARS);
+    }
+
+    /**
+     * @param firstClauseMinChars longueur minimale d'une première proposition coupée sur une virgule (0 = jamais)
+     * @param firstClauseMaxChars longueur à partir de laquelle la première phrase est coupée au dernier espace (0 = jamais)
+     */
+    public SentenceSegmenter(int firstClauseMinChars, int firstClauseMaxChars) {
+        this.firstClauseMinChars = firstClauseMinChars;
+        this.firstClauseMaxChars = firstClauseMaxChars;
+    }
+
+    /**
+     * Ajoute un chunk et retourne les segments complets qu'il a permis de fermer (texte brut, non nettoyé).
+     */
+    public List<String> append(CharSequence chunk) {
+        buffer.append(chunk);
+        List<String> segments = new ArrayList<>(1);
+        int end;
+        while ((end = nextBoundary()) != -1) {
+            segments.add(buffer.substring(0, end));
+            buffer.delete(0, end);
+            cursor = 0;
+            emitted++;
+        }
+        return segments;
+    }
+
+    /**
+     * Retourne le reliquat (fin de réponse sans ponctuation), éventuellement vide, et vide le tampon.
+     */
+    public String flush() {
+        String rest = buffer.toString();
+        buffer.setLength(0);
+        cursor = 0;
+        if (!rest.isBlank()) emitted++;
+        return rest;
+    }
+
+    /**
+     * Nombre de segments émis depuis le début de la réponse.
+     */
+    public int getEmittedCount() {
+        return emitted;
+    }
+
+    /**
+     * Avance le curseur jusqu'à la prochaine frontière. Retourne l'index (exclusif) de fin du segment,
+     * ou -1 s'il faut attendre la suite du flux ; le curseur reste alors sur le caractère indécis.
+     */
+    private int nextBoundary() {
+        int length = buffer.length();
+        boolean firstSegment = emitted == 0;
+        while (cursor < length) {
+            char c = buffer.charAt(cursor);
+            if (isTerminator(c)) {
+                int runEnd = extendRun(cursor + 1, length);
+                if (runEnd == -1) return -1;
+                if (Character.isWhitespace(buffer.charAt(runEnd))) {
+                    int decision = isSentenceEnd(cursor, runEnd);
+                    if (decision > 0) return runEnd;
+                    if (decision < 0) return -1;
+                }
+                cursor = runEnd;
+                continue;
+            }
+            if (firstSegment && firstClauseMinChars > 0 && isClauseBreak(c) && cursor + 1 >= firstClauseMinChars) {
+                if (cursor + 1 == length) return -1;
+                if (Character.isWhitespace(buffer.charAt(cursor + 1))) return cursor + 1;
+            }
+            cursor++;
+        }
+        if (firstSegment && firstClauseMaxChars > 0 && length >= firstClauseMaxChars) {
+            int space = lastWhitespace(length);
+            if (space > firstClauseMinChars) return space;
+        }
+        return -1;
+    }
+
+    /**
+     * 1 = fin de phrase, 0 = pas une fin de phrase, -1 = indécidable sans la suite du flux.
+     */
+    private int isSentenceEnd(int terminatorIndex, int runEnd) {
+        if (buffer.charAt(terminatorIndex) != '.' || runEnd != terminatorIndex + 1) return 1;
+        int wordStart = terminatorIndex;
+        while (wordStart > 0 && Character.isLetter(buffer.charAt(wordStart - 1))) wordStart--;
+        if (wordStart == terminatorIndex) return isListMarker(terminatorIndex) ? 0 : 1;
+        String word = buffer.substring(wordStart, terminatorIndex);
+        if (TITLES.contains(word)) return 0;
+        if (word.length() == 1 && Character.isUpperCase(word.charAt(0))) return 0;
+        if (!ABBREVIATIONS.contains(word.toLowerCase())) return 1;
+        int next = runEnd;
+        while (next < buffer.length() && Character.isWhitespace(buffer.charAt(next))) next++;
+        if (next == buffer.length()) return -1;
+        return Character.isUpperCase(buffer.charAt(next)) ? 1 : 0;
+    }
+
+    /**
+     * Vrai pour un numéro de liste ("1. Premier point") : des chiffres suivis du point, en début de
+     * segment ou juste après un saut de ligne.
+     */
+    private boolean isListMarker(int terminatorIndex) {
+        int digitStart = terminatorIndex;
+        while (digitStart > 0 && Character.isDigit(buffer.charAt(digitStart - 1))) digitStart--;
+        if (digitStart == terminatorIndex) return false;
+        int lineStart = digitStart;
+        while (lineStart > 0) {
+            char previous = buffer.charAt(lineStart - 1);
+            if (previous == '\n' || previous == '\r') return true;
+            if (!Character.isWhitespace(previous)) return false;
+            lineStart--;
+        }
+        return true;
+    }
+
+    /**
+     * Étend une suite de ponctuation finale aux ponctuations et fermants qui la suivent, y compris un
+     * guillemet français précédé d'une espace ("non ! »"). Retourne -1 si le tampon s'arrête avant de le savoir.
+     */
+    private int extendRun(int runEnd, int length) {
+        while (runEnd < length) {
+            char c = buffer.charAt(runEnd);
+            if (isTerminator(c) || isClosing(c)) {
+                runEnd++;
+                continue;
+            }
+            if (!Character.isWhitespace(c)) return runEnd;
+            int next = runEnd;
+            while (next < length && Character.isWhitespace(buffer.charAt(next))) next++;
+            if (next == length) return -1;
+            if (buffer.charAt(next) != '»') return runEnd;
+            runEnd = next + 1;
+        }
+        return -1;
+    }
+
+    private int lastWhitespace(int length) {
+        for (int i = length - 1; i > 0; i--) {
+            if (Character.isWhitespace(buffer.charAt(i))) return i;
+        }
+        return -1;
+    }
+
+    private static boolean isTerminator(char c) {
+        return c == '.' || c == '?' || c == '!' || c == '…';
+    }
+
+    private static boolean isClosing(char c) {
+        return c == '"' || c == '»' || c == ')' || c == ']' || c == '\'' || c == '’' || c == '*';
+    }
+
+    private static boolean isClauseBreak(char c) {
+        return c == ',' || c == ';' || c == ':';
+    }
+}
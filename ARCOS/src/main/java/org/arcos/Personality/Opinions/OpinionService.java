@@ -8,6 +8,7 @@ import org.arcos.Memory.LongTermMemory.Models.MemoryEntry;
 import org.arcos.Memory.LongTermMemory.Models.OpinionEntry;
 import org.arcos.Memory.LongTermMemory.Repositories.DesireRepository;
 import org.arcos.Memory.LongTermMemory.Repositories.OpinionRepository;
+import org.arcos.Memory.LongTermMemory.service.TurnRetrieval;
 import org.arcos.Personality.Values.Entities.DimensionSchwartz;
 import org.arcos.Personality.Values.ValueProfile;
 import org.arcos.Exceptions.ResponseParsingException;
@@ -118,6 +119,13 @@ public class OpinionService {
         return docs.stream().map(this::fromDocument).collect(Collectors.toList());
     }
 
+    /**
+     * Même recherche, avec l'embedding déjà calculé pour le tour en cours.
+     */
+    public List<OpinionEntry> searchOpinions(TurnRetrieval turn) {
+        return turn.search(opinionRepository, 5).stream().map(this::fromDocument).collect(Collectors.toList());
+    }
+
     private double calculateDeltaC(OpinionEntry opinionEntry, double networkConsistency, double imp, int sOld, int sExp) {
         double reinforceBase = personalityProperties.getOpinion().getReinforceBase();
         double contradictBase = personalityProperties.getOpinion().getContradictBase();
@@ -134,6 +134,16 @@ public class PlannedActionService {
         log.info("Marked action as completed: {}", entry.getLabel());
     }
 
+    /**
+     * Vrai si l'action n'est plus à exécuter (supprimée, annulée ou terminée) : un déclenchement rejoué
+     * depuis le journal d'événements peut arriver après qu'elle a été traitée.
+     */
+    public boolean isInactive(String id) {
+        if (id == null) return false;
+        PlannedActionEntry stored = repository.findById(id);
+        return stored == null || stored.getStatus() != ActionStatus.ACTIVE;
+    }
+
     public void deleteAction(String id) {
         PlannedActionEntry removed = repository.delete(id);
         if (removed != null) {
@@ -6,15 +6,25 @@ import org.arcos.EventBus.Events.Event;
 import org.arcos.EventBus.Events.EventPriority;
 import org.arcos.EventBus.Events.EventType;
 import org.arcos.EventBus.Events.WakeWordEvent;
+import org.arcos.IO.InputHandling.Capture.AudioCapture;
+import org.arcos.IO.InputHandling.Capture.AudioRingBuffer;
+import org.arcos.IO.InputHandling.Capture.EchoCanceller;
+import org.arcos.IO.InputHandling.Capture.EchoReference;
+import org.arcos.IO.InputHandling.Capture.WakeWordGate;
 import org.arcos.IO.InputHandling.JavaSoundMicrophoneSource;
 import org.arcos.IO.InputHandling.MicrophoneSource;
 import org.arcos.IO.InputHandling.PipeWireMicrophoneSource;
+import org.arcos.IO.InputHandling.WavFileMicrophoneSource;
 import org.arcos.Configuration.SpeechToTextProperties;
+import org.arcos.Configuration.VadProperties;
 import org.arcos.IO.InputHandling.STT.SttGate;
+import org.arcos.IO.InputHandling.STT.TranscriptionStage;
+import org.arcos.IO.InputHandling.VAD.AdaptiveEndpointer;
 import org.arcos.IO.OuputHandling.StateHandler.AudioCue.AudioCueFeedbackHandler;
 import org.arcos.IO.OuputHandling.StateHandler.CentralFeedBackHandler;
 import org.arcos.IO.OuputHandling.StateHandler.UXEventType;
 import org.arcos.IO.OuputHandling.StateHandler.FeedBackEvent;
+import org.arcos.Orchestrator.LatencyTimeline;
 import ai.picovoice.porcupine.Porcupine;
 import ai.picovoice.porcupine.PorcupineException;
 import lombok.extern.slf4j.Slf4j;
@@ -28,9 +38,8 @@ import jakarta.annotation.PreDestroy;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
@@ -41,45 +50,48 @@ public class WakeWordProducer implements Runnable {
 
     private Porcupine porcupine;
     private String[] keywords;
-    private SttGate sttGate;
+    private TranscriptionStage transcriptionStage;
+    private AdaptiveEndpointer endpointer;
     private MicrophoneSource micSource;
+    private AudioCapture audioCapture;
+    private AudioRingBuffer.Reader wakeReader;
+    private AudioRingBuffer.Reader recordReader;
+    private AudioRingBuffer.Reader sttReader;
+    private WakeWordGate wakeWordGate;
+    private final EchoReference echoReference;
+    private final LatencyTimeline latencyTimeline = new LatencyTimeline();
     private final EventQueue eventQueue;
     private final CentralFeedBackHandler centralFeedBackHandler;
     private final AudioCueFeedbackHandler audioCueFeedbackHandler;
     private final AudioProperties audioProperties;
     private final SpeechToTextProperties sttProperties;
+    private final VadProperties vadProperties;
     private volatile Thread wakeWordThread;
     private boolean porcupineEnabled = false;
     private boolean porcupineInitialized = false;
 
-    private static final int PORCUPINE_SAMPLE_RATE = 16000;
-    private static final int BYTES_PER_SAMPLE = 2;
+    private static final int PORCUPINE_SAMPLE_RATE = AudioCapture.SAMPLE_RATE;
+    /** Historique conservé par le tampon de capture (pré-roll et lecteurs momentanément en retard). */
+    private static final int CAPTURE_HISTORY_MS = 10_000;
+    /** Trame d'analyse VAD pendant l'enregistrement : 50 ms à 16 kHz. */
+    private static final int RECORD_FRAME_SAMPLES = PORCUPINE_SAMPLE_RATE / 20;
+    /** Audio antérieur à la détection de parole envoyé au STT (la VAD confirme la parole ~100 ms après son début). */
+    private static final int PRE_ROLL_SAMPLES = PORCUPINE_SAMPLE_RATE * 300 / 1000;
+    private static final long READ_TIMEOUT_MS = 200;
+    /** Énoncés en vol : un en capture pendant que le précédent est transcrit. */
+    private static final int STT_GATES = 2;
+    /** Avance maximale de la référence d'écho sur la capture (synthèse plus rapide que la lecture). */
+    private static final int ECHO_REFERENCE_HISTORY_MS = 4_000;
     private int silenceThreshold;
 
-    /**
-     * 21-tap low-pass FIR filter (Hamming window, fc=7200Hz at 44100Hz).
-     * Provides ~44dB stopband attenuation to prevent aliasing when downsampling to 16kHz.
-     * Only active on the JavaSound fallback path (PipeWire captures at 16kHz natively).
-     */
-    private static final double[] LP_FILTER;
-    static {
-        int N = 21;
-        double fc = 7200.0 / 44100.0;
-        LP_FILTER = new double[N];
-        double sum = 0;
-        int M = N / 2;
-        for (int i = 0; i < N; i++) {
-            double n = i - M;
-            double sinc = (n == 0) ? 2 * Math.PI * fc : Math.sin(2 * Math.PI * fc * n) / (Math.PI * n);
-            double hamming = 0.54 - 0.46 * Math.cos(2 * Math.PI * i / (N - 1));
-            LP_FILTER[i] = sinc * hamming;
-            sum += LP_FILTER[i];
-        }
-        for (int i = 0; i < N; i++) LP_FILTER[i] /= sum;
-    }
+    private final short[] recordFrame = new short[RECORD_FRAME_SAMPLES];
+    private final short[] sttFrame = new short[RECORD_FRAME_SAMPLES];
 
     private volatile boolean suspended = false;
     private volatile boolean needsDrain = false;
+    /** TTS en cours avec annulation d'écho : l'écoute continue pour détecter une interruption. */
+    private volatile boolean assistantSpeaking = false;
+    private boolean bargeInArmed = false;
     private volatile boolean inConversationWindowMode = false;
     private volatile long conversationWindowExpiry = 0L;
 
@@ -91,7 +103,8 @@ public class WakeWordProducer implements Runnable {
             log.info("WakeWordProducer désactivé — thread non démarré.");
             return;
         }
-        if (this.micSource != null && this.micSource.isAvailable()) {
+        if (this.audioCapture != null) {
+            audioCapture.start();
             wakeWordThread = new Thread(this, "wakeword-producer");
             wakeWordThread.setDaemon(true);
             wakeWordThread.start();
@@ -106,25 +119,70 @@ public class WakeWordProducer implements Runnable {
         if (wakeWordThread != null) {
             wakeWordThread.interrupt();
         }
-        if (micSource != null) {
+        if (audioCapture != null) {
+            audioCapture.close();
+        } else if (micSource != null) {
             micSource.close();
         }
+        if (transcriptionStage != null) {
+            transcriptionStage.close();
+        }
+        if (endpointer != null) {
+            endpointer.close();
+        }
         if (porcupine != null) {
             porcupine.delete();
         }
     }
 
-    @Autowired
     public WakeWordProducer(EventQueue eventQueue,
                             CentralFeedBackHandler centralFeedBackHandler,
                             AudioCueFeedbackHandler audioCueFeedbackHandler,
                             AudioProperties audioProperties,
                             SpeechToTextProperties sttProperties) {
+        this(eventQueue, centralFeedBackHandler, audioCueFeedbackHandler, audioProperties, sttProperties,
+                new VadProperties());
+    }
+
+    @Autowired
+    public WakeWordProducer(EventQueue eventQueue,
+                            CentralFeedBackHandler centralFeedBackHandler,
+                            AudioCueFeedbackHandler audioCueFeedbackHandler,
+                            AudioProperties audioProperties,
+                            SpeechToTextProperties sttProperties,
+                            VadProperties vadProperties) {
         this.centralFeedBackHandler = centralFeedBackHandler;
         this.audioCueFeedbackHandler = audioCueFeedbackHandler;
         this.eventQueue = eventQueue;
         this.audioProperties = audioProperties;
         this.sttProperties = sttProperties;
+        this.vadProperties = vadProperties;
+        // Créée dès la construction : le module TTS s'y branche avant le démarrage de la capture
+        this.echoReference = audioProperties.isEchoCancellationEnabled()
+                ? new EchoReference(PORCUPINE_SAMPLE_RATE, audioProperties.getEchoDelayMs(), ECHO_REFERENCE_HISTORY_MS)
+                : null;
+    }
+
+    /**
+     * Point de branchement de la sortie TTS pour l'annulation d'écho ; {@code null} si elle est désactivée.
+     */
+    public EchoReference getEchoReference() {
+        return echoReference;
+    }
+
+    /**
+     * Étapes de chaque tour, du mot de réveil au premier son ; la sortie TTS s'y branche pour le premier son.
+     */
+    public LatencyTimeline getLatencyTimeline() {
+        return latencyTimeline;
+    }
+
+    /**
+     * Impose la source audio au lieu du micro détecté (rejeu de sessions enregistrées) ; à appeler avant
+     * le démarrage de l'application.
+     */
+    public void useMicrophoneSource(MicrophoneSource source) {
+        this.micSource = source;
     }
 
     /**
@@ -158,7 +216,21 @@ public class WakeWordProducer implements Runnable {
             if (this.micSource != null && this.micSource.isAvailable()) {
                 this.silenceThreshold = micSource.recommendedSilenceThreshold();
                 log.info("Silence threshold: {} (from {})", silenceThreshold, micSource.describe());
-                this.sttGate = SttGate.create(sttProperties.getBackend(), sttProperties);
+                this.transcriptionStage = new TranscriptionStage(
+                        () -> SttGate.create(sttProperties), STT_GATES);
+                this.endpointer = AdaptiveEndpointer.create(vadProperties, silenceThreshold,
+                        audioProperties.getSilenceDurationMs());
+                log.info("Voice activity detection: {}", endpointer.describe());
+                this.audioCapture = new AudioCapture(micSource, CAPTURE_HISTORY_MS);
+                if (echoReference != null) {
+                    audioCapture.setEchoCanceller(EchoCanceller.create(audioProperties, echoReference));
+                    log.info("Echo cancellation: {}", audioCapture.getEchoCanceller().describe());
+                }
+                this.wakeReader = audioCapture.newReader();
+                this.recordReader = audioCapture.newReader();
+                this.sttReader = audioCapture.newReader();
+                this.wakeWordGate = WakeWordGate.create(audioProperties, PORCUPINE_SAMPLE_RATE);
+                log.info("Wake word pre-filter: {}", wakeWordGate.describe());
             }
             this.porcupineEnabled = true;
             log.info("WakeWordProducer initialisé avec succès.");
@@ -171,7 +243,25 @@ public class WakeWordProducer implements Runnable {
     /**
      * Tries PipeWire first (handles device routing and resampling natively), falls back to Java Sound API.
      */
-    private void initializeMicrophone() {
+    private void initializeMicrophone() throws IOException {
+        if (micSource != null) {
+            log.info("Audio source: {}", micSource.describe());
+            return;
+        }
+        String replayPath = audioProperties.getReplayPath();
+        if (replayPath != null && !replayPath.isBlank()) {
+            // Sessions enregistrées à la place du micro : mesures de latence sans matériel audio
+            WavFileMicrophoneSource replay = WavFileMicrophoneSource.open(Path.of(replayPath),
+                    audioProperties.getReplaySpeed(), audioProperties.getReplayGapMs());
+            if (replay.isAvailable()) {
+                this.micSource = replay;
+                log.info("Audio source: {}", micSource.describe());
+            } else {
+                log.warn("No WAV session to replay in {}", replayPath);
+            }
+            return;
+        }
+
         // Try PipeWire first — captures at 16kHz natively (no downsampling needed)
         if (PipeWireMicrophoneSource.isPipeWireAvailable()) {
             PipeWireMicrophoneSource pwSource = new PipeWireMicrophoneSource();
@@ -238,18 +328,11 @@ public class WakeWordProducer implements Runnable {
             log.warn("WakeWordProducer.run() appelé mais Porcupine non initialisé.");
             return;
         }
-        final int micSampleRate = micSource.getSampleRate();
-        final boolean needsDownsampling = micSampleRate != PORCUPINE_SAMPLE_RATE;
         final int porcupineFrameLength = porcupine.getFrameLength();
-        final int micFrameSize = needsDownsampling
-                ? (int) Math.ceil(porcupineFrameLength * micSampleRate / (double) PORCUPINE_SAMPLE_RATE) * BYTES_PER_SAMPLE
-                : porcupineFrameLength * BYTES_PER_SAMPLE;
+        final short[] porcupineFrame = new short[porcupineFrameLength];
 
-        byte[] micBuffer = new byte[micFrameSize];
-        short[] resampledBuffer = new short[porcupineFrameLength];
-
-        log.info("Starting wake word detection loop (frameLength={}, micFrameSize={} bytes, micRate={}, porcupineRate={}, downsampling={})",
-                porcupineFrameLength, micFrameSize, micSampleRate, PORCUPINE_SAMPLE_RATE, needsDownsampling);
+        log.info("Starting wake word detection loop (frameLength={}, source={})",
+                porcupineFrameLength, audioCapture.describe());
 
         long lastRmsLogTime = 0;
         while (!Thread.currentThread().isInterrupted()) {
@@ -260,10 +343,10 @@ public class WakeWordProducer implements Runnable {
                     continue;
                 }
 
-                // --- Just exited suspension: drain stale mic data (TTS echo) ---
+                // --- Just exited suspension: skip stale mic data (TTS echo) ---
                 if (needsDrain) {
-                    log.debug("Draining mic buffer after TTS playback");
-                    micSource.drain();
+                    log.debug("Skipping {} buffered samples after TTS playback", wakeReader.available());
+                    wakeReader.skipToLatest();
                     needsDrain = false;
                 }
 
@@ -276,74 +359,69 @@ public class WakeWordProducer implements Runnable {
                         emitListeningWindowTimeout();
                         continue;
                     }
-                    String transcription = recordAndTranscribeForConversation((int) remaining);
+                    listenForUtterance(ListeningMode.CONVERSATION, remaining);
                     inConversationWindowMode = false;
-                    if (transcription != null && !transcription.isEmpty()) {
-                        log.info(">>> [CONVERSATION] TRANSCRIBED: {}", transcription);
-                        WakeWordEvent event = new WakeWordEvent(transcription, "conversation", true);
-                        eventQueue.offer(event);
-                    } else {
-                        log.info(">>> [CONVERSATION] Aucune parole dans la fenêtre");
-                        emitListeningWindowTimeout();
-                    }
+                    wakeReader.skipToLatest();
                     continue;
                 }
 
-                // --- Mode veille standard : boucle Porcupine ---
-                int bytesRead = micSource.read(micBuffer, 0, micFrameSize);
-
-                if (bytesRead > 0) {
-                    int samplesRead = bytesRead / BYTES_PER_SAMPLE;
-                    short[] micSamples = new short[samplesRead];
-
-                    ByteBuffer.wrap(micBuffer, 0, bytesRead)
-                            .order(ByteOrder.LITTLE_ENDIAN)
-                            .asShortBuffer()
-                            .get(micSamples);
-
-                    // Log RMS every 5 seconds to verify mic is capturing audio
-                    long now = System.currentTimeMillis();
-                    if (now - lastRmsLogTime > 5000) {
-                        long sum = 0;
-                        for (int i = 0; i < samplesRead; i++) {
-                            sum += (long) micSamples[i] * micSamples[i];
-                        }
-                        double rms = Math.sqrt((double) sum / samplesRead);
-                        log.info("Audio RMS level: {} (threshold: {}, samples: {}, source: {})",
-                                (int) rms, silenceThreshold, samplesRead, micSource.describe());
-                        lastRmsLogTime = now;
+                // --- Assistant speaking: the echo is cancelled, watch for the user talking over it ---
+                if (assistantSpeaking) {
+                    if (!bargeInArmed) {
+                        endpointer.start(audioProperties.getConversationSilenceMs());
+                        recordReader.skipToLatest();
+                        bargeInArmed = true;
                     }
-
-                    // Downsample to 16kHz if needed (PipeWire already outputs at 16kHz)
-                    if (needsDownsampling) {
-                        downsample(micSamples, samplesRead, resampledBuffer, porcupineFrameLength);
-                    } else {
-                        System.arraycopy(micSamples, 0, resampledBuffer, 0, Math.min(samplesRead, porcupineFrameLength));
+                    long onset = detectBargeIn();
+                    if (onset >= 0) {
+                        log.info("Barge-in: {}ms of speech over the assistant", endpointer.getSpeechMs());
+                        emitBargeIn();
+                        listenForUtterance(ListeningMode.CONVERSATION, audioProperties.getPostResponseListeningWindowMs(), onset);
+                        inConversationWindowMode = false;
+                        wakeReader.skipToLatest();
+                        continue;
                     }
+                } else {
+                    bargeInArmed = false;
+                }
+
+                // Silent frames are read and dropped by the gate without running Porcupine
+                int samplesRead = wakeWordGate.read(wakeReader, porcupineFrame, porcupineFrameLength, READ_TIMEOUT_MS);
+
+                // Log RMS every 5 seconds to verify mic is capturing audio
+                long now = System.currentTimeMillis();
+                if (now - lastRmsLogTime > 5000) {
+                    EchoCanceller echoCanceller = audioCapture.getEchoCanceller();
+                    log.info("Audio RMS level: {} (threshold: {}, noise floor: {} dB, gate open: {}, frames processed/skipped: {}/{}, source: {}, lost: {}, echo reduction: {})",
+                            wakeWordGate.getLastRms(), silenceThreshold, Math.round(wakeWordGate.getNoiseFloorDb()),
+                            wakeWordGate.isOpen(), wakeWordGate.getProcessedFrames(), wakeWordGate.getSkippedFrames(),
+                            audioCapture.describe(), wakeReader.getLostSamples(),
+                            echoCanceller != null ? Math.round(echoCanceller.getErleDb()) + " dB" : "off");
+                    lastRmsLogTime = now;
+                }
 
+                if (samplesRead > 0) {
                     // Check for wake word
-                    int result = porcupine.process(resampledBuffer);
+                    int result = porcupine.process(porcupineFrame);
 
                     if (result >= 0) {
+                        latencyTimeline.startTurn();
+                        latencyTimeline.mark(LatencyTimeline.Stage.WAKE);
                         log.info("[{}] Detected '{}'",
                                 LocalTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss")),
                                 keywords[result]);
+                        if (assistantSpeaking) {
+                            emitBargeIn();
+                        }
                         centralFeedBackHandler.handleFeedBack(new FeedBackEvent(UXEventType.WAKEUP_SHORT));
                         audioCueFeedbackHandler.playWakeUpSoundSoftSync(); // blocks until cue finishes — prevents mic bleed
 
-                        // Switch to transcription mode
-                        String transcription = recordAndTranscribe();
-
-                        if (transcription != null && !transcription.isEmpty()) {
-                            log.info(">>> TRANSCRIBED MESSAGE: {}", transcription);
-                            WakeWordEvent event = new WakeWordEvent(transcription, "default");
-                            eventQueue.offer(event);
-                        } else {
-                            log.info(">>> No speech detected or transcription failed");
-                        }
+                        // Capture the request; transcription runs on its own stage
+                        listenForUtterance(ListeningMode.WAKE_WORD, audioProperties.getPostResponseListeningWindowMs());
+                        wakeReader.skipToLatest();
                     }
-                } else if (bytesRead < 0) {
-                    log.error("Audio source returned -1 (stream ended). Stopping wake word detection.");
+                } else if (samplesRead < 0) {
+                    log.error("Audio capture stopped (stream ended). Stopping wake word detection.");
                     break;
                 }
             } catch (PorcupineException e) {
@@ -357,152 +435,171 @@ public class WakeWordProducer implements Runnable {
         log.info("WakeWordProducer thread finished.");
     }
 
-    private void downsample(short[] input, int inputLength, short[] output, int outputLength) {
-        double ratio = (double) inputLength / outputLength;
-        int halfTaps = LP_FILTER.length / 2;
-        for (int i = 0; i < outputLength; i++) {
-            int center = (int) (i * ratio);
-            double acc = 0;
-            for (int t = 0; t < LP_FILTER.length; t++) {
-                int idx = center - halfTaps + t;
-                if (idx >= 0 && idx < inputLength) {
-                    acc += input[idx] * LP_FILTER[t];
-                }
-            }
-            output[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(acc)));
+    /**
+     * Place le curseur STT juste avant la détection de parole, pour ne pas couper l'attaque du premier mot.
+     */
+    private void startSttFromSpeechOnset(long recordingStartPosition) {
+        long onset = recordReader.getPosition() - RECORD_FRAME_SAMPLES - PRE_ROLL_SAMPLES;
+        sttReader.seek(Math.max(recordingStartPosition, onset));
+    }
+
+    /**
+     * Transmet au STT l'audio déjà analysé par la VAD, directement depuis le tampon de capture.
+     */
+    private void forwardToStt(SttGate gate) {
+        long limit = recordReader.getPosition();
+        while (sttReader.getPosition() < limit) {
+            int count = sttReader.read(sttFrame, 0, (int) Math.min(sttFrame.length, limit - sttReader.getPosition()));
+            if (count <= 0) break;
+            gate.processAudio(sttFrame, 0, count);
         }
     }
 
-    private String recordAndTranscribe() {
-        log.info("Started listening for speech...");
+    /**
+     * Mode d'écoute après le mot de réveil ou dans la fenêtre de conversation : seuls le silence de fin
+     * d'énoncé, la source de l'événement et le traitement d'une fenêtre vide diffèrent.
+     */
+    private enum ListeningMode {
+        WAKE_WORD("", "default", false),
+        CONVERSATION("[CONVERSATION] ", "conversation", true);
+
+        private final String logPrefix;
+        private final String eventSource;
+        private final boolean multiTurn;
+
+        ListeningMode(String logPrefix, String eventSource, boolean multiTurn) {
+            this.logPrefix = logPrefix;
+            this.eventSource = eventSource;
+            this.multiTurn = multiTurn;
+        }
+    }
 
-        sttGate.reset();
+    /**
+     * Capture un énoncé puis le confie à l'étage de transcription sans attendre le résultat : l'écoute
+     * reprend aussitôt, et l'événement est publié par le thread de transcription.
+     *
+     * @param waitForSpeechMs délai maximal avant le début de la parole
+     */
+    private void listenForUtterance(ListeningMode mode, long waitForSpeechMs) throws InterruptedException {
+        listenForUtterance(mode, waitForSpeechMs, -1);
+    }
 
-        final int micSampleRate = micSource.getSampleRate();
-        final boolean needsResample = micSampleRate != PORCUPINE_SAMPLE_RATE;
-        // Whisper frame: 50ms at 16kHz = 1600 bytes
-        final int whisperFrameSize = PORCUPINE_SAMPLE_RATE * BYTES_PER_SAMPLE / 20;
-        final int micFrameSize = needsResample
-                ? (int) Math.ceil(whisperFrameSize * micSampleRate / (double) PORCUPINE_SAMPLE_RATE)
-                : whisperFrameSize;
+    /**
+     * @param startPosition position de capture où reprendre l'analyse (parole déjà commencée, cas de
+     *                      l'interruption), ou {@code -1} pour partir de maintenant
+     */
+    private void listenForUtterance(ListeningMode mode, long waitForSpeechMs, long startPosition) throws InterruptedException {
+        SttGate gate = transcriptionStage.acquire();
+        if (captureUtterance(mode, gate, waitForSpeechMs, startPosition)) {
+            log.info("{}Queued {}ms of audio for transcription ({} pending)", mode.logPrefix,
+                    gate.getBufferedAudioDurationMs(), transcriptionStage.getPendingCount());
+            transcriptionStage.submit(gate, transcription -> onTranscription(mode, transcription));
+        } else {
+            transcriptionStage.release(gate);
+            onNothingHeard(mode);
+        }
+    }
 
-        byte[] micBuffer = new byte[micFrameSize];
-        byte[] whisperBuffer = new byte[whisperFrameSize];
+    private void onTranscription(ListeningMode mode, String transcription) {
+        if (!transcription.isEmpty()) {
+            log.info(">>> {}TRANSCRIBED: {}", mode.logPrefix, transcription);
+            latencyTimeline.mark(LatencyTimeline.Stage.TRANSCRIPT);
+            eventQueue.offer(mode.multiTurn
+                    ? new WakeWordEvent(transcription, mode.eventSource, true)
+                    : new WakeWordEvent(transcription, mode.eventSource));
+        } else {
+            log.info(">>> {}Transcription empty or failed", mode.logPrefix);
+            onNothingHeard(mode);
+        }
+    }
+
+    private void onNothingHeard(ListeningMode mode) {
+        if (mode == ListeningMode.CONVERSATION) {
+            emitListeningWindowTimeout();
+        }
+    }
 
-        // Pre-buffer: ring buffer of recent frames to preserve speech onset
-        final int PRE_BUFFER_FRAMES = 4; // ~200ms at 50ms/frame
-        byte[][] preBuffer = new byte[PRE_BUFFER_FRAMES][];
-        int preBufferIndex = 0;
+    /**
+     * Machine d'état d'un énoncé : attente de la parole (bornée par {@code waitForSpeechMs}), parole, puis
+     * fin sur silence ou sur la durée maximale d'enregistrement.
+     *
+     * @return vrai si de la parole a été captée en quantité suffisante pour être transcrite
+     */
+    private boolean captureUtterance(ListeningMode mode, SttGate gate, long waitForSpeechMs, long startPosition) {
+        log.info("{}Listening for speech ({}ms max)...", mode.logPrefix, waitForSpeechMs);
+
+        endpointer.start(mode == ListeningMode.CONVERSATION
+                ? audioProperties.getConversationSilenceMs()
+                : audioProperties.getSilenceDurationMs());
+        if (startPosition >= 0) {
+            recordReader.seek(startPosition);
+        } else {
+            recordReader.skipToLatest();
+        }
 
-        long lastSoundTime = System.currentTimeMillis();
+        final long recordingStartPosition = recordReader.getPosition();
         long recordingStartTime = System.currentTimeMillis();
         boolean hasDetectedSpeech = false;
 
         try {
             while (true) {
-                int bytesRead = micSource.read(micBuffer, 0, micFrameSize);
-
-                if (bytesRead > 0) {
-                    if (needsResample) {
-                        int samplesRead = bytesRead / BYTES_PER_SAMPLE;
-                        short[] micSamples = new short[samplesRead];
-                        ByteBuffer.wrap(micBuffer, 0, bytesRead)
-                                .order(ByteOrder.LITTLE_ENDIAN)
-                                .asShortBuffer()
-                                .get(micSamples);
-
-                        int whisperSamples = whisperFrameSize / BYTES_PER_SAMPLE;
-                        short[] downsampled = new short[whisperSamples];
-                        downsample(micSamples, samplesRead, downsampled, whisperSamples);
-
-                        ByteBuffer bb = ByteBuffer.wrap(whisperBuffer).order(ByteOrder.LITTLE_ENDIAN);
-                        for (short s : downsampled) {
-                            bb.putShort(s);
-                        }
-                    } else {
-                        System.arraycopy(micBuffer, 0, whisperBuffer, 0, Math.min(bytesRead, whisperFrameSize));
-                    }
+                int samplesRead = recordReader.read(recordFrame, 0, RECORD_FRAME_SAMPLES, READ_TIMEOUT_MS);
+                if (samplesRead < 0) {
+                    log.warn("{}Audio capture stopped during recording", mode.logPrefix);
+                    break;
+                }
 
-                    // Store frame in ring buffer before silence check (only while waiting for speech)
-                    if (!hasDetectedSpeech) {
-                        preBuffer[preBufferIndex % PRE_BUFFER_FRAMES] = whisperBuffer.clone();
-                        preBufferIndex++;
-                    }
+                if (samplesRead > 0) {
+                    endpointer.accept(recordFrame, 0, samplesRead);
 
-                    // Check for silence
-                    boolean isSilent = isSilence(whisperBuffer);
-
-                    if (!isSilent) {
-                        lastSoundTime = System.currentTimeMillis();
-                        if (!hasDetectedSpeech) {
-                            hasDetectedSpeech = true;
-                            log.info("Speech detected, recording...");
-                            // Flush pre-buffer: send prior frames that contain the speech onset
-                            int oldest = Math.max(0, preBufferIndex - PRE_BUFFER_FRAMES);
-                            for (int j = oldest; j < preBufferIndex - 1; j++) {
-                                byte[] frame = preBuffer[j % PRE_BUFFER_FRAMES];
-                                if (frame != null) {
-                                    sttGate.processAudio(frame);
-                                }
-                            }
+                    if (!hasDetectedSpeech && endpointer.isSpeechDetected()) {
+                        hasDetectedSpeech = true;
+                        log.info("{}Speech detected, recording...", mode.logPrefix);
+                        if (mode == ListeningMode.CONVERSATION) {
+                            // Pas de mot de réveil : le tour commence avec la parole
+                            latencyTimeline.startTurn();
                         }
+                        startSttFromSpeechOnset(recordingStartPosition);
                     }
 
                     // Only buffer audio once speech has been detected
                     if (hasDetectedSpeech) {
-                        sttGate.processAudio(whisperBuffer);
+                        forwardToStt(gate);
                     }
 
-                    // Check if we should stop due to silence
-                    if (hasDetectedSpeech && isSilent) {
-                        long silenceDuration = System.currentTimeMillis() - lastSoundTime;
-                        long silenceDurationMs = audioProperties.getSilenceDurationMs();
-                        if (silenceDuration >= silenceDurationMs) {
-                            log.info("Detected {}ms of silence, processing transcription...", silenceDurationMs);
-                            break;
-                        }
-                    }
-
-                    // Timeout: short window while waiting for speech, full duration once speaking
-                    long elapsed = System.currentTimeMillis() - recordingStartTime;
-                    long timeoutMs = hasDetectedSpeech
-                            ? (long) audioProperties.getMaxRecordingSeconds() * 1000
-                            : audioProperties.getPostResponseListeningWindowMs();
-                    if (elapsed >= timeoutMs) {
-                        log.info(hasDetectedSpeech
-                                ? "Maximum recording time reached, processing transcription..."
-                                : "No speech detected within {}ms, aborting", timeoutMs);
+                    // Stop once the VAD reports the end of the utterance
+                    if (endpointer.isEndOfSpeech()) {
+                        log.info("{}Detected {}ms of silence, end of utterance", mode.logPrefix, endpointer.getSilenceMs());
                         break;
                     }
                 }
-            }
 
-            // Process transcription only if speech was actually detected
-            if (hasDetectedSpeech && sttGate.hasMinimumAudio()) {
-                log.info("Processing {}ms of audio...", sttGate.getBufferedAudioDurationMs());
-                return sttGate.getTranscription();
-            } else {
-                log.info(hasDetectedSpeech ? "Not enough audio data for transcription" : "No speech detected");
-                return "";
+                // Window timeout only applies while waiting for speech to start.
+                // Once speech is detected, let silence detection handle the end,
+                // with maxRecordingSeconds as a safety backstop.
+                long elapsed = System.currentTimeMillis() - recordingStartTime;
+                long timeoutMs = hasDetectedSpeech
+                        ? (long) audioProperties.getMaxRecordingSeconds() * 1000
+                        : waitForSpeechMs;
+                if (elapsed >= timeoutMs) {
+                    log.info(hasDetectedSpeech
+                            ? "{}Maximum recording time reached after {}ms"
+                            : "{}No speech detected within {}ms", mode.logPrefix, elapsed);
+                    break;
+                }
             }
-
         } catch (Exception e) {
-            log.error("Error during transcription recording", e);
-            return "";
+            log.error("{}Error during recording", mode.logPrefix, e);
+            return false;
         }
-    }
 
-    private boolean isSilence(byte[] audioData) {
-        long sum = 0;
-        int sampleCount = audioData.length / 2;
-
-        for (int i = 0; i < audioData.length - 1; i += 2) {
-            short sample = (short) ((audioData[i + 1] << 8) | (audioData[i] & 0xFF));
-            sum += sample * sample;
+        if (hasDetectedSpeech) {
+            latencyTimeline.mark(LatencyTimeline.Stage.END_OF_SPEECH);
         }
-
-        double rms = Math.sqrt((double) sum / sampleCount);
-        return rms < silenceThreshold;
+        if (hasDetectedSpeech && !gate.hasMinimumAudio()) {
+            log.info("{}Not enough audio data for transcription", mode.logPrefix);
+        }
+        return hasDetectedSpeech && gate.hasMinimumAudio();
     }
 
     /**
@@ -513,6 +610,12 @@ public class WakeWordProducer implements Runnable {
      * @param durationMs Durée de la fenêtre en ms
      */
     public void suspend() {
+        if (audioCapture != null && audioCapture.getEchoCanceller() != null) {
+            // L'écho TTS est retiré du micro : on continue d'écouter pour permettre l'interruption
+            assistantSpeaking = true;
+            log.debug("WakeWordProducer listening for barge-in (TTS playing)");
+            return;
+        }
         suspended = true;
         needsDrain = true;
         log.debug("WakeWordProducer suspended (TTS playing)");
@@ -520,6 +623,7 @@ public class WakeWordProducer implements Runnable {
 
     public void resumeDetection() {
         // Drain happens on the wakeword-producer thread when it exits suspension
+        assistantSpeaking = false;
         suspended = false;
         log.debug("WakeWordProducer resumed");
     }
@@ -531,13 +635,42 @@ public class WakeWordProducer implements Runnable {
         }
         // Set conversation state BEFORE clearing suspended, so the wakeword thread
         // sees the conversation window as soon as it resumes (avoids race condition
-        // where thread wakes, drains instantly with JavaSound, and misses the flag).
+        // where thread wakes, skips the stale audio, and misses the flag).
         conversationWindowExpiry = System.currentTimeMillis() + durationMs;
         inConversationWindowMode = true;
+        assistantSpeaking = false;
         suspended = false;
         log.debug("Fenêtre conversation ouverte pour {}ms", durationMs);
     }
 
+    /**
+     * Analyse l'audio capturé depuis le dernier appel sans bloquer.
+     *
+     * @return position de capture du début de la parole si l'utilisateur parle depuis assez longtemps
+     *         pour interrompre l'assistant, {@code -1} sinon
+     */
+    private long detectBargeIn() {
+        while (recordReader.available() >= RECORD_FRAME_SAMPLES) {
+            int samplesRead = recordReader.read(recordFrame, 0, RECORD_FRAME_SAMPLES);
+            if (samplesRead <= 0) break;
+            endpointer.accept(recordFrame, 0, samplesRead);
+            if (endpointer.isEndOfSpeech()) {
+                // Bruit bref ou résidu d'écho : on réarme sans interrompre
+                endpointer.start(audioProperties.getConversationSilenceMs());
+            } else if (endpointer.isSpeechDetected()
+                    && endpointer.getSpeechMs() >= audioProperties.getBargeInMinSpeechMs()) {
+                long speechSamples = endpointer.getSpeechMs() * PORCUPINE_SAMPLE_RATE / 1000;
+                return Math.max(0, recordReader.getPosition() - speechSamples - PRE_ROLL_SAMPLES);
+            }
+        }
+        return -1;
+    }
+
+    private void emitBargeIn() {
+        assistantSpeaking = false;
+        eventQueue.offer(new Event<Void>(EventType.BARGE_IN, EventPriority.HIGH, null, "WakeWordProducer"));
+    }
+
     private void emitListeningWindowTimeout() {
         Event<Void> timeout = new Event<>(
                 EventType.LISTENING_WINDOW_TIMEOUT,
@@ -547,120 +680,4 @@ public class WakeWordProducer implements Runnable {
         );
         eventQueue.offer(timeout);
     }
-
-    private String recordAndTranscribeForConversation(int maxDurationMs) {
-        log.info("[CONVERSATION] Écoute pendant {}ms max...", maxDurationMs);
-
-        sttGate.reset();
-
-        final int micSampleRate = micSource.getSampleRate();
-        final boolean needsResample = micSampleRate != PORCUPINE_SAMPLE_RATE;
-        final int whisperFrameSize = PORCUPINE_SAMPLE_RATE * BYTES_PER_SAMPLE / 20;
-        final int micFrameSize = needsResample
-                ? (int) Math.ceil(whisperFrameSize * micSampleRate / (double) PORCUPINE_SAMPLE_RATE)
-                : whisperFrameSize;
-
-        byte[] micBuffer = new byte[micFrameSize];
-        byte[] whisperBuffer = new byte[whisperFrameSize];
-
-        // Pre-buffer: ring buffer of recent frames to preserve speech onset
-        final int PRE_BUFFER_FRAMES = 4; // ~200ms at 50ms/frame
-        byte[][] preBuffer = new byte[PRE_BUFFER_FRAMES][];
-        int preBufferIndex = 0;
-
-        long lastSoundTime = System.currentTimeMillis();
-        long recordingStartTime = System.currentTimeMillis();
-        boolean hasDetectedSpeech = false;
-
-        try {
-            while (true) {
-                int bytesRead = micSource.read(micBuffer, 0, micFrameSize);
-
-                if (bytesRead > 0) {
-                    if (needsResample) {
-                        int samplesRead = bytesRead / BYTES_PER_SAMPLE;
-                        short[] micSamples = new short[samplesRead];
-                        ByteBuffer.wrap(micBuffer, 0, bytesRead)
-                                .order(ByteOrder.LITTLE_ENDIAN)
-                                .asShortBuffer()
-                                .get(micSamples);
-
-                        int whisperSamples = whisperFrameSize / BYTES_PER_SAMPLE;
-                        short[] downsampled = new short[whisperSamples];
-                        downsample(micSamples, samplesRead, downsampled, whisperSamples);
-
-                        ByteBuffer bb = ByteBuffer.wrap(whisperBuffer).order(ByteOrder.LITTLE_ENDIAN);
-                        for (short s : downsampled) {
-                            bb.putShort(s);
-                        }
-                    } else {
-                        System.arraycopy(micBuffer, 0, whisperBuffer, 0, Math.min(bytesRead, whisperFrameSize));
-                    }
-
-                    // Store frame in ring buffer before silence check (only while waiting for speech)
-                    if (!hasDetectedSpeech) {
-                        preBuffer[preBufferIndex % PRE_BUFFER_FRAMES] = whisperBuffer.clone();
-                        preBufferIndex++;
-                    }
-
-                    boolean isSilent = isSilence(whisperBuffer);
-
-                    if (!isSilent) {
-                        lastSoundTime = System.currentTimeMillis();
-                        if (!hasDetectedSpeech) {
-                            hasDetectedSpeech = true;
-                            log.info("[CONVERSATION] Parole détectée, enregistrement...");
-                            // Flush pre-buffer: send prior frames that contain the speech onset
-                            int oldest = Math.max(0, preBufferIndex - PRE_BUFFER_FRAMES);
-                            for (int j = oldest; j < preBufferIndex - 1; j++) {
-                                byte[] frame = preBuffer[j % PRE_BUFFER_FRAMES];
-                                if (frame != null) {
-                                    sttGate.processAudio(frame);
-                                }
-                            }
-                        }
-                    }
-
-                    // Only buffer audio once speech has been detected
-                    if (hasDetectedSpeech) {
-                        sttGate.processAudio(whisperBuffer);
-                    }
-
-                    if (hasDetectedSpeech && isSilent) {
-                        long silenceDuration = System.currentTimeMillis() - lastSoundTime;
-                        if (silenceDuration >= audioProperties.getConversationSilenceMs()) {
-                            log.info("[CONVERSATION] Silence de {}ms, traitement...", audioProperties.getConversationSilenceMs());
-                            break;
-                        }
-                    }
-
-                    long elapsed = System.currentTimeMillis() - recordingStartTime;
-                    // Window timeout only applies while waiting for speech to start.
-                    // Once speech is detected, let silence detection handle the end,
-                    // with maxRecordingSeconds as a safety backstop.
-                    long timeout = hasDetectedSpeech
-                            ? (long) audioProperties.getMaxRecordingSeconds() * 1000
-                            : maxDurationMs;
-                    if (elapsed >= timeout) {
-                        log.info("[CONVERSATION] {} après {}ms",
-                                hasDetectedSpeech ? "Durée max d'enregistrement atteinte" : "Fenêtre expirée sans parole",
-                                elapsed);
-                        break;
-                    }
-                }
-            }
-
-            if (hasDetectedSpeech && sttGate.hasMinimumAudio()) {
-                log.info("[CONVERSATION] Traitement de {}ms d'audio...", sttGate.getBufferedAudioDurationMs());
-                return sttGate.getTranscription();
-            } else {
-                log.info(hasDetectedSpeech ? "[CONVERSATION] Pas assez d'audio pour la transcription" : "[CONVERSATION] Aucune parole détectée");
-                return "";
-            }
-
-        } catch (Exception e) {
-            log.error("[CONVERSATION] Erreur lors de l'enregistrement", e);
-            return "";
-        }
-    }
 }
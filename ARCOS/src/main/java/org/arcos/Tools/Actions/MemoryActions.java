@@ -4,13 +4,18 @@ import org.arcos.Memory.LongTermMemory.Models.DesireEntry;
 import org.arcos.Memory.LongTermMemory.Models.MemoryEntry;
 import org.arcos.Memory.LongTermMemory.Models.OpinionEntry;
 import org.arcos.Memory.LongTermMemory.service.MemoryService;
+import org.arcos.Memory.LongTermMemory.service.TurnRetrieval;
+import org.arcos.Memory.LongTermMemory.service.TurnRetrievalService;
 import org.arcos.Personality.Desires.DesireService;
 import org.arcos.Personality.Opinions.OpinionService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -20,11 +25,19 @@ public class MemoryActions {
     private final MemoryService memoryService;
     private final OpinionService opinionService;
     private final DesireService desireService;
+    private final TurnRetrievalService turnRetrievalService;
 
     public MemoryActions(MemoryService memoryService, OpinionService opinionService, DesireService desireService) {
+        this(memoryService, opinionService, desireService, null);
+    }
+
+    @Autowired
+    public MemoryActions(MemoryService memoryService, OpinionService opinionService, DesireService desireService,
+                         @Nullable TurnRetrievalService turnRetrievalService) {
         this.memoryService = memoryService;
         this.opinionService = opinionService;
         this.desireService = desireService;
+        this.turnRetrievalService = turnRetrievalService;
     }
 
     @Tool(name = "Chercher_dans_ma_memoire",
@@ -37,10 +50,16 @@ public class MemoryActions {
         log.info("Recherche mémoire interne — type: {}, query: {}", resolvedType, query);
 
         try {
+            // Si le LLM cherche l'énoncé même de l'utilisateur, l'embedding du tour est réutilisé
+            Optional<TurnRetrieval> turn = turnRetrievalService != null ? turnRetrievalService.find(query) : Optional.empty();
             List<String> results = switch (resolvedType) {
-                case "OPINION" -> formatOpinions(opinionService.searchOpinions(query));
+                case "OPINION" -> formatOpinions(turn.isPresent()
+                        ? opinionService.searchOpinions(turn.get())
+                        : opinionService.searchOpinions(query));
                 case "DESIR" -> formatDesires(desireService.getPendingDesires());
-                default -> formatMemories(memoryService.searchMemories(query, 5));
+                default -> formatMemories(turn.isPresent()
+                        ? memoryService.searchMemories(turn.get(), 5)
+                        : memoryService.searchMemories(query, 5));
             };
 
             if (results.isEmpty()) {
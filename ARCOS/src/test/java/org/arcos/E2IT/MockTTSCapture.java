@@ -35,11 +35,35 @@ public class MockTTSCapture extends PiperEmbeddedTTSModule {
         if (onDone != null) onDone.run();
     }
 
+    @Override
+    public void speakAsync(String text, float lengthScale, float noiseScale, float noiseW, Runnable onDone, Runnable onCancel) {
+        speakAsync(text, lengthScale, noiseScale, noiseW, onDone);
+    }
+
     @Override
     public void afterPlayback(Runnable onDone) {
         if (onDone != null) onDone.run();
     }
 
+    @Override
+    public void afterPlayback(Runnable onDone, Runnable onCancel) {
+        afterPlayback(onDone);
+    }
+
+    @Override
+    public void cancelAll() { /* nothing is actually playing */ }
+
+    @Override
+    public void preempt(String text) {
+        if (text != null && !text.isBlank()) spokenTexts.add(text);
+    }
+
+    @Override
+    public void preempt(String text, Runnable onDone) {
+        preempt(text);
+        if (onDone != null) onDone.run();
+    }
+
     @Override
     public void shutdown() { /* no-op in tests */ }
 
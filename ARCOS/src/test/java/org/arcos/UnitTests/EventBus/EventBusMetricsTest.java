@@ -0,0 +1,93 @@
+package org.arcos.UnitTests.EventBus;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.arcos.EventBus.EventBusMetrics;
+import org.arcos.EventBus.EventQueue;
+import org.arcos.EventBus.Events.Event;
+import org.arcos.EventBus.Events.EventPriority;
+import org.arcos.EventBus.Events.EventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventBusMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private EventQueue queue;
+    private EventBusMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        queue = new EventQueue(2);
+        metrics = new EventBusMetrics(queue);
+        metrics.bindTo(registry);
+    }
+
+    @Test
+    void queueDepth_shouldBeReportedPerPriority() {
+        // given
+        queue.offer(new Event<>(EventType.WAKEWORD, EventPriority.HIGH, "bonjour", "test"));
+        queue.offer(new Event<>(EventType.NOTIFICATION, EventPriority.LOW, "n", "test"));
+
+        // when
+        double high = registry.get("arcos.eventbus.queue.depth").tag("priority", "HIGH").gauge().value();
+        double medium = registry.get("arcos.eventbus.queue.depth").tag("priority", "MEDIUM").gauge().value();
+        double low = registry.get("arcos.eventbus.queue.depth").tag("priority", "LOW").gauge().value();
+
+        // then
+        assertEquals(1.0, high);
+        assertEquals(0.0, medium);
+        assertEquals(1.0, low);
+    }
+
+    @Test
+    void rejected_shouldCountPerEventTypeWhenQueueIsFull() {
+        // given — capacity of 2
+        queue.offer(new Event<>(EventType.NOTIFICATION, "e1", "test"));
+        queue.offer(new Event<>(EventType.NOTIFICATION, "e2", "test"));
+
+        // when
+        queue.offer(new Event<>(EventType.PLANNED_ACTION, "action", "test"));
+
+        // then
+        assertEquals(1.0, registry.get("arcos.eventbus.rejected").tag("type", "PLANNED_ACTION").functionCounter().count());
+        assertEquals(0.0, registry.get("arcos.eventbus.rejected").tag("type", "NOTIFICATION").functionCounter().count());
+    }
+
+    @Test
+    void superseded_shouldCountCoalescedEvents() {
+        // given
+        queue.offer(new Event<>(EventType.SESSION_END, EventPriority.LOW, null, "test"));
+
+        // when
+        queue.offer(new Event<>(EventType.SESSION_END, EventPriority.LOW, null, "test"));
+
+        // then
+        assertEquals(1.0, registry.get("arcos.eventbus.superseded").functionCounter().count());
+    }
+
+    @Test
+    void recordDispatch_shouldTimeWaitAndHandlerSeparately() {
+        // given
+        Event<String> event = new Event<>(EventType.WAKEWORD, EventPriority.HIGH, "bonjour", "test");
+        long dispatchStart = event.getCreatedNanos() + TimeUnit.MILLISECONDS.toNanos(30);
+        long dispatchEnd = dispatchStart + TimeUnit.MILLISECONDS.toNanos(200);
+
+        // when
+        metrics.recordDispatch(event, dispatchStart, dispatchEnd);
+
+        // then
+        Timer wait = registry.get("arcos.eventbus.wait").tag("type", "WAKEWORD").timer();
+        Timer dispatch = registry.get("arcos.eventbus.dispatch").tag("type", "WAKEWORD").timer();
+        assertEquals(1, wait.count());
+        assertEquals(30.0, wait.totalTime(TimeUnit.MILLISECONDS), 0.01);
+        assertEquals(1, dispatch.count());
+        assertEquals(200.0, dispatch.totalTime(TimeUnit.MILLISECONDS), 0.01);
+        assertEquals(0, registry.get("arcos.eventbus.dispatch").tag("type", "INITIATIVE").timer().count());
+    }
+}
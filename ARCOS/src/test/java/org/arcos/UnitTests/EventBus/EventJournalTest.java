@@ -0,0 +1,235 @@
+package org.arcos.UnitTests.EventBus;
+
+import org.arcos.EventBus.EventJournal;
+import org.arcos.EventBus.Events.Event;
+import org.arcos.EventBus.Events.EventPriority;
+import org.arcos.EventBus.Events.EventType;
+import org.arcos.Memory.LongTermMemory.Models.DesireEntry;
+import org.arcos.PlannedAction.Models.ActionType;
+import org.arcos.PlannedAction.Models.PlannedActionEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private EventJournal journal;
+
+    @AfterEach
+    void tearDown() {
+        if (journal != null) journal.close();
+    }
+
+    private EventJournal open(long segmentMaxBytes, int compactAfterSegments) throws IOException {
+        if (journal != null) journal.close();
+        journal = EventJournal.open(dir, segmentMaxBytes, 0, compactAfterSegments);
+        return journal;
+    }
+
+    private static Event<DesireEntry> initiative(String label) {
+        DesireEntry desire = new DesireEntry();
+        desire.setLabel(label);
+        return new Event<>(EventType.INITIATIVE, EventPriority.LOW, desire, "test");
+    }
+
+    private static String label(Event<?> event) {
+        return ((DesireEntry) event.getPayload()).getLabel();
+    }
+
+    @Test
+    void reopen_ShouldReplayUnacknowledgedEventsInOrder() throws IOException {
+        // given
+        open(1024 * 1024, 4);
+        Event<DesireEntry> first = initiative("first");
+        Event<DesireEntry> second = initiative("second");
+        Event<DesireEntry> third = initiative("third");
+        assertTrue(journal.append(first));
+        assertTrue(journal.append(second));
+        assertTrue(journal.append(third));
+        journal.acknowledge(second.getId());
+
+        // when
+        open(1024 * 1024, 4);
+
+        // then
+        assertEquals(List.of(first.getId(), third.getId()), journal.pendingIds());
+        Event<?> restored = journal.read(first.getId());
+        assertEquals(EventType.INITIATIVE, restored.getType());
+        assertEquals(EventPriority.LOW, restored.getPriority());
+        assertEquals("first", label(restored));
+        assertEquals("test", restored.getSource());
+        assertEquals(first.getTimestamp(), restored.getTimestamp());
+    }
+
+    @Test
+    void reopen_WithTornTail_ShouldKeepCompleteRecords() throws IOException {
+        // given : arrêt brutal au milieu de l'écriture du dernier enregistrement
+        open(1024 * 1024, 4);
+        Event<DesireEntry> complete = initiative("complete");
+        Event<DesireEntry> torn = initiative("torn");
+        journal.append(complete);
+        journal.append(torn);
+        journal.close();
+        journal = null;
+        Path segment = segments().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.setLength(file.length() - 5);
+        }
+
+        // when
+        open(1024 * 1024, 4);
+
+        // then
+        assertEquals(List.of(complete.getId()), journal.pendingIds());
+        Event<DesireEntry> next = initiative("next");
+        assertTrue(journal.append(next));
+        assertEquals("next", label(journal.read(next.getId())));
+    }
+
+    @Test
+    void append_PlannedAction_ShouldKeepTransientReminderFlag() throws IOException {
+        // given : le rappel n'est pas persisté par le dépôt des actions, mais doit survivre au rejeu
+        open(1024 * 1024, 4);
+        PlannedActionEntry action = new PlannedActionEntry();
+        action.setLabel("Rendre le rapport");
+        action.setActionType(ActionType.DEADLINE);
+        action.setDeadlineDatetime(LocalDateTime.of(2026, 3, 2, 18, 0));
+        action.setReminderTrigger(true);
+        Event<PlannedActionEntry> event = new Event<>(EventType.PLANNED_ACTION, EventPriority.MEDIUM, action, "PlannedActionProducer");
+        journal.append(event);
+
+        // when
+        open(1024 * 1024, 4);
+
+        // then
+        PlannedActionEntry restored = (PlannedActionEntry) journal.read(event.getId()).getPayload();
+        assertEquals(action.getId(), restored.getId());
+        assertEquals("Rendre le rapport", restored.getLabel());
+        assertEquals(ActionType.DEADLINE, restored.getActionType());
+        assertEquals(action.getDeadlineDatetime(), restored.getDeadlineDatetime());
+        assertTrue(restored.isReminderTrigger());
+    }
+
+    @Test
+    void append_UnexpectedPayloadType_ShouldBeRefused() throws IOException {
+        // given : seul le contenu attendu pour le type est journalisé, et donc relu
+        open(1024 * 1024, 4);
+
+        // when
+        boolean appended = journal.append(new Event<>(EventType.INITIATIVE, EventPriority.LOW, "texte libre", "test"));
+
+        // then
+        assertFalse(appended);
+        assertTrue(journal.pendingIds().isEmpty());
+    }
+
+    @Test
+    void acknowledge_AllEventsOfSealedSegment_ShouldDeleteIt() throws IOException {
+        // given : un enregistrement par segment
+        open(64, 100);
+        List<Event<DesireEntry>> events = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Event<DesireEntry> event = initiative("event-" + i);
+            journal.append(event);
+            events.add(event);
+        }
+        int before = segments().size();
+
+        // when
+        journal.acknowledge(events.get(0).getId());
+        journal.acknowledge(events.get(1).getId());
+
+        // then
+        assertTrue(segments().size() < before, "sealed segments without pending events should be deleted");
+        open(64, 100);
+        assertEquals(List.of(events.get(2).getId()), journal.pendingIds());
+    }
+
+    @Test
+    void compact_ShouldCopyPendingEventsAndDropSealedSegments() throws IOException {
+        // given : un événement en attente tous les dix, les autres acquittés
+        open(256, 3);
+        List<String> pending = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Event<DesireEntry> event = initiative("event-" + i);
+            journal.append(event);
+            if (i % 10 == 0) {
+                pending.add(event.getId());
+            } else {
+                journal.acknowledge(event.getId());
+            }
+        }
+
+        // then
+        assertTrue(segments().size() <= 5, "segments: " + segments().size());
+        assertEquals(pending, journal.pendingIds());
+
+        // when
+        open(256, 3);
+
+        // then
+        assertEquals(pending, journal.pendingIds());
+        for (String eventId : pending) {
+            assertNotNull(journal.read(eventId));
+        }
+    }
+
+    @Test
+    void unspill_ShouldReturnSpilledEventsInOrderAndSkipAcknowledged() throws IOException {
+        // given
+        open(1024 * 1024, 4);
+        Event<DesireEntry> first = initiative("first");
+        Event<DesireEntry> second = initiative("second");
+        Event<DesireEntry> third = initiative("third");
+        for (Event<DesireEntry> event : List.of(first, second, third)) {
+            journal.append(event);
+            journal.spill(event.getId());
+        }
+        journal.acknowledge(second.getId());
+
+        // when / then
+        assertEquals(2, journal.getSpilledCount());
+        assertEquals(first.getId(), journal.unspill().getId());
+        assertEquals(third.getId(), journal.unspill().getId());
+        assertNull(journal.unspill());
+        assertFalse(journal.hasSpilled());
+    }
+
+    @Test
+    void acknowledge_AfterClose_ShouldBeIgnored() throws IOException {
+        // given
+        open(1024 * 1024, 4);
+        Event<DesireEntry> event = initiative("late");
+        journal.append(event);
+        journal.close();
+
+        // when
+        journal.acknowledge(event.getId());
+        boolean appended = journal.append(initiative("after close"));
+
+        // then : l'acquittement n'a pas pu être écrit, l'événement sera rejoué
+        assertFalse(appended);
+        open(1024 * 1024, 4);
+        assertEquals(List.of(event.getId()), journal.pendingIds());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+}
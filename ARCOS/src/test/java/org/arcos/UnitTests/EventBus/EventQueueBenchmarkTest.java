@@ -0,0 +1,155 @@
+package org.arcos.UnitTests.EventBus;
+
+import org.arcos.EventBus.EventQueue;
+import org.arcos.EventBus.Events.Event;
+import org.arcos.EventBus.Events.EventPriority;
+import org.arcos.EventBus.Events.EventType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Micro-benchmark du bus à files sans verrou face à l'ancienne PriorityBlockingQueue, avec plusieurs
+ * producteurs et un consommateur comme l'orchestrateur. Exclu du build par défaut :
+ * {@code mvn test -Dgroups=benchmark -DexcludedGroups=}
+ */
+@Tag("benchmark")
+class EventQueueBenchmarkTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 250_000;
+    private static final int ROUNDS = 5;
+    private static final EventPriority[] PRIORITIES = EventPriority.values();
+
+    @Test
+    void laneQueue_shouldOutperformPriorityBlockingQueueUnderMultiProducerLoad() throws Exception {
+        // Given
+        List<Event<?>> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+            events.add(new Event<>(EventType.NOTIFICATION, PRIORITIES[i % PRIORITIES.length], i, "bench"));
+        }
+
+        // When : premier tour en chauffe, puis meilleur temps des suivants
+        long legacyNanos = Long.MAX_VALUE;
+        long laneNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            legacyNanos = Math.min(legacyNanos, run(new LegacyEventQueue(), events));
+            laneNanos = Math.min(laneNanos, run(new LaneEventQueue(new EventQueue(PRODUCERS * EVENTS_PER_PRODUCER)), events));
+        }
+
+        // Then
+        int total = PRODUCERS * EVENTS_PER_PRODUCER;
+        System.out.printf("PriorityBlockingQueue : %d ns/événement, files sans verrou : %d ns/événement%n",
+                legacyNanos / total, laneNanos / total);
+        assertTrue(laneNanos < legacyNanos, "Les files sans verrou devraient tenir un débit supérieur");
+    }
+
+    @Test
+    void laneQueue_shouldWakeIdleConsumerQuickly() throws Exception {
+        // Given : consommateur à vide, comme l'orchestrateur entre deux tours
+        EventQueue queue = new EventQueue();
+        Event<String> wake = new Event<>(EventType.WAKEWORD, EventPriority.HIGH, "wake", "bench");
+        long[] latencies = new long[200];
+
+        // When
+        for (int i = 0; i < latencies.length; i++) {
+            CountDownLatch received = new CountDownLatch(1);
+            long[] receivedAt = new long[1];
+            Thread consumer = new Thread(() -> {
+                try {
+                    queue.take();
+                    receivedAt[0] = System.nanoTime();
+                } catch (InterruptedException ignored) {
+                }
+                received.countDown();
+            });
+            consumer.start();
+            Thread.sleep(2);
+            long offeredAt = System.nanoTime();
+            queue.offer(wake);
+            received.await();
+            latencies[i] = receivedAt[0] - offeredAt;
+        }
+
+        // Then
+        Arrays.sort(latencies);
+        long p50 = latencies[latencies.length / 2] / 1000;
+        long p99 = latencies[latencies.length * 99 / 100] / 1000;
+        System.out.printf("Réveil du consommateur : médiane %d µs, p99 %d µs%n", p50, p99);
+        assertTrue(p50 < 1000, "Le consommateur devrait se réveiller en moins d'une milliseconde");
+    }
+
+    // ── Harnais ──────────────────────────────────────────────────────────────
+
+    private interface Bus {
+        boolean offer(Event<?> event);
+
+        Event<?> poll(long timeoutMs) throws InterruptedException;
+    }
+
+    private record LaneEventQueue(EventQueue queue) implements Bus {
+        public boolean offer(Event<?> event) {
+            return queue.offer(event);
+        }
+
+        public Event<?> poll(long timeoutMs) throws InterruptedException {
+            return queue.poll(timeoutMs);
+        }
+    }
+
+    /** Implémentation précédente d'EventQueue : une PriorityBlockingQueue sous un seul verrou. */
+    private static final class LegacyEventQueue implements Bus {
+        private final PriorityBlockingQueue<Event<?>> queue = new PriorityBlockingQueue<>(100);
+        private final AtomicInteger eventCount = new AtomicInteger();
+
+        public boolean offer(Event<?> event) {
+            boolean added = queue.offer(event);
+            if (added) eventCount.incrementAndGet();
+            return added;
+        }
+
+        public Event<?> poll(long timeoutMs) throws InterruptedException {
+            Event<?> event = queue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+            if (event != null) eventCount.decrementAndGet();
+            return event;
+        }
+    }
+
+    private static long run(Bus bus, List<Event<?>> events) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            Thread producer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (Event<?> event : events) {
+                    while (!bus.offer(event)) Thread.onSpinWait();
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        int total = PRODUCERS * events.size();
+        for (int received = 0; received < total; received++) {
+            assertNotNull(bus.poll(1000), "Événement perdu");
+        }
+        long elapsed = System.nanoTime() - begin;
+        for (Thread producer : producers) producer.join();
+        return elapsed;
+    }
+}
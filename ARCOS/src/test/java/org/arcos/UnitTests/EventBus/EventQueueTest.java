@@ -1,11 +1,25 @@
 package org.arcos.UnitTests.EventBus;
 
+import org.arcos.EventBus.EventJournal;
 import org.arcos.EventBus.EventQueue;
 import org.arcos.EventBus.Events.Event;
 import org.arcos.EventBus.Events.EventPriority;
 import org.arcos.EventBus.Events.EventType;
+import org.arcos.Memory.LongTermMemory.Models.DesireEntry;
+import org.arcos.PlannedAction.Models.PlannedActionEntry;
+import org.arcos.Tools.CalendarTool.model.CalendarEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -13,6 +27,9 @@ class EventQueueTest {
 
     private EventQueue queue;
 
+    @TempDir
+    Path journalDir;
+
     @BeforeEach
     void setUp() {
         queue = new EventQueue();
@@ -155,4 +172,293 @@ class EventQueueTest {
         // then
         assertEquals(10000, defaultQueue.getMaxCapacity());
     }
+
+    @Test
+    void take_samePriority_shouldKeepInsertionOrder() throws InterruptedException {
+        // given
+        for (int i = 0; i < 50; i++) {
+            queue.offer(new Event<>(EventType.NOTIFICATION, "e" + i, "test"));
+        }
+
+        // when/then
+        for (int i = 0; i < 50; i++) {
+            assertEquals("e" + i, queue.take().getPayload());
+        }
+    }
+
+    @Test
+    void offer_fromSeveralProducers_shouldDeliverEachProducerInOrder() throws InterruptedException {
+        // given
+        int producers = 4;
+        int perProducer = 5_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String source = "p" + p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!queue.offer(new Event<>(EventType.NOTIFICATION, i, source))) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        // when
+        start.countDown();
+        int[] next = new int[producers];
+        for (int n = 0; n < producers * perProducer; n++) {
+            Event<?> event = queue.poll(1000);
+            assertNotNull(event, "event lost after " + n + " deliveries");
+            int producer = Integer.parseInt(event.getSource().substring(1));
+            // then — FIFO per producer within one priority
+            assertEquals(next[producer]++, event.getPayload());
+        }
+        for (Thread thread : threads) thread.join();
+
+        // then
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+        assertEquals(producers * perProducer, queue.getPublishedCount(EventPriority.MEDIUM));
+    }
+
+    @Test
+    void take_shouldWakeUpAsSoonAsAnEventIsOffered() throws InterruptedException {
+        // given
+        AtomicReference<Event<?>> received = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread consumer = new Thread(() -> {
+            try {
+                received.set(queue.take());
+            } catch (InterruptedException ignored) {
+            }
+            done.countDown();
+        });
+        consumer.start();
+        Thread.sleep(100);
+
+        // when
+        long offeredAt = System.nanoTime();
+        queue.offer(new Event<>(EventType.WAKEWORD, EventPriority.HIGH, "wake", "test"));
+        done.await();
+        long latencyMs = (System.nanoTime() - offeredAt) / 1_000_000;
+
+        // then — well under the parking bound
+        assertEquals("wake", received.get().getPayload());
+        assertTrue(latencyMs < 40, "consumer woke up after " + latencyMs + " ms");
+    }
+
+    @Test
+    void take_whenInterrupted_shouldThrow() throws InterruptedException {
+        // given
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread consumer = new Thread(() -> {
+            try {
+                queue.take();
+            } catch (Throwable t) {
+                thrown.set(t);
+            }
+        });
+        consumer.start();
+        Thread.sleep(50);
+
+        // when
+        consumer.interrupt();
+        consumer.join(1000);
+
+        // then
+        assertInstanceOf(InterruptedException.class, thrown.get());
+    }
+
+    @Test
+    void offer_coalescingType_shouldDeliverOnlyNewestPendingEvent() throws InterruptedException {
+        // given — two inactivity checks emit SESSION_END before the orchestrator gets to them
+        Event<Void> first = new Event<>(EventType.SESSION_END, EventPriority.LOW, null, "test");
+        Event<Void> second = new Event<>(EventType.SESSION_END, EventPriority.LOW, null, "test");
+
+        // when
+        queue.offer(first);
+        queue.offer(new Event<>(EventType.NOTIFICATION, EventPriority.LOW, "n", "test"));
+        queue.offer(second);
+
+        // then
+        assertEquals(2, queue.size());
+        assertEquals(EventType.NOTIFICATION, queue.take().getType());
+        assertSame(second, queue.take());
+        assertNull(queue.poll(20));
+        assertEquals(1, queue.getSupersededCount());
+    }
+
+    @Test
+    void offer_coalescingTypeAfterDelivery_shouldBeDeliveredAgain() throws InterruptedException {
+        // given
+        queue.offer(new Event<>(EventType.IDLE_WINDOW_OPEN, EventPriority.LOW, null, "test"));
+        assertEquals(EventType.IDLE_WINDOW_OPEN, queue.take().getType());
+
+        // when
+        queue.offer(new Event<>(EventType.IDLE_WINDOW_OPEN, EventPriority.LOW, null, "test"));
+
+        // then
+        assertEquals(EventType.IDLE_WINDOW_OPEN, queue.take().getType());
+        assertEquals(0, queue.getSupersededCount());
+    }
+
+    @Test
+    void offer_wakeWord_shouldSupersedePendingTimeoutAndSessionEnd() throws InterruptedException {
+        // given
+        queue.offer(new Event<>(EventType.LISTENING_WINDOW_TIMEOUT, EventPriority.LOW, null, "test"));
+        queue.offer(new Event<>(EventType.SESSION_END, EventPriority.LOW, null, "test"));
+        queue.offer(new Event<>(EventType.PLANNED_ACTION, EventPriority.LOW, "action", "test"));
+
+        // when
+        queue.offer(new Event<>(EventType.WAKEWORD, EventPriority.HIGH, "bonjour", "test"));
+
+        // then — only the wake word and the unrelated event remain
+        assertEquals(2, queue.size());
+        assertEquals(EventType.WAKEWORD, queue.take().getType());
+        assertEquals(EventType.PLANNED_ACTION, queue.take().getType());
+        assertNull(queue.poll(20));
+        assertEquals(2, queue.getSupersededCount());
+    }
+
+    @Test
+    void peek_shouldSkipSupersededEvents() {
+        // given — the first timeout, still at the head of its lane, is stale
+        queue.offer(new Event<>(EventType.LISTENING_WINDOW_TIMEOUT, EventPriority.LOW, null, "test"));
+        Event<?> newest = new Event<>(EventType.LISTENING_WINDOW_TIMEOUT, EventPriority.LOW, null, "test");
+        queue.offer(newest);
+
+        // when
+        Event<?> peeked = queue.peek();
+
+        // then
+        assertSame(newest, peeked);
+        assertFalse(queue.isEmpty());
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void offer_coalescingEventRejectedByFullLane_shouldKeepPendingEvent() throws InterruptedException {
+        // given — the stale timeout still occupies its slot: the lane is full though only one event is counted
+        EventQueue smallQueue = new EventQueue(2);
+        smallQueue.offer(new Event<>(EventType.LISTENING_WINDOW_TIMEOUT, EventPriority.LOW, null, "test"));
+        Event<?> pending = new Event<>(EventType.LISTENING_WINDOW_TIMEOUT, EventPriority.LOW, null, "test");
+        smallQueue.offer(pending);
+
+        // when
+        boolean added = smallQueue.offer(new Event<>(EventType.LISTENING_WINDOW_TIMEOUT, EventPriority.LOW, null, "test"));
+
+        // then — the rejected event does not replace the pending one
+        assertFalse(added);
+        assertEquals(1, smallQueue.getRejectedCount(EventType.LISTENING_WINDOW_TIMEOUT));
+        assertEquals(1, smallQueue.getSupersededCount());
+        assertEquals(1, smallQueue.size());
+        assertSame(pending, smallQueue.poll(100));
+        assertNull(smallQueue.poll(20));
+    }
+
+    @Test
+    void offer_durableEventWhenFull_shouldSpillToJournalAndRefillInOrder() throws Exception {
+        // given
+        EventQueue journaled = new EventQueue(2, EventJournal.open(journalDir, 1024 * 1024, 0, 4));
+        List<Event<?>> actions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            actions.add(new Event<>(EventType.PLANNED_ACTION, EventPriority.MEDIUM, plannedAction("action-" + i), "test"));
+        }
+
+        // when
+        for (Event<?> action : actions) {
+            assertTrue(journaled.offer(action), "durable events should spill instead of being rejected");
+        }
+
+        // then — non-durable events are still rejected, durable ones come out in publication order
+        assertFalse(journaled.offer(new Event<>(EventType.NOTIFICATION, "n", "test")));
+        assertEquals(3, journaled.getSpilledCount());
+        assertEquals(0, journaled.getRejectedCount(EventType.PLANNED_ACTION));
+        for (Event<?> action : actions) {
+            Event<?> taken = journaled.poll(100);
+            assertEquals(action.getId(), taken.getId());
+            assertEquals(((PlannedActionEntry) action.getPayload()).getLabel(), ((PlannedActionEntry) taken.getPayload()).getLabel());
+            journaled.acknowledge(taken);
+        }
+        assertNull(journaled.poll(20));
+        journaled.close();
+    }
+
+    @Test
+    void constructor_withJournal_shouldRestoreUnacknowledgedDurableEvents() throws Exception {
+        // given — one action handled, one still pending when the process stops
+        EventQueue beforeRestart = new EventQueue(10, EventJournal.open(journalDir, 1024 * 1024, 0, 4));
+        Event<PlannedActionEntry> handled = new Event<>(EventType.PLANNED_ACTION, EventPriority.MEDIUM, plannedAction("handled"), "test");
+        Event<PlannedActionEntry> pending = new Event<>(EventType.PLANNED_ACTION, EventPriority.MEDIUM, plannedAction("pending"), "test");
+        beforeRestart.offer(handled);
+        beforeRestart.offer(pending);
+        beforeRestart.offer(new Event<>(EventType.NOTIFICATION, "volatile", "test"));
+        beforeRestart.acknowledge(beforeRestart.take());
+        beforeRestart.close();
+
+        // when
+        EventQueue afterRestart = new EventQueue(10, EventJournal.open(journalDir, 1024 * 1024, 0, 4));
+
+        // then — only the unacknowledged durable event is replayed
+        assertEquals(1, afterRestart.size());
+        Event<?> restored = afterRestart.take();
+        assertEquals(pending.getId(), restored.getId());
+        assertEquals("pending", ((PlannedActionEntry) restored.getPayload()).getLabel());
+        afterRestart.close();
+    }
+
+    @Test
+    void offer_sessionEnd_shouldNotBeJournaled() throws Exception {
+        // given — the conversation context is not persisted: a replayed session end would have nothing to close
+        EventQueue beforeRestart = new EventQueue(10, EventJournal.open(journalDir, 1024 * 1024, 0, 4));
+        beforeRestart.offer(new Event<>(EventType.SESSION_END, EventPriority.LOW, null, "test"));
+        beforeRestart.close();
+
+        // when
+        EventQueue afterRestart = new EventQueue(10, EventJournal.open(journalDir, 1024 * 1024, 0, 4));
+
+        // then
+        assertEquals(0, afterRestart.size());
+        afterRestart.close();
+    }
+
+    @Test
+    void constructor_withJournal_shouldDropTimeBoundEventsOlderThanReplayMaxAge() throws Exception {
+        // given — published two hours before the restart
+        LocalDateTime twoHoursAgo = LocalDateTime.now().minusHours(2);
+        EventQueue beforeRestart = new EventQueue(10, EventJournal.open(journalDir, 1024 * 1024, 0, 4));
+        CalendarEvent meeting = CalendarEvent.builder().title("Réunion").startDateTime(twoHoursAgo.plusMinutes(30)).build();
+        beforeRestart.offer(new Event<>(UUID.randomUUID().toString(), EventType.CALENDAR_EVENT_SCHEDULER, EventPriority.MEDIUM, meeting, "test", twoHoursAgo));
+        Event<PlannedActionEntry> action = new Event<>(UUID.randomUUID().toString(), EventType.PLANNED_ACTION, EventPriority.MEDIUM, plannedAction("action"), "test", twoHoursAgo);
+        beforeRestart.offer(action);
+        Event<DesireEntry> initiative = new Event<>(EventType.INITIATIVE, EventPriority.LOW, new DesireEntry(), "test");
+        beforeRestart.offer(initiative);
+        beforeRestart.close();
+
+        // when
+        EventQueue afterRestart = new EventQueue(10, EventJournal.open(journalDir, 1024 * 1024, 0, 4), Duration.ofMinutes(30));
+
+        // then — the stale calendar alert is dropped for good, the planned action keeps its own deadline
+        assertEquals(2, afterRestart.size());
+        assertEquals(action.getId(), afterRestart.take().getId());
+        assertEquals(initiative.getId(), afterRestart.take().getId());
+        afterRestart.close();
+        EventQueue secondRestart = new EventQueue(10, EventJournal.open(journalDir, 1024 * 1024, 0, 4), Duration.ofMinutes(30));
+        assertEquals(2, secondRestart.size());
+        secondRestart.close();
+    }
+
+    private static PlannedActionEntry plannedAction(String label) {
+        PlannedActionEntry action = new PlannedActionEntry();
+        action.setLabel(label);
+        return action;
+    }
 }
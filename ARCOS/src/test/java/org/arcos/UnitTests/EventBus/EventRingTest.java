@@ -0,0 +1,76 @@
+package org.arcos.UnitTests.EventBus;
+
+import org.arcos.EventBus.EventRing;
+import org.arcos.EventBus.Events.Event;
+import org.arcos.EventBus.Events.EventType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventRingTest {
+
+    @Test
+    void constructor_shouldRoundCapacityUpToPowerOfTwo() {
+        // given/when
+        EventRing ring = new EventRing(10);
+
+        // then
+        assertEquals(16, ring.capacity());
+    }
+
+    @Test
+    void offer_whenFull_shouldRejectWithoutBlocking() {
+        // given
+        EventRing ring = new EventRing(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(event(i)));
+        }
+
+        // when
+        boolean added = ring.offer(event(4));
+
+        // then
+        assertFalse(added);
+        assertEquals(4, ring.size());
+        assertEquals(0, ring.poll().getPayload());
+    }
+
+    @Test
+    void poll_afterManyWrapArounds_shouldStayFifo() {
+        // given
+        EventRing ring = new EventRing(4);
+
+        // when/then — positions run far past the capacity
+        for (int i = 0; i < 1000; i += 3) {
+            ring.offer(event(i));
+            ring.offer(event(i + 1));
+            ring.offer(event(i + 2));
+            assertEquals(i, ring.peek().getPayload());
+            assertEquals(i, ring.poll().getPayload());
+            assertEquals(i + 1, ring.poll().getPayload());
+            assertEquals(i + 2, ring.poll().getPayload());
+        }
+        assertNull(ring.poll());
+        assertTrue(ring.isEmpty());
+        assertEquals(1002, ring.getPublishedCount());
+    }
+
+    @Test
+    void removeHead_shouldOnlyRemoveExpectedEvent() {
+        // given
+        EventRing ring = new EventRing(4);
+        Event<Integer> first = event(1);
+        ring.offer(first);
+        ring.offer(event(2));
+
+        // when/then
+        assertFalse(ring.removeHead(event(1)));
+        assertTrue(ring.removeHead(first));
+        assertEquals(2, ring.peek().getPayload());
+        assertEquals(1, ring.size());
+    }
+
+    private static Event<Integer> event(int value) {
+        return new Event<>(EventType.NOTIFICATION, value, "test");
+    }
+}
@@ -0,0 +1,133 @@
+package org.arcos.UnitTests.IO;
+
+import org.arcos.IO.OuputHandling.Playback.PcmOutput;
+import org.arcos.IO.OuputHandling.StateHandler.AudioCue.AudioCueEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AudioCueEngineTest {
+
+    private static final List<String> CUES = List.of("arcos_startup.wav", "wakeup_soft.wav", "thinking_start.wav",
+            "longtask_start.wav", "longtask_end.wav", "initiative_start.wav", "initiative_end.wav", "failure.wav");
+
+    private TimingOutput output;
+    private AudioCueEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        output = new TimingOutput();
+        engine = new AudioCueEngine(output);
+        engine.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void init_shouldDecodeEveryCueOnce() {
+        for (String cue : CUES) {
+            assertTrue(engine.isLoaded(cue), cue + " doit être préchargé");
+        }
+    }
+
+    @Test
+    void play_shouldReachOutputQuickly_withoutBlockingCaller() throws InterruptedException {
+        // Given : premier passage pour chauffer le thread audio
+        engine.play("thinking_start.wav");
+        assertTrue(output.awaitWrites(1));
+
+        // When
+        long before = System.nanoTime();
+        engine.play("wakeup_soft.wav");
+        long callMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - before);
+        assertTrue(output.awaitWrites(2));
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(output.writeTimes.get(1) - before);
+
+        // Then
+        assertTrue(callMicros < 5_000, "play() ne doit pas bloquer (" + callMicros + " µs)");
+        assertTrue(latencyMicros < 20_000, "latence cue → sortie trop élevée : " + latencyMicros + " µs");
+    }
+
+    @Test
+    void playSync_shouldReturnAfterOutputIsDrained() {
+        // When
+        engine.playSync("wakeup_soft.wav");
+
+        // Then
+        assertEquals(List.of("write", "drain"), output.events);
+    }
+
+    @Test
+    void play_shouldIgnoreUnknownCue() throws InterruptedException {
+        // When
+        engine.play("inexistant.wav");
+
+        // Then
+        assertFalse(output.awaitWrites(1, 200));
+    }
+
+    private static class TimingOutput implements PcmOutput {
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final List<Long> writeTimes = Collections.synchronizedList(new ArrayList<>());
+        private final Object lock = new Object();
+
+        @Override
+        public AudioFormat getFormat() {
+            return new AudioFormat(44100, 16, 2, true, false);
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) {
+            writeTimes.add(System.nanoTime());
+            events.add("write");
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+        }
+
+        @Override
+        public void drain() {
+            events.add("drain");
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public String describe() {
+            return "timing";
+        }
+
+        @Override
+        public void close() {
+        }
+
+        boolean awaitWrites(int count) throws InterruptedException {
+            return awaitWrites(count, 2000);
+        }
+
+        boolean awaitWrites(int count, long timeoutMs) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMs;
+            synchronized (lock) {
+                while (writeTimes.size() < count) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) return false;
+                    lock.wait(remaining);
+                }
+            }
+            return true;
+        }
+    }
+}
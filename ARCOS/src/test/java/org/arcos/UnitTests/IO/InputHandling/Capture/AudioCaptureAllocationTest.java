@@ -0,0 +1,121 @@
+package org.arcos.UnitTests.IO.InputHandling.Capture;
+
+import org.arcos.IO.InputHandling.Capture.AudioCapture;
+import org.arcos.IO.InputHandling.Capture.AudioRingBuffer;
+import org.arcos.IO.InputHandling.MicrophoneSource;
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Vérifie par Java Flight Recorder que la capture et la lecture du tampon n'allouent rien en régime établi :
+ * aucune allocation ne doit forcer un nouveau TLAB (ni sortir du TLAB) sur les threads audio.
+ */
+class AudioCaptureAllocationTest {
+
+    private static final String READER_THREAD = "capture-reader";
+    private static final Set<String> AUDIO_THREADS = Set.of("audio-capture", READER_THREAD);
+
+    @Test
+    void steadyStateCapture_ShouldNotAllocate() throws Exception {
+        assumeTrue(FlightRecorder.isAvailable(), "JFR indisponible sur cette JVM");
+
+        // Given : micro 44,1 kHz (chemin avec sous-échantillonnage) lu à pleine vitesse
+        AudioCapture capture = new AudioCapture(new FakeMicrophone(44100), 8000);
+        AudioRingBuffer.Reader reader = capture.newReader();
+        Thread consumer = new Thread(() -> {
+            short[] frame = new short[512];
+            try {
+                while (reader.read(frame, 0, frame.length, 1000) >= 0) {
+                    // trame consommée comme le ferait Porcupine
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, READER_THREAD);
+        capture.start();
+        consumer.start();
+        Thread.sleep(500); // chauffe : compilation JIT, premier TLAB de chaque thread
+
+        // When
+        List<RecordedEvent> events = new ArrayList<>();
+        long samplesBefore = capture.getRing().getWritePosition();
+        Path dump = Files.createTempFile("audio-capture", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.ObjectAllocationInNewTLAB").withStackTrace();
+            recording.enable("jdk.ObjectAllocationOutsideTLAB").withStackTrace();
+            recording.start();
+            Thread.sleep(1000);
+            recording.stop();
+            recording.dump(dump);
+        } finally {
+            capture.close();
+            consumer.join(2000);
+        }
+        long samplesCaptured = capture.getRing().getWritePosition() - samplesBefore;
+        for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+            RecordedThread thread = event.getThread("eventThread");
+            if (thread != null && AUDIO_THREADS.contains(thread.getJavaName())) {
+                events.add(event);
+            }
+        }
+        Files.deleteIfExists(dump);
+
+        // Then
+        assertTrue(samplesCaptured > 16000 * 10, "capture trop lente pour être significative : " + samplesCaptured);
+        assertTrue(events.isEmpty(), events.size() + " allocations sur les threads audio, dont : "
+                + (events.isEmpty() ? "" : events.get(0)));
+    }
+
+    /** Source 16 bits qui renvoie en boucle un bruit pré-calculé, sans bloquer ni allouer. */
+    private static final class FakeMicrophone implements MicrophoneSource {
+
+        private final int sampleRate;
+        private final byte[] noise = new byte[1 << 16];
+        private int position;
+        private volatile boolean closed;
+
+        FakeMicrophone(int sampleRate) {
+            this.sampleRate = sampleRate;
+            new Random(7).nextBytes(noise);
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (closed) return -1;
+            int count = Math.min(length, noise.length - position);
+            System.arraycopy(noise, position, buffer, offset, count);
+            position = (position + count) % noise.length;
+            return count;
+        }
+
+        @Override
+        public void close() { closed = true; }
+
+        @Override
+        public boolean isAvailable() { return true; }
+
+        @Override
+        public String describe() { return "fake " + sampleRate + " Hz"; }
+
+        @Override
+        public int getSampleRate() { return sampleRate; }
+
+        @Override
+        public int recommendedSilenceThreshold() { return 1000; }
+    }
+}
@@ -0,0 +1,213 @@
+package org.arcos.UnitTests.IO.InputHandling.Capture;
+
+import org.arcos.IO.InputHandling.Capture.AudioRingBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AudioRingBufferTest {
+
+    @Test
+    void capacity_ShouldBeRoundedUpToPowerOfTwo() {
+        assertEquals(1024, new AudioRingBuffer(1000).getCapacity());
+        assertEquals(1024, new AudioRingBuffer(1024).getCapacity());
+    }
+
+    @Test
+    void read_AcrossWrapAround_ShouldReturnSamplesInOrder() {
+        // Given
+        AudioRingBuffer ring = new AudioRingBuffer(16);
+        AudioRingBuffer.Reader reader = ring.newReader();
+        short[] out = new short[10];
+        int next = 0;
+
+        // When : 5 tours de tampon, lus au fil de l'eau
+        for (int round = 0; round < 8; round++) {
+            ring.write(ramp(round * 10, 10), 0, 10);
+            int read = reader.read(out, 0, out.length);
+
+            // Then
+            assertEquals(10, read);
+            for (int i = 0; i < read; i++) assertEquals(next++, out[i]);
+        }
+        assertEquals(0, reader.getLostSamples());
+    }
+
+    @Test
+    void readers_ShouldConsumeIndependently() {
+        // Given
+        AudioRingBuffer ring = new AudioRingBuffer(64);
+        AudioRingBuffer.Reader fast = ring.newReader();
+        AudioRingBuffer.Reader slow = ring.newReader();
+        ring.write(ramp(0, 20), 0, 20);
+
+        // When
+        short[] out = new short[20];
+        int fastRead = fast.read(out, 0, 20);
+        int slowRead = slow.read(out, 0, 5);
+
+        // Then
+        assertEquals(20, fastRead);
+        assertEquals(5, slowRead);
+        assertEquals(0, fast.available());
+        assertEquals(15, slow.available());
+        assertEquals(4, out[4]);
+    }
+
+    @Test
+    void read_WhenReaderOverrun_ShouldSkipToOldestRetainedSampleAndCountLoss() {
+        // Given
+        AudioRingBuffer ring = new AudioRingBuffer(16);
+        AudioRingBuffer.Reader reader = ring.newReader();
+
+        // When : 40 échantillons écrits sans lecture, seuls les 16 derniers restent
+        for (int i = 0; i < 4; i++) ring.write(ramp(i * 10, 10), 0, 10);
+        short[] out = new short[32];
+        int read = reader.read(out, 0, out.length);
+
+        // Then
+        assertEquals(16, read);
+        assertEquals(24, out[0]);
+        assertEquals(39, out[15]);
+        assertEquals(24, reader.getLostSamples());
+    }
+
+    @Test
+    void skipToLatest_ShouldDiscardPendingAudio() {
+        // Given : audio accumulé pendant la lecture TTS
+        AudioRingBuffer ring = new AudioRingBuffer(64);
+        AudioRingBuffer.Reader reader = ring.newReader();
+        ring.write(ramp(0, 40), 0, 40);
+
+        // When
+        reader.skipToLatest();
+        ring.write(ramp(100, 3), 0, 3);
+        short[] out = new short[10];
+        int read = reader.read(out, 0, out.length);
+
+        // Then
+        assertEquals(3, read);
+        assertEquals(100, out[0]);
+    }
+
+    @Test
+    void seek_ShouldRewindWithinHistoryAndClampToRetainedAudio() {
+        // Given
+        AudioRingBuffer ring = new AudioRingBuffer(16);
+        AudioRingBuffer.Reader reader = ring.newReader();
+        ring.write(ramp(0, 30), 0, 30);
+        reader.skipToLatest();
+        short[] out = new short[16];
+
+        // When / Then : retour de 4 échantillons en arrière
+        reader.seek(26);
+        assertEquals(4, reader.read(out, 0, out.length));
+        assertEquals(26, out[0]);
+
+        // When / Then : position trop ancienne, bornée au plus vieil échantillon conservé
+        reader.seek(0);
+        assertEquals(14, reader.getPosition());
+    }
+
+    @Test
+    void blockingRead_ShouldWaitForWriterAndTimeOutWithoutConsuming() throws Exception {
+        // Given
+        AudioRingBuffer ring = new AudioRingBuffer(64);
+        AudioRingBuffer.Reader reader = ring.newReader();
+        short[] out = new short[8];
+        ring.write(ramp(0, 4), 0, 4);
+
+        // When / Then : pas assez d'échantillons, rien n'est consommé
+        assertEquals(0, reader.read(out, 0, 8, 20));
+        assertEquals(4, reader.available());
+
+        // When : l'écrivain complète depuis un autre thread
+        Thread writer = new Thread(() -> {
+            sleep(50);
+            ring.write(ramp(4, 4), 0, 4);
+        });
+        writer.start();
+        int read = reader.read(out, 0, 8, 2000);
+        writer.join();
+
+        // Then
+        assertEquals(8, read);
+        assertEquals(7, out[7]);
+    }
+
+    @Test
+    void blockingRead_WhenClosed_ShouldReturnMinusOne() throws Exception {
+        // Given
+        AudioRingBuffer ring = new AudioRingBuffer(64);
+        AudioRingBuffer.Reader reader = ring.newReader();
+        AtomicInteger result = new AtomicInteger(Integer.MIN_VALUE);
+        Thread waiting = new Thread(() -> {
+            try {
+                result.set(reader.read(new short[8], 0, 8, 5000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiting.start();
+
+        // When
+        sleep(50);
+        ring.close();
+        waiting.join(2000);
+
+        // Then
+        assertEquals(-1, result.get());
+    }
+
+    @Test
+    void concurrentWriterAndReader_ShouldDeliverContiguousSequence() throws Exception {
+        // Given : écrivain à pleine vitesse, lecteur par trames de 512 (taille Porcupine)
+        AudioRingBuffer ring = new AudioRingBuffer(8192);
+        AudioRingBuffer.Reader reader = ring.newReader();
+        int total = 2_000_000;
+        Thread writer = new Thread(() -> {
+            short[] chunk = new short[320];
+            int value = 0;
+            while (value < total) {
+                for (int i = 0; i < chunk.length; i++) chunk[i] = (short) value++;
+                ring.write(chunk, 0, chunk.length);
+                while (ring.getWritePosition() - reader.getPosition() > 4096) Thread.yield();
+            }
+            ring.close();
+        });
+
+        // When
+        writer.start();
+        short[] frame = new short[512];
+        long received = 0;
+        short expected = 0;
+        boolean ordered = true;
+        int read;
+        while ((read = reader.read(frame, 0, frame.length, 1000)) > 0) {
+            for (int i = 0; i < read; i++) ordered &= frame[i] == expected++;
+            received += read;
+        }
+        writer.join();
+
+        // Then : chaque trame lue est contiguë (les pertes éventuelles sont comptées, jamais mélangées)
+        assertEquals(0, reader.getLostSamples(), "lecteur dépassé malgré la régulation de l'écrivain");
+        assertTrue(ordered);
+        assertEquals(total / 512 * 512, received);
+    }
+
+    private static short[] ramp(int from, int length) {
+        short[] samples = new short[length];
+        for (int i = 0; i < length; i++) samples[i] = (short) (from + i);
+        return samples;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
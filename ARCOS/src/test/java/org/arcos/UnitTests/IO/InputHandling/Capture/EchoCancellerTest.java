@@ -0,0 +1,332 @@
+package org.arcos.UnitTests.IO.InputHandling.Capture;
+
+import org.arcos.IO.InputHandling.Capture.EchoCanceller;
+import org.arcos.IO.InputHandling.Capture.EchoReference;
+import org.arcos.IO.InputHandling.Capture.PolyphaseResampler;
+import org.arcos.IO.InputHandling.VAD.AdaptiveEndpointer;
+import org.arcos.IO.InputHandling.VAD.RmsVoiceActivityDetector;
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFormat;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Annulation d'écho hors ligne : une voix TTS synthétique (22,05 kHz, comme Piper) est « jouée » par tranches
+ * de 40 ms dans la {@link EchoReference}, pendant que le micro simulé reçoit son écho (latence de sortie et
+ * réponse de pièce) mélangé à la parole de l'utilisateur et au bruit de fond. Le signal nettoyé doit garder
+ * la voix de l'utilisateur et perdre celle de l'assistant.
+ */
+class EchoCancellerTest {
+
+    private static final int SAMPLE_RATE = 16000;
+    private static final int TTS_RATE = 22050;
+    private static final int CHUNK = 320;                          // bloc de capture de 20 ms
+    private static final int SLICE_FRAMES = TTS_RATE * 40 / 1000;  // tranche écrite par PcmPlaybackQueue
+    private static final int OUTPUT_BUFFER_MS = 250;               // tampon de JavaSoundPcmOutput
+    private static final int TAIL_MS = 100;
+    private static final AudioFormat TTS_FORMAT = new AudioFormat(TTS_RATE, 16, 1, true, false);
+
+    @Test
+    void echoOnly_ShouldBeStronglyAttenuatedOnceConverged() {
+        // Given
+        Scenario scenario = new Scenario(1).tts(0, 6000);
+
+        // When
+        short[] out = scenario.run(true);
+
+        // Then : au moins 20 dB de réduction sur les 3 dernières secondes
+        double erle = db(energy(scenario.echo, 3000, 6000) / energy(out, 3000, 6000));
+        assertTrue(erle >= 20, "réduction d'écho " + Math.round(erle) + " dB");
+    }
+
+    @Test
+    void doubleTalk_ShouldPreserveUserSpeech() {
+        // Given : l'utilisateur coupe la parole à l'assistant, aussi fort que l'écho
+        Scenario scenario = new Scenario(2).tts(0, 8000).user(4000, 2000, 3000);
+
+        // When
+        short[] out = scenario.run(true);
+
+        // Then : la voix de l'utilisateur domine nettement ce qui reste de l'écho
+        double before = db(energy(scenario.user, 4000, 6000) / residualEnergy(scenario.mic, scenario.user, 4000, 6000));
+        double after = db(energy(scenario.user, 4000, 6000) / residualEnergy(out, scenario.user, 4000, 6000));
+        assertTrue(after >= 15, "rapport voix / écho résiduel " + Math.round(after) + " dB (avant : " + Math.round(before) + " dB)");
+    }
+
+    @Test
+    void bargeIn_VadShouldOnlyOpenOnUserSpeech() {
+        // Given
+        Scenario scenario = new Scenario(3).tts(0, 8000).user(5000, 1500, 3000);
+
+        // When
+        long withoutAec = firstSpeechMs(scenario.run(false));
+        long withAec = firstSpeechMs(new Scenario(3).tts(0, 8000).user(5000, 1500, 3000).run(true));
+
+        // Then : sans annulation, la voix de l'assistant ouvre la VAD dès le début de la lecture
+        assertTrue(withoutAec < 1000, "sans annulation, parole détectée à " + withoutAec + " ms");
+        assertTrue(withAec >= 5000 && withAec <= 5400, "interruption détectée à " + withAec + " ms");
+    }
+
+    @Test
+    void flush_ShouldStopSubtractingEchoThatWillNeverPlay() {
+        // Given : la lecture est coupée à 4 s (barge-in), l'utilisateur continue de parler
+        Scenario scenario = new Scenario(4).tts(0, 8000).cutAt(4000).user(3500, 3000, 3000);
+
+        // When
+        short[] out = scenario.run(true);
+
+        // Then : une fois la queue de l'écho passée dans le filtre, la capture n'est plus touchée
+        int from = samples(4000 + TAIL_MS + 20);
+        assertArrayEquals(Arrays.copyOfRange(scenario.mic, from, samples(6500)), Arrays.copyOfRange(out, from, samples(6500)));
+        // et l'écho réellement joué avant la coupure a bien été retiré
+        double erle = db(energy(scenario.echo, 3000, 4000) / residualEnergy(out, scenario.user, 3000, 4000));
+        assertTrue(erle >= 20, "réduction d'écho avant coupure " + Math.round(erle) + " dB");
+    }
+
+    @Test
+    void noPlayback_ShouldLeaveCaptureUntouched() {
+        // Given
+        Scenario scenario = new Scenario(5).user(500, 2000, 3000);
+
+        // When
+        short[] out = scenario.run(true);
+
+        // Then
+        assertArrayEquals(scenario.mic, out);
+        assertEquals(0, scenario.canceller.getCancelledSamples());
+    }
+
+    @Test
+    void reference_AfterPlaybackGap_ShouldReanchorOnCaptureClock() {
+        // Given
+        long[] clock = {0};
+        EchoReference reference = new EchoReference(SAMPLE_RATE, 0, 1000);
+        reference.attach(() -> clock[0]);
+        AudioFormat format = new AudioFormat(SAMPLE_RATE, 16, 1, true, false);
+        byte[] slice = pcm(new short[]{1000, 1000, 1000, 1000});
+
+        // When : une tranche à t=0, puis la synthèse prend 100 échantillons de retard
+        reference.onPlayback(format, slice, 0, slice.length);
+        clock[0] = 100;
+        reference.onPlayback(format, slice, 0, slice.length);
+        float[] aligned = new float[110];
+        int available = reference.read(0, aligned, 0, aligned.length);
+
+        // Then : le trou est du silence, la deuxième tranche démarre sur l'horloge
+        assertEquals(1000f, aligned[3]);
+        assertEquals(0f, aligned[50]);
+        assertEquals(1000f, aligned[100]);
+        assertEquals(0f, aligned[104]);
+        assertEquals(104, available);
+    }
+
+    @Test
+    void reference_AfterFlush_ShouldDropAudioNotYetPlayed() {
+        // Given : 1 s de référence en avance sur la capture
+        long[] clock = {0};
+        EchoReference reference = new EchoReference(SAMPLE_RATE, 0, 4000);
+        reference.attach(() -> clock[0]);
+        AudioFormat format = new AudioFormat(SAMPLE_RATE, 16, 1, true, false);
+        short[] loud = new short[SAMPLE_RATE];
+        Arrays.fill(loud, (short) 2000);
+        byte[] second = pcm(loud);
+        reference.onPlayback(format, second, 0, second.length);
+
+        // When
+        clock[0] = 4000;
+        reference.onFlush();
+        float[] aligned = new float[8000];
+        reference.read(0, aligned, 0, aligned.length);
+
+        // Then
+        assertEquals(2000f, aligned[3999]);
+        assertEquals(0f, aligned[4000]);
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    /** Instant (ms) où un endpointer RMS voit de la parole pour la première fois, ou -1. */
+    private static long firstSpeechMs(short[] audio) {
+        AdaptiveEndpointer endpointer = new AdaptiveEndpointer(
+                new RmsVoiceActivityDetector(1000), 0.5f, 90, 300, 1200);
+        endpointer.start(1200);
+        for (int offset = 0; offset < audio.length; offset += CHUNK) {
+            endpointer.accept(audio, offset, Math.min(CHUNK, audio.length - offset));
+            if (endpointer.isSpeechDetected()) return (offset + CHUNK) * 1000L / SAMPLE_RATE;
+        }
+        return -1;
+    }
+
+    private static double energy(short[] signal, int fromMs, int toMs) {
+        double sum = 0;
+        for (int i = samples(fromMs); i < samples(toMs); i++) sum += (double) signal[i] * signal[i];
+        return sum;
+    }
+
+    private static double residualEnergy(short[] signal, short[] expected, int fromMs, int toMs) {
+        double sum = 0;
+        for (int i = samples(fromMs); i < samples(toMs); i++) {
+            double d = signal[i] - expected[i];
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    private static double db(double ratio) {
+        return 10 * Math.log10(ratio);
+    }
+
+    private static int samples(int ms) {
+        return SAMPLE_RATE * ms / 1000;
+    }
+
+    private static byte[] pcm(short[] samples) {
+        byte[] bytes = new byte[samples.length * 2];
+        for (int i = 0; i < samples.length; i++) {
+            bytes[2 * i] = (byte) samples[i];
+            bytes[2 * i + 1] = (byte) (samples[i] >> 8);
+        }
+        return bytes;
+    }
+
+    /**
+     * Une séance de 8 s : voix TTS, écho, parole de l'utilisateur et bruit de fond, rejoués bloc par bloc
+     * comme le feraient le thread de lecture et le thread de capture.
+     */
+    private static class Scenario {
+
+        private static final int DURATION_MS = 8000;
+        /** Latence de sortie et trajet acoustique : l'écho arrive 20 ms après l'ancrage de la référence. */
+        private static final int ECHO_DELAY_MS = 20;
+
+        private final Random random;
+        private final short[] tts = new short[TTS_RATE * DURATION_MS / 1000];
+        private final short[] user = new short[samples(DURATION_MS)];
+        private short[] echo = new short[samples(DURATION_MS)];
+        private short[] mic;
+        private int ttsEndFrame;
+        private int cutSamples = Integer.MAX_VALUE;
+        private EchoCanceller canceller;
+
+        Scenario(long seed) {
+            this.random = new Random(seed);
+        }
+
+        /**
+         * Voix de l'assistant : syllabes faites d'une consonne fricative (bruit, 50 ms) puis d'une voyelle voisée
+         * (fondamentale 110-170 Hz et harmoniques), séparées de courtes pauses.
+         */
+        Scenario tts(int fromMs, int ms) {
+            int start = TTS_RATE * fromMs / 1000;
+            int end = start + TTS_RATE * ms / 1000;
+            int consonant = TTS_RATE * 50 / 1000, vowel = TTS_RATE * 170 / 1000, gap = TTS_RATE * 40 / 1000;
+            double phase = 0;
+            for (int i = start; i < end; i++) {
+                int position = (i - start) % (consonant + vowel + gap);
+                double f0 = 140 + 30 * Math.sin(2 * Math.PI * i / (TTS_RATE * 0.7));
+                phase += 2 * Math.PI * f0 / TTS_RATE;
+                double value = 0;
+                if (position < consonant) {
+                    value = 2500 * random.nextGaussian() * Math.sin(Math.PI * position / consonant);
+                } else if (position < consonant + vowel) {
+                    double voiced = 0;
+                    for (int h = 1; h <= 12; h++) voiced += Math.sin(h * phase + h) / h;
+                    value = Math.sin(Math.PI * (position - consonant) / vowel) * (3500 * voiced + 300 * random.nextGaussian());
+                }
+                tts[i] = (short) Math.round(value);
+            }
+            ttsEndFrame = Math.max(ttsEndFrame, end);
+            return this;
+        }
+
+        /** Lecture annulée à {@code ms} : la suite de la réponse n'est jamais jouée. */
+        Scenario cutAt(int ms) {
+            cutSamples = samples(ms);
+            return this;
+        }
+
+        /** Parole de l'utilisateur : syllabes de bruit modulé, RMS crête {@code level}. */
+        Scenario user(int fromMs, int ms, int level) {
+            int syllable = samples(180), gap = samples(70);
+            for (int i = samples(fromMs); i < samples(fromMs + ms); i++) {
+                int position = (i - samples(fromMs)) % (syllable + gap);
+                double envelope = position < syllable ? Math.sin(Math.PI * position / syllable) * level * 1.4 : 0;
+                user[i] = (short) Math.round(random.nextGaussian() * envelope);
+            }
+            return this;
+        }
+
+        /**
+         * Joue la séance. La référence est publiée par tranches de 40 ms tant que son avance sur la capture
+         * reste sous le tampon de sortie (écriture bloquante) ; le micro reçoit l'écho de ce qui est joué.
+         */
+        short[] run(boolean cancelEcho) {
+            short[] played = playedAt16k();
+            echo = roomEcho(played);
+            mic = new short[user.length];
+            for (int i = 0; i < mic.length; i++) {
+                mic[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE,
+                        echo[i] + user[i] + Math.round(random.nextGaussian() * 60)));
+            }
+
+            long[] clock = {0};
+            EchoReference reference = new EchoReference(SAMPLE_RATE, 0, 4000);
+            reference.attach(() -> clock[0]);
+            canceller = new EchoCanceller(reference, TAIL_MS, 0.5f);
+            short[] out = mic.clone();
+            int frame = 0;
+            long written = 0;
+            boolean playing = true;
+            for (int offset = 0; offset < out.length; offset += CHUNK) {
+                clock[0] = offset;
+                if (playing && offset >= cutSamples) {
+                    reference.onFlush();
+                    playing = false;
+                }
+                while (playing && frame < ttsEndFrame && written - offset < samples(OUTPUT_BUFFER_MS)) {
+                    int count = Math.min(SLICE_FRAMES, ttsEndFrame - frame);
+                    short[] slice = new short[count];
+                    System.arraycopy(tts, frame, slice, 0, count);
+                    byte[] bytes = pcm(slice);
+                    reference.onPlayback(TTS_FORMAT, bytes, 0, bytes.length);
+                    frame += count;
+                    written += (long) count * SAMPLE_RATE / TTS_RATE;
+                }
+                if (cancelEcho) canceller.process(out, offset, Math.min(CHUNK, out.length - offset), offset);
+            }
+            return out;
+        }
+
+        /** La voix TTS telle que jouée par le haut-parleur, à 16 kHz, jusqu'à la coupure éventuelle. */
+        private short[] playedAt16k() {
+            PolyphaseResampler resampler = new PolyphaseResampler(TTS_RATE, SAMPLE_RATE);
+            short[] played = new short[user.length];
+            short[] out = new short[resampler.maxOutputLength(tts.length)];
+            int produced = resampler.process(tts, 0, tts.length, out, 0);
+            System.arraycopy(out, 0, played, 0, Math.min(Math.min(produced, played.length), cutSamples));
+            return played;
+        }
+
+        /** Réponse de pièce : retard, trajet direct, réflexions décroissantes sur 40 ms. */
+        private short[] roomEcho(short[] played) {
+            int delay = samples(ECHO_DELAY_MS);
+            int length = samples(40);
+            double[] rir = new double[length];
+            rir[0] = 0.6;
+            for (int k = 1; k < length; k++) rir[k] = 0.15 * random.nextGaussian() * Math.exp(-k / (double) samples(8));
+            short[] result = new short[played.length];
+            for (int n = 0; n < played.length; n++) {
+                double sum = 0;
+                for (int k = 0; k < length; k++) {
+                    int index = n - delay - k;
+                    if (index >= 0) sum += rir[k] * played[index];
+                }
+                result[n] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(sum)));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.arcos.UnitTests.IO.InputHandling.Capture;
+
+/**
+ * Copie de l'ancien sous-échantillonnage de {@code WakeWordProducer} (FIR 21 coefficients en double,
+ * échantillon d'entrée le plus proche, bloc par bloc), conservée comme référence pour les tests.
+ */
+final class LegacyFirDownsampler {
+
+    private static final double[] LP_FILTER;
+    static {
+        int N = 21;
+        double fc = 7200.0 / 44100.0;
+        LP_FILTER = new double[N];
+        double sum = 0;
+        int M = N / 2;
+        for (int i = 0; i < N; i++) {
+            double n = i - M;
+            double sinc = (n == 0) ? 2 * Math.PI * fc : Math.sin(2 * Math.PI * fc * n) / (Math.PI * n);
+            double hamming = 0.54 - 0.46 * Math.cos(2 * Math.PI * i / (N - 1));
+            LP_FILTER[i] = sinc * hamming;
+            sum += LP_FILTER[i];
+        }
+        for (int i = 0; i < N; i++) LP_FILTER[i] /= sum;
+    }
+
+    private LegacyFirDownsampler() {
+    }
+
+    static void downsample(short[] input, int inputLength, short[] output, int outputLength) {
+        double ratio = (double) inputLength / outputLength;
+        int halfTaps = LP_FILTER.length / 2;
+        for (int i = 0; i < outputLength; i++) {
+            int center = (int) (i * ratio);
+            double acc = 0;
+            for (int t = 0; t < LP_FILTER.length; t++) {
+                int idx = center - halfTaps + t;
+                if (idx >= 0 && idx < inputLength) {
+                    acc += input[idx] * LP_FILTER[t];
+                }
+            }
+            output[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(acc)));
+        }
+    }
+}
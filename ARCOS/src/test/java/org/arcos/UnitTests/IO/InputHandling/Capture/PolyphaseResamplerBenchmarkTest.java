@@ -0,0 +1,55 @@
+package org.arcos.UnitTests.IO.InputHandling.Capture;
+
+import org.arcos.IO.InputHandling.Capture.PolyphaseResampler;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Micro-benchmark du rééchantillonneur polyphase face à l'ancien FIR en double, sur des blocs de capture
+ * de 20 ms à 44,1 kHz. Exclu du build par défaut :
+ * {@code mvn test -Dgroups=benchmark -DexcludedGroups=}
+ */
+@Tag("benchmark")
+class PolyphaseResamplerBenchmarkTest {
+
+    private static final int IN_BLOCK = 882;
+    private static final int OUT_BLOCK = 320;
+    private static final int WARMUP_BLOCKS = 50_000;
+    private static final int MEASURED_BLOCKS = 100_000;
+
+    @Test
+    void polyphase_shouldUseAFractionOfLegacyFilterCpu() {
+        // Given : 20 ms de bruit de parole par bloc
+        short[] input = new short[IN_BLOCK];
+        Random random = new Random(11);
+        for (int i = 0; i < input.length; i++) input[i] = (short) (random.nextGaussian() * 3000);
+        PolyphaseResampler resampler = new PolyphaseResampler(44100, 16000);
+        short[] output = new short[resampler.maxOutputLength(IN_BLOCK)];
+
+        // When
+        for (int i = 0; i < WARMUP_BLOCKS; i++) {
+            LegacyFirDownsampler.downsample(input, IN_BLOCK, output, OUT_BLOCK);
+            resampler.process(input, 0, IN_BLOCK, output, 0);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_BLOCKS; i++) {
+            LegacyFirDownsampler.downsample(input, IN_BLOCK, output, OUT_BLOCK);
+        }
+        long legacyNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_BLOCKS; i++) {
+            resampler.process(input, 0, IN_BLOCK, output, 0);
+        }
+        long polyphaseNanos = System.nanoTime() - start;
+
+        // Then : un bloc = 20 ms d'audio, d'où la part d'un cœur consommée en continu
+        System.out.printf("FIR double : %d ns/bloc (%.2f %% CPU), polyphase : %d ns/bloc (%.2f %% CPU)%n",
+                legacyNanos / MEASURED_BLOCKS, legacyNanos / (MEASURED_BLOCKS * 20e6) * 100,
+                polyphaseNanos / MEASURED_BLOCKS, polyphaseNanos / (MEASURED_BLOCKS * 20e6) * 100);
+        assertTrue(polyphaseNanos * 2 < legacyNanos, "Le polyphase devrait coûter moins de la moitié de l'ancien filtre");
+    }
+}
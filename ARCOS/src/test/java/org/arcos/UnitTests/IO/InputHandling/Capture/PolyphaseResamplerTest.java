@@ -0,0 +1,145 @@
+package org.arcos.UnitTests.IO.InputHandling.Capture;
+
+import org.arcos.IO.InputHandling.Capture.PolyphaseResampler;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Réponse en fréquence du rééchantillonneur 44,1 → 16 kHz comparée à l'ancien filtre FIR, mesurée sur des
+ * sinusoïdes pures (amplitude de la composante attendue en sortie, repliée si au-delà de 8 kHz).
+ */
+class PolyphaseResamplerTest {
+
+    private static final int IN_RATE = 44100;
+    private static final int OUT_RATE = 16000;
+    private static final int IN_BLOCK = 882;  // 20 ms à 44,1 kHz
+    private static final int OUT_BLOCK = 320; // 20 ms à 16 kHz
+    private static final double AMPLITUDE = 10000;
+
+    @Test
+    void factors_ShouldBeReducedRatio() {
+        PolyphaseResampler resampler = new PolyphaseResampler(IN_RATE, OUT_RATE);
+        assertEquals(160, resampler.getUpFactor());
+        assertEquals(441, resampler.getDownFactor());
+        assertEquals(1, new PolyphaseResampler(48000, OUT_RATE).getUpFactor());
+        assertEquals(3, new PolyphaseResampler(48000, OUT_RATE).getDownFactor());
+    }
+
+    @Test
+    void passband_ShouldMatchLegacyFilter() {
+        for (double frequency : new double[]{100, 300, 1000, 2000, 3000, 4000, 5000}) {
+            // Given
+            short[] input = tone(frequency, 2);
+
+            // When
+            double legacyDb = gainDb(legacy(input), frequency);
+            double polyphaseDb = gainDb(polyphase(input, IN_BLOCK), frequency);
+
+            // Then : bande vocale intacte, à 0,5 dB près de l'ancien filtre
+            assertEquals(legacyDb, polyphaseDb, 0.5, frequency + " Hz");
+            assertTrue(polyphaseDb > -0.6, frequency + " Hz : " + polyphaseDb + " dB");
+        }
+    }
+
+    @Test
+    void stopband_ShouldRejectAliasesAtLeastAsWellAsLegacyFilter() {
+        for (double frequency : new double[]{11000, 12000, 13000, 15000, 18000, 20000}) {
+            // Given
+            short[] input = tone(frequency, 2);
+            double alias = OUT_RATE - frequency % OUT_RATE > OUT_RATE / 2.0
+                    ? frequency % OUT_RATE : OUT_RATE - frequency % OUT_RATE;
+
+            // When
+            double legacyDb = gainDb(legacy(input), alias);
+            double polyphaseDb = gainDb(polyphase(input, IN_BLOCK), alias);
+
+            // Then
+            assertTrue(polyphaseDb <= legacyDb, frequency + " Hz : " + polyphaseDb + " dB vs " + legacyDb + " dB");
+            assertTrue(polyphaseDb < -55, frequency + " Hz replié à " + alias + " Hz : " + polyphaseDb + " dB");
+        }
+    }
+
+    @Test
+    void process_ShouldNotDependOnBlockBoundaries() {
+        // Given
+        short[] input = new short[IN_RATE];
+        Random random = new Random(3);
+        for (int i = 0; i < input.length; i++) input[i] = (short) (random.nextGaussian() * 4000);
+
+        // When
+        short[] byCaptureBlocks = polyphase(input, IN_BLOCK);
+        short[] byOddBlocks = polyphase(input, 37);
+
+        // Then
+        assertEquals(OUT_RATE, byCaptureBlocks.length);
+        assertArrayEquals(byCaptureBlocks, byOddBlocks);
+    }
+
+    @Test
+    void process_CaptureBlock_ShouldProduceExactly20ms() {
+        // Given
+        PolyphaseResampler resampler = new PolyphaseResampler(IN_RATE, OUT_RATE);
+        short[] out = new short[resampler.maxOutputLength(IN_BLOCK)];
+
+        // When / Then : 882 × 160 / 441 = 320, sans dérive de bloc en bloc
+        for (int i = 0; i < 100; i++) {
+            assertEquals(OUT_BLOCK, resampler.process(new short[IN_BLOCK], 0, IN_BLOCK, out, 0));
+        }
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private static short[] tone(double frequency, int seconds) {
+        short[] samples = new short[IN_RATE * seconds];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) Math.round(AMPLITUDE * Math.sin(2 * Math.PI * frequency * i / IN_RATE));
+        }
+        return samples;
+    }
+
+    private static short[] legacy(short[] input) {
+        int blocks = input.length / IN_BLOCK;
+        short[] output = new short[blocks * OUT_BLOCK];
+        short[] in = new short[IN_BLOCK];
+        short[] out = new short[OUT_BLOCK];
+        for (int b = 0; b < blocks; b++) {
+            System.arraycopy(input, b * IN_BLOCK, in, 0, IN_BLOCK);
+            LegacyFirDownsampler.downsample(in, IN_BLOCK, out, OUT_BLOCK);
+            System.arraycopy(out, 0, output, b * OUT_BLOCK, OUT_BLOCK);
+        }
+        return output;
+    }
+
+    private static short[] polyphase(short[] input, int blockSize) {
+        PolyphaseResampler resampler = new PolyphaseResampler(IN_RATE, OUT_RATE);
+        short[] output = new short[resampler.maxOutputLength(input.length)];
+        int written = 0;
+        for (int offset = 0; offset < input.length; offset += blockSize) {
+            int length = Math.min(blockSize, input.length - offset);
+            written += resampler.process(input, offset, length, output, written);
+        }
+        return Arrays.copyOf(output, written);
+    }
+
+    /** Gain (dB) de la composante {@code frequency} après 250 ms de régime transitoire (Goertzel). */
+    private static double gainDb(short[] output, double frequency) {
+        int from = OUT_RATE / 4;
+        int length = OUT_RATE;
+        double w = 2 * Math.PI * frequency / OUT_RATE;
+        double coefficient = 2 * Math.cos(w);
+        double s1 = 0, s2 = 0;
+        for (int i = from; i < from + length; i++) {
+            double s0 = output[i] + coefficient * s1 - s2;
+            s2 = s1;
+            s1 = s0;
+        }
+        double re = s1 - s2 * Math.cos(w);
+        double im = s2 * Math.sin(w);
+        double amplitude = 2 * Math.sqrt(re * re + im * im) / length;
+        return 20 * Math.log10(Math.max(amplitude, 1e-3) / AMPLITUDE);
+    }
+}
@@ -0,0 +1,219 @@
+package org.arcos.UnitTests.IO.InputHandling.Capture;
+
+import org.arcos.IO.InputHandling.Capture.AudioRingBuffer;
+import org.arcos.IO.InputHandling.Capture.WakeWordGate;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rappel du pré-filtre du mot de réveil sur des enregistrements synthétiques (PCM 16 kHz) : un mot de trois
+ * syllabes à attaque douce posé sur un bruit de pièce. Chaque mot doit parvenir en entier au détecteur,
+ * pré-roll et fin de mot compris, tandis que le silence est écarté.
+ */
+class WakeWordGateTest {
+
+    private static final int SAMPLE_RATE = 16000;
+    private static final int FRAME = 512;     // trame Porcupine
+    private static final int CHUNK = 320;     // bloc de capture de 20 ms
+    private static final int TAIL_MS = 500;   // audio après le mot nécessaire à la décision du détecteur
+
+    @Test
+    void quietRoom_WakeWordAfterLongSilence_ShouldReachDetectorWhole() {
+        // Given
+        Fixture fixture = new Fixture(1).room(60, 10_000).wakeWord(3000).room(60, 2000);
+
+        // When
+        Run run = run(newGate(), fixture);
+
+        // Then
+        assertEquals(1, run.recalled(fixture), "mot non transmis en entier");
+    }
+
+    @Test
+    void noisyRoom_SoftWakeWordJustAboveNoise_ShouldReachDetectorWhole() {
+        // Given : mot prononcé de loin, ~8 dB au-dessus du bruit de fond
+        Fixture fixture = new Fixture(2).room(400, 8000).wakeWord(1000).room(400, 2000);
+
+        // When
+        Run run = run(newGate(), fixture);
+
+        // Then
+        assertEquals(1, run.recalled(fixture), "mot non transmis en entier");
+    }
+
+    @Test
+    void recall_OverVariedLevelsAndSpacings_ShouldBeComplete() {
+        // Given : 30 mots, de 8 à 30 dB au-dessus du bruit, séparés de 0,5 à 8 s de silence
+        Random random = new Random(3);
+        Fixture fixture = new Fixture(3).room(200, 3000);
+        for (int i = 0; i < 30; i++) {
+            int level = (int) (200 * Math.pow(10, (8 + random.nextDouble() * 22) / 20));
+            fixture.wakeWord(level).room(200, 500 + random.nextInt(7500));
+        }
+
+        // When
+        Run run = run(newGate(), fixture);
+
+        // Then
+        assertEquals(fixture.words.size(), run.recalled(fixture));
+    }
+
+    @Test
+    void silentRoom_ShouldSkipAlmostEveryFrame() {
+        // Given : une minute de pièce calme
+        Fixture fixture = new Fixture(4).room(60, 60_000);
+
+        // When
+        Run run = run(newGate(), fixture);
+
+        // Then
+        assertTrue(run.processedRatio(0, fixture.length()) < 0.02,
+                "part traitée : " + run.processedRatio(0, fixture.length()));
+    }
+
+    @Test
+    void backgroundNoiseStep_ShouldBeAbsorbedThenStillLetWakeWordThrough() {
+        // Given : un ventilateur démarre (+22 dB), puis le mot est prononcé par-dessus
+        Fixture fixture = new Fixture(5).room(60, 5000).room(800, 40_000);
+        int steadyFrom = fixture.length() - SAMPLE_RATE * 10;
+        fixture.wakeWord(3000).room(800, 2000);
+
+        // When
+        Run run = run(newGate(), fixture);
+
+        // Then
+        assertTrue(run.processedRatio(steadyFrom, steadyFrom + SAMPLE_RATE * 10) < 0.05,
+                "bruit de fond non absorbé : " + run.processedRatio(steadyFrom, steadyFrom + SAMPLE_RATE * 10));
+        assertEquals(1, run.recalled(fixture));
+    }
+
+    @Test
+    void disabledGate_ShouldProcessEveryFrame() {
+        // Given
+        Fixture fixture = new Fixture(6).room(60, 10_000);
+
+        // When
+        Run run = run(new WakeWordGate(false, 6.0, 1500, 400, SAMPLE_RATE), fixture);
+
+        // Then
+        assertEquals(1.0, run.processedRatio(0, fixture.length() / FRAME * FRAME), 1e-9);
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private static WakeWordGate newGate() {
+        return new WakeWordGate(true, 6.0, 1500, 400, SAMPLE_RATE);
+    }
+
+    /** Rejoue le PCM bloc par bloc comme le thread de capture et relève les échantillons vus par le détecteur. */
+    private static Run run(WakeWordGate gate, Fixture fixture) {
+        short[] pcm = fixture.pcm();
+        AudioRingBuffer ring = new AudioRingBuffer(SAMPLE_RATE * 10);
+        AudioRingBuffer.Reader reader = ring.newReader();
+        boolean[] processed = new boolean[pcm.length];
+        short[] frame = new short[FRAME];
+        try {
+            for (int offset = 0; offset + CHUNK <= pcm.length; offset += CHUNK) {
+                ring.write(pcm, offset, CHUNK);
+                while (reader.available() >= FRAME) {
+                    long position = reader.getPosition();
+                    if (gate.read(reader, frame, FRAME, 0) > 0) {
+                        for (int i = 0; i < FRAME; i++) processed[(int) position + i] = true;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return new Run(processed);
+    }
+
+    private record Run(boolean[] processed) {
+
+        /** Nombre de mots dont tous les échantillons, et les {@value #TAIL_MS} ms suivantes, ont été traités. */
+        int recalled(Fixture fixture) {
+            int recalled = 0;
+            for (int[] word : fixture.words) {
+                int end = Math.min(processed.length, word[1] + SAMPLE_RATE * TAIL_MS / 1000);
+                boolean whole = true;
+                for (int i = word[0]; i < end && whole; i++) whole = processed[i];
+                if (whole) recalled++;
+            }
+            return recalled;
+        }
+
+        double processedRatio(int from, int to) {
+            int count = 0;
+            for (int i = from; i < to; i++) if (processed[i]) count++;
+            return (double) count / (to - from);
+        }
+    }
+
+    /**
+     * Enregistrement synthétique : bruit de pièce gaussien légèrement fluctuant, mot de réveil en trois
+     * syllabes (bruit modulé) précédées d'une attaque douce de 80 ms.
+     */
+    private static class Fixture {
+
+        private final List<Short> samples = new ArrayList<>();
+        private final List<int[]> words = new ArrayList<>();
+        private final Random random;
+        private int roomRms = 60;
+
+        Fixture(long seed) {
+            this.random = new Random(seed);
+        }
+
+        Fixture room(int rms, int ms) {
+            roomRms = rms;
+            int n = samples(ms);
+            for (int i = 0; i < n; i++) {
+                double drift = 1 + 0.2 * Math.sin(2 * Math.PI * (samples.size() + i) / (SAMPLE_RATE * 3.7));
+                write(random.nextGaussian() * rms * drift);
+            }
+            return this;
+        }
+
+        Fixture wakeWord(int rms) {
+            int start = samples.size();
+            segment(rms * 0.15, 80);
+            for (int syllable = 0; syllable < 3; syllable++) {
+                segment(rms * 1.4, 180);
+                segment(0, 60);
+            }
+            words.add(new int[]{start, samples.size()});
+            return this;
+        }
+
+        private void segment(double rms, int ms) {
+            int n = samples(ms);
+            for (int i = 0; i < n; i++) {
+                double envelope = Math.sin(Math.PI * i / n);
+                write(random.nextGaussian() * (rms * envelope) + random.nextGaussian() * roomRms);
+            }
+        }
+
+        private void write(double value) {
+            samples.add((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(value))));
+        }
+
+        int length() {
+            return samples.size();
+        }
+
+        short[] pcm() {
+            short[] pcm = new short[samples.size()];
+            for (int i = 0; i < pcm.length; i++) pcm[i] = samples.get(i);
+            return pcm;
+        }
+
+        private static int samples(int ms) {
+            return SAMPLE_RATE * ms / 1000;
+        }
+    }
+}
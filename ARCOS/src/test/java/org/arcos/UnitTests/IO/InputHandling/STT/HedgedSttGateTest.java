@@ -0,0 +1,216 @@
+package org.arcos.UnitTests.IO.InputHandling.STT;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.arcos.Configuration.SpeechToTextProperties;
+import org.arcos.IO.InputHandling.STT.SttBackendType;
+import org.arcos.IO.InputHandling.STT.SttGate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Requêtes doublées entre deux faux serveurs locaux : faster-whisper en premier choix, whisper.cpp en
+ * second. Chaque serveur répond son nom après un délai injecté, ou une erreur 500 sur demande.
+ */
+class HedgedSttGateTest {
+
+    /** 600 ms de PCM : au-dessus du minimum transcrit. */
+    private static final byte[] UTTERANCE = new byte[16000 * 2 * 600 / 1000];
+
+    private StandInServer primary;
+    private StandInServer secondary;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        primary = new StandInServer("/v1/audio/transcriptions", "primaire");
+        secondary = new StandInServer("/inference", "secondaire");
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.stop();
+        secondary.stop();
+    }
+
+    @Test
+    void getTranscription_WhenPrimaryIsFast_ShouldNeverCallSecondary() {
+        // Given
+        SttGate gate = SttGate.create(hedgedProps());
+
+        // When / Then
+        for (int i = 0; i < 5; i++) {
+            assertThat(transcribe(gate)).isEqualTo("primaire");
+        }
+        assertThat(primary.requests.get()).isEqualTo(5);
+        assertThat(secondary.requests.get()).isZero();
+        gate.close();
+    }
+
+    @Test
+    void getTranscription_WhenPrimaryStalls_ShouldHedgeOnSecondaryPastItsP95() {
+        // Given : p95 appris sur des réponses rapides, puis le serveur principal se bloque
+        SttGate gate = SttGate.create(hedgedProps());
+        primary.delayMs.set(20);
+        for (int i = 0; i < 6; i++) transcribe(gate);
+        primary.delayMs.set(10_000);
+
+        // When
+        long start = System.currentTimeMillis();
+        String transcript = transcribe(gate);
+        long elapsed = System.currentTimeMillis() - start;
+
+        // Then : réponse du second serveur peu après le délai de couverture (300 ms), sans attendre le premier
+        assertThat(transcript).isEqualTo("secondaire");
+        assertThat(elapsed).isLessThan(2000);
+        assertThat(secondary.requests.get()).isEqualTo(1);
+        gate.close();
+    }
+
+    @Test
+    void getTranscription_WhenPrimaryLosesHedgedRaces_ShouldKeepItFirst() {
+        // Given : le principal, lent mais sain, perd plusieurs courses et ses requêtes sont annulées
+        SttGate gate = SttGate.create(hedgedProps());
+        primary.delayMs.set(20);
+        for (int i = 0; i < 6; i++) transcribe(gate);
+        primary.delayMs.set(1_000);
+        for (int i = 0; i < 8; i++) {
+            assertThat(transcribe(gate)).isEqualTo("secondaire");
+        }
+        primary.delayMs.set(0);
+
+        // When
+        String transcript = transcribe(gate);
+
+        // Then : une course perdue n'est pas un échec, le principal garde sa place
+        assertThat(transcript).isEqualTo("primaire");
+        assertThat(secondary.requests.get()).isEqualTo(8);
+        gate.close();
+    }
+
+    @Test
+    void getTranscription_WhenPrimaryFails_ShouldFailOverWithoutWaiting() {
+        // Given
+        primary.failing.set(true);
+        SttGate gate = SttGate.create(hedgedProps());
+
+        // When
+        long start = System.currentTimeMillis();
+        String transcript = transcribe(gate);
+        long elapsed = System.currentTimeMillis() - start;
+
+        // Then : bascule sur l'erreur, pas après le délai de couverture initial (2 s)
+        assertThat(transcript).isEqualTo("secondaire");
+        assertThat(elapsed).isLessThan(1500);
+        gate.close();
+    }
+
+    @Test
+    void getTranscription_WhenPrimaryErrorRateRises_ShouldRouteToSecondaryFirst() {
+        // Given
+        primary.failing.set(true);
+        SttGate gate = SttGate.create(hedgedProps());
+
+        // When
+        for (int i = 0; i < 12; i++) {
+            assertThat(transcribe(gate)).isEqualTo("secondaire");
+        }
+
+        // Then : le principal n'est plus sollicité une fois son taux d'erreur établi (5 échantillons)
+        assertThat(primary.requests.get()).isBetween(5, 6);
+        assertThat(secondary.requests.get()).isEqualTo(12);
+        gate.close();
+    }
+
+    @Test
+    void getTranscription_WhenAllBackendsFail_ShouldReturnEmpty() {
+        // Given
+        primary.failing.set(true);
+        secondary.failing.set(true);
+        SttGate gate = SttGate.create(hedgedProps());
+
+        // When
+        String transcript = transcribe(gate);
+
+        // Then
+        assertThat(transcript).isEmpty();
+        assertThat(primary.requests.get()).isEqualTo(1);
+        assertThat(secondary.requests.get()).isEqualTo(1);
+        gate.close();
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private SpeechToTextProperties hedgedProps() {
+        SpeechToTextProperties props = new SpeechToTextProperties();
+        props.setFasterWhisperUrl(primary.url());
+        props.setWhisperCppUrl(secondary.url());
+        props.setBackends(List.of(SttBackendType.FASTER_WHISPER, SttBackendType.WHISPER_CPP));
+        props.setStreamingEnabled(false);
+        return props;
+    }
+
+    private static String transcribe(SttGate gate) {
+        gate.reset();
+        gate.processAudio(UTTERANCE);
+        return gate.getTranscription();
+    }
+
+    /** Serveur STT de substitution : délai et erreurs injectables, requêtes comptées. */
+    private static final class StandInServer {
+        final AtomicLong delayMs = new AtomicLong();
+        final AtomicBoolean failing = new AtomicBoolean();
+        final AtomicInteger requests = new AtomicInteger();
+        private final HttpServer server;
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final String text;
+
+        StandInServer(String path, String text) throws IOException {
+            this.text = text;
+            this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            // Un thread par requête : une requête bloquée ne retient pas les suivantes
+            server.setExecutor(executor);
+            server.createContext(path, this::handle);
+            server.start();
+        }
+
+        String url() {
+            return "http://127.0.0.1:" + server.getAddress().getPort();
+        }
+
+        void stop() {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            exchange.getRequestBody().readAllBytes();
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(delayMs.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exchange.close();
+                return;
+            }
+            byte[] response = (failing.get() ? "{\"error\":\"overloaded\"}" : "{\"text\":\"" + text + "\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(failing.get() ? 500 : 200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        }
+    }
+}
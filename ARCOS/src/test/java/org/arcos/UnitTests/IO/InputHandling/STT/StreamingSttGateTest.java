@@ -0,0 +1,251 @@
+package org.arcos.UnitTests.IO.InputHandling.STT;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.arcos.Configuration.SpeechToTextProperties;
+import org.arcos.IO.InputHandling.STT.SttBackendType;
+import org.arcos.IO.InputHandling.STT.SttGate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Transcription en streaming contre un faux serveur faster-whisper local.
+ * <p>
+ * L'énoncé de test est un WAV synthétique : chaque mot est un palier de 400 ms dont l'amplitude code
+ * l'index du mot, suivi de 100 ms de silence. Le serveur décode les fenêtres reçues comme le ferait
+ * Whisper : un mot coupé en fin de fenêtre est rendu tronqué, un mot coupé en début de fenêtre est ignoré.
+ */
+class StreamingSttGateTest {
+
+    private static final int SAMPLE_RATE = 16000;
+    private static final int WORD_MS = 400;
+    private static final int GAP_MS = 100;
+    private static final int AMPLITUDE_STEP = 1000;
+    private static final String[] VOCABULARY = {
+            "bonjour", "arcos", "je", "voudrais", "savoir", "quel", "temps", "il",
+            "fera", "demain", "matin", "à", "lyon"};
+
+    private HttpServer server;
+    private final List<Long> requestDurationsMs = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger failuresToServe = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/audio/transcriptions", this::handleTranscription);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void getTranscription_ShouldMergeWindowsIntoFullUtterance() {
+        // Given
+        SttGate gate = SttGate.create(SttBackendType.FASTER_WHISPER, streamingProps());
+
+        // When
+        feed(gate, utterance(VOCABULARY.length));
+        String transcript = gate.getTranscription();
+
+        // Then
+        assertThat(transcript).isEqualTo(String.join(" ", VOCABULARY));
+        assertThat(requestDurationsMs.size()).isGreaterThan(2);
+        gate.close();
+    }
+
+    @Test
+    void getTranscription_ShouldOnlySendShortTailAtEndOfSpeech() {
+        // Given
+        SttGate gate = SttGate.create(SttBackendType.FASTER_WHISPER, streamingProps());
+        feed(gate, utterance(VOCABULARY.length));
+        int requestsDuringCapture = awaitIdle();
+
+        // When
+        gate.getTranscription();
+
+        // Then : la dernière requête ne couvre que la queue (fenêtre + recouvrement au plus), pas les 7 s d'audio
+        assertThat(requestDurationsMs).hasSize(requestsDuringCapture + 1);
+        assertThat(requestDurationsMs.get(requestDurationsMs.size() - 1)).isLessThanOrEqualTo(2500);
+        gate.close();
+    }
+
+    @Test
+    void getTranscription_WhenUtteranceShorterThanWindow_ShouldSendSingleRequest() {
+        // Given
+        SttGate gate = SttGate.create(SttBackendType.FASTER_WHISPER, streamingProps());
+
+        // When : 500 ms de parole + 800 ms de silence, sous la fenêtre de 1,5 s
+        feed(gate, utterance(1));
+        String transcript = gate.getTranscription();
+
+        // Then
+        assertThat(transcript).isEqualTo("bonjour");
+        assertThat(requestDurationsMs).hasSize(1);
+        gate.close();
+    }
+
+    @Test
+    void getTranscription_WhenWindowFails_ShouldFallBackToWholeUtterance() {
+        // Given
+        failuresToServe.set(1);
+        SttGate gate = SttGate.create(SttBackendType.FASTER_WHISPER, streamingProps());
+
+        // When
+        feed(gate, utterance(VOCABULARY.length));
+        String transcript = gate.getTranscription();
+
+        // Then
+        assertThat(transcript).isEqualTo(String.join(" ", VOCABULARY));
+        assertThat(requestDurationsMs.get(requestDurationsMs.size() - 1)).isGreaterThan(6000);
+        gate.close();
+    }
+
+    @Test
+    void reset_ShouldStartNextUtteranceFromScratch() {
+        // Given
+        SttGate gate = SttGate.create(SttBackendType.FASTER_WHISPER, streamingProps());
+        feed(gate, utterance(VOCABULARY.length));
+        gate.getTranscription();
+
+        // When
+        gate.reset();
+        feed(gate, utterance(2));
+        String transcript = gate.getTranscription();
+
+        // Then
+        assertThat(transcript).isEqualTo("bonjour arcos");
+        gate.close();
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private SpeechToTextProperties streamingProps() {
+        SpeechToTextProperties props = new SpeechToTextProperties();
+        props.setFasterWhisperUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        props.setStreamingEnabled(true);
+        props.setStreamingWindowMs(1500);
+        props.setStreamingOverlapMs(1000);
+        return props;
+    }
+
+    /** Énoncé de {@code words} mots suivi de 800 ms de silence (délai de fin de parole). */
+    private static byte[] utterance(int words) {
+        ByteArrayOutputStream pcm = new ByteArrayOutputStream();
+        for (int w = 0; w < words; w++) {
+            writeLevel(pcm, (short) ((w + 1) * AMPLITUDE_STEP), WORD_MS);
+            writeLevel(pcm, (short) 0, GAP_MS);
+        }
+        writeLevel(pcm, (short) 0, 800);
+        return pcm.toByteArray();
+    }
+
+    private static void writeLevel(ByteArrayOutputStream pcm, short level, int ms) {
+        for (int i = 0; i < SAMPLE_RATE * ms / 1000; i++) {
+            pcm.write(level & 0xff);
+            pcm.write((level >> 8) & 0xff);
+        }
+    }
+
+    /** Alimente la gate par trames de 50 ms, comme la boucle de capture. */
+    private static void feed(SttGate gate, byte[] pcm) {
+        int frame = SAMPLE_RATE * 2 / 20;
+        for (int offset = 0; offset < pcm.length; offset += frame) {
+            byte[] chunk = new byte[Math.min(frame, pcm.length - offset)];
+            System.arraycopy(pcm, offset, chunk, 0, chunk.length);
+            gate.processAudio(chunk);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private int awaitIdle() {
+        int last = -1;
+        for (int i = 0; i < 100 && last != requestDurationsMs.size(); i++) {
+            last = requestDurationsMs.size();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return requestDurationsMs.size();
+    }
+
+    private void handleTranscription(HttpExchange exchange) throws IOException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        short[] samples = extractSamples(body);
+        requestDurationsMs.add(samples.length * 1000L / SAMPLE_RATE);
+
+        if (failuresToServe.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            respond(exchange, 500, "{\"error\":\"overloaded\"}");
+            return;
+        }
+        respond(exchange, 200, "{\"text\":\"" + decodeWords(samples) + "\"}");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] response = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, response.length);
+        exchange.getResponseBody().write(response);
+        exchange.close();
+    }
+
+    private static short[] extractSamples(byte[] multipartBody) {
+        String raw = new String(multipartBody, StandardCharsets.ISO_8859_1);
+        int riff = raw.indexOf("RIFF");
+        ByteBuffer wav = ByteBuffer.wrap(multipartBody, riff, multipartBody.length - riff).order(ByteOrder.LITTLE_ENDIAN);
+        int dataLength = wav.getInt(riff + 40);
+        short[] samples = new short[dataLength / 2];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = wav.getShort(riff + 44 + i * 2);
+        }
+        return samples;
+    }
+
+    /** Transcription "parfaite" du signal synthétique, avec les défauts de bord d'un vrai modèle. */
+    private static String decodeWords(short[] samples) {
+        int frame = SAMPLE_RATE / 100;
+        List<String> words = new ArrayList<>();
+        int segmentStart = -1;
+        int level = 0;
+        int frames = samples.length / frame;
+        for (int f = 0; f <= frames; f++) {
+            int value = f < frames ? Math.abs(samples[f * frame]) : 0;
+            if (value > 0 && segmentStart < 0) {
+                segmentStart = f;
+                level = value;
+            } else if (value == 0 && segmentStart >= 0) {
+                int durationMs = (f - segmentStart) * 10;
+                String word = VOCABULARY[level / AMPLITUDE_STEP - 1];
+                if (durationMs >= WORD_MS - 10) {
+                    words.add(word);
+                } else if (segmentStart > 0) {
+                    words.add(word.substring(0, Math.max(1, word.length() / 2)));
+                }
+                segmentStart = -1;
+            }
+        }
+        return String.join(" ", words);
+    }
+}
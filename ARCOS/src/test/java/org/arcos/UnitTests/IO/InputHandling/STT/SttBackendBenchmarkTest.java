@@ -0,0 +1,148 @@
+package org.arcos.UnitTests.IO.InputHandling.STT;
+
+import org.arcos.Configuration.SpeechToTextProperties;
+import org.arcos.IO.InputHandling.STT.SttBackendType;
+import org.arcos.IO.InputHandling.STT.SttGate;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Compare les trois backends STT sur les mêmes enregistrements : latence de transcription d'un énoncé
+ * complet (streaming désactivé) et taux d'erreur par mot si une transcription de référence {@code .txt}
+ * accompagne le WAV. Les backends HTTP ne sont mesurés que si leur serveur répond, le backend ONNX que
+ * si le modèle est présent. Exclu du build par défaut :
+ * {@code mvn test -Dgroups=benchmark -DexcludedGroups= -Darcos.stt.fixtures=<répertoire de WAV 16 kHz mono>}
+ */
+@Tag("benchmark")
+class SttBackendBenchmarkTest {
+
+    private static final Path FIXTURES = Path.of(System.getProperty("arcos.stt.fixtures", "stt-fixtures"));
+
+    @Test
+    void backends_ShouldBeMeasuredOnTheSameFixtures() throws Exception {
+        // Given
+        Assumptions.assumeTrue(Files.isDirectory(FIXTURES), "répertoire de fixtures absent : " + FIXTURES);
+        List<Path> wavs;
+        try (Stream<Path> files = Files.list(FIXTURES)) {
+            wavs = files.filter(p -> p.toString().endsWith(".wav")).sorted().toList();
+        }
+        Assumptions.assumeFalse(wavs.isEmpty(), "aucun WAV dans " + FIXTURES);
+        SpeechToTextProperties props = new SpeechToTextProperties();
+        props.setStreamingEnabled(false);
+
+        List<SttBackendType> measured = new ArrayList<>();
+        for (SttBackendType type : SttBackendType.values()) {
+            if (!isAvailable(type, props)) {
+                System.out.printf("%-14s indisponible, ignoré%n", type);
+                continue;
+            }
+            measured.add(type);
+
+            // When
+            SttGate gate = SttGate.create(type, props);
+            try {
+                transcribe(gate, readPcm(wavs.get(0))); // chauffe : chargement du modèle, connexions
+                long totalNanos = 0;
+                long totalAudioMs = 0;
+                int words = 0, errors = 0;
+                for (Path wav : wavs) {
+                    byte[] pcm = readPcm(wav);
+                    long start = System.nanoTime();
+                    String text = transcribe(gate, pcm);
+                    long nanos = System.nanoTime() - start;
+                    long audioMs = pcm.length / 32;
+                    totalNanos += nanos;
+                    totalAudioMs += audioMs;
+                    Path reference = Path.of(wav.toString().replaceFirst("\\.wav$", ".txt"));
+                    if (Files.exists(reference)) {
+                        String[] expected = normalize(Files.readString(reference));
+                        words += expected.length;
+                        errors += editDistance(expected, normalize(text));
+                    }
+                    System.out.printf("%-14s %-30s %5d ms audio, %5d ms : %s%n", type, wav.getFileName(), audioMs,
+                            nanos / 1_000_000, text);
+                }
+
+                // Then
+                System.out.printf("%-14s total %d ms pour %d ms d'audio (RTF %.3f)%s%n", type,
+                        totalNanos / 1_000_000, totalAudioMs, totalNanos / 1e6 / totalAudioMs,
+                        words > 0 ? String.format(", WER %.1f %%", 100.0 * errors / words) : "");
+            } finally {
+                gate.close();
+            }
+        }
+        Assumptions.assumeFalse(measured.isEmpty(), "aucun backend STT disponible");
+    }
+
+    private static String transcribe(SttGate gate, byte[] pcm) {
+        gate.reset();
+        gate.processAudio(pcm);
+        return gate.getTranscription();
+    }
+
+    private static boolean isAvailable(SttBackendType type, SpeechToTextProperties props) {
+        return switch (type) {
+            case FASTER_WHISPER -> isReachable(props.getFasterWhisperUrl());
+            case WHISPER_CPP -> isReachable(props.getWhisperCppUrl());
+            case WHISPER_ONNX -> Files.isDirectory(Path.of(props.getWhisperOnnxModelDir(), props.getWhisperOnnxModel()));
+        };
+    }
+
+    private static boolean isReachable(String url) {
+        URI uri = URI.create(url);
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(uri.getHost(), uri.getPort()), 500);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static byte[] readPcm(Path wav) throws Exception {
+        try (AudioInputStream in = AudioSystem.getAudioInputStream(wav.toFile())) {
+            AudioFormat format = in.getFormat();
+            if (format.getSampleRate() != 16000 || format.getChannels() != 1 || format.getSampleSizeInBits() != 16
+                    || format.isBigEndian()) {
+                throw new IllegalArgumentException(wav + " : PCM 16 bits mono 16 kHz attendu, reçu " + format);
+            }
+            return in.readAllBytes();
+        }
+    }
+
+    private static String[] normalize(String text) {
+        String cleaned = text.toLowerCase().replaceAll("[^\\p{L}\\p{N}' ]", " ").trim();
+        return cleaned.isEmpty() ? new String[0] : cleaned.split("\\s+");
+    }
+
+    /** Distance d'édition en mots (substitutions, insertions, suppressions). */
+    private static int editDistance(String[] expected, String[] actual) {
+        int[] previous = new int[actual.length + 1];
+        int[] current = new int[actual.length + 1];
+        for (int j = 0; j <= actual.length; j++) previous[j] = j;
+        for (int i = 1; i <= expected.length; i++) {
+            current[0] = i;
+            for (int j = 1; j <= actual.length; j++) {
+                int substitution = previous[j - 1] + (expected[i - 1].equals(actual[j - 1]) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[actual.length];
+    }
+}
@@ -106,6 +106,22 @@ class SttGateTest {
         gate.close();
     }
 
+    @Test
+    void create_WithWhisperOnnx_WhenModelAbsent_ShouldFallBackWithoutThrowing() {
+        // Given
+        SpeechToTextProperties props = defaultProps();
+        props.setWhisperOnnxModelDir("does-not-exist");
+
+        // When
+        SttGate gate = SttGate.create(SttBackendType.WHISPER_ONNX, props);
+
+        // Then
+        assertThat(gate).isNotNull();
+        gate.processAudio(new byte[3200]);
+        assertThat(gate.getBufferedAudioDurationMs()).isEqualTo(100);
+        gate.close();
+    }
+
     private SpeechToTextProperties defaultProps() {
         SpeechToTextProperties props = new SpeechToTextProperties();
         props.setFasterWhisperUrl("http://localhost:9999");
@@ -0,0 +1,68 @@
+package org.arcos.UnitTests.IO.InputHandling.STT;
+
+import org.arcos.IO.InputHandling.STT.TranscriptMerger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TranscriptMergerTest {
+
+    @Test
+    void merge_WithOverlappingWords_ShouldKeepThemOnce() {
+        // Given
+        String committed = "Bonjour Arcos, je voudrais savoir";
+        String hypothesis = "Je voudrais savoir quel temps il fera.";
+
+        // When
+        String merged = TranscriptMerger.merge(committed, hypothesis);
+
+        // Then
+        assertEquals("Bonjour Arcos, je voudrais savoir quel temps il fera.", merged);
+    }
+
+    @Test
+    void merge_ShouldReplaceWordCutAtWindowEnd() {
+        // Given : la première fenêtre s'arrête au milieu de "temps"
+        String committed = "je voudrais savoir quel te";
+        String hypothesis = "savoir quel temps il fera demain";
+
+        // When
+        String merged = TranscriptMerger.merge(committed, hypothesis);
+
+        // Then
+        assertEquals("je voudrais savoir quel temps il fera demain", merged);
+    }
+
+    @Test
+    void merge_ShouldIgnoreCaseAndPunctuationWhenAligning() {
+        // Given
+        String committed = "Il fera beau, demain";
+        String hypothesis = "Demain. À Lyon ?";
+
+        // When
+        String merged = TranscriptMerger.merge(committed, hypothesis);
+
+        // Then
+        assertEquals("Il fera beau, demain À Lyon ?", merged);
+    }
+
+    @Test
+    void merge_WithoutCommonAnchor_ShouldConcatenate() {
+        // Given : seul "de" est commun, trop court pour servir de point d'ancrage
+        String committed = "une tasse de";
+        String hypothesis = "café de Colombie";
+
+        // When
+        String merged = TranscriptMerger.merge(committed, hypothesis);
+
+        // Then
+        assertEquals("une tasse de café de Colombie", merged);
+    }
+
+    @Test
+    void merge_WithEmptySide_ShouldReturnOther() {
+        assertEquals("bonjour", TranscriptMerger.merge("", " bonjour "));
+        assertEquals("bonjour", TranscriptMerger.merge("bonjour", ""));
+        assertEquals("", TranscriptMerger.merge(null, null));
+    }
+}
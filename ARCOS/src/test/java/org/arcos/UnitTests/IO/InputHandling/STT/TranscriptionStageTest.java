@@ -0,0 +1,188 @@
+package org.arcos.UnitTests.IO.InputHandling.STT;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.arcos.Configuration.SpeechToTextProperties;
+import org.arcos.IO.InputHandling.STT.SttBackendType;
+import org.arcos.IO.InputHandling.STT.SttGate;
+import org.arcos.IO.InputHandling.STT.TranscriptionStage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Étage de transcription contre un faux serveur faster-whisper dont les réponses peuvent être retenues :
+ * la capture de l'énoncé suivant ne doit jamais attendre la requête HTTP du précédent.
+ */
+class TranscriptionStageTest {
+
+    private static final int SAMPLE_RATE = 16000;
+
+    private HttpServer server;
+    private volatile CountDownLatch serverRelease = new CountDownLatch(0);
+    private final CountDownLatch firstRequest = new CountDownLatch(1);
+    private TranscriptionStage stage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/audio/transcriptions", this::handleTranscription);
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        serverRelease.countDown();
+        if (stage != null) stage.close();
+        server.stop(0);
+    }
+
+    @Test
+    void acquire_WhileTranscriptionInFlight_ShouldReturnAnotherGateImmediately() throws Exception {
+        // Given : le serveur retient sa réponse
+        serverRelease = new CountDownLatch(1);
+        stage = new TranscriptionStage(this::newGate, 2);
+        List<String> transcripts = new CopyOnWriteArrayList<>();
+        SttGate first = stage.acquire();
+        first.processAudio(speech(1, 1000));
+        stage.submit(first, transcripts::add);
+        assertThat(firstRequest.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        long start = System.nanoTime();
+        SttGate second = stage.acquire();
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertThat(second).isNotSameAs(first);
+        assertThat(waitedMs).isLessThan(100);
+        assertThat(stage.getPendingCount()).isEqualTo(1);
+        assertThat(transcripts).isEmpty();
+
+        serverRelease.countDown();
+        awaitSize(transcripts, 1);
+        assertThat(transcripts).containsExactly("mot1");
+    }
+
+    @Test
+    void submit_ShouldPublishTranscriptsInOrder() throws Exception {
+        // Given
+        stage = new TranscriptionStage(this::newGate, 3);
+        List<String> transcripts = new CopyOnWriteArrayList<>();
+
+        // When
+        for (int word = 1; word <= 3; word++) {
+            SttGate gate = stage.acquire();
+            gate.processAudio(speech(word, 600));
+            stage.submit(gate, transcripts::add);
+        }
+
+        // Then
+        awaitSize(transcripts, 3);
+        assertThat(transcripts).containsExactly("mot1", "mot2", "mot3");
+    }
+
+    @Test
+    void acquire_WhenAllGatesBusy_ShouldWaitForRecycledGate() throws Exception {
+        // Given : une seule gate, en cours de transcription
+        serverRelease = new CountDownLatch(1);
+        stage = new TranscriptionStage(this::newGate, 1);
+        SttGate only = stage.acquire();
+        only.processAudio(speech(1, 1000));
+        stage.submit(only, transcript -> {});
+        assertThat(firstRequest.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicReference<SttGate> acquired = new AtomicReference<>();
+        Thread listener = new Thread(() -> {
+            try {
+                acquired.set(stage.acquire());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // When
+        listener.start();
+        listener.join(200);
+        SttGate beforeRelease = acquired.get();
+        serverRelease.countDown();
+        listener.join(5000);
+
+        // Then : la même gate revient, vidée
+        assertThat(beforeRelease).isNull();
+        assertThat(acquired.get()).isSameAs(only);
+        assertThat(only.getBufferedAudioDurationMs()).isZero();
+    }
+
+    @Test
+    void release_ShouldRecycleGateWithoutTranscribing() throws Exception {
+        // Given
+        stage = new TranscriptionStage(this::newGate, 1);
+        SttGate gate = stage.acquire();
+        gate.processAudio(speech(1, 200));
+
+        // When
+        stage.release(gate);
+
+        // Then
+        assertThat(stage.acquire()).isSameAs(gate);
+        assertThat(gate.getBufferedAudioDurationMs()).isZero();
+        assertThat(firstRequest.getCount()).isEqualTo(1);
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private SttGate newGate() {
+        SpeechToTextProperties props = new SpeechToTextProperties();
+        props.setFasterWhisperUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        props.setStreamingEnabled(false);
+        return SttGate.create(SttBackendType.FASTER_WHISPER, props);
+    }
+
+    /** Palier constant dont l'amplitude code le numéro du mot. */
+    private static byte[] speech(int word, int ms) {
+        short level = (short) (word * 1000);
+        byte[] pcm = new byte[SAMPLE_RATE * ms / 1000 * 2];
+        for (int i = 0; i < pcm.length; i += 2) {
+            pcm[i] = (byte) level;
+            pcm[i + 1] = (byte) (level >> 8);
+        }
+        return pcm;
+    }
+
+    private static void awaitSize(List<String> list, int size) throws InterruptedException {
+        for (int i = 0; i < 100 && list.size() < size; i++) {
+            Thread.sleep(50);
+        }
+    }
+
+    private void handleTranscription(HttpExchange exchange) throws IOException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        firstRequest.countDown();
+        try {
+            serverRelease.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        String raw = new String(body, StandardCharsets.ISO_8859_1);
+        int data = raw.indexOf("data") + 8;
+        int level = (short) ((body[data] & 0xff) | (body[data + 1] << 8));
+        byte[] response = ("{\"text\":\"mot" + level / 1000 + "\"}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        exchange.getResponseBody().write(response);
+        exchange.close();
+    }
+}
@@ -0,0 +1,113 @@
+package org.arcos.UnitTests.IO.InputHandling.STT;
+
+import org.arcos.IO.InputHandling.STT.WhisperFeatureExtractor;
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class WhisperFeatureExtractorTest {
+
+    private static final int MELS = 80;
+    private static final int FRAMES = WhisperFeatureExtractor.CHUNK_FRAMES;
+
+    @Test
+    void compute_OnSilence_ShouldFillWindowWithLogFloor() {
+        // Given
+        WhisperFeatureExtractor extractor = new WhisperFeatureExtractor(MELS);
+
+        // When
+        extractor.compute(pcm(new short[16000]), 0, 16000);
+
+        // Then : log10(1e-10) normalisé, (-10 + 4) / 4
+        FloatBuffer features = extractor.getFeatures();
+        assertThat(features.remaining()).isEqualTo(MELS * FRAMES);
+        for (int i = 0; i < MELS * FRAMES; i++) {
+            assertThat(features.get(i)).isCloseTo(-1.5f, within(1e-6f));
+        }
+    }
+
+    @Test
+    void compute_OnTone_ShouldPeakInMelBandOfTheTone() {
+        // Given : 1 s à 1 kHz
+        WhisperFeatureExtractor extractor = new WhisperFeatureExtractor(MELS);
+        short[] tone = new short[16000];
+        for (int i = 0; i < tone.length; i++) tone[i] = (short) (8000 * Math.sin(2 * Math.PI * 1000 * i / 16000.0));
+
+        // When
+        int audioFrames = extractor.compute(pcm(tone), 0, tone.length);
+
+        // Then
+        FloatBuffer features = extractor.getFeatures();
+        int frame = 50;
+        int peak = 0;
+        for (int m = 1; m < MELS; m++) {
+            if (features.get(m * FRAMES + frame) > features.get(peak * FRAMES + frame)) peak = m;
+        }
+        assertThat(audioFrames).isEqualTo(102);
+        assertThat(melCenterHz(peak)).isBetween(900.0, 1100.0);
+        // Le silence de complément est plancher : 80 dB sous le maximum
+        float max = features.get(peak * FRAMES + frame);
+        assertThat(features.get(peak * FRAMES + FRAMES - 1)).isCloseTo(max - 2f, within(0.01f));
+    }
+
+    @Test
+    void compute_ShouldNotKeepFramesFromPreviousUtterance() {
+        // Given
+        WhisperFeatureExtractor extractor = new WhisperFeatureExtractor(MELS);
+        short[] noise = new short[16000 * 10];
+        Random random = new Random(3);
+        for (int i = 0; i < noise.length; i++) noise[i] = (short) (random.nextGaussian() * 3000);
+        extractor.compute(pcm(noise), 0, noise.length);
+
+        // When
+        extractor.compute(pcm(new short[1600]), 0, 1600);
+
+        // Then
+        FloatBuffer features = extractor.getFeatures();
+        for (int i = 0; i < MELS * FRAMES; i++) {
+            assertThat(features.get(i)).isCloseTo(-1.5f, within(1e-6f));
+        }
+    }
+
+    @Test
+    void compute_ShouldReadSamplesAtByteOffset() {
+        // Given : même tonalité, précédée d'un en-tête de 44 octets
+        WhisperFeatureExtractor direct = new WhisperFeatureExtractor(MELS);
+        WhisperFeatureExtractor shifted = new WhisperFeatureExtractor(MELS);
+        short[] tone = new short[4000];
+        for (int i = 0; i < tone.length; i++) tone[i] = (short) (5000 * Math.sin(2 * Math.PI * 440 * i / 16000.0));
+        byte[] bytes = pcm(tone);
+        byte[] withHeader = new byte[44 + bytes.length];
+        System.arraycopy(bytes, 0, withHeader, 44, bytes.length);
+
+        // When
+        direct.compute(bytes, 0, tone.length);
+        shifted.compute(withHeader, 44, tone.length);
+
+        // Then
+        for (int i = 0; i < MELS * FRAMES; i++) {
+            assertThat(shifted.getFeatures().get(i)).isEqualTo(direct.getFeatures().get(i));
+        }
+    }
+
+    private static byte[] pcm(short[] samples) {
+        byte[] bytes = new byte[samples.length * 2];
+        for (int i = 0; i < samples.length; i++) {
+            bytes[2 * i] = (byte) samples[i];
+            bytes[2 * i + 1] = (byte) (samples[i] >> 8);
+        }
+        return bytes;
+    }
+
+    /** Fréquence centrale de la bande mel {@code m} (échelle de Slaney, 0 à 8 kHz). */
+    private static double melCenterHz(int m) {
+        double logStep = Math.log(6.4) / 27.0;
+        double maxMel = 15 + Math.log(8000 / 1000.0) / logStep;
+        double mel = maxMel * (m + 1) / (MELS + 1);
+        return mel < 15 ? mel * 200.0 / 3 : 1000 * Math.exp(logStep * (mel - 15));
+    }
+}
@@ -0,0 +1,237 @@
+package org.arcos.UnitTests.IO.InputHandling.VAD;
+
+import org.arcos.IO.InputHandling.VAD.AdaptiveEndpointer;
+import org.arcos.IO.InputHandling.VAD.RmsVoiceActivityDetector;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Endpointer adaptatif sur des enregistrements synthétiques (PCM 16 kHz) : syllabes de bruit modulé
+ * pour la parole, bruit blanc de niveau choisi pour la pièce.
+ */
+class AdaptiveEndpointerTest {
+
+    private static final int SAMPLE_RATE = 16000;
+    private static final int CHUNK_BYTES = SAMPLE_RATE * 2 / 20; // trames de capture de 50 ms
+    private static final int SILENCE_THRESHOLD = 1000;
+    private static final long MAX_SILENCE_MS = 1200;
+
+    @Test
+    void quietRoom_LongUtterance_ShouldEndAFewHundredMsAfterLastWord() {
+        // Given
+        Fixture fixture = new Fixture(1).room(60, 300).speech(2500).room(60, 2000);
+
+        // When
+        long endMs = runUntilEnd(newEndpointer(), fixture.pcm(), CHUNK_BYTES);
+
+        // Then : la dernière syllabe s'éteint un peu avant la fin du segment de parole
+        long afterLastWord = endMs - fixture.lastSpeechEndMs;
+        assertTrue(afterLastWord >= 200 && afterLastWord <= 450,
+                "fin détectée " + afterLastWord + " ms après le dernier mot");
+    }
+
+    @Test
+    void quietRoom_ShortUtterance_ShouldWaitLongerBeforeEnding() {
+        // Given : un mot isolé ("Arcos…"), la suite de la phrase peut encore venir
+        Fixture fixture = new Fixture(2).room(60, 300).speech(400).room(60, 2000);
+
+        // When
+        long endMs = runUntilEnd(newEndpointer(), fixture.pcm(), CHUNK_BYTES);
+
+        // Then
+        long afterLastWord = endMs - fixture.lastSpeechEndMs;
+        assertTrue(afterLastWord >= 700 && afterLastWord <= MAX_SILENCE_MS + 50,
+                "fin détectée " + afterLastWord + " ms après le dernier mot");
+    }
+
+    @Test
+    void noisyRoom_PauseBetweenWords_ShouldNotCutUtteranceEarly() {
+        // Given : bruit de fond juste sous le seuil RMS, pause de 500 ms au milieu de la phrase
+        Fixture fixture = new Fixture(3)
+                .room(950, 1000).speech(1200).room(950, 500).speech(1200).room(950, 2000);
+
+        // When
+        AdaptiveEndpointer endpointer = newEndpointer();
+        long endMs = runUntilEnd(endpointer, fixture.pcm(), CHUNK_BYTES);
+
+        // Then
+        assertTrue(endMs > fixture.lastSpeechEndMs, "énoncé coupé à " + endMs + " ms, avant la fin de la parole");
+        assertTrue(endMs - fixture.lastSpeechEndMs <= MAX_SILENCE_MS + 50);
+        assertTrue(endpointer.getSpeechThreshold() > 0.6f, "le seuil doit suivre le bruit de fond");
+    }
+
+    @Test
+    void quietRoom_SamePause_ShouldEndUtterance() {
+        // Given : même pause de 500 ms, mais silence franc
+        Fixture fixture = new Fixture(4)
+                .room(60, 1000).speech(1200).room(60, 500).speech(1200).room(60, 2000);
+
+        // When
+        long endMs = runUntilEnd(newEndpointer(), fixture.pcm(), CHUNK_BYTES);
+
+        // Then : la fin tombe dans la pause, avant la reprise de la parole
+        assertTrue(endMs < 2700, "fin attendue pendant la pause, détectée à " + endMs + " ms");
+    }
+
+    @Test
+    void noiseOnly_ShouldNeverOpenUtterance() {
+        // Given
+        Fixture fixture = new Fixture(5).room(950, 4000);
+
+        // When
+        long endMs = runUntilEnd(newEndpointer(), fixture.pcm(), CHUNK_BYTES);
+
+        // Then
+        assertEquals(-1, endMs);
+    }
+
+    @Test
+    void shortClick_ShouldNotOpenUtterance() {
+        // Given : 40 ms de bruit fort, sous la durée minimale de parole
+        Fixture fixture = new Fixture(6).room(60, 500).burst(8000, 40).room(60, 1500);
+        AdaptiveEndpointer endpointer = newEndpointer();
+
+        // When
+        runUntilEnd(endpointer, fixture.pcm(), CHUNK_BYTES);
+
+        // Then
+        assertFalse(endpointer.isSpeechDetected());
+    }
+
+    @Test
+    void accept_ShouldGiveSameResultWhateverTheChunkSize() {
+        // Given
+        byte[] pcm = new Fixture(7).room(60, 300).speech(1500).room(60, 1500).pcm();
+
+        // When
+        long aligned = runUntilEnd(newEndpointer(), pcm, CHUNK_BYTES);
+        long odd = runUntilEnd(newEndpointer(), pcm, 37);
+
+        // Then
+        assertTrue(aligned > 0);
+        assertEquals(aligned, odd, 50, "écart limité à la granularité d'un bloc de capture");
+    }
+
+    @Test
+    void acceptSamples_ShouldMatchByteInput() {
+        // Given : mêmes données, lues directement depuis le tampon de capture
+        byte[] pcm = new Fixture(9).room(60, 300).speech(1500).room(60, 1500).pcm();
+        short[] samples = new short[pcm.length / 2];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) ((pcm[2 * i] & 0xFF) | (pcm[2 * i + 1] << 8));
+        }
+        AdaptiveEndpointer endpointer = newEndpointer();
+        int chunk = SAMPLE_RATE / 20;
+        long fromSamples = -1;
+
+        // When
+        for (int offset = 0; offset < samples.length && fromSamples < 0; offset += chunk) {
+            int length = Math.min(chunk, samples.length - offset);
+            if (endpointer.accept(samples, offset, length) == AdaptiveEndpointer.State.END_OF_SPEECH) {
+                fromSamples = (offset + length) * 1000L / SAMPLE_RATE;
+            }
+        }
+
+        // Then
+        assertEquals(runUntilEnd(newEndpointer(), pcm, CHUNK_BYTES), fromSamples);
+    }
+
+    @Test
+    void start_ShouldResetUtteranceButKeepNoiseFloor() {
+        // Given
+        AdaptiveEndpointer endpointer = newEndpointer();
+        runUntilEnd(endpointer, new Fixture(8).room(950, 1000).speech(1500).room(950, 2000).pcm(), CHUNK_BYTES);
+        float learnedThreshold = endpointer.getSpeechThreshold();
+
+        // When
+        endpointer.start(MAX_SILENCE_MS);
+
+        // Then
+        assertFalse(endpointer.isSpeechDetected());
+        assertEquals(learnedThreshold, endpointer.getSpeechThreshold(), 1e-6);
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private static AdaptiveEndpointer newEndpointer() {
+        AdaptiveEndpointer endpointer = new AdaptiveEndpointer(
+                new RmsVoiceActivityDetector(SILENCE_THRESHOLD), 0.5f, 90, 300, MAX_SILENCE_MS);
+        endpointer.start(MAX_SILENCE_MS);
+        return endpointer;
+    }
+
+    /** Rejoue le PCM par blocs et retourne l'instant (ms d'audio) de la fin d'énoncé, ou -1. */
+    private static long runUntilEnd(AdaptiveEndpointer endpointer, byte[] pcm, int chunkBytes) {
+        for (int offset = 0; offset < pcm.length; offset += chunkBytes) {
+            int length = Math.min(chunkBytes, pcm.length - offset);
+            byte[] chunk = new byte[length];
+            System.arraycopy(pcm, offset, chunk, 0, length);
+            if (endpointer.accept(chunk, length) == AdaptiveEndpointer.State.END_OF_SPEECH) {
+                return (offset + length) * 1000L / (SAMPLE_RATE * 2);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Enregistrement synthétique construit segment par segment.
+     */
+    private static class Fixture {
+
+        private final ByteArrayOutputStream pcm = new ByteArrayOutputStream();
+        private final Random random;
+        private long durationMs;
+        private int roomRms;
+        long lastSpeechEndMs;
+
+        Fixture(long seed) {
+            this.random = new Random(seed);
+        }
+
+        /** Bruit de fond blanc de RMS donné. */
+        Fixture room(int rms, int ms) {
+            roomRms = rms;
+            for (int i = 0; i < samples(ms); i++) write(random.nextGaussian() * rms);
+            durationMs += ms;
+            return this;
+        }
+
+        /** Parole : syllabes de 180 ms (RMS ~4000) séparées de 70 ms plus faibles, sur le bruit de la pièce courante. */
+        Fixture speech(int ms) {
+            int total = samples(ms);
+            int syllable = samples(180), gap = samples(70);
+            for (int i = 0; i < total; i++) {
+                int position = i % (syllable + gap);
+                double envelope = position < syllable ? Math.sin(Math.PI * position / syllable) * 5600 : 150;
+                write(random.nextGaussian() * envelope + random.nextGaussian() * roomRms);
+            }
+            durationMs += ms;
+            lastSpeechEndMs = durationMs;
+            return this;
+        }
+
+        Fixture burst(int rms, int ms) {
+            for (int i = 0; i < samples(ms); i++) write(random.nextGaussian() * rms);
+            durationMs += ms;
+            return this;
+        }
+
+        byte[] pcm() {
+            return pcm.toByteArray();
+        }
+
+        private void write(double value) {
+            short sample = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(value)));
+            pcm.write(sample & 0xff);
+            pcm.write((sample >> 8) & 0xff);
+        }
+
+        private static int samples(int ms) {
+            return SAMPLE_RATE * ms / 1000;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.arcos.UnitTests.IO.InputHandling.VAD;
+
+import org.arcos.IO.InputHandling.VAD.SileroVoiceActivityDetector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exécuté seulement si le modèle Silero est présent localement (non versionné, téléchargé par le Dockerfile).
+ */
+class SileroVoiceActivityDetectorTest {
+
+    private static final Path MODEL = Path.of("models/silero_vad.onnx");
+
+    private SileroVoiceActivityDetector detector;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Assumptions.assumeTrue(Files.exists(MODEL), "modèle Silero VAD absent : " + MODEL);
+        detector = new SileroVoiceActivityDetector(MODEL);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (detector != null) detector.close();
+    }
+
+    @Test
+    void speechProbability_OnSilence_ShouldStayLow() {
+        // Given
+        short[] silence = new short[detector.getFrameSamples()];
+
+        // When / Then
+        for (int i = 0; i < 30; i++) {
+            assertTrue(detector.speechProbability(silence) < 0.2f);
+        }
+    }
+
+    @Test
+    void reset_ShouldMakeInferenceRepeatable() {
+        // Given
+        short[][] frames = noiseFrames(10);
+
+        // When
+        float first = runAll(frames);
+        detector.reset();
+        float second = runAll(frames);
+
+        // Then
+        assertTrue(first >= 0f && first <= 1f);
+        assertEquals(first, second, 1e-5);
+    }
+
+    private float runAll(short[][] frames) {
+        float last = 0f;
+        for (short[] frame : frames) last = detector.speechProbability(frame);
+        return last;
+    }
+
+    private short[][] noiseFrames(int count) {
+        Random random = new Random(42);
+        short[][] frames = new short[count][detector.getFrameSamples()];
+        for (short[] frame : frames) {
+            for (int i = 0; i < frame.length; i++) frame[i] = (short) (random.nextGaussian() * 800);
+        }
+        return frames;
+    }
+}
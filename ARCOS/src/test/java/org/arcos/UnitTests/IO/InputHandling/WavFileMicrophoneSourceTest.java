@@ -0,0 +1,141 @@
+package org.arcos.UnitTests.IO.InputHandling;
+
+import org.arcos.IO.InputHandling.WavFileMicrophoneSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WavFileMicrophoneSourceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void read_ShouldPlaySessionsInNameOrderSeparatedBySilence() throws Exception {
+        // Given : deux sessions de 100 ms à amplitude constante, 50 ms de silence autour
+        writeWav(dir.resolve("b.wav"), 16000, 1, 1600, (short) 2000);
+        writeWav(dir.resolve("a.wav"), 16000, 1, 1600, (short) 1000);
+        WavFileMicrophoneSource source = WavFileMicrophoneSource.open(dir, 0, 50);
+        List<String> started = new ArrayList<>();
+        source.setSessionListener((index, file) -> started.add(index + ":" + file.getFileName()));
+
+        // When
+        short[] samples = readAll(source);
+
+        // Then : silence, a, silence, b, silence puis fin de flux
+        assertThat(samples).hasSize(800 + 1600 + 800 + 1600 + 800);
+        assertThat(samples[799]).isEqualTo((short) 0);
+        assertThat(samples[800]).isEqualTo((short) 1000);
+        assertThat(samples[2399]).isEqualTo((short) 1000);
+        assertThat(samples[2400]).isEqualTo((short) 0);
+        assertThat(samples[3200]).isEqualTo((short) 2000);
+        assertThat(samples[samples.length - 1]).isEqualTo((short) 0);
+        assertThat(started).containsExactly("0:a.wav", "1:b.wav");
+    }
+
+    @Test
+    void read_ShouldConvertToMono16kHz() throws Exception {
+        // Given : 1 s en stéréo 44,1 kHz
+        Path wav = dir.resolve("stereo.wav");
+        writeWav(wav, 44100, 2, 44100, (short) 3000);
+        WavFileMicrophoneSource source = new WavFileMicrophoneSource(List.of(wav), 0, 0);
+
+        // When
+        short[] samples = readAll(source);
+
+        // Then
+        assertThat(source.getSampleRate()).isEqualTo(16000);
+        assertThat(samples.length).isBetween(15990, 16010);
+        assertThat(samples[8000]).isBetween((short) 2900, (short) 3100);
+    }
+
+    @Test
+    void read_ShouldPaceAudioOnWallClock() throws Exception {
+        // Given : 400 ms d'audio rejoué deux fois plus vite que le temps réel
+        Path wav = dir.resolve("session.wav");
+        writeWav(wav, 16000, 1, 6400, (short) 500);
+        WavFileMicrophoneSource source = new WavFileMicrophoneSource(List.of(wav), 2.0, 0);
+
+        // When
+        long start = System.nanoTime();
+        readAll(source);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertThat(elapsedMs).isBetween(180L, 400L);
+    }
+
+    @Test
+    void read_ShouldSkipUnreadableSessions() throws Exception {
+        // Given
+        Path broken = dir.resolve("broken.wav");
+        Files.writeString(broken, "pas un fichier audio");
+        Path wav = dir.resolve("valid.wav");
+        writeWav(wav, 16000, 1, 320, (short) 700);
+        WavFileMicrophoneSource source = new WavFileMicrophoneSource(List.of(broken, wav), 0, 0);
+
+        // When
+        short[] samples = readAll(source);
+
+        // Then
+        assertThat(samples).hasSize(320);
+        assertThat(samples[0]).isEqualTo((short) 700);
+    }
+
+    @Test
+    void read_AfterClose_ShouldReturnEndOfStream() throws Exception {
+        // Given
+        Path wav = dir.resolve("session.wav");
+        writeWav(wav, 16000, 1, 16000, (short) 100);
+        WavFileMicrophoneSource source = new WavFileMicrophoneSource(List.of(wav), 0, 0);
+
+        // When
+        source.close();
+
+        // Then
+        assertThat(source.read(new byte[640], 0, 640)).isEqualTo(-1);
+        assertThat(source.isAvailable()).isFalse();
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    /** Lit la source par blocs de 20 ms, comme AudioCapture, jusqu'à la fin du flux. */
+    private static short[] readAll(WavFileMicrophoneSource source) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[640];
+        int read;
+        while ((read = source.read(buffer, 0, buffer.length)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        byte[] bytes = out.toByteArray();
+        short[] samples = new short[bytes.length / 2];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) ((bytes[2 * i] & 0xFF) | (bytes[2 * i + 1] << 8));
+        }
+        return samples;
+    }
+
+    private static void writeWav(Path file, int sampleRate, int channels, int frames, short value) throws Exception {
+        AudioFormat format = new AudioFormat(sampleRate, 16, channels, true, false);
+        byte[] data = new byte[frames * channels * 2];
+        for (int i = 0; i < frames * channels; i++) {
+            data[2 * i] = (byte) value;
+            data[2 * i + 1] = (byte) (value >> 8);
+        }
+        try (AudioInputStream in = new AudioInputStream(new ByteArrayInputStream(data), format, frames)) {
+            AudioSystem.write(in, AudioFileFormat.Type.WAVE, file.toFile());
+        }
+    }
+}
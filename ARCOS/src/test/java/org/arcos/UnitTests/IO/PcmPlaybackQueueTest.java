@@ -0,0 +1,210 @@
+package org.arcos.UnitTests.IO;
+
+import org.arcos.IO.OuputHandling.Playback.PcmOutput;
+import org.arcos.IO.OuputHandling.Playback.PcmPlaybackQueue;
+import org.arcos.IO.OuputHandling.Playback.PcmStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PcmPlaybackQueueTest {
+
+    private CapturingOutput output;
+    private PcmPlaybackQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        output = new CapturingOutput();
+        queue = new PcmPlaybackQueue(output);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.close();
+    }
+
+    @Test
+    void enqueue_shouldStartPlayback_beforeSynthesisCompletes() {
+        // Given
+        PcmStream stream = queue.enqueue(null);
+
+        // When : seul le premier bloc est disponible
+        stream.write(new byte[]{1, 2, 3, 4}, 0, 4);
+
+        // Then
+        await().atMost(Duration.ofSeconds(2)).until(() -> output.events.contains("write:1"));
+        assertFalse(stream.played().isDone());
+        stream.complete();
+        await().atMost(Duration.ofSeconds(2)).until(() -> stream.played().isDone());
+    }
+
+    @Test
+    void enqueue_shouldPlayInRequestOrder_evenWhenLaterSentenceIsReadyFirst() {
+        // Given
+        PcmStream first = queue.enqueue(null);
+        PcmStream second = queue.enqueue(null);
+
+        // When : la deuxième phrase est synthétisée avant la première
+        second.write(new byte[]{2, 2}, 0, 2);
+        second.complete();
+        first.write(new byte[]{1, 1}, 0, 2);
+        first.complete();
+
+        // Then
+        await().atMost(Duration.ofSeconds(2)).until(() -> second.played().isDone());
+        assertEquals(List.of("write:1", "write:2"), output.writes());
+    }
+
+    @Test
+    void callbacks_shouldRunAfterOutputIsDrained() throws InterruptedException {
+        // Given
+        CountDownLatch done = new CountDownLatch(2);
+        PcmStream stream = queue.enqueue(() -> {
+            output.events.add("onComplete");
+            done.countDown();
+        });
+        queue.afterPending(() -> {
+            output.events.add("afterPlayback");
+            done.countDown();
+        });
+
+        // When
+        stream.write(new byte[]{7, 7}, 0, 2);
+        stream.complete();
+
+        // Then
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("write:7", "drain", "onComplete", "drain", "afterPlayback"), output.events);
+    }
+
+    @Test
+    void onComplete_shouldStillRun_whenSynthesisFails() throws InterruptedException {
+        // Given
+        CountDownLatch done = new CountDownLatch(1);
+        PcmStream stream = queue.enqueue(done::countDown);
+
+        // When
+        stream.fail(new IOException("Piper mort"));
+
+        // Then : le handshake micro ne doit jamais rester bloqué
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertTrue(stream.played().isCompletedExceptionally());
+    }
+
+    @Test
+    void cancel_shouldStopPlaybackWithinOneSlice_andSkipQueuedSentences() throws InterruptedException {
+        // Given : une sortie "temps réel" (chaque tranche de 40 ms bloque 40 ms)
+        output.realTime = true;
+        CountDownLatch secondDone = new CountDownLatch(1);
+        PcmStream first = queue.enqueue(null);
+        PcmStream second = queue.enqueue(secondDone::countDown);
+        first.write(new byte[22050 * 2], 0, 22050 * 2); // 1 s d'audio
+        first.complete();
+        await().atMost(Duration.ofSeconds(2)).until(() -> output.writes().size() >= 2);
+
+        // When
+        queue.cancel(List.of(first, second));
+
+        // Then : le callback de la phrase annulée a déjà été exécuté, la sortie vidée
+        assertEquals(0, secondDone.getCount());
+        assertTrue(output.events.contains("flush"));
+        int writesAtCancel = output.writes().size();
+        Thread.sleep(200);
+        assertTrue(output.writes().size() <= writesAtCancel + 1, "au plus une tranche après l'annulation");
+        assertTrue(writesAtCancel < 25, "la seconde d'audio ne doit pas être jouée entièrement");
+    }
+
+    @Test
+    void cancel_shouldRunCancelCallbackInsteadOfCompletion() throws InterruptedException {
+        // Given : une phrase dont la fin réelle réarme le micro
+        List<String> calls = new ArrayList<>();
+        PcmStream stream = queue.enqueue(() -> calls.add("onComplete"), () -> calls.add("onCancel"));
+        PcmStream marker = queue.afterPending(() -> calls.add("afterPlayback"), null);
+
+        // When
+        queue.cancel(List.of(stream, marker));
+
+        // Then : seul le callback d'annulation s'exécute, une seule fois
+        assertEquals(List.of("onCancel"), calls);
+        CountDownLatch drained = new CountDownLatch(1);
+        queue.afterPending(drained::countDown);
+        assertTrue(drained.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("onCancel"), calls);
+    }
+
+    @Test
+    void cancelAll_shouldLeaveQueueUsableForNextTurn() {
+        // Given
+        PcmStream stale = queue.enqueue(null);
+        queue.cancelAll();
+
+        // When
+        PcmStream fresh = queue.enqueue(null);
+        fresh.write(new byte[]{9, 9}, 0, 2);
+        fresh.complete();
+
+        // Then
+        await().atMost(Duration.ofSeconds(2)).until(() -> fresh.played().isDone());
+        assertTrue(stale.isCancelled());
+        assertEquals(List.of("write:9"), output.writes());
+    }
+
+    private static class CapturingOutput implements PcmOutput {
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        volatile boolean realTime = false;
+
+        @Override
+        public AudioFormat getFormat() {
+            return new AudioFormat(22050, 16, 1, true, false);
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) {
+            events.add("write:" + data[offset]);
+            if (realTime) {
+                try {
+                    Thread.sleep(length * 1000L / (22050 * 2));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void drain() {
+            events.add("drain");
+        }
+
+        @Override
+        public void flush() {
+            events.add("flush");
+        }
+
+        @Override
+        public String describe() {
+            return "capture";
+        }
+
+        @Override
+        public void close() {
+        }
+
+        List<String> writes() {
+            synchronized (events) {
+                return events.stream().filter(e -> e.startsWith("write:")).toList();
+            }
+        }
+    }
+}
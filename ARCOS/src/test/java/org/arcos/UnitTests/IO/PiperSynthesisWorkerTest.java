@@ -0,0 +1,144 @@
+package org.arcos.UnitTests.IO;
+
+import org.arcos.IO.OuputHandling.PiperSynthesisWorker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests du worker Piper persistant contre un faux exécutable "piper" (script bash) qui reproduit
+ * le protocole --json-input / --output_raw : 0.1 s de PCM sur stdout puis la ligne
+ * "Real-time factor" sur stderr pour chaque ligne lue.
+ */
+class PiperSynthesisWorkerTest {
+
+    private static final int SAMPLE_RATE = 22050;
+    private static final int BYTES_PER_UTTERANCE = 4410; // 0.1 s, 16-bit mono
+
+    @TempDir
+    Path tempDir;
+
+    private Path startLog;
+    private PiperSynthesisWorker worker;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Assumptions.assumeTrue(new File("/bin/bash").canExecute(), "bash requis pour le faux Piper");
+        startLog = tempDir.resolve("starts.log");
+        Path fakePiper = tempDir.resolve("piper");
+        Files.writeString(fakePiper, """
+                #!/bin/bash
+                echo "$@" >> "%s"
+                echo "[piper] [info] Loaded voice in 0.5 second(s)" >&2
+                while IFS= read -r line; do
+                  case "$line" in *CRASH*) exit 3;; *SLOW*) sleep 10;; esac
+                  head -c %d /dev/zero
+                  echo "[piper] [info] Real-time factor: 0.05 (infer=0.005 sec, audio=0.1 sec)" >&2
+                done
+                """.formatted(startLog, BYTES_PER_UTTERANCE));
+        assertTrue(fakePiper.toFile().setExecutable(true));
+
+        worker = new PiperSynthesisWorker(fakePiper.toString(),
+                tempDir.resolve("model.onnx").toFile(), tempDir.resolve("model.onnx.json").toFile(),
+                SAMPLE_RATE, "test-worker");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (worker != null) worker.close();
+    }
+
+    @Test
+    void synthesize_shouldReuseSingleProcess_acrossSentences() throws Exception {
+        // Given
+        worker.start(PiperSynthesisWorker.Prosody.DEFAULT);
+
+        // When
+        byte[] first = worker.synthesize("Bonjour.", PiperSynthesisWorker.Prosody.DEFAULT);
+        byte[] second = worker.synthesize("Comment vas-tu ?", PiperSynthesisWorker.Prosody.DEFAULT);
+        byte[] third = worker.synthesize("Très bien.", PiperSynthesisWorker.Prosody.DEFAULT);
+
+        // Then
+        assertEquals(BYTES_PER_UTTERANCE, first.length);
+        assertEquals(BYTES_PER_UTTERANCE, second.length);
+        assertEquals(BYTES_PER_UTTERANCE, third.length);
+        assertEquals(1, startCount(), "Piper ne doit être lancé qu'une seule fois");
+    }
+
+    @Test
+    void synthesize_shouldRestartProcess_whenProsodyChanges() throws Exception {
+        // Given
+        worker.start(PiperSynthesisWorker.Prosody.DEFAULT);
+
+        // When
+        worker.synthesize("Phrase calme.", PiperSynthesisWorker.Prosody.of(1.2f, 0.5f, 0.8f));
+        worker.synthesize("Même humeur.", PiperSynthesisWorker.Prosody.of(1.21f, 0.51f, 0.79f));
+
+        // Then : la deuxième prosodie quantifiée est identique, pas de nouvelle relance
+        assertEquals(2, startCount());
+    }
+
+    @Test
+    void synthesize_shouldFailFast_andRestart_whenProcessCrashes() throws Exception {
+        // Given
+        worker.start(PiperSynthesisWorker.Prosody.DEFAULT);
+
+        // When
+        assertThrows(IOException.class,
+                () -> worker.synthesize("CRASH", PiperSynthesisWorker.Prosody.DEFAULT));
+
+        // Then : le superviseur relance le processus et la synthèse suivante fonctionne
+        await().atMost(java.time.Duration.ofSeconds(5)).until(worker::isAlive);
+        byte[] pcm = worker.synthesize("Après la panne.", PiperSynthesisWorker.Prosody.DEFAULT);
+        assertEquals(BYTES_PER_UTTERANCE, pcm.length);
+        assertEquals(1, worker.getRestartCount());
+    }
+
+    @Test
+    void synthesize_shouldAbortAndRestart_whenCancelledMidSentence() throws Exception {
+        // Given
+        worker.start(PiperSynthesisWorker.Prosody.DEFAULT);
+        long cancelAt = System.currentTimeMillis() + 200;
+        List<Integer> delivered = new java.util.concurrent.CopyOnWriteArrayList<>();
+
+        // When
+        long startedAt = System.currentTimeMillis();
+        assertThrows(java.util.concurrent.CancellationException.class,
+                () -> worker.synthesize("SLOW", PiperSynthesisWorker.Prosody.DEFAULT,
+                        (data, offset, length) -> delivered.add(length),
+                        () -> System.currentTimeMillis() >= cancelAt));
+
+        // Then : pas d'attente de la fin de phrase, et le processus est relancé pour la suivante
+        assertTrue(System.currentTimeMillis() - startedAt < 5_000, "la synthèse annulée doit rendre la main");
+        assertTrue(delivered.isEmpty());
+        await().atMost(java.time.Duration.ofSeconds(5)).until(worker::isAlive);
+        byte[] pcm = worker.synthesize("Phrase suivante.", PiperSynthesisWorker.Prosody.DEFAULT);
+        assertEquals(BYTES_PER_UTTERANCE, pcm.length);
+        assertEquals(0, worker.getRestartCount(), "une annulation n'est pas un plantage");
+    }
+
+    @Test
+    void prosody_shouldQuantizeToFiveHundredths() {
+        PiperSynthesisWorker.Prosody prosody = PiperSynthesisWorker.Prosody.of(1.02f, 0.667f, 0.81f);
+
+        assertEquals(1.0f, prosody.lengthScale(), 1e-6);
+        assertEquals(0.65f, prosody.noiseScale(), 1e-6);
+        assertEquals(0.8f, prosody.noiseW(), 1e-6);
+    }
+
+    private long startCount() throws IOException {
+        List<String> lines = Files.exists(startLog) ? Files.readAllLines(startLog) : List.of();
+        return lines.stream().filter(l -> !l.isBlank()).count();
+    }
+}
@@ -0,0 +1,108 @@
+package org.arcos.UnitTests.IO;
+
+import org.arcos.IO.OuputHandling.PiperSynthesisWorker;
+import org.arcos.IO.OuputHandling.PiperWorkerPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests du pool de workers Piper contre un faux exécutable qui met 300 ms à "synthétiser"
+ * chaque ligne et journalise le début et la fin de chaque synthèse.
+ */
+class PiperWorkerPoolTest {
+
+    private static final PiperSynthesisWorker.Prosody CALM = PiperSynthesisWorker.Prosody.of(1.2f, 0.5f, 0.8f);
+
+    @TempDir
+    Path tempDir;
+
+    private Path activityLog;
+    private Path startLog;
+    private PiperWorkerPool pool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Assumptions.assumeTrue(new File("/bin/bash").canExecute(), "bash requis pour le faux Piper");
+        activityLog = tempDir.resolve("activity.log");
+        startLog = tempDir.resolve("starts.log");
+        Path fakePiper = tempDir.resolve("piper");
+        Files.writeString(fakePiper, """
+                #!/bin/bash
+                echo "$@" >> "%s"
+                while IFS= read -r line; do
+                  echo "start" >> "%s"
+                  sleep 0.3
+                  head -c 4410 /dev/zero
+                  echo "end" >> "%s"
+                  echo "[piper] [info] Real-time factor: 0.05 (infer=0.3 sec, audio=0.1 sec)" >&2
+                done
+                """.formatted(startLog, activityLog, activityLog));
+        assertTrue(fakePiper.toFile().setExecutable(true));
+
+        List<PiperSynthesisWorker> workers = List.of(
+                new PiperSynthesisWorker(fakePiper.toString(), new File("m.onnx"), new File("m.onnx.json"), 22050, "w1"),
+                new PiperSynthesisWorker(fakePiper.toString(), new File("m.onnx"), new File("m.onnx.json"), 22050, "w2"));
+        pool = new PiperWorkerPool(workers);
+        pool.start(PiperSynthesisWorker.Prosody.DEFAULT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) pool.close();
+    }
+
+    @Test
+    void autoSize_shouldUseHalfTheCores_withinBounds() {
+        assertEquals(1, PiperWorkerPool.autoSize(1));
+        assertEquals(2, PiperWorkerPool.autoSize(4));
+        assertEquals(3, PiperWorkerPool.autoSize(16));
+    }
+
+    @Test
+    void synthesize_shouldRenderSentencesConcurrently() throws Exception {
+        // When : deux phrases demandées en même temps
+        CompletableFuture<byte[]> first = CompletableFuture.supplyAsync(() -> synthesize("Première phrase."));
+        CompletableFuture<byte[]> second = CompletableFuture.supplyAsync(() -> synthesize("Deuxième phrase."));
+
+        // Then : la deuxième synthèse a commencé avant la fin de la première
+        assertEquals(4410, first.get(5, TimeUnit.SECONDS).length);
+        assertEquals(4410, second.get(5, TimeUnit.SECONDS).length);
+        assertEquals(List.of("start", "start", "end", "end"), Files.readAllLines(activityLog));
+    }
+
+    @Test
+    void synthesize_shouldPreferWorkerAlreadyRunningRequestedProsody() throws Exception {
+        // Given : un worker relancé avec la prosodie calme
+        pool.synthesize("Phrase calme.", CALM);
+        long startsAfterFirstChange = Files.readAllLines(startLog).size();
+
+        // When
+        pool.synthesize("Encore calme.", CALM);
+        pool.synthesize("Retour au neutre.", PiperSynthesisWorker.Prosody.DEFAULT);
+
+        // Then : aucune relance supplémentaire
+        assertEquals(3, startsAfterFirstChange);
+        assertEquals(3, Files.readAllLines(startLog).size());
+    }
+
+    private byte[] synthesize(String text) {
+        try {
+            return pool.synthesize(text, PiperSynthesisWorker.Prosody.DEFAULT);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
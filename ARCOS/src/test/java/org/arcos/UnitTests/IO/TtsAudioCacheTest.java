@@ -0,0 +1,104 @@
+package org.arcos.UnitTests.IO;
+
+import org.arcos.IO.OuputHandling.PiperSynthesisWorker;
+import org.arcos.IO.OuputHandling.TtsAudioCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TtsAudioCacheTest {
+
+    private static final String VOICE = "fr_FR-glados-medium.onnx:1234";
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    void key_shouldIgnoreWhitespaceVariants() {
+        String a = TtsAudioCache.key(VOICE, PiperSynthesisWorker.Prosody.DEFAULT, "Bonjour  le monde.");
+        String b = TtsAudioCache.key(VOICE, PiperSynthesisWorker.Prosody.DEFAULT, " Bonjour le\nmonde. ");
+
+        assertEquals(a, b);
+    }
+
+    @Test
+    void key_shouldDifferByProsodyAndVoice() {
+        String base = TtsAudioCache.key(VOICE, PiperSynthesisWorker.Prosody.DEFAULT, "Bonjour.");
+        String otherMood = TtsAudioCache.key(VOICE, PiperSynthesisWorker.Prosody.of(1.3f, 0.5f, 0.8f), "Bonjour.");
+        String otherVoice = TtsAudioCache.key("fr_FR-upmc-medium.onnx:42", PiperSynthesisWorker.Prosody.DEFAULT, "Bonjour.");
+
+        assertNotEquals(base, otherMood);
+        assertNotEquals(base, otherVoice);
+    }
+
+    @Test
+    void get_shouldCountHitsAndMisses() {
+        // Given
+        TtsAudioCache cache = new TtsAudioCache(1024, null, 0);
+        cache.put("k1", new byte[]{1, 2});
+
+        // When
+        byte[] hit = cache.get("k1");
+        byte[] miss = cache.get("k2");
+
+        // Then
+        assertArrayEquals(new byte[]{1, 2}, hit);
+        assertNull(miss);
+        assertEquals(1, cache.getMemoryHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void put_shouldEvictLeastRecentlyUsed_whenMemoryBudgetExceeded() {
+        // Given : budget de 300 octets, trois entrées de 100
+        TtsAudioCache cache = new TtsAudioCache(300, null, 0);
+        cache.put("a", new byte[100]);
+        cache.put("b", new byte[100]);
+        cache.put("c", new byte[100]);
+        cache.get("a"); // "b" devient la plus ancienne
+
+        // When
+        cache.put("d", new byte[100]);
+
+        // Then
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(300, cache.getMemoryBytes());
+    }
+
+    @Test
+    void get_shouldFindEntryOnDisk_afterRestart() {
+        // Given
+        String key = TtsAudioCache.key(VOICE, PiperSynthesisWorker.Prosody.DEFAULT, "Rappel d'événement.");
+        new TtsAudioCache(1024, cacheDir, 1024 * 1024).put(key, new byte[]{4, 2});
+
+        // When : nouvelle instance, mémoire vide
+        TtsAudioCache restarted = new TtsAudioCache(1024, cacheDir, 1024 * 1024);
+        byte[] first = restarted.get(key);
+        byte[] second = restarted.get(key);
+
+        // Then : premier accès depuis le disque, puis promu en mémoire
+        assertArrayEquals(new byte[]{4, 2}, first);
+        assertArrayEquals(new byte[]{4, 2}, second);
+        assertEquals(1, restarted.getDiskHits());
+        assertEquals(1, restarted.getMemoryHits());
+    }
+
+    @Test
+    void put_shouldBoundDiskUsage() {
+        // Given
+        TtsAudioCache cache = new TtsAudioCache(0, cacheDir, 250);
+
+        // When
+        cache.put("a", new byte[100]);
+        cache.put("b", new byte[100]);
+        cache.put("c", new byte[100]);
+
+        // Then
+        assertTrue(cache.getDiskBytes() <= 250);
+        assertNotNull(cache.get("c"));
+    }
+}
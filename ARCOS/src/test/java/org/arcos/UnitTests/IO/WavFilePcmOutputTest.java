@@ -0,0 +1,109 @@
+package org.arcos.UnitTests.IO;
+
+import org.arcos.IO.OuputHandling.Playback.WavFilePcmOutput;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WavFilePcmOutputTest {
+
+    private static final AudioFormat FORMAT = new AudioFormat(16000, 16, 1, true, false);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void drain_ShouldTakeAsLongAsPlayback() throws Exception {
+        // Given
+        Path file = dir.resolve("tts.wav");
+        WavFilePcmOutput output = WavFilePcmOutput.open(FORMAT, file);
+        byte[] halfSecond = tone(8000);
+
+        // When
+        long start = System.nanoTime();
+        output.write(halfSecond, 0, halfSecond.length);
+        output.drain();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        output.close();
+
+        // Then
+        assertThat(elapsedMs).isBetween(480L, 700L);
+        try (AudioInputStream in = AudioSystem.getAudioInputStream(file.toFile())) {
+            assertThat(in.getFormat().getSampleRate()).isEqualTo(16000f);
+            assertThat(in.getFrameLength()).isBetween(8000L, 8200L);
+        }
+    }
+
+    @Test
+    void write_AfterIdlePeriod_ShouldKeepFileAlignedOnWallClock() throws Exception {
+        // Given
+        Path file = dir.resolve("tts.wav");
+        WavFilePcmOutput output = WavFilePcmOutput.open(FORMAT, file);
+        byte[] block = tone(1600);
+
+        // When : 300 ms sans rien jouer, puis 100 ms de voix
+        Thread.sleep(300);
+        output.write(block, 0, block.length);
+        output.close();
+
+        // Then : la voix commence après ~300 ms de silence
+        byte[] pcm = readPcm(file);
+        int firstSound = firstNonZeroSample(pcm);
+        assertThat(firstSound).isBetween(16000 * 280 / 1000, 16000 * 400 / 1000);
+        assertThat(pcm.length / 2 - firstSound).isEqualTo(1600);
+    }
+
+    @Test
+    void flush_ShouldDropAudioNotYetPlayed() throws Exception {
+        // Given : 2 s écrites d'un coup, write() ne bloque qu'au-delà de son tampon
+        Path file = dir.resolve("tts.wav");
+        WavFilePcmOutput output = WavFilePcmOutput.open(FORMAT, file);
+        byte[] twoSeconds = tone(32000);
+        Thread writer = new Thread(() -> {
+            try {
+                output.write(twoSeconds, 0, twoSeconds.length);
+            } catch (Exception ignored) {
+            }
+        });
+        writer.start();
+
+        // When : coupure au bout de 300 ms
+        Thread.sleep(300);
+        output.flush();
+        writer.join();
+        output.close();
+
+        // Then : seul l'audio « joué » reste dans le fichier
+        int samples = readPcm(file).length / 2;
+        assertThat(samples).isBetween(16000 * 250 / 1000, 16000 * 500 / 1000);
+    }
+
+    private static byte[] tone(int samples) {
+        byte[] pcm = new byte[samples * 2];
+        for (int i = 0; i < samples; i++) {
+            short s = (short) (4000 * Math.sin(2 * Math.PI * 440 * i / 16000.0) + 1);
+            pcm[2 * i] = (byte) s;
+            pcm[2 * i + 1] = (byte) (s >> 8);
+        }
+        return pcm;
+    }
+
+    private static byte[] readPcm(Path file) throws Exception {
+        try (AudioInputStream in = AudioSystem.getAudioInputStream(file.toFile())) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static int firstNonZeroSample(byte[] pcm) {
+        for (int i = 0; i < pcm.length / 2; i++) {
+            if (pcm[2 * i] != 0 || pcm[2 * i + 1] != 0) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,170 @@
+package org.arcos.UnitTests.LLM;
+
+import org.arcos.LLM.Embedding.CachingEmbeddingModel;
+import org.arcos.LLM.Embedding.EmbeddingDiskStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingEmbeddingModelTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void embed_sameTextTwice_shouldCallModelOnce() {
+        // Given
+        CountingEmbeddingModel delegate = new CountingEmbeddingModel();
+        CachingEmbeddingModel cache = new CachingEmbeddingModel(delegate, "mistral-embed", 10, null, null);
+
+        // When
+        float[] first = cache.embed("Quel temps fait-il ?");
+        float[] second = cache.embed("Quel temps fait-il ?");
+
+        // Then
+        assertArrayEquals(first, second);
+        assertEquals(1, delegate.calls.size());
+        assertEquals(1, cache.getMemoryHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void embedBatch_shouldSendOnlyMissesInOneCall_andKeepOrder() {
+        // Given
+        CountingEmbeddingModel delegate = new CountingEmbeddingModel();
+        CachingEmbeddingModel cache = new CachingEmbeddingModel(delegate, "mistral-embed", 10, null, null);
+        cache.embed("b");
+
+        // When
+        List<float[]> vectors = cache.embed(List.of("a", "b", "c"));
+
+        // Then
+        assertEquals(List.of(List.of("b"), List.of("a", "c")), delegate.calls);
+        assertArrayEquals(CountingEmbeddingModel.vectorFor("a"), vectors.get(0));
+        assertArrayEquals(CountingEmbeddingModel.vectorFor("b"), vectors.get(1));
+        assertArrayEquals(CountingEmbeddingModel.vectorFor("c"), vectors.get(2));
+    }
+
+    @Test
+    void memoryTier_shouldEvictLeastRecentlyUsed() {
+        // Given
+        CountingEmbeddingModel delegate = new CountingEmbeddingModel();
+        CachingEmbeddingModel cache = new CachingEmbeddingModel(delegate, "mistral-embed", 2, null, null);
+        cache.embed("a");
+        cache.embed("b");
+        cache.embed("a");
+
+        // When : "c" évince "b", le moins récemment utilisé
+        cache.embed("c");
+        cache.embed("a");
+        cache.embed("b");
+
+        // Then
+        assertEquals(2, cache.getMemorySize());
+        assertEquals(List.of(List.of("a"), List.of("b"), List.of("c"), List.of("b")), delegate.calls);
+    }
+
+    @Test
+    void diskTier_shouldSurviveRestart() throws IOException {
+        // Given
+        Path file = tempDir.resolve("embeddingModel.vec");
+        CountingEmbeddingModel firstDelegate = new CountingEmbeddingModel();
+        CachingEmbeddingModel firstRun = new CachingEmbeddingModel(firstDelegate, "mistral-embed", 10,
+                new EmbeddingDiskStore(file, 16), null);
+        float[] expected = firstRun.embed("souvenir");
+        firstRun.destroy();
+
+        // When
+        CountingEmbeddingModel secondDelegate = new CountingEmbeddingModel();
+        CachingEmbeddingModel secondRun = new CachingEmbeddingModel(secondDelegate, "mistral-embed", 10,
+                new EmbeddingDiskStore(file, 16), null);
+        float[] actual = secondRun.embed("souvenir");
+        secondRun.embed("souvenir");
+
+        // Then
+        assertArrayEquals(expected, actual);
+        assertTrue(secondDelegate.calls.isEmpty());
+        assertEquals(1, secondRun.getDiskHits());
+        assertEquals(1, secondRun.getMemoryHits());
+        secondRun.destroy();
+    }
+
+    @Test
+    void differentModelIds_shouldNotShareEntries() throws IOException {
+        // Given
+        Path file = tempDir.resolve("embeddingModel.vec");
+        CachingEmbeddingModel mistral = new CachingEmbeddingModel(new CountingEmbeddingModel(), "mistral-embed", 10,
+                new EmbeddingDiskStore(file, 16), null);
+        mistral.embed("bonjour");
+        mistral.destroy();
+
+        // When
+        CountingEmbeddingModel otherDelegate = new CountingEmbeddingModel();
+        CachingEmbeddingModel other = new CachingEmbeddingModel(otherDelegate, "autre-modele", 10,
+                new EmbeddingDiskStore(file, 16), null);
+        other.embed("bonjour");
+
+        // Then
+        assertEquals(1, otherDelegate.calls.size());
+        other.destroy();
+    }
+
+    @Test
+    void embedDocument_shouldUseDocumentText() {
+        // Given
+        CountingEmbeddingModel delegate = new CountingEmbeddingModel();
+        CachingEmbeddingModel cache = new CachingEmbeddingModel(delegate, "mistral-embed", 10, null, null);
+        cache.embed("Il aime le jazz.");
+
+        // When
+        float[] vector = cache.embed(new Document("Il aime le jazz."));
+
+        // Then
+        assertArrayEquals(CountingEmbeddingModel.vectorFor("Il aime le jazz."), vector);
+        assertEquals(1, delegate.calls.size());
+    }
+
+    /**
+     * Modèle factice : vecteur déterministe dérivé du texte, chaque appel est enregistré.
+     */
+    private static class CountingEmbeddingModel implements EmbeddingModel {
+
+        final List<List<String>> calls = new ArrayList<>();
+
+        static float[] vectorFor(String text) {
+            return new float[]{text.length(), text.hashCode(), text.isEmpty() ? 0 : text.charAt(0)};
+        }
+
+        @Override
+        public EmbeddingResponse call(EmbeddingRequest request) {
+            calls.add(List.copyOf(request.getInstructions()));
+            List<Embedding> embeddings = new ArrayList<>();
+            for (int i = 0; i < request.getInstructions().size(); i++) {
+                embeddings.add(new Embedding(vectorFor(request.getInstructions().get(i)), i));
+            }
+            return new EmbeddingResponse(embeddings);
+        }
+
+        @Override
+        public float[] embed(Document document) {
+            return vectorFor(document.getText());
+        }
+
+        @Override
+        public int dimensions() {
+            return 3;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.arcos.UnitTests.LLM;
+
+import org.arcos.LLM.Embedding.EmbeddingDiskStore;
+import org.arcos.LLM.Embedding.EmbeddingKey;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddingDiskStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void put_thenGet_shouldReturnSameVector() throws IOException {
+        // Given
+        try (EmbeddingDiskStore store = new EmbeddingDiskStore(tempDir.resolve("cache.vec"), 4)) {
+            EmbeddingKey key = EmbeddingKey.of("model", "bonjour");
+
+            // When
+            store.put(key, new float[]{0.1f, -0.2f, 0.3f});
+
+            // Then
+            assertArrayEquals(new float[]{0.1f, -0.2f, 0.3f}, store.get(key));
+            assertNull(store.get(EmbeddingKey.of("model", "bonsoir")));
+            assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    void put_beyondCapacity_shouldOverwriteOldestSlot() throws IOException {
+        // Given
+        try (EmbeddingDiskStore store = new EmbeddingDiskStore(tempDir.resolve("cache.vec"), 2)) {
+            EmbeddingKey first = EmbeddingKey.of("model", "un");
+            EmbeddingKey second = EmbeddingKey.of("model", "deux");
+            EmbeddingKey third = EmbeddingKey.of("model", "trois");
+
+            // When
+            store.put(first, new float[]{1f, 1f});
+            store.put(second, new float[]{2f, 2f});
+            store.put(third, new float[]{3f, 3f});
+
+            // Then
+            assertFalse(store.contains(first));
+            assertArrayEquals(new float[]{2f, 2f}, store.get(second));
+            assertArrayEquals(new float[]{3f, 3f}, store.get(third));
+            assertEquals(2, store.size());
+        }
+    }
+
+    @Test
+    void reopen_shouldRestoreIndexAndRingPosition() throws IOException {
+        // Given
+        Path file = tempDir.resolve("cache.vec");
+        EmbeddingKey first = EmbeddingKey.of("model", "un");
+        EmbeddingKey second = EmbeddingKey.of("model", "deux");
+        try (EmbeddingDiskStore store = new EmbeddingDiskStore(file, 2)) {
+            store.put(first, new float[]{1f, 1f});
+            store.put(second, new float[]{2f, 2f});
+        }
+
+        // When
+        try (EmbeddingDiskStore reopened = new EmbeddingDiskStore(file, 2)) {
+            reopened.put(EmbeddingKey.of("model", "trois"), new float[]{3f, 3f});
+
+            // Then : le plus ancien (avant redémarrage) est celui qui est écrasé
+            assertFalse(reopened.contains(first));
+            assertArrayEquals(new float[]{2f, 2f}, reopened.get(second));
+        }
+    }
+
+    @Test
+    void reopen_withDifferentCapacity_shouldStartEmpty() throws IOException {
+        // Given
+        Path file = tempDir.resolve("cache.vec");
+        try (EmbeddingDiskStore store = new EmbeddingDiskStore(file, 2)) {
+            store.put(EmbeddingKey.of("model", "un"), new float[]{1f, 1f});
+        }
+
+        // When
+        try (EmbeddingDiskStore reopened = new EmbeddingDiskStore(file, 8)) {
+
+            // Then
+            assertEquals(0, reopened.size());
+            assertFalse(Files.exists(file));
+        }
+    }
+
+    @Test
+    void put_withNewDimension_shouldResetStore() throws IOException {
+        // Given
+        try (EmbeddingDiskStore store = new EmbeddingDiskStore(tempDir.resolve("cache.vec"), 4)) {
+            EmbeddingKey old = EmbeddingKey.of("model", "un");
+            store.put(old, new float[]{1f, 1f});
+
+            // When
+            EmbeddingKey fresh = EmbeddingKey.of("model", "deux");
+            store.put(fresh, new float[]{2f, 2f, 2f});
+
+            // Then
+            assertFalse(store.contains(old));
+            assertArrayEquals(new float[]{2f, 2f, 2f}, store.get(fresh));
+        }
+    }
+}
@@ -5,7 +5,9 @@ import org.arcos.Memory.ConversationContext;
 import org.arcos.Memory.LongTermMemory.Models.DesireEntry;
 import org.arcos.Memory.LongTermMemory.Models.MemoryEntry;
 import org.arcos.Memory.LongTermMemory.Models.OpinionEntry;
+import org.arcos.Memory.LongTermMemory.Repositories.MemoryRepository;
 import org.arcos.Memory.LongTermMemory.Repositories.OpinionRepository;
+import org.arcos.Memory.LongTermMemory.service.TurnRetrievalService;
 import org.arcos.Personality.Mood.MoodStateHolder;
 import org.arcos.Personality.Mood.PadState;
 import org.arcos.Personality.Values.ValueProfile;
@@ -17,16 +19,23 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 /**
@@ -41,6 +50,12 @@ class PromptBuilderTest {
     @Mock
     private OpinionRepository opinionRepository;
 
+    @Mock
+    private MemoryRepository memoryRepository;
+
+    @Mock
+    private VectorStore memoryVectorStore;
+
     private PromptBuilder promptBuilder;
 
     @BeforeEach
@@ -188,6 +203,97 @@ class PromptBuilderTest {
                 builderNoOpinions.buildConversationnalPrompt(new ConversationContext(), "test"));
     }
 
+    // ===== Recherches de contexte parallèles sous budget =====
+
+    @Test
+    void buildConversationnalPrompt_shouldRunLookupsConcurrently() {
+        // Given : opinions et souvenirs prennent chacun 300 ms
+        when(opinionRepository.search(any(SearchRequest.class))).thenAnswer(inv -> {
+            Thread.sleep(300);
+            return List.of(new Document("Le café est essentiel.", Map.of("canonicalText", "Le café est essentiel.", "polarity", 0.8)));
+        });
+        when(memoryRepository.getVectorStore()).thenReturn(memoryVectorStore);
+        when(memoryVectorStore.similaritySearch(any(SearchRequest.class))).thenAnswer(inv -> {
+            Thread.sleep(300);
+            return List.of(new Document("L'utilisateur boit son café sans sucre."));
+        });
+        PromptBuilder builder = new PromptBuilder(new ValueProfile(), moodStateHolder, 3, true,
+                null, null, opinionRepository, memoryRepository, 3, 2000, null);
+
+        // When
+        long start = System.nanoTime();
+        Prompt prompt = builder.buildConversationnalPrompt(new ConversationContext(), "café");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then : durée proche du max des recherches, pas de leur somme
+        assertTrue(elapsedMs < 550, "Les recherches devraient être parallèles (" + elapsedMs + " ms)");
+        assertTrue(getSystemContent(prompt).contains("Le café est essentiel."));
+        assertTrue(getUserContent(prompt).startsWith("café"));
+        assertTrue(getUserContent(prompt).contains("## Souvenirs pertinents\nL'utilisateur boit son café sans sucre."));
+    }
+
+    @Test
+    void buildConversationnalPrompt_shouldDropLookup_whenBudgetExceeded() {
+        // Given : la recherche d'opinions dépasse le budget de 100 ms
+        when(opinionRepository.search(any(SearchRequest.class))).thenAnswer(inv -> {
+            Thread.sleep(2000);
+            return List.of(new Document("Trop tard.", Map.of("canonicalText", "Trop tard.", "polarity", 0.1)));
+        });
+        PromptBuilder builder = new PromptBuilder(new ValueProfile(), moodStateHolder, 3, true,
+                null, null, opinionRepository, null, 3, 100, null);
+
+        // When
+        long start = System.nanoTime();
+        Prompt prompt = builder.buildConversationnalPrompt(new ConversationContext(), "test");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertTrue(elapsedMs < 1000, "Le prompt ne doit pas attendre la source en retard (" + elapsedMs + " ms)");
+        assertFalse(getSystemContent(prompt).contains("Tes opinions"));
+        assertEquals("test", getUserContent(prompt));
+    }
+
+    @Test
+    void buildConversationnalPrompt_shouldInterruptLookup_whenBudgetExceeded() throws InterruptedException {
+        // Given : la recherche Qdrant du tour reste bloquée bien au-delà du budget
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embed(any(String.class))).thenReturn(new float[]{0.1f, 0.2f});
+        when(opinionRepository.getCollectionName()).thenReturn("Opinions");
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(opinionRepository.searchByVector(any(), anyInt())).thenAnswer(inv -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return List.of();
+        });
+        PromptBuilder builder = new PromptBuilder(new ValueProfile(), moodStateHolder, 3, true,
+                null, null, opinionRepository, null, 3, 100, new TurnRetrievalService(embeddingModel));
+
+        // When
+        builder.buildConversationnalPrompt(new ConversationContext(), "test");
+
+        // Then : la recherche abandonnée ne continue pas en arrière-plan
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS), "La recherche en retard doit être interrompue");
+    }
+
+    @Test
+    void buildConversationnalPrompt_shouldKeepQueryUnchanged_whenNoMemoryFound() {
+        // Given
+        when(memoryRepository.getVectorStore()).thenReturn(memoryVectorStore);
+        when(memoryVectorStore.similaritySearch(any(SearchRequest.class))).thenReturn(Collections.emptyList());
+        PromptBuilder builder = new PromptBuilder(new ValueProfile(), moodStateHolder, 3, true,
+                null, null, null, memoryRepository, 3, 1500, null);
+
+        // When
+        Prompt prompt = builder.buildConversationnalPrompt(new ConversationContext(), "bonjour");
+
+        // Then
+        assertEquals("bonjour", getUserContent(prompt));
+    }
+
     // ===== buildReWOOPlanPrompt — real construction =====
 
     @Test
@@ -282,4 +388,12 @@ class PromptBuilderTest {
                 .findFirst()
                 .orElse("");
     }
+
+    private String getUserContent(Prompt prompt) {
+        return prompt.getInstructions().stream()
+                .filter(msg -> msg instanceof UserMessage)
+                .map(msg -> ((UserMessage) msg).getText())
+                .findFirst()
+                .orElse("");
+    }
 }
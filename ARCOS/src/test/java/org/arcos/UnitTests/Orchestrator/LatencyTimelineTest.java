@@ -0,0 +1,117 @@
+package org.arcos.UnitTests.Orchestrator;
+
+import org.arcos.Orchestrator.LatencyTimeline;
+import org.arcos.Orchestrator.LatencyTimeline.Stage;
+import org.arcos.Orchestrator.LatencyTimeline.Turn;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyTimelineTest {
+
+    private LatencyTimeline timeline;
+    private List<Turn> turns;
+
+    @BeforeEach
+    void setUp() {
+        timeline = new LatencyTimeline();
+        turns = new ArrayList<>();
+        timeline.addListener(turns::add);
+    }
+
+    @Test
+    void mark_FirstAudio_ShouldCloseTurnWithAllStages() throws Exception {
+        // Given
+        timeline.startTurn();
+        timeline.mark(Stage.WAKE);
+        timeline.mark(Stage.END_OF_SPEECH);
+        Thread.sleep(20);
+        timeline.mark(Stage.TRANSCRIPT);
+        timeline.mark(Stage.FIRST_TOKEN);
+
+        // When : premier bloc écrit dans la sortie audio
+        timeline.onPlayback(null, new byte[0], 0, 0);
+
+        // Then
+        assertThat(turns).hasSize(1);
+        Turn turn = turns.get(0);
+        for (Stage stage : Stage.values()) {
+            assertThat(turn.has(stage)).isTrue();
+        }
+        assertThat(turn.millisBetween(Stage.END_OF_SPEECH, Stage.TRANSCRIPT)).isGreaterThanOrEqualTo(20);
+        assertThat(turn.millisBetween(Stage.WAKE, Stage.FIRST_AUDIO)).isGreaterThanOrEqualTo(20);
+    }
+
+    @Test
+    void mark_ShouldKeepFirstOccurrenceOnly() throws Exception {
+        // Given
+        timeline.startTurn();
+        timeline.mark(Stage.END_OF_SPEECH);
+        timeline.mark(Stage.TRANSCRIPT);
+        Thread.sleep(20);
+
+        // When
+        timeline.mark(Stage.TRANSCRIPT);
+        timeline.mark(Stage.FIRST_TOKEN);
+        timeline.mark(Stage.FIRST_AUDIO);
+        timeline.mark(Stage.FIRST_AUDIO);
+
+        // Then
+        assertThat(turns).hasSize(1);
+        assertThat(turns.get(0).millisBetween(Stage.TRANSCRIPT, Stage.FIRST_TOKEN)).isGreaterThanOrEqualTo(20);
+    }
+
+    @Test
+    void mark_WithoutPreviousStage_ShouldBeIgnored() {
+        // Given : une réponse antérieure joue encore alors que le nouveau tour n'est pas transcrit
+        timeline.startTurn();
+        timeline.mark(Stage.WAKE);
+        timeline.mark(Stage.END_OF_SPEECH);
+
+        // When
+        timeline.mark(Stage.FIRST_AUDIO);
+        timeline.mark(Stage.FIRST_TOKEN);
+
+        // Then : le tour reste ouvert
+        assertThat(turns).isEmpty();
+        timeline.mark(Stage.TRANSCRIPT);
+        timeline.mark(Stage.FIRST_TOKEN);
+        timeline.mark(Stage.FIRST_AUDIO);
+        assertThat(turns).hasSize(1);
+    }
+
+    @Test
+    void mark_WithoutOpenTurn_ShouldBeIgnored() {
+        // When : parole d'une initiative, hors de tout tour
+        timeline.mark(Stage.FIRST_TOKEN);
+        timeline.mark(Stage.FIRST_AUDIO);
+
+        // Then
+        assertThat(turns).isEmpty();
+    }
+
+    @Test
+    void startTurn_ShouldAbandonUnfinishedTurn() {
+        // Given : transcription vide, le tour n'a jamais atteint le LLM
+        timeline.startTurn();
+        timeline.mark(Stage.WAKE);
+        timeline.mark(Stage.END_OF_SPEECH);
+
+        // When : tour suivant en mode conversation, sans mot de réveil
+        timeline.startTurn();
+        timeline.mark(Stage.END_OF_SPEECH);
+        timeline.mark(Stage.TRANSCRIPT);
+        timeline.mark(Stage.FIRST_TOKEN);
+        timeline.mark(Stage.FIRST_AUDIO);
+
+        // Then
+        assertThat(turns).hasSize(1);
+        assertThat(turns.get(0).getId()).isEqualTo(2);
+        assertThat(turns.get(0).has(Stage.WAKE)).isFalse();
+        assertThat(turns.get(0).millisBetween(Stage.WAKE, Stage.FIRST_AUDIO)).isEqualTo(-1);
+    }
+}
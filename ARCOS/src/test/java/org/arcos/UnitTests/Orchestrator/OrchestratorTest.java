@@ -1,9 +1,11 @@
 package org.arcos.UnitTests.Orchestrator;
 
 import org.arcos.Configuration.AudioProperties;
+import org.arcos.Configuration.TtsProperties;
 import org.arcos.EventBus.EventQueue;
 import org.arcos.Memory.ConversationSummaryService;
 import org.arcos.EventBus.Events.Event;
+import org.arcos.EventBus.Events.EventPriority;
 import org.arcos.EventBus.Events.EventType;
 import org.arcos.IO.OuputHandling.PiperEmbeddedTTSModule;
 import org.arcos.Producers.WakeWordProducer;
@@ -39,9 +41,19 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import reactor.core.publisher.Flux;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyFloat;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -132,8 +144,9 @@ class OrchestratorTest {
                 executionHistoryService,
                 wakeWordProducer,
                 audioProperties,
+                new TtsProperties(),
                 conversationSummaryService,
-                null, null, null
+                null, null, null, null
         );
         ReflectionTestUtils.setField(orchestrator, "ttsHandler", piperEmbeddedTTSModule);
     }
@@ -166,7 +179,9 @@ class OrchestratorTest {
         // Then
         verify(promptBuilder).buildConversationnalPrompt(conversationContext, userQuery);
         verify(chatOrchestrator).generateStreamingChatResponse(any(Prompt.class));
-        verify(piperEmbeddedTTSModule, times(2)).speakAsync(any(String.class), anyFloat(), anyFloat(), anyFloat());
+        // La dernière phrase n'est confirmée qu'en fin de flux : elle porte le callback de fin de TTS
+        verify(piperEmbeddedTTSModule, times(1)).speakAsync(any(String.class), anyFloat(), anyFloat(), anyFloat());
+        verify(piperEmbeddedTTSModule, times(1)).speakAsync(any(String.class), anyFloat(), anyFloat(), anyFloat(), any(Runnable.class), isNull());
 
         verify(conversationContext).addUserMessage(userQuery);
         verify(conversationContext).addAssistantMessage(fullResponse);
@@ -178,6 +193,100 @@ class OrchestratorTest {
         verify(promptBuilder, timeout(1000)).buildMoodUpdatePrompt(any(), eq(userQuery), eq(fullResponse));
     }
 
+    @Test
+    void dispatch_WakeWordEvent_ShouldDisposeStaleResponseAndCancelSpeech() {
+        // Given : une première réponse encore en streaming
+        AtomicBoolean staleCancelled = new AtomicBoolean(false);
+        Flux<String> staleStream = Flux.<String>never().doOnCancel(() -> staleCancelled.set(true));
+        when(promptBuilder.buildConversationnalPrompt(any(ConversationContext.class), any(String.class))).thenReturn(new Prompt(""));
+        when(chatOrchestrator.generateStreamingChatResponse(any(Prompt.class)))
+                .thenReturn(staleStream)
+                .thenReturn(Flux.just("Nouvelle réponse."));
+        when(moodStateHolder.getPadState()).thenReturn(new PadState());
+        when(moodVoiceMapper.mapToVoice(any(PadState.class))).thenReturn(new MoodVoiceMapper.VoiceParams(1.0f, 0.6f, 0.8f));
+        orchestrator.dispatch(new Event<>(EventType.WAKEWORD, "première question", "test"));
+
+        // When : l'utilisateur relance avant la fin
+        orchestrator.dispatch(new Event<>(EventType.WAKEWORD, "deuxième question", "test"));
+
+        // Then
+        assertTrue(staleCancelled.get(), "Le flux LLM obsolète doit être annulé");
+        verify(piperEmbeddedTTSModule, times(2)).cancelAll();
+        verify(conversationContext, never()).addUserMessage("première question");
+    }
+
+    @Test
+    void dispatch_BargeInEvent_ShouldDisposeResponseAndCancelSpeech() {
+        // Given : une réponse en cours de streaming
+        AtomicBoolean responseCancelled = new AtomicBoolean(false);
+        when(promptBuilder.buildConversationnalPrompt(any(ConversationContext.class), any(String.class))).thenReturn(new Prompt(""));
+        when(chatOrchestrator.generateStreamingChatResponse(any(Prompt.class)))
+                .thenReturn(Flux.<String>never().doOnCancel(() -> responseCancelled.set(true)));
+        when(moodStateHolder.getPadState()).thenReturn(new PadState());
+        when(moodVoiceMapper.mapToVoice(any(PadState.class))).thenReturn(new MoodVoiceMapper.VoiceParams(1.0f, 0.6f, 0.8f));
+        orchestrator.dispatch(new Event<>(EventType.WAKEWORD, "raconte-moi une longue histoire", "test"));
+
+        // When : l'utilisateur parle par-dessus la réponse
+        orchestrator.dispatch(new Event<Void>(EventType.BARGE_IN, EventPriority.HIGH, null, "WakeWordProducer"));
+
+        // Then
+        assertTrue(responseCancelled.get(), "Le flux LLM doit être annulé");
+        verify(piperEmbeddedTTSModule, times(2)).cancelAll();
+    }
+
+    @Test
+    void dispatch_AlertEvent_ShouldPreemptSpeech() {
+        // Given
+        Event<String> alertEvent = new Event<>(EventType.ALERT, "Alerte : fuite d'eau détectée", "test");
+
+        // When
+        orchestrator.dispatch(alertEvent);
+
+        // Then
+        verify(wakeWordProducer).suspend();
+        verify(piperEmbeddedTTSModule).preempt(eq("Alerte : fuite d'eau détectée"), any(Runnable.class));
+    }
+
+    @Test
+    void dispatch_AlertEventDuringSpeech_ShouldKeepMicSuspendedUntilAlertEnds() {
+        // Given : une réponse en file, dont les callbacks d'annulation sont exécutés comme par le vrai module
+        List<Runnable> cancelCallbacks = new ArrayList<>();
+        AtomicReference<Runnable> alertDone = new AtomicReference<>();
+        doAnswer(invocation -> {
+            cancelCallbacks.add(invocation.getArgument(1));
+            return null;
+        }).when(piperEmbeddedTTSModule).afterPlayback(any(), any());
+        doAnswer(invocation -> {
+            cancelCallbacks.add(invocation.getArgument(5));
+            return null;
+        }).when(piperEmbeddedTTSModule).speakAsync(any(String.class), anyFloat(), anyFloat(), anyFloat(), any(), any());
+        doAnswer(invocation -> {
+            cancelCallbacks.stream().filter(Objects::nonNull).forEach(Runnable::run);
+            alertDone.set(invocation.getArgument(1));
+            return null;
+        }).when(piperEmbeddedTTSModule).preempt(any(String.class), any(Runnable.class));
+        when(promptBuilder.buildConversationnalPrompt(any(ConversationContext.class), any(String.class))).thenReturn(new Prompt(""));
+        when(chatOrchestrator.generateStreamingChatResponse(any(Prompt.class))).thenReturn(Flux.just("Voici une longue réponse."));
+        when(moodStateHolder.getPadState()).thenReturn(new PadState());
+        when(moodVoiceMapper.mapToVoice(any(PadState.class))).thenReturn(new MoodVoiceMapper.VoiceParams(1.0f, 0.6f, 0.8f));
+        orchestrator.dispatch(new Event<>(EventType.WAKEWORD, "raconte-moi une histoire", "test"));
+
+        // When : l'alerte coupe la réponse
+        orchestrator.dispatch(new Event<>(EventType.ALERT, "Alerte : fumée détectée", "test"));
+
+        // Then : le micro n'est pas réarmé par la réponse interrompue
+        verify(wakeWordProducer, times(2)).suspend();
+        verify(wakeWordProducer, never()).openConversationWindow(anyInt());
+        verify(wakeWordProducer, never()).resumeDetection();
+
+        // When : l'alerte a été entièrement jouée
+        alertDone.get().run();
+
+        // Then
+        verify(wakeWordProducer).resumeDetection();
+        verify(wakeWordProducer, never()).openConversationWindow(anyInt());
+    }
+
     @Test
     void dispatch_InitiativeEvent_ShouldProcessInitiative() {
         // Given
@@ -213,6 +322,33 @@ class OrchestratorTest {
         verify(piperEmbeddedTTSModule).speakAsync("Rappel : Appeler le dentiste");
         verify(executionHistoryService).recordExecution(action, "Rappel : Appeler le dentiste", true);
         verify(plannedActionService).markCompleted(action);
+        verify(eventQueue).acknowledge(plannedActionEvent);
+    }
+
+    @Test
+    void dispatch_PlannedActionEvent_WhenInterruptedByShutdown_ShouldNotCompleteNorAcknowledge() {
+        // Given : l'arrêt interrompt la voie pendant l'exécution de l'action
+        PlannedActionEntry action = new PlannedActionEntry();
+        action.setLabel("Appeler le dentiste");
+        action.setActionType(ActionType.TODO);
+        Event<PlannedActionEntry> plannedActionEvent = new Event<>(EventType.PLANNED_ACTION, action, "test");
+        when(plannedActionExecutor.execute(action)).thenAnswer(invocation -> {
+            Thread.currentThread().interrupt();
+            return "Rappel : Appeler le dentiste";
+        });
+
+        try {
+            // When
+            orchestrator.dispatch(plannedActionEvent);
+
+            // Then : résultat non prononcé, l'action reste active et l'événement sera rejoué
+            verify(piperEmbeddedTTSModule, never()).speakAsync(any(String.class));
+            verify(executionHistoryService, never()).recordExecution(any(), any(), anyBoolean());
+            verify(plannedActionService, never()).markCompleted(any());
+            verify(eventQueue, never()).acknowledge(any());
+        } finally {
+            Thread.interrupted();
+        }
     }
 
     @Test
@@ -376,4 +512,59 @@ class OrchestratorTest {
         verify(llmClient, never()).generateToollessResponse(any());
         verify(plannedActionExecutor, never()).execute(any());
     }
+
+    @Test
+    void start_WakeWordEvent_ShouldNotWaitBehindBackgroundAction() throws Exception {
+        // Given : une action planifiée qui occupe la voie de fond
+        PlannedActionEntry action = new PlannedActionEntry();
+        action.setLabel("Plan en plusieurs étapes");
+        action.setActionType(ActionType.TODO);
+        CountDownLatch actionRunning = new CountDownLatch(1);
+        CountDownLatch releaseAction = new CountDownLatch(1);
+        when(plannedActionExecutor.execute(action)).thenAnswer(invocation -> {
+            actionRunning.countDown();
+            releaseAction.await();
+            return "Terminé";
+        });
+        CountDownLatch queryProcessed = new CountDownLatch(1);
+        when(moodStateHolder.getPadState()).thenReturn(new PadState());
+        when(moodVoiceMapper.mapToVoice(any(PadState.class))).thenReturn(new MoodVoiceMapper.VoiceParams(1.0f, 0.6f, 0.8f));
+        when(promptBuilder.buildConversationnalPrompt(any(), any())).thenAnswer(invocation -> {
+            queryProcessed.countDown();
+            return new Prompt("");
+        });
+        when(chatOrchestrator.generateStreamingChatResponse(any(Prompt.class))).thenReturn(Flux.empty());
+        // Fin de lecture immédiate : le tour de l'utilisateur rend le haut-parleur
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(piperEmbeddedTTSModule).afterPlayback(any());
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(piperEmbeddedTTSModule).afterPlayback(any(), any());
+        when(eventQueue.poll(anyLong()))
+                .thenReturn(new Event<>(EventType.PLANNED_ACTION, action, "test"))
+                .thenReturn(new Event<>(EventType.WAKEWORD, EventPriority.HIGH, "quelle heure est-il", "test"))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(10);
+                    return null;
+                });
+        Thread loop = new Thread(orchestrator::start);
+
+        // When
+        loop.start();
+
+        // Then : la requête est traitée alors que l'action tourne encore
+        try {
+            assertTrue(actionRunning.await(2, TimeUnit.SECONDS));
+            assertTrue(queryProcessed.await(2, TimeUnit.SECONDS), "La requête ne doit pas attendre l'action planifiée");
+            releaseAction.countDown();
+            verify(piperEmbeddedTTSModule, timeout(1000)).speakAsync("Terminé");
+        } finally {
+            releaseAction.countDown();
+            orchestrator.stop();
+            loop.join(2000);
+        }
+    }
 }
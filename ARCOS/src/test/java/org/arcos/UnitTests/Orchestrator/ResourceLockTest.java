@@ -0,0 +1,94 @@
+package org.arcos.UnitTests.Orchestrator;
+
+import org.arcos.EventBus.Events.EventType;
+import org.arcos.Orchestrator.DispatchLane;
+import org.arcos.Orchestrator.ResourceLock;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceLockTest {
+
+    @Test
+    void seize_ShouldTakeResourceFromBackgroundWithoutWaiting() {
+        // Given
+        ResourceLock speaker = new ResourceLock("haut-parleur");
+        speaker.seize(DispatchLane.BACKGROUND);
+
+        // When
+        DispatchLane previous = speaker.seize(DispatchLane.INTERACTIVE);
+
+        // Then
+        assertEquals(DispatchLane.BACKGROUND, previous);
+        assertTrue(speaker.isHeldBy(DispatchLane.INTERACTIVE));
+    }
+
+    @Test
+    void release_ByDispossessedLane_ShouldBeIgnored() {
+        // Given
+        ResourceLock speaker = new ResourceLock("haut-parleur");
+        speaker.seize(DispatchLane.BACKGROUND);
+        speaker.seize(DispatchLane.INTERACTIVE);
+
+        // When : fin de lecture de la parole de fond, coupée entre-temps
+        boolean released = speaker.release(DispatchLane.BACKGROUND);
+
+        // Then
+        assertFalse(released);
+        assertTrue(speaker.isHeldBy(DispatchLane.INTERACTIVE));
+    }
+
+    @Test
+    void acquire_ShouldWaitUntilInteractiveLaneReleases() throws Exception {
+        // Given
+        ResourceLock speaker = new ResourceLock("haut-parleur");
+        speaker.seize(DispatchLane.INTERACTIVE);
+        AtomicBoolean acquired = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread background = new Thread(() -> {
+            try {
+                acquired.set(speaker.acquire(DispatchLane.BACKGROUND, 2, TimeUnit.SECONDS));
+            } catch (InterruptedException ignored) {
+            }
+            done.countDown();
+        });
+        background.start();
+
+        // When
+        assertFalse(done.await(100, TimeUnit.MILLISECONDS), "La tâche de fond doit attendre");
+        speaker.release(DispatchLane.INTERACTIVE);
+
+        // Then
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertTrue(acquired.get());
+        assertTrue(speaker.isHeldBy(DispatchLane.BACKGROUND));
+    }
+
+    @Test
+    void acquire_WhenStillHeld_ShouldTimeOut() throws Exception {
+        // Given
+        ResourceLock mic = new ResourceLock("micro");
+        mic.seize(DispatchLane.INTERACTIVE);
+
+        // When
+        boolean acquired = mic.acquire(DispatchLane.BACKGROUND, 50, TimeUnit.MILLISECONDS);
+
+        // Then
+        assertFalse(acquired);
+        assertTrue(mic.isHeldBy(DispatchLane.INTERACTIVE));
+    }
+
+    @Test
+    void dispatchLane_ShouldRouteLongRunningWorkToBackground() {
+        assertEquals(DispatchLane.BACKGROUND, DispatchLane.of(EventType.PLANNED_ACTION));
+        assertEquals(DispatchLane.BACKGROUND, DispatchLane.of(EventType.INITIATIVE));
+        assertEquals(DispatchLane.BACKGROUND, DispatchLane.of(EventType.CALENDAR_EVENT_SCHEDULER));
+        assertEquals(DispatchLane.INTERACTIVE, DispatchLane.of(EventType.WAKEWORD));
+        assertEquals(DispatchLane.INTERACTIVE, DispatchLane.of(EventType.BARGE_IN));
+        assertEquals(DispatchLane.INTERACTIVE, DispatchLane.of(EventType.ALERT));
+    }
+}
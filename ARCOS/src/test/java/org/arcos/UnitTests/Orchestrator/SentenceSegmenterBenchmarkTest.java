@@ -0,0 +1,110 @@
+package org.arcos.UnitTests.Orchestrator;
+
+import org.arcos.Orchestrator.SentenceSegmenter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Micro-benchmark du segmenteur incrémental face à l'ancien {@code findSentenceEnd}
+ * (toString + indexOf à chaque chunk). Exclu du build par défaut :
+ * {@code mvn test -Dgroups=benchmark -DexcludedGroups=}
+ */
+@Tag("benchmark")
+class SentenceSegmenterBenchmarkTest {
+
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    @Test
+    void segmenter_shouldBeFasterThanLegacyScan_onLongUnpunctuatedAnswer() {
+        // Given : une réponse longue avec peu de fins de phrase, livrée en chunks de 4 caractères
+        List<String> chunks = chunk(longAnswer(), 4);
+
+        // When
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            runLegacy(chunks);
+            runSegmenter(chunks);
+        }
+        long legacyNanos = 0;
+        long segmenterNanos = 0;
+        int legacySentences = 0;
+        int segmenterSentences = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            legacySentences = runLegacy(chunks);
+            legacyNanos += System.nanoTime() - start;
+            start = System.nanoTime();
+            segmenterSentences = runSegmenter(chunks);
+            segmenterNanos += System.nanoTime() - start;
+        }
+
+        // Then
+        System.out.printf("findSentenceEnd : %d µs/réponse, SentenceSegmenter : %d µs/réponse (%d chunks)%n",
+                legacyNanos / MEASURED_ROUNDS / 1000, segmenterNanos / MEASURED_ROUNDS / 1000, chunks.size());
+        assertEquals(legacySentences, segmenterSentences);
+        assertTrue(segmenterNanos < legacyNanos, "Le segmenteur incrémental devrait être plus rapide");
+    }
+
+    private static int runSegmenter(List<String> chunks) {
+        SentenceSegmenter segmenter = new SentenceSegmenter(0, 0);
+        int count = 0;
+        for (String chunk : chunks) {
+            count += segmenter.append(chunk).size();
+        }
+        if (!segmenter.flush().isBlank()) count++;
+        return count;
+    }
+
+    /** Copie de l'ancienne boucle de {@code Orchestrator.generateFluxAndSpeak}. */
+    private static int runLegacy(List<String> chunks) {
+        StringBuilder sentenceBuffer = new StringBuilder();
+        int count = 0;
+        for (String chunk : chunks) {
+            sentenceBuffer.append(chunk);
+            int punctuationIndex;
+            while ((punctuationIndex = findSentenceEnd(sentenceBuffer)) != -1) {
+                sentenceBuffer.substring(0, punctuationIndex + 1);
+                sentenceBuffer.delete(0, punctuationIndex + 1);
+                count++;
+            }
+        }
+        if (sentenceBuffer.length() > 0 && !sentenceBuffer.toString().isBlank()) count++;
+        return count;
+    }
+
+    private static int findSentenceEnd(StringBuilder sb) {
+        String text = sb.toString();
+        int dot = text.indexOf(".");
+        int query = text.indexOf("?");
+        int exclam = text.indexOf("!");
+        int minIndex = -1;
+        if (dot != -1) minIndex = dot;
+        if (query != -1 && (minIndex == -1 || query < minIndex)) minIndex = query;
+        if (exclam != -1 && (minIndex == -1 || exclam < minIndex)) minIndex = exclam;
+        return minIndex;
+    }
+
+    private static String longAnswer() {
+        StringBuilder sb = new StringBuilder();
+        for (int paragraph = 0; paragraph < 10; paragraph++) {
+            for (int i = 0; i < 60; i++) {
+                sb.append("voici un élément de la liste numéro ").append(i).append(", ");
+            }
+            sb.append("fin du paragraphe. ");
+        }
+        return sb.toString();
+    }
+
+    private static List<String> chunk(String text, int size) {
+        List<String> chunks = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += size) {
+            chunks.add(text.substring(i, Math.min(text.length(), i + size)));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,143 @@
+package org.arcos.UnitTests.Orchestrator;
+
+import org.arcos.Orchestrator.SentenceSegmenter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SentenceSegmenterTest {
+
+    private static List<String> segment(SentenceSegmenter segmenter, String... chunks) {
+        List<String> segments = new ArrayList<>();
+        for (String chunk : chunks) {
+            segmenter.append(chunk).forEach(s -> segments.add(s.trim()));
+        }
+        String rest = segmenter.flush();
+        if (!rest.isBlank()) segments.add(rest.trim());
+        return segments;
+    }
+
+    private static List<String> segmentWithoutEarlyFlush(String... chunks) {
+        return segment(new SentenceSegmenter(0, 0), chunks);
+    }
+
+    @Test
+    void append_shouldSplitOnTerminators_acrossChunks() {
+        // When
+        List<String> segments = segmentWithoutEarlyFlush("Bonjour. Comm", "ent allez-", "vous ? Très ", "bien !");
+
+        // Then
+        assertEquals(List.of("Bonjour.", "Comment allez-vous ?", "Très bien !"), segments);
+    }
+
+    @Test
+    void append_shouldWaitForNextCharacter_beforeClosingSentence() {
+        // Given
+        SentenceSegmenter segmenter = new SentenceSegmenter(0, 0);
+
+        // When : le point peut encore être celui d'un décimal
+        List<String> first = segmenter.append("Il fait 3.");
+        List<String> second = segmenter.append("5 degrés. Et");
+
+        // Then
+        assertTrue(first.isEmpty());
+        assertEquals(List.of("Il fait 3.5 degrés."), second);
+    }
+
+    @Test
+    void append_shouldNotSplitOnTitlesAndInitials() {
+        // When
+        List<String> segments = segmentWithoutEarlyFlush("M. Dupont et Mme Martin ont vu le Dr. House avec J. Durand. Fin.");
+
+        // Then
+        assertEquals(List.of("M. Dupont et Mme Martin ont vu le Dr. House avec J. Durand.", "Fin."), segments);
+    }
+
+    @Test
+    void append_shouldSplitAfterAbbreviation_onlyBeforeUppercase() {
+        // When
+        List<String> segments = segmentWithoutEarlyFlush("Des pommes, poires, etc. pour le dessert, cf. page deux, etc. Ensuite on part.");
+
+        // Then
+        assertEquals(List.of("Des pommes, poires, etc. pour le dessert, cf. page deux, etc.", "Ensuite on part."), segments);
+    }
+
+    @Test
+    void append_shouldKeepListNumbers_withTheirItem() {
+        // When : "1." en tête de segment ou de ligne est un numéro, pas une phrase
+        List<String> segments = segmentWithoutEarlyFlush("1. Premier point.\n2. Deuxième point.\n", "10. Dernier. Il a 10. Puis fin.");
+
+        // Then
+        assertEquals(List.of("1. Premier point.", "2. Deuxième point.", "10. Dernier.", "Il a 10.", "Puis fin."), segments);
+    }
+
+    @Test
+    void append_shouldKeepEllipsisAndClosingQuotes_withSentence() {
+        // When
+        List<String> segments = segmentWithoutEarlyFlush("Il a dit « non ! » Puis... silence. **Vraiment ?!** Oui.");
+
+        // Then
+        assertEquals(List.of("Il a dit « non ! »", "Puis...", "silence.", "**Vraiment ?!**", "Oui."), segments);
+    }
+
+    @Test
+    void append_shouldNotSplitUrlsOrLowercaseSentenceEndWords() {
+        // When
+        List<String> segments = segmentWithoutEarlyFlush("Va sur www.exemple.fr pour voir. Il en a. Voilà.");
+
+        // Then
+        assertEquals(List.of("Va sur www.exemple.fr pour voir.", "Il en a.", "Voilà."), segments);
+    }
+
+    @Test
+    void append_shouldEmitFirstClauseEarly_onComma() {
+        // Given
+        SentenceSegmenter segmenter = new SentenceSegmenter(20, 90);
+
+        // When
+        List<String> segments = segment(segmenter, "Bien sûr, la réunion de demain", " est déplacée à 15 h, ", "salle 12. Autre chose, ", "sans coupure.");
+
+        // Then : seule la première proposition (après 20 caractères) est détachée
+        assertEquals(List.of("Bien sûr, la réunion de demain est déplacée à 15 h,", "salle 12.", "Autre chose, sans coupure."), segments);
+    }
+
+    @Test
+    void append_shouldNotEarlyFlushOnDecimalComma() {
+        // When
+        List<String> segments = segment(new SentenceSegmenter(5, 0), "Il reste 12,5 litres dans le réservoir.");
+
+        // Then
+        assertEquals(List.of("Il reste 12,5 litres dans le réservoir."), segments);
+    }
+
+    @Test
+    void append_shouldCutLongFirstSentence_atLastSpace() {
+        // Given
+        SentenceSegmenter segmenter = new SentenceSegmenter(10, 40);
+
+        // When
+        List<String> first = segmenter.append("Voici une très longue phrase sans aucune ponctuation qui");
+
+        // Then
+        assertEquals(1, first.size());
+        assertEquals("Voici une très longue phrase sans aucune ponctuation", first.get(0));
+        assertEquals(1, segmenter.getEmittedCount());
+    }
+
+    @Test
+    void flush_shouldReturnRemainder_andResetBuffer() {
+        // Given
+        SentenceSegmenter segmenter = new SentenceSegmenter();
+        segmenter.append("Reste sans ponctuation");
+
+        // When
+        String rest = segmenter.flush();
+
+        // Then
+        assertEquals("Reste sans ponctuation", rest);
+        assertEquals("", segmenter.flush());
+    }
+}
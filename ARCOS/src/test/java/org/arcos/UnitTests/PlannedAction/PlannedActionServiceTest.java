@@ -168,4 +168,19 @@ class PlannedActionServiceTest {
         verify(llmClient, times(3)).generatePlannedActionPlanResponse(any(Prompt.class));
         verify(repository).save(entry);
     }
+
+    @Test
+    void isInactive_ShouldBeTrueOnlyForCompletedCancelledOrDeletedActions() {
+        // Given
+        PlannedActionEntry active = ObjectCreationUtils.createSimpleReminderEntry();
+        PlannedActionEntry completed = ObjectCreationUtils.createSimpleReminderEntry();
+        completed.setStatus(ActionStatus.COMPLETED);
+        when(repository.findById(active.getId())).thenReturn(active);
+        when(repository.findById(completed.getId())).thenReturn(completed);
+
+        // When / Then
+        assertFalse(service.isInactive(active.getId()));
+        assertTrue(service.isInactive(completed.getId()));
+        assertTrue(service.isInactive("deleted-id"));
+    }
 }
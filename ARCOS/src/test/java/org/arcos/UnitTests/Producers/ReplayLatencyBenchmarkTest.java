@@ -0,0 +1,249 @@
+package org.arcos.UnitTests.Producers;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.arcos.Configuration.AudioProperties;
+import org.arcos.Configuration.SpeechToTextProperties;
+import org.arcos.Configuration.TtsProperties;
+import org.arcos.Configuration.VadProperties;
+import org.arcos.EventBus.EventQueue;
+import org.arcos.IO.InputHandling.WavFileMicrophoneSource;
+import org.arcos.IO.OuputHandling.PiperEmbeddedTTSModule;
+import org.arcos.IO.OuputHandling.StateHandler.AudioCue.AudioCueFeedbackHandler;
+import org.arcos.IO.OuputHandling.StateHandler.CentralFeedBackHandler;
+import org.arcos.LLM.Client.ChatOrchestrator;
+import org.arcos.LLM.Client.LLMClient;
+import org.arcos.LLM.Prompts.PromptBuilder;
+import org.arcos.Memory.ConversationContext;
+import org.arcos.Memory.ConversationSummaryService;
+import org.arcos.Memory.LongTermMemory.service.MemoryService;
+import org.arcos.Orchestrator.LatencyTimeline.Stage;
+import org.arcos.Orchestrator.LatencyTimeline.Turn;
+import org.arcos.Orchestrator.Orchestrator;
+import org.arcos.Personality.Desires.DesireService;
+import org.arcos.Personality.Initiative.InitiativeService;
+import org.arcos.Personality.Mood.MoodService;
+import org.arcos.Personality.Mood.MoodStateHolder;
+import org.arcos.Personality.Mood.MoodVoiceMapper;
+import org.arcos.Personality.PersonalityOrchestrator;
+import org.arcos.PlannedAction.ExecutionHistoryService;
+import org.arcos.PlannedAction.PlannedActionExecutor;
+import org.arcos.PlannedAction.PlannedActionService;
+import org.arcos.Producers.WakeWordProducer;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Latence de bout en bout sur des sessions enregistrées, sans micro ni haut-parleur. Chaque WAV du corpus
+ * (mot de réveil puis requête) est rejoué en temps réel dans le vrai WakeWordProducer (Porcupine, VAD,
+ * SttGate) ; l'Orchestrator diffuse la réponse et Piper la synthétise dans un fichier WAV au rythme de la
+ * lecture. Le STT et le LLM sont des substituts locaux à délai fixe : un serveur compatible faster-whisper
+ * qui renvoie la transcription de référence ({@code .txt} à côté du WAV) et un flux de tokens à débit
+ * constant. Les écarts entre deux mesures viennent donc du code d'ARCOS et de la synthèse.
+ * <p>
+ * Par session : mot de réveil (depuis le début de la session), fin de parole (depuis le mot de réveil,
+ * silence de fin compris), transcription, premier token, premier son, et le total fin de parole → premier son.
+ * Exclu du build par défaut :
+ * {@code PORCUPINE_ACCESS_KEY=... mvn test -Dgroups=benchmark -DexcludedGroups= -Darcos.replay.corpus=<répertoire de WAV>}
+ * <br>
+ * Options : {@code -Darcos.replay.stt-delay-ms} (200), {@code -Darcos.replay.first-token-ms} (400),
+ * {@code -Darcos.replay.token-interval-ms} (30), {@code -Darcos.replay.output} (target/replay-tts.wav).
+ */
+@Tag("benchmark")
+class ReplayLatencyBenchmarkTest {
+
+    private static final Path CORPUS = Path.of(System.getProperty("arcos.replay.corpus", "replay-corpus"));
+    private static final Path OUTPUT = Path.of(System.getProperty("arcos.replay.output", "target/replay-tts.wav"));
+    private static final long STT_DELAY_MS = Long.getLong("arcos.replay.stt-delay-ms", 200);
+    private static final long FIRST_TOKEN_MS = Long.getLong("arcos.replay.first-token-ms", 400);
+    private static final long TOKEN_INTERVAL_MS = Long.getLong("arcos.replay.token-interval-ms", 30);
+    /** Silence entre deux sessions : assez long pour que la réponse précédente soit entièrement jouée. */
+    private static final int GAP_MS = 8000;
+    private static final String DEFAULT_TRANSCRIPT = "Quelle heure est-il ?";
+    private static final String ANSWER = "Il est quinze heures vingt. Tu as rendez-vous chez le dentiste à seize heures, "
+            + "pense à partir un peu en avance.";
+    private static final String[] COLUMNS = {"wake", "speech", "stt", "llm", "tts", "total"};
+
+    @Test
+    void wakeToAnswer_ShouldBeMeasuredPerStageOnReplayedSessions() throws Exception {
+        // Given
+        Assumptions.assumeTrue(Files.isDirectory(CORPUS), "corpus absent : " + CORPUS);
+        String accessKey = System.getenv("PORCUPINE_ACCESS_KEY");
+        Assumptions.assumeTrue(accessKey != null && !accessKey.isBlank(), "PORCUPINE_ACCESS_KEY absente");
+        WavFileMicrophoneSource source = WavFileMicrophoneSource.open(CORPUS, 1.0, GAP_MS);
+        List<Path> sessions = source.getSessions();
+        Assumptions.assumeFalse(sessions.isEmpty(), "aucun WAV dans " + CORPUS);
+
+        AtomicInteger currentSession = new AtomicInteger(-1);
+        long[] sessionStarts = new long[sessions.size()];
+        source.setSessionListener((index, file) -> {
+            sessionStarts[index] = System.nanoTime();
+            currentSession.set(index);
+        });
+        StandInStt stt = new StandInStt(() -> transcriptOf(sessions.get(Math.max(0, currentSession.get()))));
+
+        AudioProperties audio = new AudioProperties();
+        audio.setMultiTurnEnabled(false); // chaque session commence par le mot de réveil
+        SpeechToTextProperties sttProps = new SpeechToTextProperties();
+        sttProps.setFasterWhisperUrl(stt.url());
+        sttProps.setStreamingEnabled(false); // le substitut renvoie l'énoncé entier, pas une fenêtre
+        EventQueue queue = new EventQueue();
+        WakeWordProducer producer = new WakeWordProducer(queue, mock(CentralFeedBackHandler.class),
+                mock(AudioCueFeedbackHandler.class), audio, sttProps, new VadProperties());
+        producer.useMicrophoneSource(source);
+
+        Map<Integer, Turn> turns = new ConcurrentHashMap<>();
+        producer.getLatencyTimeline().addListener(turn -> turns.put(currentSession.get(), turn));
+
+        TtsProperties tts = new TtsProperties();
+        tts.setOutputFile(OUTPUT.toString());
+        tts.setCacheEnabled(false); // chaque réponse est réellement synthétisée
+        Orchestrator orchestrator = orchestrator(queue, producer, audio, tts);
+        PiperEmbeddedTTSModule ttsModule = (PiperEmbeddedTTSModule) ReflectionTestUtils.getField(orchestrator, "ttsHandler");
+        Thread loop = new Thread(orchestrator::start, "orchestrator");
+        loop.setDaemon(true);
+
+        try {
+            Assumptions.assumeTrue(ttsModule.isEnabled(), "Piper indisponible");
+            producer.startAfterStartup();
+            Thread listening = (Thread) ReflectionTestUtils.getField(producer, "wakeWordThread");
+            Assumptions.assumeTrue(listening != null, "Porcupine non initialisé");
+            loop.start();
+
+            // When : la capture s'arrête à la fin du dernier silence
+            listening.join(sessions.size() * 120_000L);
+
+            // Then
+            report(sessions, sessionStarts, turns);
+            assertThat(turns).isNotEmpty();
+        } finally {
+            orchestrator.stop();
+            producer.shutdown();
+            loop.interrupt();
+            stt.stop();
+        }
+    }
+
+    private static Orchestrator orchestrator(EventQueue queue, WakeWordProducer producer, AudioProperties audio,
+                                             TtsProperties tts) {
+        // Substitut LLM : premier token après FIRST_TOKEN_MS, puis un mot toutes les TOKEN_INTERVAL_MS
+        ChatOrchestrator chat = mock(ChatOrchestrator.class);
+        when(chat.generateStreamingChatResponse(any())).thenAnswer(invocation ->
+                Flux.fromArray(ANSWER.split("(?<= )"))
+                        .delayElements(Duration.ofMillis(TOKEN_INTERVAL_MS))
+                        .delaySubscription(Duration.ofMillis(Math.max(0, FIRST_TOKEN_MS - TOKEN_INTERVAL_MS))));
+        MoodVoiceMapper voiceMapper = mock(MoodVoiceMapper.class);
+        when(voiceMapper.mapToVoice(any())).thenReturn(new MoodVoiceMapper.VoiceParams(1.0f, 0.667f, 0.8f));
+        return new Orchestrator(mock(CentralFeedBackHandler.class), mock(PersonalityOrchestrator.class), queue,
+                mock(LLMClient.class), chat, mock(PromptBuilder.class), mock(ConversationContext.class),
+                mock(MemoryService.class), mock(InitiativeService.class), mock(DesireService.class),
+                mock(MoodService.class), mock(MoodStateHolder.class), voiceMapper, mock(PlannedActionExecutor.class),
+                mock(PlannedActionService.class), mock(ExecutionHistoryService.class), producer, audio, tts,
+                mock(ConversationSummaryService.class), null, null, null, null);
+    }
+
+    private static void report(List<Path> sessions, long[] sessionStarts, Map<Integer, Turn> turns) {
+        List<List<Long>> columns = new ArrayList<>();
+        for (int c = 0; c < COLUMNS.length; c++) columns.add(new ArrayList<>());
+
+        System.out.printf("%-30s %8s %8s %8s %8s %8s %8s%n", "session (ms)", (Object[]) COLUMNS);
+        for (int i = 0; i < sessions.size(); i++) {
+            Turn turn = turns.get(i);
+            if (turn == null) {
+                System.out.printf("%-30s pas de réponse (mot de réveil manqué ?)%n", sessions.get(i).getFileName());
+                continue;
+            }
+            long[] values = {
+                    turn.has(Stage.WAKE) ? (turn.nanosAt(Stage.WAKE) - sessionStarts[i]) / 1_000_000 : -1,
+                    turn.millisBetween(Stage.WAKE, Stage.END_OF_SPEECH),
+                    turn.millisBetween(Stage.END_OF_SPEECH, Stage.TRANSCRIPT),
+                    turn.millisBetween(Stage.TRANSCRIPT, Stage.FIRST_TOKEN),
+                    turn.millisBetween(Stage.FIRST_TOKEN, Stage.FIRST_AUDIO),
+                    turn.millisBetween(Stage.END_OF_SPEECH, Stage.FIRST_AUDIO)
+            };
+            for (int c = 0; c < values.length; c++) {
+                if (values[c] >= 0) columns.get(c).add(values[c]);
+            }
+            System.out.printf("%-30s %8d %8d %8d %8d %8d %8d%n", sessions.get(i).getFileName(),
+                    values[0], values[1], values[2], values[3], values[4], values[5]);
+        }
+        System.out.printf("%-30s %8d %8d %8d %8d %8d %8d%n", "médiane",
+                percentile(columns.get(0), 0.5), percentile(columns.get(1), 0.5), percentile(columns.get(2), 0.5),
+                percentile(columns.get(3), 0.5), percentile(columns.get(4), 0.5), percentile(columns.get(5), 0.5));
+        System.out.printf("%-30s %8d %8d %8d %8d %8d %8d%n", "p95",
+                percentile(columns.get(0), 0.95), percentile(columns.get(1), 0.95), percentile(columns.get(2), 0.95),
+                percentile(columns.get(3), 0.95), percentile(columns.get(4), 0.95), percentile(columns.get(5), 0.95));
+        System.out.printf("%d/%d sessions mesurées, réponses enregistrées dans %s%n", turns.size(), sessions.size(),
+                OUTPUT.toAbsolutePath());
+    }
+
+    private static long percentile(List<Long> values, double p) {
+        if (values.isEmpty()) return -1;
+        List<Long> sorted = values.stream().sorted().toList();
+        return sorted.get(Math.min(sorted.size() - 1, (int) Math.ceil(p * sorted.size()) - 1));
+    }
+
+    private static String transcriptOf(Path wav) {
+        Path reference = Path.of(wav.toString().replaceFirst("\\.wav$", ".txt"));
+        try {
+            return Files.exists(reference) ? Files.readString(reference).trim() : DEFAULT_TRANSCRIPT;
+        } catch (IOException e) {
+            return DEFAULT_TRANSCRIPT;
+        }
+    }
+
+    /** Substitut faster-whisper : renvoie la transcription de la session en cours après un délai fixe. */
+    private static final class StandInStt {
+        private final HttpServer server;
+
+        StandInStt(Supplier<String> transcript) throws IOException {
+            this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/v1/audio/transcriptions", exchange -> handle(exchange, transcript.get()));
+            server.start();
+        }
+
+        String url() {
+            return "http://127.0.0.1:" + server.getAddress().getPort();
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+
+        private static void handle(HttpExchange exchange, String text) throws IOException {
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(STT_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] response = ("{\"text\":\"" + text.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        }
+    }
+}
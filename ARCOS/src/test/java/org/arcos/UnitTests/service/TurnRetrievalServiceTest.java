@@ -0,0 +1,157 @@
+package org.arcos.UnitTests.service;
+
+import org.arcos.Memory.LongTermMemory.Repositories.MemoryRepository;
+import org.arcos.Memory.LongTermMemory.Repositories.OpinionRepository;
+import org.arcos.Memory.LongTermMemory.service.TurnRetrieval;
+import org.arcos.Memory.LongTermMemory.service.TurnRetrievalService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TurnRetrievalServiceTest {
+
+    private static final float[] VECTOR = {0.1f, 0.2f, 0.3f};
+
+    @Mock
+    private EmbeddingModel embeddingModel;
+
+    @Mock
+    private MemoryRepository memoryRepository;
+
+    @Mock
+    private OpinionRepository opinionRepository;
+
+    private TurnRetrievalService turnRetrievalService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(embeddingModel.embed(any(String.class))).thenReturn(VECTOR);
+        when(memoryRepository.getCollectionName()).thenReturn("Memories");
+        when(opinionRepository.getCollectionName()).thenReturn("Opinions");
+        when(memoryRepository.searchByVector(any(), anyInt())).thenAnswer(inv -> documents("m", inv.getArgument(1)));
+        when(opinionRepository.searchByVector(any(), anyInt())).thenAnswer(inv -> documents("o", inv.getArgument(1)));
+        turnRetrievalService = new TurnRetrievalService(embeddingModel);
+    }
+
+    @Test
+    void search_shouldEmbedQueryOnce_acrossCollections() {
+        // Given
+        TurnRetrieval turn = turnRetrievalService.begin("quel temps fait-il ?");
+
+        // When
+        List<Document> memories = turn.search(memoryRepository, 3);
+        List<Document> opinions = turn.search(opinionRepository, 2);
+
+        // Then
+        assertEquals(3, memories.size());
+        assertEquals(2, opinions.size());
+        verify(embeddingModel, times(1)).embed("quel temps fait-il ?");
+        verify(memoryRepository).searchByVector(VECTOR, 3);
+        verify(opinionRepository).searchByVector(VECTOR, 2);
+    }
+
+    @Test
+    void search_shouldReusePrefix_whenSmallerTopKRequested() {
+        // Given
+        TurnRetrieval turn = turnRetrievalService.begin("bonjour");
+        List<Document> top5 = turn.search(memoryRepository, 5);
+
+        // When
+        List<Document> top2 = turn.search(memoryRepository, 2);
+
+        // Then
+        assertEquals(top5.subList(0, 2), top2);
+        verify(memoryRepository, times(1)).searchByVector(any(), anyInt());
+    }
+
+    @Test
+    void search_shouldQueryAgainWithSameVector_whenLargerTopKRequested() {
+        // Given
+        TurnRetrieval turn = turnRetrievalService.begin("bonjour");
+        turn.search(memoryRepository, 2);
+
+        // When
+        List<Document> top5 = turn.search(memoryRepository, 5);
+
+        // Then
+        assertEquals(5, top5.size());
+        verify(memoryRepository).searchByVector(VECTOR, 5);
+        verify(embeddingModel, times(1)).embed(any(String.class));
+    }
+
+    @Test
+    void find_shouldMatchCurrentTurn_ignoringCaseAndWhitespace() {
+        // Given
+        TurnRetrieval turn = turnRetrievalService.begin("Mes souvenirs  de Lyon");
+
+        // Then
+        assertSame(turn, turnRetrievalService.find(" mes souvenirs de lyon ").orElseThrow());
+        assertTrue(turnRetrievalService.find("autre chose").isEmpty());
+    }
+
+    @Test
+    void search_shouldPropagateRepositoryFailure() {
+        // Given
+        when(opinionRepository.searchByVector(eq(VECTOR), anyInt())).thenThrow(new IllegalStateException("qdrant down"));
+        TurnRetrieval turn = turnRetrievalService.begin("test");
+
+        // When / Then
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> turn.search(opinionRepository, 2));
+        assertEquals("qdrant down", e.getMessage());
+    }
+
+    @Test
+    void search_shouldCancelRepositorySearch_whenCallerInterrupted() throws Exception {
+        // Given
+        java.util.concurrent.CountDownLatch started = new java.util.concurrent.CountDownLatch(1);
+        java.util.concurrent.CountDownLatch interrupted = new java.util.concurrent.CountDownLatch(1);
+        when(opinionRepository.searchByVector(any(), anyInt())).thenAnswer(inv -> {
+            started.countDown();
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return List.of();
+        });
+        TurnRetrieval turn = turnRetrievalService.begin("test");
+        java.util.concurrent.atomic.AtomicReference<Throwable> failure = new java.util.concurrent.atomic.AtomicReference<>();
+        Thread caller = new Thread(() -> {
+            try {
+                turn.search(opinionRepository, 2);
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        caller.start();
+        assertTrue(started.await(1, java.util.concurrent.TimeUnit.SECONDS));
+
+        // When
+        caller.interrupt();
+        caller.join(1000);
+
+        // Then : l'appelant rend la main et la recherche Qdrant est interrompue
+        assertFalse(caller.isAlive());
+        assertInstanceOf(java.util.concurrent.CancellationException.class, failure.get());
+        assertTrue(interrupted.await(1, java.util.concurrent.TimeUnit.SECONDS), "La recherche abandonnée doit être interrompue");
+    }
+
+    private static List<Document> documents(String prefix, int count) {
+        return java.util.stream.IntStream.range(0, count)
+                .mapToObj(i -> new Document(prefix + i, "texte " + i, java.util.Map.of()))
+                .toList();
+    }
+}